@@ -0,0 +1,332 @@
+package de.invesdwin.util.collections.loadingcache.historical;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.invesdwin.util.collections.eviction.EvictionMode;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.math.random.RandomGenerators;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+/**
+ * Measures the query paths of AGapHistoricalCache and AIterableGapHistoricalCache against an in memory data source of
+ * minute bars. Run via "java -jar target/benchmarks.jar HistoricalCacheQueryBenchmark -prof gc" to also get allocation
+ * rates per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@NotThreadSafe
+public class HistoricalCacheQueryBenchmark {
+
+    private static final long SEED = 42L;
+
+    @Param
+    private HistoricalCacheType cacheType;
+    @Param
+    private HistoricalCacheQueryCoreType queryCore;
+    @Param
+    private EvictionMode evictionMode;
+    @Param
+    private KeyAccessPattern accessPattern;
+    @Param({ "100", "10000" })
+    private int maximumSize;
+    @Param({ "100000" })
+    private int countBars;
+    @Param({ "10" })
+    private int shiftUnits;
+
+    private FDate[] bars;
+    private List<FDate> barsList;
+    private int[] keyIndexes;
+    private int keyIndex;
+    private AGapHistoricalCache<FDate> cache;
+
+    @Setup(Level.Trial)
+    public void setupTrial() {
+        bars = new FDate[countBars];
+        FDate bar = FDateBuilder.newDate(2000, 1, 1);
+        for (int i = 0; i < bars.length; i++) {
+            bars[i] = bar;
+            bar = bar.addMinutes(1);
+        }
+        barsList = Arrays.asList(bars);
+        keyIndexes = accessPattern.newKeyIndexes(shiftUnits, bars.length - shiftUnits);
+    }
+
+    /**
+     * Each iteration starts with a cold cache so that gap filling and eviction are part of every measurement.
+     */
+    @Setup(Level.Iteration)
+    public void setupIteration() {
+        switch (cacheType) {
+        case Gap:
+            cache = new BenchmarkGapHistoricalCache(0);
+            break;
+        case GapPrefetch:
+            cache = new BenchmarkGapHistoricalCache(1);
+            break;
+        case IterableGap:
+            cache = new BenchmarkIterableGapHistoricalCache();
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown " + HistoricalCacheType.class.getSimpleName() + ": "
+                    + cacheType);
+        }
+        queryCore.apply(cache);
+        keyIndex = 0;
+    }
+
+    private int nextKeyIndex() {
+        final int index = keyIndexes[keyIndex];
+        keyIndex++;
+        if (keyIndex >= keyIndexes.length) {
+            keyIndex = 0;
+        }
+        return index;
+    }
+
+    @Benchmark
+    public void getPreviousEntries(final Blackhole bh) {
+        final FDate key = bars[nextKeyIndex()];
+        consume(bh, cache.query().getPreviousEntries(key, shiftUnits));
+    }
+
+    @Benchmark
+    public void getEntries(final Blackhole bh) {
+        final int index = nextKeyIndex();
+        final FDate from = bars[index - shiftUnits];
+        final FDate to = bars[index];
+        consume(bh, cache.query().getEntries(from, to));
+    }
+
+    @Benchmark
+    public FDate getPreviousValue() {
+        final FDate key = bars[nextKeyIndex()];
+        return cache.query().getPreviousValue(key, shiftUnits);
+    }
+
+    @Benchmark
+    public IHistoricalEntry<FDate> getNextEntry() {
+        final FDate key = bars[nextKeyIndex()];
+        return cache.query().withFuture().getNextEntry(key, shiftUnits);
+    }
+
+    private static <T> void consume(final Blackhole bh, final ICloseableIterable<T> iterable) {
+        try (ICloseableIterator<T> it = iterable.iterator()) {
+            while (true) {
+                bh.consume(it.next());
+            }
+        } catch (final NoSuchElementException e) {
+            //end reached
+        }
+    }
+
+    private static int binarySearchCeiling(final FDate[] keys, final FDate key) {
+        final int index = Arrays.binarySearch(keys, key);
+        if (index >= 0) {
+            return index;
+        } else {
+            return -index - 1;
+        }
+    }
+
+    private static int binarySearchFloor(final FDate[] keys, final FDate key) {
+        final int index = Arrays.binarySearch(keys, key);
+        if (index >= 0) {
+            return index;
+        } else {
+            return -index - 2;
+        }
+    }
+
+    public enum HistoricalCacheType {
+        Gap,
+        /**
+         * Same as Gap but with one batch of further values being prefetched in the background.
+         */
+        GapPrefetch,
+        IterableGap;
+    }
+
+    public enum HistoricalCacheQueryCoreType {
+        Cached {
+            @Override
+            public void apply(final AHistoricalCache<?> cache) {
+                //default
+            }
+        },
+        Trailing {
+            @Override
+            public void apply(final AHistoricalCache<?> cache) {
+                cache.enableTrailingQueryCore();
+            }
+        },
+        ThreadLocal {
+            @Override
+            public void apply(final AHistoricalCache<?> cache) {
+                cache.enableThreadLocalQueryCore();
+            }
+        };
+
+        public abstract void apply(AHistoricalCache<?> cache);
+    }
+
+    public enum KeyAccessPattern {
+        Forward {
+            @Override
+            public int[] newKeyIndexes(final int fromIndex, final int count) {
+                final int[] indexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    indexes[i] = fromIndex + i;
+                }
+                return indexes;
+            }
+        },
+        Backward {
+            @Override
+            public int[] newKeyIndexes(final int fromIndex, final int count) {
+                final int[] indexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    indexes[i] = fromIndex + count - 1 - i;
+                }
+                return indexes;
+            }
+        },
+        Random {
+            @Override
+            public int[] newKeyIndexes(final int fromIndex, final int count) {
+                final RandomGenerator random = RandomGenerators.newDefaultRandom(SEED);
+                final int[] indexes = new int[count];
+                for (int i = 0; i < count; i++) {
+                    indexes[i] = fromIndex + random.nextInt(count);
+                }
+                return indexes;
+            }
+        };
+
+        public abstract int[] newKeyIndexes(int fromIndex, int count);
+    }
+
+    /**
+     * Simulates a paged database that returns at most DEFAULT_RETRIEVAL_COUNT values per query.
+     */
+    @ThreadSafe
+    private final class BenchmarkGapHistoricalCache extends AGapHistoricalCache<FDate> {
+
+        private final int prefetchDepth;
+
+        BenchmarkGapHistoricalCache(final int prefetchDepth) {
+            this.prefetchDepth = prefetchDepth;
+        }
+
+        @Override
+        protected Integer getInitialMaximumSize() {
+            return maximumSize;
+        }
+
+        @Override
+        protected EvictionMode getEvictionMode() {
+            return evictionMode;
+        }
+
+        @Override
+        protected int getPrefetchDepth() {
+            return prefetchDepth;
+        }
+
+        @Override
+        protected Iterable<? extends FDate> readAllValuesAscendingFrom(final FDate key) {
+            final int fromIndex = binarySearchCeiling(bars, key);
+            final int toIndex = Math.min(bars.length, fromIndex + DEFAULT_RETRIEVAL_COUNT);
+            return barsList.subList(Math.min(fromIndex, toIndex), toIndex);
+        }
+
+        @Override
+        protected FDate readLatestValueFor(final FDate key) {
+            final int index = binarySearchFloor(bars, key);
+            if (index < 0) {
+                return bars[0];
+            } else {
+                return bars[index];
+            }
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate value) {
+            return value;
+        }
+
+        @Override
+        protected FDate innerCalculatePreviousKey(final FDate key) {
+            final int index = binarySearchCeiling(bars, key) - 1;
+            if (index < 0) {
+                return key;
+            } else {
+                return bars[index];
+            }
+        }
+
+        @Override
+        protected FDate innerCalculateNextKey(final FDate key) {
+            final int index = binarySearchFloor(bars, key) + 1;
+            if (index >= bars.length) {
+                return key;
+            } else {
+                return bars[index];
+            }
+        }
+
+    }
+
+    @ThreadSafe
+    private final class BenchmarkIterableGapHistoricalCache extends AIterableGapHistoricalCache<FDate> {
+
+        @Override
+        protected Integer getInitialMaximumSize() {
+            return maximumSize;
+        }
+
+        @Override
+        protected EvictionMode getEvictionMode() {
+            return evictionMode;
+        }
+
+        @Override
+        protected Iterable<FDate> createDelegate() {
+            return barsList;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate value) {
+            return value;
+        }
+
+    }
+
+}
@@ -17,6 +17,7 @@ import de.invesdwin.norva.beanpath.impl.object.BeanObjectProcessor;
 import de.invesdwin.norva.beanpath.spi.element.IPropertyBeanPathElement;
 import de.invesdwin.norva.beanpath.spi.visitor.SimpleBeanPathVisitorSupport;
 import de.invesdwin.norva.marker.ISerializableValueObject;
+import de.invesdwin.util.bean.internal.ValueObjectCloner;
 import de.invesdwin.util.bean.internal.ValueObjectMerge;
 import de.invesdwin.util.error.Throwables;
 import de.invesdwin.util.lang.Objects;
@@ -26,7 +27,7 @@ import de.invesdwin.util.lang.Objects;
  * 
  * This class implements toString, hashCode, equals und compareTo methods via reflection.
  * 
- * Clone is done by serialization to ensure deep copies.
+ * Clone creates deep copies by copying the fields directly, only unsupported types are cloned via serialization.
  * 
  * @author subes
  * 
@@ -139,13 +140,13 @@ public abstract class AValueObject extends APropertyChangeSupported
     }
 
     /**
-     * Per convention this creates a deep copy; this default implementation might be a bit slow because of serialization
-     * being used. But on the other hand this reduces development effort by a manifold and optimizations need only be
-     * done where needed.
+     * Per convention this creates a deep copy. Fields are copied directly, value objects, arrays and common collections
+     * are copied recursively and only other mutable types fall back to serialization. Optimizations in subclasses need
+     * only be done where needed.
      */
     @Override
     public AValueObject clone() { //SUPPRESS CHECKSTYLE super.clone()
-        return Objects.deepClone(this);
+        return ValueObjectCloner.deepClone(this);
     }
 
     /**
@@ -0,0 +1,318 @@
+package de.invesdwin.util.bean.internal;
+
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.bean.AValueObject;
+import de.invesdwin.util.collections.loadingcache.ALoadingCache;
+import de.invesdwin.util.lang.Objects;
+import de.invesdwin.util.lang.reflection.UnsafeField;
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.time.Instant;
+import de.invesdwin.util.time.duration.Duration;
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Deep clones value objects without serialization. The field layout of each class is analyzed once: Object.clone()
+ * copies all fields, transient fields are reset like serialization would do and only fields that might hold mutable
+ * values are copied recursively. Value objects, arrays and the common collections are copied directly, other mutable
+ * values and classes with custom serialization hooks fall back to Objects.deepClone.
+ *
+ * Shared references and cycles inside the object graph are preserved, same as with serialization.
+ */
+@ThreadSafe
+public final class ValueObjectCloner {
+
+    private static final ALoadingCache<Class<?>, ValueKind> KINDS = new ALoadingCache<Class<?>, ValueKind>() {
+        @Override
+        protected ValueKind loadValue(final Class<?> key) {
+            return ValueKind.of(key);
+        }
+
+        @Override
+        protected boolean isHighConcurrency() {
+            return true;
+        }
+    };
+
+    private static final ALoadingCache<Class<?>, ValueObjectCloner> CLONERS = new ALoadingCache<Class<?>, ValueObjectCloner>() {
+        @Override
+        protected ValueObjectCloner loadValue(final Class<?> key) {
+            return new ValueObjectCloner(key);
+        }
+
+        @Override
+        protected boolean isHighConcurrency() {
+            return true;
+        }
+    };
+
+    private final boolean serialization;
+    private final UnsafeField<Object>[] transientFields;
+    private final UnsafeField<Object>[] mutableFields;
+
+    @SuppressWarnings("unchecked")
+    private ValueObjectCloner(final Class<?> type) {
+        final List<UnsafeField<Object>> transientFieldsList = new ArrayList<>();
+        final List<UnsafeField<Object>> mutableFieldsList = new ArrayList<>();
+        boolean serializationRequired = false;
+        Class<?> c = type;
+        while (c != null && c != Object.class) {
+            if (hasSerializationHooks(c)) {
+                serializationRequired = true;
+                break;
+            }
+            for (final Field field : c.getDeclaredFields()) {
+                final int modifiers = field.getModifiers();
+                if (Modifier.isStatic(modifiers)) {
+                    continue;
+                }
+                if (Modifier.isTransient(modifiers)) {
+                    if (field.getType().isPrimitive()) {
+                        //can not be reset via an object field
+                        serializationRequired = true;
+                        break;
+                    }
+                    transientFieldsList.add(new UnsafeField<Object>(field));
+                } else if (!field.getType().isPrimitive() && !isFinalImmutable(field.getType())) {
+                    mutableFieldsList.add(new UnsafeField<Object>(field));
+                }
+            }
+            c = c.getSuperclass();
+        }
+        this.serialization = serializationRequired;
+        this.transientFields = transientFieldsList.toArray(new UnsafeField[transientFieldsList.size()]);
+        this.mutableFields = mutableFieldsList.toArray(new UnsafeField[mutableFieldsList.size()]);
+    }
+
+    @SuppressWarnings("unchecked")
+    public static <T extends AValueObject> T deepClone(final T obj) {
+        if (obj == null) {
+            return null;
+        }
+        final ValueObjectCloner cloner = CLONERS.get(obj.getClass());
+        if (cloner.serialization) {
+            return Objects.deepClone(obj);
+        }
+        return (T) cloner.copy(obj, new IdentityHashMap<Object, Object>());
+    }
+
+    private Object copy(final AValueObject obj, final Map<Object, Object> copies) {
+        final AValueObject clone = obj.shallowClone();
+        copies.put(obj, clone);
+        for (int i = 0; i < transientFields.length; i++) {
+            transientFields[i].set(clone, null);
+        }
+        for (int i = 0; i < mutableFields.length; i++) {
+            final UnsafeField<Object> field = mutableFields[i];
+            final Object value = field.get(obj);
+            if (value != null) {
+                field.set(clone, copyValue(value, copies));
+            }
+        }
+        return clone;
+    }
+
+    private static Object copyValue(final Object value, final Map<Object, Object> copies) {
+        if (value == null) {
+            return null;
+        }
+        final ValueKind kind = KINDS.get(value.getClass());
+        if (kind == ValueKind.IMMUTABLE) {
+            return value;
+        }
+        final Object existing = copies.get(value);
+        if (existing != null) {
+            return existing;
+        }
+        switch (kind) {
+        case VALUE_OBJECT:
+            final ValueObjectCloner cloner = CLONERS.get(value.getClass());
+            if (cloner.serialization) {
+                return register(value, Objects.deepClone(value), copies);
+            }
+            return cloner.copy((AValueObject) value, copies);
+        case LOCK:
+            return register(value, new Object(), copies);
+        case ARRAY:
+            return copyArray(value, copies);
+        case COLLECTION:
+            return copyCollection((Collection<?>) value, copies);
+        case MAP:
+            return copyMap((Map<?, ?>) value, copies);
+        case SERIALIZATION:
+            return register(value, Objects.deepClone(value), copies);
+        default:
+            throw new IllegalStateException("Unknown " + ValueKind.class.getSimpleName() + ": " + kind);
+        }
+    }
+
+    private static Object register(final Object value, final Object copy, final Map<Object, Object> copies) {
+        copies.put(value, copy);
+        return copy;
+    }
+
+    private static Object copyArray(final Object value, final Map<Object, Object> copies) {
+        final Class<?> componentType = value.getClass().getComponentType();
+        final int length = Array.getLength(value);
+        final Object copy = Array.newInstance(componentType, length);
+        copies.put(value, copy);
+        if (componentType.isPrimitive()) {
+            System.arraycopy(value, 0, copy, 0, length);
+        } else {
+            final Object[] valueArray = (Object[]) value;
+            final Object[] copyArray = (Object[]) copy;
+            for (int i = 0; i < length; i++) {
+                copyArray[i] = copyValue(valueArray[i], copies);
+            }
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object copyCollection(final Collection<?> value, final Map<Object, Object> copies) {
+        final Class<?> type = value.getClass();
+        final Collection copy;
+        if (type == ArrayList.class) {
+            copy = new ArrayList<>(value.size());
+        } else if (type == LinkedList.class) {
+            copy = new LinkedList<>();
+        } else if (type == HashSet.class) {
+            copy = new HashSet<>(Math.max(16, (int) (value.size() / .75F) + 1));
+        } else if (type == LinkedHashSet.class) {
+            copy = new LinkedHashSet<>(Math.max(16, (int) (value.size() / .75F) + 1));
+        } else if (type == TreeSet.class) {
+            copy = new TreeSet<>(((TreeSet) value).comparator());
+        } else {
+            throw new IllegalArgumentException("Unsupported collection: " + type);
+        }
+        copies.put(value, copy);
+        for (final Object element : value) {
+            copy.add(copyValue(element, copies));
+        }
+        return copy;
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static Object copyMap(final Map<?, ?> value, final Map<Object, Object> copies) {
+        final Class<?> type = value.getClass();
+        final Map copy;
+        if (type == HashMap.class) {
+            copy = new HashMap<>(Math.max(16, (int) (value.size() / .75F) + 1));
+        } else if (type == TreeMap.class) {
+            copy = new TreeMap<>(((TreeMap) value).comparator());
+        } else {
+            throw new IllegalArgumentException("Unsupported map: " + type);
+        }
+        copies.put(value, copy);
+        for (final Entry<?, ?> entry : value.entrySet()) {
+            copy.put(copyValue(entry.getKey(), copies), copyValue(entry.getValue(), copies));
+        }
+        return copy;
+    }
+
+    private static boolean hasSerializationHooks(final Class<?> type) {
+        if (Externalizable.class.isAssignableFrom(type)) {
+            return true;
+        }
+        for (final Method method : type.getDeclaredMethods()) {
+            final Class<?>[] parameterTypes = method.getParameterTypes();
+            switch (method.getName()) {
+            case "writeObject":
+                if (parameterTypes.length == 1 && parameterTypes[0] == ObjectOutputStream.class) {
+                    return true;
+                }
+                break;
+            case "readObject":
+                if (parameterTypes.length == 1 && parameterTypes[0] == ObjectInputStream.class) {
+                    return true;
+                }
+                break;
+            case "readResolve":
+            case "writeReplace":
+                if (parameterTypes.length == 0) {
+                    return true;
+                }
+                break;
+            default:
+                break;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Fields of these types never need to be copied, no matter which instance they hold.
+     */
+    private static boolean isFinalImmutable(final Class<?> type) {
+        return Modifier.isFinal(type.getModifiers()) && ValueKind.isImmutable(type);
+    }
+
+    private enum ValueKind {
+        IMMUTABLE,
+        VALUE_OBJECT,
+        /**
+         * A plain Object is not serializable, it is used as a lock and needs to be a new instance.
+         */
+        LOCK,
+        ARRAY,
+        COLLECTION,
+        MAP,
+        SERIALIZATION;
+
+        private static ValueKind of(final Class<?> type) {
+            if (isImmutable(type)) {
+                return IMMUTABLE;
+            } else if (AValueObject.class.isAssignableFrom(type)) {
+                return VALUE_OBJECT;
+            } else if (type == Object.class) {
+                return LOCK;
+            } else if (type.isArray()) {
+                return ARRAY;
+            } else if (type == ArrayList.class || type == LinkedList.class || type == HashSet.class
+                    || type == LinkedHashSet.class || type == TreeSet.class) {
+                return COLLECTION;
+            } else if (type == HashMap.class || type == TreeMap.class) {
+                return MAP;
+            } else {
+                return SERIALIZATION;
+            }
+        }
+
+        private static boolean isImmutable(final Class<?> type) {
+            return type == String.class || type == Boolean.class || type == Character.class || type == Byte.class
+                    || type == Short.class || type == Integer.class || type == Long.class || type == Float.class
+                    || type == Double.class || type == BigDecimal.class || type == BigInteger.class
+                    || type == UUID.class || type == Locale.class || type == Class.class || type.isEnum()
+                    || (type.getSuperclass() != null && type.getSuperclass().isEnum())
+                    || ADecimal.class.isAssignableFrom(type) || FDate.class.isAssignableFrom(type)
+                    || Duration.class.isAssignableFrom(type) || Instant.class.isAssignableFrom(type)
+                    || (type.getPackage() != null && "java.time".equals(type.getPackage().getName())
+                            && !type.isInterface() && Modifier.isFinal(type.getModifiers()));
+        }
+    }
+
+}
@@ -1,6 +1,7 @@
 package de.invesdwin.util.collections.array;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -11,18 +12,18 @@ public class DirectBufferDoubleArray implements IDoubleArray {
     private final int size;
 
     public DirectBufferDoubleArray(final int size) {
-        this.values = ByteBuffer.allocateDirect(size * Double.BYTES);
+        this.values = ByteBuffer.allocateDirect(size * Double.BYTES).order(ByteOrder.nativeOrder());
         this.size = size;
     }
 
     @Override
     public void set(final int index, final double value) {
-        values.putDouble(index, value);
+        values.putDouble(index * Double.BYTES, value);
     }
 
     @Override
     public double get(final int index) {
-        return values.getDouble(index);
+        return values.getDouble(index * Double.BYTES);
     }
 
     @Override
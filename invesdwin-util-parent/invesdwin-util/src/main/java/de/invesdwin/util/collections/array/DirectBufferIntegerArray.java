@@ -1,6 +1,7 @@
 package de.invesdwin.util.collections.array;
 
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
@@ -11,18 +12,18 @@ public class DirectBufferIntegerArray implements IIntegerArray {
     private final int size;
 
     public DirectBufferIntegerArray(final int size) {
-        this.values = ByteBuffer.allocateDirect(size * Integer.BYTES);
+        this.values = ByteBuffer.allocateDirect(size * Integer.BYTES).order(ByteOrder.nativeOrder());
         this.size = size;
     }
 
     @Override
     public void set(final int index, final int value) {
-        values.putInt(index, value);
+        values.putInt(index * Integer.BYTES, value);
     }
 
     @Override
     public int get(final int index) {
-        return values.getInt(index);
+        return values.getInt(index * Integer.BYTES);
     }
 
     @Override
@@ -0,0 +1,86 @@
+package de.invesdwin.util.collections.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.StandardCopyOption;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.lang.Buffers;
+import de.invesdwin.util.lang.Files;
+
+/**
+ * File layout of the memory mapped arrays: a magic number that identifies the value type, the number of values and
+ * then the values themselves. Everything is stored little endian so that files can be exchanged between machines.
+ */
+@Immutable
+final class MappedArrays {
+
+    static final int HEADER_SIZE = Integer.BYTES * 2;
+    private static final int MAGIC_POSITION = 0;
+    private static final int SIZE_POSITION = Integer.BYTES;
+
+    private MappedArrays() {
+    }
+
+    /**
+     * New files are written under a temporary name in the same directory and then moved into place, so that readers
+     * never see a file with a partially written header or with only some of the values given to create(file, values).
+     * Values that are set via the returned array after the move are visible to readers while they are written.
+     */
+    static File newTempFile(final File file) throws IOException {
+        Files.forceMkdirParent(file);
+        return File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+    }
+
+    /**
+     * Atomically replaces any existing file, readers that still map the old file keep seeing the old values.
+     */
+    static void moveIntoPlace(final File tempFile, final File file) throws IOException {
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    static ByteBuffer create(final File tempFile, final int magic, final int size, final long valuesLength)
+            throws IOException {
+        final ByteBuffer buffer = Files.mapReadWrite(tempFile, HEADER_SIZE + valuesLength)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC_POSITION, magic);
+        buffer.putInt(SIZE_POSITION, size);
+        return buffer;
+    }
+
+    static ByteBuffer open(final File file, final int magic, final boolean readOnly) throws IOException {
+        final ByteBuffer buffer;
+        if (readOnly) {
+            buffer = Files.mapReadOnly(file).order(ByteOrder.LITTLE_ENDIAN);
+        } else {
+            buffer = Files.mapReadWrite(file, file.length()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(MAGIC_POSITION) != magic) {
+            throw new IllegalArgumentException("Unexpected file format: " + file);
+        }
+        return buffer;
+    }
+
+    static int getSize(final ByteBuffer buffer) {
+        return buffer.getInt(SIZE_POSITION);
+    }
+
+    static ByteBuffer getValues(final ByteBuffer buffer, final long valuesLength) {
+        if (buffer.capacity() < HEADER_SIZE + valuesLength) {
+            throw new IllegalArgumentException("File is truncated: expected " + (HEADER_SIZE + valuesLength)
+                    + " bytes but got " + buffer.capacity());
+        }
+        return slice(buffer, HEADER_SIZE, (int) (HEADER_SIZE + valuesLength));
+    }
+
+    static ByteBuffer slice(final ByteBuffer buffer, final int fromInclusive, final int toExclusive) {
+        final ByteBuffer duplicate = buffer.duplicate();
+        Buffers.limit(duplicate, toExclusive);
+        Buffers.position(duplicate, fromInclusive);
+        return duplicate.slice().order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+}
@@ -0,0 +1,117 @@
+package de.invesdwin.util.collections.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.lang.Files;
+
+/**
+ * Stores one bit per value, otherwise the same as MappedDoubleArray.
+ */
+@NotThreadSafe
+public class MappedBooleanArray implements IBooleanArray {
+
+    //"MBA1"
+    private static final int MAGIC = 0x4d424131;
+
+    private final ByteBuffer values;
+    private final int offset;
+    private final int size;
+
+    private MappedBooleanArray(final ByteBuffer values, final int offset, final int size) {
+        this.values = values;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    @Override
+    public void set(final int index, final boolean value) {
+        final int bitIndex = offset + index;
+        final int byteIndex = bitIndex >>> 3;
+        final int mask = 1 << (bitIndex & 7);
+        final byte before = values.get(byteIndex);
+        final int after;
+        if (value) {
+            after = before | mask;
+        } else {
+            after = before & ~mask;
+        }
+        values.put(byteIndex, (byte) after);
+    }
+
+    @Override
+    public boolean get(final int index) {
+        final int bitIndex = offset + index;
+        return (values.get(bitIndex >>> 3) & (1 << (bitIndex & 7))) != 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The bits are not realigned, the subarray only remembers its offset.
+     */
+    @Override
+    public IBooleanArray subarray(final int startIndexInclusive, final int endIndexExclusive) {
+        return new MappedBooleanArray(values, offset + startIndexInclusive, endIndexExclusive - startIndexInclusive);
+    }
+
+    @Override
+    public boolean[] asArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates a new file with all values being false, an existing file is replaced. Readers can map the file right
+     * away, thus they might see values that are set afterwards only partially. Use create(file, values) to publish the
+     * values together with the file.
+     */
+    public static MappedBooleanArray create(final File file, final int size) throws IOException {
+        return create(file, size, null);
+    }
+
+    public static MappedBooleanArray create(final File file, final IBooleanArray values) throws IOException {
+        return create(file, values.size(), values);
+    }
+
+    private static MappedBooleanArray create(final File file, final int size, final IBooleanArray values)
+            throws IOException {
+        final File tempFile = MappedArrays.newTempFile(file);
+        try {
+            final ByteBuffer buffer = MappedArrays.create(tempFile, MAGIC, size, valuesLength(size));
+            final MappedBooleanArray array = new MappedBooleanArray(MappedArrays.getValues(buffer, valuesLength(size)),
+                    0, size);
+            if (values != null) {
+                for (int i = 0; i < size; i++) {
+                    if (values.get(i)) {
+                        array.set(i, true);
+                    }
+                }
+            }
+            MappedArrays.moveIntoPlace(tempFile, file);
+            return array;
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Setting values on a read only array throws a ReadOnlyBufferException.
+     */
+    public static MappedBooleanArray open(final File file, final boolean readOnly) throws IOException {
+        final ByteBuffer buffer = MappedArrays.open(file, MAGIC, readOnly);
+        final int size = MappedArrays.getSize(buffer);
+        return new MappedBooleanArray(MappedArrays.getValues(buffer, valuesLength(size)), 0, size);
+    }
+
+    private static long valuesLength(final int size) {
+        return (size + 7L) / 8L;
+    }
+
+}
@@ -0,0 +1,101 @@
+package de.invesdwin.util.collections.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.lang.Files;
+
+/**
+ * A double array that lives in a memory mapped file instead of the heap. The file can be reopened after a restart or
+ * mapped by other processes at the same time.
+ */
+@NotThreadSafe
+public class MappedDoubleArray implements IDoubleArray {
+
+    //"MDA1"
+    private static final int MAGIC = 0x4d444131;
+
+    private final ByteBuffer values;
+    private final int size;
+
+    private MappedDoubleArray(final ByteBuffer values, final int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public void set(final int index, final double value) {
+        values.putDouble(index * Double.BYTES, value);
+    }
+
+    @Override
+    public double get(final int index) {
+        return values.getDouble(index * Double.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public IDoubleArray subarray(final int startIndexInclusive, final int endIndexExclusive) {
+        return new MappedDoubleArray(MappedArrays.slice(values, startIndexInclusive * Double.BYTES,
+                endIndexExclusive * Double.BYTES), endIndexExclusive - startIndexInclusive);
+    }
+
+    @Override
+    public double[] asArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates a new file with all values being 0, an existing file is replaced. Readers can map the file right away,
+     * thus they might see values that are set afterwards only partially. Use create(file, values) to publish the
+     * values together with the file.
+     */
+    public static MappedDoubleArray create(final File file, final int size) throws IOException {
+        return create(file, size, null);
+    }
+
+    public static MappedDoubleArray create(final File file, final IDoubleArray values) throws IOException {
+        return create(file, values.size(), values);
+    }
+
+    private static MappedDoubleArray create(final File file, final int size, final IDoubleArray values)
+            throws IOException {
+        final File tempFile = MappedArrays.newTempFile(file);
+        try {
+            final ByteBuffer buffer = MappedArrays.create(tempFile, MAGIC, size, valuesLength(size));
+            final MappedDoubleArray array = new MappedDoubleArray(MappedArrays.getValues(buffer, valuesLength(size)),
+                    size);
+            if (values != null) {
+                for (int i = 0; i < size; i++) {
+                    array.set(i, values.get(i));
+                }
+            }
+            MappedArrays.moveIntoPlace(tempFile, file);
+            return array;
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Setting values on a read only array throws a ReadOnlyBufferException.
+     */
+    public static MappedDoubleArray open(final File file, final boolean readOnly) throws IOException {
+        final ByteBuffer buffer = MappedArrays.open(file, MAGIC, readOnly);
+        final int size = MappedArrays.getSize(buffer);
+        return new MappedDoubleArray(MappedArrays.getValues(buffer, valuesLength(size)), size);
+    }
+
+    private static long valuesLength(final int size) {
+        return (long) size * Double.BYTES;
+    }
+
+}
@@ -0,0 +1,100 @@
+package de.invesdwin.util.collections.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.lang.Files;
+
+/**
+ * Same as MappedDoubleArray for int values.
+ */
+@NotThreadSafe
+public class MappedIntegerArray implements IIntegerArray {
+
+    //"MIA1"
+    private static final int MAGIC = 0x4d494131;
+
+    private final ByteBuffer values;
+    private final int size;
+
+    private MappedIntegerArray(final ByteBuffer values, final int size) {
+        this.values = values;
+        this.size = size;
+    }
+
+    @Override
+    public void set(final int index, final int value) {
+        values.putInt(index * Integer.BYTES, value);
+    }
+
+    @Override
+    public int get(final int index) {
+        return values.getInt(index * Integer.BYTES);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public IIntegerArray subarray(final int startIndexInclusive, final int endIndexExclusive) {
+        return new MappedIntegerArray(MappedArrays.slice(values, startIndexInclusive * Integer.BYTES,
+                endIndexExclusive * Integer.BYTES), endIndexExclusive - startIndexInclusive);
+    }
+
+    @Override
+    public int[] asArray() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Creates a new file with all values being 0, an existing file is replaced. Readers can map the file right away,
+     * thus they might see values that are set afterwards only partially. Use create(file, values) to publish the
+     * values together with the file.
+     */
+    public static MappedIntegerArray create(final File file, final int size) throws IOException {
+        return create(file, size, null);
+    }
+
+    public static MappedIntegerArray create(final File file, final IIntegerArray values) throws IOException {
+        return create(file, values.size(), values);
+    }
+
+    private static MappedIntegerArray create(final File file, final int size, final IIntegerArray values)
+            throws IOException {
+        final File tempFile = MappedArrays.newTempFile(file);
+        try {
+            final ByteBuffer buffer = MappedArrays.create(tempFile, MAGIC, size, valuesLength(size));
+            final MappedIntegerArray array = new MappedIntegerArray(MappedArrays.getValues(buffer, valuesLength(size)),
+                    size);
+            if (values != null) {
+                for (int i = 0; i < size; i++) {
+                    array.set(i, values.get(i));
+                }
+            }
+            MappedArrays.moveIntoPlace(tempFile, file);
+            return array;
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteQuietly(tempFile);
+            throw e;
+        }
+    }
+
+    /**
+     * Setting values on a read only array throws a ReadOnlyBufferException.
+     */
+    public static MappedIntegerArray open(final File file, final boolean readOnly) throws IOException {
+        final ByteBuffer buffer = MappedArrays.open(file, MAGIC, readOnly);
+        final int size = MappedArrays.getSize(buffer);
+        return new MappedIntegerArray(MappedArrays.getValues(buffer, valuesLength(size)), size);
+    }
+
+    private static long valuesLength(final int size) {
+        return (long) size * Integer.BYTES;
+    }
+
+}
@@ -40,6 +40,46 @@ public abstract class ADelegateBitSet implements IBitSet {
         return getDelegate().andRange(fromInclusive, toExclusive, others);
     }
 
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return getDelegate().or(others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return getDelegate().orRange(fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return getDelegate().xor(others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return getDelegate().andNot(others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        getDelegate().andInPlace(others);
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        getDelegate().orInPlace(others);
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        getDelegate().xorInPlace(others);
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        getDelegate().andNotInPlace(others);
+    }
+
     @Override
     public IBitSet negate() {
         return getDelegate().negate();
@@ -0,0 +1,147 @@
+package de.invesdwin.util.collections.bitset;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Intersects bitsets so that the cost is proportional to the sparsest one. The bitsets are ordered by their density
+ * (trueCount/expectedSize): the sparsest one generates the candidates, other sparse ones leap the candidate forward via
+ * their skipping index providers (roaring gallops inside its containers, java bitsets skip whole words) and dense ones
+ * are only probed with contains for the remaining candidates, most selective first.
+ */
+@NotThreadSafe
+public class AdaptiveAndSkippingIndexProvider implements ISkippingIndexProvider {
+
+    /**
+     * Below one true value per 64 bits a leap via the skipping index provider skips more candidates than a contains
+     * check can reject.
+     */
+    public static final double LEAP_DENSITY_THRESHOLD = 1D / Long.SIZE;
+
+    private static final Comparator<IBitSet> DENSITY_COMPARATOR = (o1, o2) -> Double.compare(getDensity(o1),
+            getDensity(o2));
+
+    private final ISkippingIndexProvider driver;
+    private final ISkippingIndexProvider[] leapers;
+    private final IBitSet[] checkers;
+    private final boolean empty;
+
+    public AdaptiveAndSkippingIndexProvider(final IBitSet... bitSets) {
+        final IBitSet[] sorted = bitSets.clone();
+        boolean anyEmpty = sorted.length == 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (sorted[i].isEmpty()) {
+                anyEmpty = true;
+                break;
+            }
+        }
+        this.empty = anyEmpty;
+        if (anyEmpty) {
+            this.driver = null;
+            this.leapers = new ISkippingIndexProvider[0];
+            this.checkers = new IBitSet[0];
+            return;
+        }
+        Arrays.sort(sorted, DENSITY_COMPARATOR);
+        final ISkippingIndexProvider[] providers = new ISkippingIndexProvider[sorted.length];
+        int driverIndex = -1;
+        for (int i = 0; i < sorted.length; i++) {
+            providers[i] = sorted[i].newSkippingIndexProvider();
+            if (driverIndex == -1 && providers[i] != null) {
+                driverIndex = i;
+            }
+        }
+        if (driverIndex == -1 || getDensity(sorted[0]) < getDensity(sorted[driverIndex])) {
+            //the sparsest one has no provider, scanning it still generates the fewest candidates
+            driverIndex = 0;
+            providers[0] = newScanningProvider(sorted[0]);
+        }
+        this.driver = providers[driverIndex];
+        int leapersCount = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i != driverIndex && isLeaper(sorted[i], providers[i])) {
+                leapersCount++;
+            }
+        }
+        this.leapers = new ISkippingIndexProvider[leapersCount];
+        this.checkers = new IBitSet[sorted.length - 1 - leapersCount];
+        int l = 0;
+        int c = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == driverIndex) {
+                continue;
+            }
+            if (isLeaper(sorted[i], providers[i])) {
+                leapers[l++] = providers[i];
+            } else {
+                checkers[c++] = sorted[i];
+            }
+        }
+    }
+
+    private static boolean isLeaper(final IBitSet bitSet, final ISkippingIndexProvider provider) {
+        return provider != null && getDensity(bitSet) < LEAP_DENSITY_THRESHOLD;
+    }
+
+    private static double getDensity(final IBitSet bitSet) {
+        return (double) bitSet.getTrueCount() / Math.max(1, bitSet.getExpectedSize());
+    }
+
+    private static ISkippingIndexProvider newScanningProvider(final IBitSet bitSet) {
+        final int size = bitSet.getExpectedSize();
+        return nextCandidate -> {
+            for (int i = nextCandidate; i < size; i++) {
+                if (bitSet.contains(i)) {
+                    return i;
+                }
+            }
+            return END;
+        };
+    }
+
+    @Override
+    public int next(final int nextCandidate) {
+        if (empty) {
+            return END;
+        }
+        int candidate = driver.next(nextCandidate);
+        while (candidate != END) {
+            final int leaped = leap(candidate);
+            if (leaped == END) {
+                return END;
+            } else if (leaped != candidate) {
+                candidate = driver.next(leaped);
+            } else if (check(candidate)) {
+                return candidate;
+            } else {
+                candidate = driver.next(candidate + 1);
+            }
+        }
+        return END;
+    }
+
+    /**
+     * Returns the candidate if all leapers contain it, otherwise the first index above it that might be contained.
+     */
+    private int leap(final int candidate) {
+        for (int i = 0; i < leapers.length; i++) {
+            final int leaped = leapers[i].next(candidate);
+            if (leaped != candidate) {
+                return leaped;
+            }
+        }
+        return candidate;
+    }
+
+    private boolean check(final int candidate) {
+        for (int i = 0; i < checkers.length; i++) {
+            if (!checkers[i].contains(candidate)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -2,6 +2,10 @@ package de.invesdwin.util.collections.bitset;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
+/**
+ * Intersects skipping index providers without knowing their densities, prefer AdaptiveAndSkippingIndexProvider when
+ * the bitsets are available.
+ */
 @NotThreadSafe
 public class AndSkippingIndexProvider implements ISkippingIndexProvider {
 
@@ -11,21 +15,33 @@ public class AndSkippingIndexProvider implements ISkippingIndexProvider {
         this.delegates = delegates;
     }
 
+    /**
+     * Leapfrogs through the delegates until all of them agree on the same index, a delegate that already agreed is
+     * only asked again after the candidate moved.
+     */
     @Override
     public int next(final int nextCandidate) {
+        if (delegates.length == 0) {
+            return END;
+        }
         int max = nextCandidate;
+        int agreed = 0;
         int i = 0;
-        while (i < delegates.length) {
+        while (agreed < delegates.length) {
             final int newMax = delegates[i].peek(max);
             if (max < newMax) {
-                max = newMax;
-                if (i > 0) {
-                    //start at 0 again
-                    i = 0;
-                    continue;
+                if (newMax == END) {
+                    return END;
                 }
+                max = newMax;
+                agreed = 1;
+            } else {
+                agreed++;
             }
             i++;
+            if (i == delegates.length) {
+                i = 0;
+            }
         }
         return max;
     }
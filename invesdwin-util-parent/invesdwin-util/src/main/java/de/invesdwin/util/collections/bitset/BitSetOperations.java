@@ -0,0 +1,632 @@
+package de.invesdwin.util.collections.bitset;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.BufferFastAggregation;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+import org.roaringbitmap.buffer.MutableRoaringBitmap;
+
+import de.invesdwin.util.collections.factory.DisabledLockCollectionFactory;
+import de.invesdwin.util.collections.iterable.collection.ArrayCloseableIterator;
+import de.invesdwin.util.math.BitSets;
+import it.unimi.dsi.fastutil.booleans.BooleanList;
+
+/**
+ * Set algebra between arbitrary IBitSet implementations.
+ *
+ * The result uses the representation of the bitset the operation is called on: word-wise java BitSets for JavaBitSet
+ * and BooleanArrayBitSet, RoaringBitmap containers (via FastAggregation) for RoaringBitSet and MappedRoaringBitSet
+ * (the result is kept on the heap then). Wrappers like ShiftedIndexDelegateBitSet or ShallowNegatedBitSet use the
+ * representation of their delegate, anything else is decided by the expected size like in
+ * DisabledLockCollectionFactory.newBitSet(...).
+ *
+ * Operands that already have the representation of the result are used as they are, only the other ones are converted.
+ * For AND and ANDNOT the conversion is limited to the span of indexes that are still set in the result, so mixing a
+ * small sparse bitset with a large dense one stays cheap. Mapped bitmaps are combined with each other via the buffer
+ * API (BufferFastAggregation) and intersected with heap bitmaps via ImmutableRoaringBitmap.and(...), so they are never
+ * copied to the heap as a whole for AND and ANDNOT.
+ */
+@Immutable
+public final class BitSetOperations {
+
+    private static final int FULL_FROM = 0;
+    private static final int FULL_TO = Integer.MAX_VALUE;
+
+    private BitSetOperations() {
+    }
+
+    public static IBitSet and(final IBitSet bitSet, final IBitSet... others) {
+        return andRange(bitSet, FULL_FROM, FULL_TO, others);
+    }
+
+    /**
+     * WARNING: The resulting bitset will not be accurate outside of the given range.
+     */
+    public static IBitSet andRange(final IBitSet bitSet, final int fromInclusive, final int toExclusive,
+            final IBitSet[] others) {
+        if (bitSet.isEmpty()) {
+            return EmptyBitSet.INSTANCE;
+        }
+        for (int i = 0; i < others.length; i++) {
+            if (others[i].isEmpty()) {
+                return EmptyBitSet.INSTANCE;
+            }
+        }
+        if (isRoaring(bitSet)) {
+            final RoaringBitmap combined = andRoaring(bitSet, fromInclusive, toExclusive, others);
+            if (combined.isEmpty()) {
+                return EmptyBitSet.INSTANCE;
+            }
+            return new RoaringBitSet(combined, bitSet.getExpectedSize());
+        } else {
+            final BitSet combined = copyToJava(bitSet, fromInclusive, toExclusive);
+            for (int i = 0; i < others.length; i++) {
+                if (combined.isEmpty()) {
+                    return EmptyBitSet.INSTANCE;
+                }
+                andRangeJava(combined, fromInclusive, toExclusive, others[i]);
+            }
+            return new JavaBitSet(combined, bitSet.getExpectedSize());
+        }
+    }
+
+    public static IBitSet or(final IBitSet bitSet, final IBitSet... others) {
+        return orRange(bitSet, FULL_FROM, FULL_TO, others);
+    }
+
+    /**
+     * WARNING: The resulting bitset will not be accurate outside of the given range.
+     */
+    public static IBitSet orRange(final IBitSet bitSet, final int fromInclusive, final int toExclusive,
+            final IBitSet[] others) {
+        final int expectedSize = getMaxExpectedSize(bitSet, others);
+        if (isRoaring(bitSet)) {
+            final RoaringOperands operands = new RoaringOperands(bitSet, others);
+            final RoaringBitmap combined;
+            if (fromInclusive == FULL_FROM && toExclusive == FULL_TO) {
+                final MutableRoaringBitmap mapped = operands.hasMappeds()
+                        ? BufferFastAggregation.or(operands.getMappeds())
+                        : null;
+                combined = FastAggregation.or(operands.toRoaring(mapped, fromInclusive, toExclusive));
+            } else {
+                final MutableRoaringBitmap mapped = operands.hasMappeds()
+                        ? ImmutableRoaringBitmap.or(
+                                new ArrayCloseableIterator<ImmutableRoaringBitmap>(operands.getMappeds()),
+                                fromInclusive, (long) toExclusive)
+                        : null;
+                combined = RoaringBitmap.or(new ArrayCloseableIterator<RoaringBitmap>(
+                        operands.toRoaring(mapped, fromInclusive, toExclusive)), fromInclusive, (long) toExclusive);
+            }
+            return new RoaringBitSet(combined, expectedSize);
+        } else {
+            final BitSet combined = copyToJava(bitSet, fromInclusive, toExclusive);
+            for (int i = 0; i < others.length; i++) {
+                final IBitSet other = others[i];
+                if (!other.isEmpty()) {
+                    combined.or(toJava(other, fromInclusive, toExclusive));
+                }
+            }
+            return new JavaBitSet(combined, expectedSize);
+        }
+    }
+
+    public static IBitSet xor(final IBitSet bitSet, final IBitSet... others) {
+        final int expectedSize = getMaxExpectedSize(bitSet, others);
+        if (isRoaring(bitSet)) {
+            final RoaringOperands operands = new RoaringOperands(bitSet, others);
+            final MutableRoaringBitmap mapped = operands.hasMappeds()
+                    ? BufferFastAggregation.xor(operands.getMappeds())
+                    : null;
+            final RoaringBitmap[] bitmaps = operands.toRoaring(mapped, FULL_FROM, FULL_TO);
+            return new RoaringBitSet(FastAggregation.xor(bitmaps), expectedSize);
+        } else {
+            final BitSet combined = copyToJava(bitSet, FULL_FROM, FULL_TO);
+            for (int i = 0; i < others.length; i++) {
+                final IBitSet other = others[i];
+                if (!other.isEmpty()) {
+                    combined.xor(toJava(other, FULL_FROM, FULL_TO));
+                }
+            }
+            return new JavaBitSet(combined, expectedSize);
+        }
+    }
+
+    /**
+     * Removes all indexes from bitSet that are contained in any of the others.
+     */
+    public static IBitSet andNot(final IBitSet bitSet, final IBitSet... others) {
+        if (bitSet.isEmpty()) {
+            return EmptyBitSet.INSTANCE;
+        }
+        if (isRoaring(bitSet)) {
+            final RoaringBitmap combined = copyToRoaring(bitSet);
+            andNotInPlace(combined, others);
+            return new RoaringBitSet(combined, bitSet.getExpectedSize());
+        } else {
+            final BitSet combined = copyToJava(bitSet, FULL_FROM, FULL_TO);
+            andNotInPlace(combined, others);
+            return new JavaBitSet(combined, bitSet.getExpectedSize());
+        }
+    }
+
+    static void andInPlace(final RoaringBitmap bitmap, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            if (bitmap.isEmpty()) {
+                return;
+            }
+            final IBitSet other = others[i];
+            if (other.isEmpty()) {
+                bitmap.clear();
+                return;
+            }
+            final ImmutableRoaringBitmap mapped = getMapped(other);
+            if (mapped != null) {
+                andInPlace(bitmap, mapped);
+            } else {
+                bitmap.and(toRoaring(other, bitmap.first(), toExclusive(bitmap)));
+            }
+        }
+    }
+
+    /**
+     * Mapped operands are combined with each other via the buffer API first, so that only their union is copied to the
+     * heap.
+     */
+    static void orInPlace(final RoaringBitmap bitmap, final IBitSet[] others) {
+        final RoaringOperands operands = new RoaringOperands(others);
+        final MutableRoaringBitmap mapped = operands.hasMappeds() ? BufferFastAggregation.or(operands.getMappeds())
+                : null;
+        final RoaringBitmap[] bitmaps = operands.toRoaring(mapped, FULL_FROM, FULL_TO);
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmap.or(bitmaps[i]);
+        }
+    }
+
+    static void xorInPlace(final RoaringBitmap bitmap, final IBitSet[] others) {
+        final RoaringOperands operands = new RoaringOperands(others);
+        final MutableRoaringBitmap mapped = operands.hasMappeds() ? BufferFastAggregation.xor(operands.getMappeds())
+                : null;
+        final RoaringBitmap[] bitmaps = operands.toRoaring(mapped, FULL_FROM, FULL_TO);
+        for (int i = 0; i < bitmaps.length; i++) {
+            bitmap.xor(bitmaps[i]);
+        }
+    }
+
+    static void andNotInPlace(final RoaringBitmap bitmap, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            if (bitmap.isEmpty()) {
+                return;
+            }
+            final IBitSet other = others[i];
+            if (other.isEmpty()) {
+                continue;
+            }
+            final ImmutableRoaringBitmap mapped = getMapped(other);
+            if (mapped != null) {
+                andNotInPlace(bitmap, mapped);
+            } else {
+                bitmap.andNot(toRoaring(other, bitmap.first(), toExclusive(bitmap)));
+            }
+        }
+    }
+
+    /**
+     * Only the containers of the mapped bitmap that share a key with the heap bitmap are read, so the copy is bounded
+     * by the size of the heap bitmap instead of the size of the file.
+     */
+    private static void andInPlace(final RoaringBitmap bitmap, final ImmutableRoaringBitmap mapped) {
+        bitmap.and(ImmutableRoaringBitmap.and(bitmap.toMutableRoaringBitmap(), mapped).toRoaringBitmap());
+    }
+
+    private static void andNotInPlace(final RoaringBitmap bitmap, final ImmutableRoaringBitmap mapped) {
+        bitmap.andNot(ImmutableRoaringBitmap.and(bitmap.toMutableRoaringBitmap(), mapped).toRoaringBitmap());
+    }
+
+    static void andInPlace(final BitSet bitSet, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            if (bitSet.isEmpty()) {
+                return;
+            }
+            final IBitSet other = others[i];
+            if (other.isEmpty()) {
+                bitSet.clear();
+                return;
+            }
+            bitSet.and(toJava(other, bitSet.nextSetBit(0), bitSet.length()));
+        }
+    }
+
+    static void orInPlace(final BitSet bitSet, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            final IBitSet other = others[i];
+            if (!other.isEmpty()) {
+                bitSet.or(toJava(other, FULL_FROM, FULL_TO));
+            }
+        }
+    }
+
+    static void xorInPlace(final BitSet bitSet, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            final IBitSet other = others[i];
+            if (!other.isEmpty()) {
+                bitSet.xor(toJava(other, FULL_FROM, FULL_TO));
+            }
+        }
+    }
+
+    static void andNotInPlace(final BitSet bitSet, final IBitSet[] others) {
+        for (int i = 0; i < others.length; i++) {
+            if (bitSet.isEmpty()) {
+                return;
+            }
+            final IBitSet other = others[i];
+            if (!other.isEmpty()) {
+                bitSet.andNot(toJava(other, bitSet.nextSetBit(0), bitSet.length()));
+            }
+        }
+    }
+
+    /**
+     * Applies the difference between the bitset and the given result via add/remove. This is used for views that
+     * can not operate on their storage directly (e.g. because indexes are shifted).
+     */
+    static void replace(final IBitSet bitSet, final IBitSet result) {
+        final BitSet after = toJava(result, FULL_FROM, FULL_TO);
+        final BitSet changed = copyToJava(bitSet, FULL_FROM, FULL_TO);
+        changed.xor(after);
+        for (int i = changed.nextSetBit(0); i >= 0; i = changed.nextSetBit(i + 1)) {
+            if (after.get(i)) {
+                bitSet.add(i);
+            } else {
+                bitSet.remove(i);
+            }
+        }
+    }
+
+    /**
+     * Returns a java BitSet that is accurate inside of the given range. For a JavaBitSet the underlying instance is
+     * returned without a copy, so the result should not be modified.
+     */
+    public static BitSet toJava(final IBitSet bitSet, final int fromInclusive, final int toExclusive) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof JavaBitSet) {
+            return ((JavaBitSet) unwrapped).getBitSet();
+        }
+        return newJava(unwrapped, fromInclusive, toExclusive);
+    }
+
+    /**
+     * Returns a RoaringBitmap that is accurate inside of the given range. For a RoaringBitSet the underlying instance
+     * is returned without a copy, so the result should not be modified. A MappedRoaringBitSet is copied to the heap as
+     * a whole, thus the operations above combine mapped bitmaps via the buffer API instead.
+     */
+    public static RoaringBitmap toRoaring(final IBitSet bitSet, final int fromInclusive, final int toExclusive) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof RoaringBitSet) {
+            return ((RoaringBitSet) unwrapped).getBitSet();
+        } else if (unwrapped instanceof MappedRoaringBitSet) {
+            return ((MappedRoaringBitSet) unwrapped).getBitSet().toRoaringBitmap();
+        }
+        final BitSet bits = toJava(unwrapped, fromInclusive, toExclusive);
+        final RoaringBitmap bitmap = new RoaringBitmap();
+        int start = bits.nextSetBit(Math.max(0, fromInclusive));
+        while (start >= 0 && start < toExclusive) {
+            //add runs instead of single bits so that dense ranges end up in run containers
+            final int end = Math.min(bits.nextClearBit(start), toExclusive);
+            bitmap.add((long) start, (long) end);
+            start = bits.nextSetBit(end);
+        }
+        return bitmap;
+    }
+
+    static RoaringBitmap copyToRoaring(final IBitSet bitSet) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof RoaringBitSet) {
+            return ((RoaringBitSet) unwrapped).getBitSet().clone();
+        }
+        return toRoaring(unwrapped, FULL_FROM, FULL_TO);
+    }
+
+    private static ImmutableRoaringBitmap getMapped(final IBitSet bitSet) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof MappedRoaringBitSet) {
+            return ((MappedRoaringBitSet) unwrapped).getBitSet();
+        }
+        return null;
+    }
+
+    private static BitSet copyToJava(final IBitSet bitSet, final int fromInclusive, final int toExclusive) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof JavaBitSet) {
+            return (BitSet) ((JavaBitSet) unwrapped).getBitSet().clone();
+        }
+        return newJava(unwrapped, fromInclusive, toExclusive);
+    }
+
+    private static BitSet newJava(final IBitSet bitSet, final int fromInclusive, final int toExclusive) {
+        final int from = Math.max(0, fromInclusive);
+        if (from >= toExclusive || bitSet.isEmpty()) {
+            return new BitSet();
+        }
+        if (bitSet instanceof RoaringBitSet) {
+            return newJava(((RoaringBitSet) bitSet).getBitSet().getIntIterator(), from, toExclusive);
+        } else if (bitSet instanceof MappedRoaringBitSet) {
+            return newJava(((MappedRoaringBitSet) bitSet).getBitSet().getIntIterator(), from, toExclusive);
+        } else if (bitSet instanceof BooleanArrayBitSet) {
+            return newJava(((BooleanArrayBitSet) bitSet).getBitSet(), from, toExclusive);
+        } else if (bitSet instanceof BooleanListBitSet) {
+            return newJava(((BooleanListBitSet) bitSet).getBitSet(), from, toExclusive);
+        } else if (bitSet instanceof ShiftedIndexDelegateBitSet) {
+            return newJava((ShiftedIndexDelegateBitSet) bitSet, from, toExclusive);
+        } else if (bitSet instanceof ShallowNegatedBitSet) {
+            return newJava((ShallowNegatedBitSet) bitSet, from, toExclusive);
+        } else {
+            final BitSet converted = new BitSet();
+            final ISkippingIndexProvider provider = bitSet.newSkippingIndexProvider();
+            if (provider != null) {
+                int i = provider.next(from);
+                while (i < toExclusive && i != ISkippingIndexProvider.END) {
+                    converted.set(i);
+                    i = provider.next(i + 1);
+                }
+            } else {
+                final int to = Math.min(toExclusive, bitSet.getExpectedSize());
+                for (int i = from; i < to; i++) {
+                    if (bitSet.contains(i)) {
+                        converted.set(i);
+                    }
+                }
+            }
+            return converted;
+        }
+    }
+
+    private static BitSet newJava(final PeekableIntIterator iterator, final int fromInclusive,
+            final int toExclusive) {
+        final BitSet converted = new BitSet();
+        iterator.advanceIfNeeded(fromInclusive);
+        while (iterator.hasNext()) {
+            final int next = iterator.next();
+            //negative values are unsigned in roaring and thus come last
+            if (next < 0 || next >= toExclusive) {
+                break;
+            }
+            converted.set(next);
+        }
+        return converted;
+    }
+
+    /**
+     * Packs 64 booleans into a word at a time instead of setting bits one by one.
+     */
+    private static BitSet newJava(final boolean[] values, final int fromInclusive, final int toExclusive) {
+        final int to = Math.min(toExclusive, values.length);
+        if (fromInclusive >= to) {
+            return new BitSet();
+        }
+        final long[] words = new long[BitSets.wordIndex(to - 1) + 1];
+        for (int i = fromInclusive; i < to; i++) {
+            if (values[i]) {
+                words[i >> BitSets.ADDRESS_BITS_PER_WORD] |= 1L << i;
+            }
+        }
+        return BitSet.valueOf(words);
+    }
+
+    private static BitSet newJava(final BooleanList values, final int fromInclusive, final int toExclusive) {
+        final BitSet converted = new BitSet();
+        final int to = Math.min(toExclusive, values.size());
+        for (int i = fromInclusive; i < to; i++) {
+            if (values.getBoolean(i)) {
+                converted.set(i);
+            }
+        }
+        return converted;
+    }
+
+    private static BitSet newJava(final ShiftedIndexDelegateBitSet bitSet, final int fromInclusive,
+            final int toExclusive) {
+        final int subtractFromIndex = bitSet.getSubtractFromIndex();
+        final int delegateFrom = (int) Math.max(0L, (long) fromInclusive - subtractFromIndex);
+        final int delegateTo = (int) Math.min(FULL_TO, (long) toExclusive - subtractFromIndex);
+        final BitSet delegateBits = toJava(bitSet.getDelegate(), delegateFrom, delegateTo);
+        final BitSet converted = new BitSet();
+        int i = delegateBits.nextSetBit(delegateFrom);
+        while (i >= 0 && i < delegateTo) {
+            final long index = (long) i + subtractFromIndex;
+            if (index >= fromInclusive) {
+                converted.set((int) index);
+            }
+            i = delegateBits.nextSetBit(i + 1);
+        }
+        return converted;
+    }
+
+    /**
+     * Same as negate() the values are only flipped until the expected size.
+     */
+    private static BitSet newJava(final ShallowNegatedBitSet bitSet, final int fromInclusive, final int toExclusive) {
+        final int to = Math.min(toExclusive, bitSet.getExpectedSize());
+        if (fromInclusive >= to) {
+            return new BitSet();
+        }
+        final BitSet converted = copyToJava(bitSet.getDelegate(), fromInclusive, to);
+        converted.flip(fromInclusive, to);
+        //the copy might contain values outside of the range
+        converted.clear(0, fromInclusive);
+        converted.clear(to, Math.max(to, converted.length()));
+        return converted;
+    }
+
+    /**
+     * Native operands are combined in one go, the others only need to be converted for the remaining indexes. Mapped
+     * bitmaps are intersected via the buffer API, so only the result is copied to the heap.
+     */
+    private static RoaringBitmap andRoaring(final IBitSet bitSet, final int fromInclusive, final int toExclusive,
+            final IBitSet[] others) {
+        final RoaringOperands operands = new RoaringOperands(bitSet, others);
+        final boolean fullRange = fromInclusive == FULL_FROM && toExclusive == FULL_TO;
+        final RoaringBitmap combined;
+        if (operands.hasHeaps()) {
+            final RoaringBitmap[] bitmaps = operands.getHeaps();
+            if (fullRange) {
+                combined = FastAggregation.and(bitmaps);
+            } else {
+                combined = RoaringBitmap.and(new ArrayCloseableIterator<RoaringBitmap>(bitmaps), fromInclusive,
+                        (long) toExclusive);
+            }
+            final ImmutableRoaringBitmap[] mappeds = operands.getMappeds();
+            for (int i = 0; i < mappeds.length && !combined.isEmpty(); i++) {
+                andInPlace(combined, mappeds[i]);
+            }
+        } else if (operands.hasMappeds()) {
+            final ImmutableRoaringBitmap[] mappeds = operands.getMappeds();
+            final MutableRoaringBitmap intersection;
+            if (fullRange) {
+                intersection = BufferFastAggregation.and(mappeds);
+            } else {
+                intersection = ImmutableRoaringBitmap.and(new ArrayCloseableIterator<ImmutableRoaringBitmap>(mappeds),
+                        fromInclusive, (long) toExclusive);
+            }
+            combined = intersection.toRoaringBitmap();
+        } else {
+            //wrapped roaring bitsets are converted like any other foreign bitset
+            combined = toRoaring(operands.removeFirstForeign(), fromInclusive, toExclusive);
+        }
+        andInPlace(combined, operands.getForeigns());
+        return combined;
+    }
+
+    private static void andRangeJava(final BitSet combined, final int fromInclusive, final int toExclusive,
+            final IBitSet other) {
+        final int from = Math.max(fromInclusive, combined.nextSetBit(0));
+        final int to = Math.min(toExclusive, combined.length());
+        final BitSet otherBits = toJava(other, from, to);
+        if (fromInclusive == FULL_FROM && toExclusive == FULL_TO) {
+            combined.and(otherBits);
+        } else {
+            BitSets.andRangeFast(combined, otherBits, fromInclusive, toExclusive);
+        }
+    }
+
+    private static boolean isRoaring(final IBitSet bitSet) {
+        final IBitSet unwrapped = bitSet.unwrap();
+        if (unwrapped instanceof RoaringBitSet || unwrapped instanceof MappedRoaringBitSet) {
+            return true;
+        } else if (unwrapped instanceof JavaBitSet || unwrapped instanceof BooleanArrayBitSet
+                || unwrapped instanceof EmptyBitSet) {
+            return false;
+        } else if (unwrapped instanceof ShiftedIndexDelegateBitSet) {
+            return isRoaring(((ShiftedIndexDelegateBitSet) unwrapped).getDelegate());
+        } else if (unwrapped instanceof ShallowNegatedBitSet) {
+            return isRoaring(((ShallowNegatedBitSet) unwrapped).getDelegate());
+        } else {
+            return unwrapped.getExpectedSize() > DisabledLockCollectionFactory.ROARING_BITMAP_THRESHOLD;
+        }
+    }
+
+    private static int getMaxExpectedSize(final IBitSet bitSet, final IBitSet[] others) {
+        int max = bitSet.getExpectedSize();
+        for (int i = 0; i < others.length; i++) {
+            max = Math.max(max, others[i].getExpectedSize());
+        }
+        return max;
+    }
+
+    private static int toExclusive(final RoaringBitmap bitmap) {
+        final int last = bitmap.last();
+        if (last < 0 || last == Integer.MAX_VALUE) {
+            return FULL_TO;
+        } else {
+            return last + 1;
+        }
+    }
+
+    /**
+     * Splits the operands of a roaring operation by their representation: heap bitmaps are used as they are, mapped
+     * bitmaps stay in the buffer representation and foreign bitsets need to be converted.
+     */
+    @NotThreadSafe
+    private static final class RoaringOperands {
+
+        private final List<RoaringBitmap> heaps;
+        private final List<ImmutableRoaringBitmap> mappeds;
+        private final List<IBitSet> foreigns;
+
+        private RoaringOperands(final IBitSet[] bitSets) {
+            this(null, bitSets);
+        }
+
+        private RoaringOperands(final IBitSet bitSet, final IBitSet[] others) {
+            this.heaps = new ArrayList<>(others.length + 1);
+            this.mappeds = new ArrayList<>(others.length + 1);
+            this.foreigns = new ArrayList<>(others.length + 1);
+            if (bitSet != null) {
+                add(bitSet);
+            }
+            for (int i = 0; i < others.length; i++) {
+                add(others[i]);
+            }
+        }
+
+        private void add(final IBitSet bitSet) {
+            final IBitSet unwrapped = bitSet.unwrap();
+            if (unwrapped instanceof RoaringBitSet) {
+                heaps.add(((RoaringBitSet) unwrapped).getBitSet());
+            } else if (unwrapped instanceof MappedRoaringBitSet) {
+                mappeds.add(((MappedRoaringBitSet) unwrapped).getBitSet());
+            } else {
+                foreigns.add(bitSet);
+            }
+        }
+
+        private boolean hasHeaps() {
+            return !heaps.isEmpty();
+        }
+
+        private boolean hasMappeds() {
+            return !mappeds.isEmpty();
+        }
+
+        private RoaringBitmap[] getHeaps() {
+            return heaps.toArray(new RoaringBitmap[heaps.size()]);
+        }
+
+        private ImmutableRoaringBitmap[] getMappeds() {
+            return mappeds.toArray(new ImmutableRoaringBitmap[mappeds.size()]);
+        }
+
+        private IBitSet[] getForeigns() {
+            return foreigns.toArray(new IBitSet[foreigns.size()]);
+        }
+
+        private IBitSet removeFirstForeign() {
+            return foreigns.remove(0);
+        }
+
+        /**
+         * Returns the heap bitmaps, the already combined mapped bitmaps (if any) and the converted foreign bitsets.
+         */
+        private RoaringBitmap[] toRoaring(final MutableRoaringBitmap combinedMappeds, final int fromInclusive,
+                final int toExclusive) {
+            final List<RoaringBitmap> bitmaps = new ArrayList<>(heaps);
+            if (combinedMappeds != null) {
+                bitmaps.add(combinedMappeds.toRoaringBitmap());
+            }
+            for (int i = 0; i < foreigns.size(); i++) {
+                bitmaps.add(BitSetOperations.toRoaring(foreigns.get(i), fromInclusive, toExclusive));
+            }
+            return bitmaps.toArray(new RoaringBitmap[bitmaps.size()]);
+        }
+
+    }
+
+}
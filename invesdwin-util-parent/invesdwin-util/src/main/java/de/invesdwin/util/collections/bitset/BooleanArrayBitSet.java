@@ -1,5 +1,7 @@
 package de.invesdwin.util.collections.bitset;
 
+import java.util.BitSet;
+
 import javax.annotation.concurrent.NotThreadSafe;
 
 @NotThreadSafe
@@ -45,12 +47,75 @@ public class BooleanArrayBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        throw new UnsupportedOperationException();
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
-        throw new UnsupportedOperationException();
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.length);
+        BitSetOperations.andInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.length);
+        BitSetOperations.orInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.length);
+        BitSetOperations.xorInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.length);
+        BitSetOperations.andNotInPlace(combined, others);
+        assign(combined);
+    }
+
+    /**
+     * Indexes outside of the array are ignored.
+     */
+    private void assign(final BitSet combined) {
+        int newTrueCount = 0;
+        for (int i = 0; i < bitSet.length; i++) {
+            final boolean value = combined.get(i);
+            bitSet[i] = value;
+            if (value) {
+                newTrueCount++;
+            }
+        }
+        trueCount = newTrueCount;
     }
 
     @Override
@@ -73,6 +138,10 @@ public class BooleanArrayBitSet implements IBitSet {
         return trueCount == 0;
     }
 
+    public boolean[] getBitSet() {
+        return bitSet;
+    }
+
     @Override
     public ISkippingIndexProvider newSkippingIndexProvider() {
         return null;
@@ -1,5 +1,7 @@
 package de.invesdwin.util.collections.bitset;
 
+import java.util.BitSet;
+
 import javax.annotation.concurrent.NotThreadSafe;
 
 import it.unimi.dsi.fastutil.booleans.BooleanArrayList;
@@ -54,12 +56,76 @@ public class BooleanListBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        throw new UnsupportedOperationException();
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
-        throw new UnsupportedOperationException();
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.size());
+        BitSetOperations.andInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.size());
+        BitSetOperations.orInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.size());
+        BitSetOperations.xorInPlace(combined, others);
+        assign(combined);
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        final BitSet combined = BitSetOperations.toJava(this, 0, bitSet.size());
+        BitSetOperations.andNotInPlace(combined, others);
+        assign(combined);
+    }
+
+    private void assign(final BitSet combined) {
+        final int size = Math.max(bitSet.size(), combined.length());
+        while (bitSet.size() < size) {
+            bitSet.add(false);
+        }
+        int newTrueCount = 0;
+        for (int i = 0; i < size; i++) {
+            final boolean value = combined.get(i);
+            bitSet.set(i, value);
+            if (value) {
+                newTrueCount++;
+            }
+        }
+        trueCount = newTrueCount;
     }
 
     @Override
@@ -87,6 +153,10 @@ public class BooleanListBitSet implements IBitSet {
         return trueCount == 0;
     }
 
+    public BooleanList getBitSet() {
+        return bitSet;
+    }
+
     @Override
     public ISkippingIndexProvider newSkippingIndexProvider() {
         return null;
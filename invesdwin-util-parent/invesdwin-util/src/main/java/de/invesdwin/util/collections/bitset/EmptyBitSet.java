@@ -1,5 +1,7 @@
 package de.invesdwin.util.collections.bitset;
 
+import java.util.Arrays;
+
 import javax.annotation.concurrent.Immutable;
 
 @Immutable
@@ -55,6 +57,58 @@ public class EmptyBitSet implements IBitSet {
         return INSTANCE;
     }
 
+    /**
+     * The result only consists of the others.
+     */
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        if (others.length == 0) {
+            return INSTANCE;
+        }
+        return others[0].or(Arrays.copyOfRange(others, 1, others.length));
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        if (others.length == 0) {
+            return INSTANCE;
+        }
+        return others[0].orRange(fromInclusive, toExclusive, Arrays.copyOfRange(others, 1, others.length));
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        if (others.length == 0) {
+            return INSTANCE;
+        }
+        return others[0].xor(Arrays.copyOfRange(others, 1, others.length));
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return INSTANCE;
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
     @Override
     public int getTrueCount() {
         return 0;
@@ -18,6 +18,33 @@ public interface IBitSet {
      */
     IBitSet andRange(int fromInclusive, int toExclusive, IBitSet[] others);
 
+    IBitSet or(IBitSet... others);
+
+    /**
+     * WARNING: The resulting bitset will not be accurate outside of the given range due to performance reasons. Indexes
+     * are preserved.
+     */
+    IBitSet orRange(int fromInclusive, int toExclusive, IBitSet[] others);
+
+    IBitSet xor(IBitSet... others);
+
+    /**
+     * Removes the indexes that are contained in any of the others.
+     */
+    IBitSet andNot(IBitSet... others);
+
+    /**
+     * The *InPlace variants modify this bitset instead of creating a copy. Operands can be of any implementation, they
+     * are converted to the representation of this bitset where needed (see BitSetOperations).
+     */
+    void andInPlace(IBitSet... others);
+
+    void orInPlace(IBitSet... others);
+
+    void xorInPlace(IBitSet... others);
+
+    void andNotInPlace(IBitSet... others);
+
     /**
      * This creates a negated copy of the underlying bitset.
      */
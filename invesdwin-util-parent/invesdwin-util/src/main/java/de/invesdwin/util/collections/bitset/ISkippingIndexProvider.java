@@ -6,4 +6,24 @@ public interface ISkippingIndexProvider {
 
     int next(int nextCandidate);
 
+    /**
+     * Writes the next indexes starting at nextCandidate and below toExclusive into the buffer. Returns the number of
+     * indexes written, less than buffer.length means that there are no more indexes in the range. Continue with the
+     * last written index + 1.
+     */
+    default int next(final int nextCandidate, final int toExclusive, final int[] buffer) {
+        int count = 0;
+        int candidate = nextCandidate;
+        while (count < buffer.length) {
+            final int next = next(candidate);
+            if (next >= toExclusive || next == END) {
+                break;
+            }
+            buffer[count] = next;
+            count++;
+            candidate = next + 1;
+        }
+        return count;
+    }
+
 }
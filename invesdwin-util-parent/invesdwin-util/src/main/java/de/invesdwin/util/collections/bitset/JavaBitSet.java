@@ -4,8 +4,6 @@ import java.util.BitSet;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
-import de.invesdwin.util.math.BitSets;
-
 @NotThreadSafe
 public class JavaBitSet implements IBitSet {
 
@@ -27,8 +25,11 @@ public class JavaBitSet implements IBitSet {
 
     @Override
     public void add(final int index) {
+        //an unknown count (-1) stays unknown
+        if (trueCount != -1 && !bitSet.get(index)) {
+            trueCount++;
+        }
         bitSet.set(index);
-        trueCount++;
     }
 
     @Override
@@ -53,30 +54,56 @@ public class JavaBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        final BitSet combined = (BitSet) bitSet.clone();
-        for (int i = 0; i < others.length; i++) {
-            final IBitSet other = others[i];
-            if (other.isEmpty() || combined.isEmpty()) {
-                return EmptyBitSet.INSTANCE;
-            }
-            final JavaBitSet cOther = (JavaBitSet) other.unwrap();
-            combined.and(cOther.bitSet);
-        }
-        return new JavaBitSet(combined, expectedSize);
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
-        final BitSet combined = (BitSet) bitSet.clone();
-        for (int i = 0; i < others.length; i++) {
-            final IBitSet other = others[i];
-            if (other.isEmpty() || combined.isEmpty()) {
-                return EmptyBitSet.INSTANCE;
-            }
-            final JavaBitSet cOther = (JavaBitSet) other.unwrap();
-            BitSets.andRangeFast(combined, cOther.bitSet, fromInclusive, toExclusive);
-        }
-        return new JavaBitSet(combined, expectedSize);
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        BitSetOperations.andInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        BitSetOperations.orInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        BitSetOperations.xorInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        BitSetOperations.andNotInPlace(bitSet, others);
+        trueCount = -1;
     }
 
     @Override
@@ -121,6 +148,10 @@ public class JavaBitSet implements IBitSet {
         return bitSet.isEmpty();
     }
 
+    public BitSet getBitSet() {
+        return bitSet;
+    }
+
     @Override
     public ISkippingIndexProvider newSkippingIndexProvider() {
         return nextCandidate -> {
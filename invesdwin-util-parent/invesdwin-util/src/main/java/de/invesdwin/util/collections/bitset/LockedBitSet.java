@@ -101,6 +101,86 @@ public class LockedBitSet implements IBitSet {
         }
     }
 
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        lock.lock();
+        try {
+            return delegate.or(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        lock.lock();
+        try {
+            return delegate.orRange(fromInclusive, toExclusive, others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        lock.lock();
+        try {
+            return delegate.xor(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        lock.lock();
+        try {
+            return delegate.andNot(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        lock.lock();
+        try {
+            delegate.andInPlace(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        lock.lock();
+        try {
+            delegate.orInPlace(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        lock.lock();
+        try {
+            delegate.xorInPlace(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        lock.lock();
+        try {
+            delegate.andNotInPlace(others);
+        } finally {
+            lock.unlock();
+        }
+    }
+
     @Override
     public IBitSet negate() {
         lock.lock();
@@ -0,0 +1,213 @@
+package de.invesdwin.util.collections.bitset;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.StandardCopyOption;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.buffer.ImmutableRoaringBitmap;
+
+import de.invesdwin.util.lang.Buffers;
+import de.invesdwin.util.lang.Files;
+
+/**
+ * A read only bitset that is stored in the portable roaring format and accessed via a memory mapped file. Opening it
+ * only reads the container headers, the containers themselves stay in the page cache and can be shared between
+ * processes. Set operations create heap based bitsets, use RoaringBitSet for modifications.
+ */
+@Immutable
+public class MappedRoaringBitSet implements IBitSet {
+
+    //"MRB1"
+    private static final int MAGIC = 0x4d524231;
+    private static final int HEADER_SIZE = Integer.BYTES * 2;
+
+    private final ImmutableRoaringBitmap bitSet;
+    private final int expectedSize;
+    private final int trueCount;
+
+    public MappedRoaringBitSet(final ImmutableRoaringBitmap bitSet, final int expectedSize) {
+        this.bitSet = bitSet;
+        this.expectedSize = expectedSize;
+        this.trueCount = bitSet.getCardinality();
+    }
+
+    @Override
+    public void add(final int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void remove(final int index) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean contains(final int index) {
+        return bitSet.contains(index);
+    }
+
+    @Override
+    public IBitSet optimize() {
+        if (isEmpty()) {
+            return EmptyBitSet.INSTANCE;
+        } else {
+            return this;
+        }
+    }
+
+    @Override
+    public IBitSet and(final IBitSet... others) {
+        return BitSetOperations.and(this, others);
+    }
+
+    @Override
+    public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public IBitSet negate() {
+        final RoaringBitmap negated = bitSet.toRoaringBitmap();
+        negated.flip(0L, expectedSize);
+        return new RoaringBitSet(negated, expectedSize);
+    }
+
+    @Override
+    public IBitSet negateShallow() {
+        return new ShallowNegatedBitSet(this);
+    }
+
+    @Override
+    public int getTrueCount() {
+        return trueCount;
+    }
+
+    @Override
+    public int getExpectedSize() {
+        return expectedSize;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return trueCount == 0;
+    }
+
+    public ImmutableRoaringBitmap getBitSet() {
+        return bitSet;
+    }
+
+    @Override
+    public ISkippingIndexProvider newSkippingIndexProvider() {
+        final PeekableIntIterator delegate = bitSet.getIntIterator();
+        return new ISkippingIndexProvider() {
+
+            private int cur = -1;
+
+            @Override
+            public int next(final int nextCandidate) {
+                if (cur == nextCandidate) {
+                    return nextCandidate;
+                }
+                delegate.advanceIfNeeded(nextCandidate);
+                do {
+                    if (!delegate.hasNext()) {
+                        return ISkippingIndexProvider.END;
+                    }
+                    cur = delegate.next();
+                } while (cur < nextCandidate);
+                return cur;
+            }
+        };
+    }
+
+    @Override
+    public IBitSet unwrap() {
+        return this;
+    }
+
+    /**
+     * Stores any bitset in the portable roaring format. The file is written under a temporary name in the same
+     * directory and then atomically replaces an existing file, so readers never see a partially written bitmap.
+     */
+    public static MappedRoaringBitSet write(final File file, final IBitSet bitSet) throws IOException {
+        final RoaringBitmap bitmap = BitSetOperations.copyToRoaring(bitSet);
+        bitmap.runOptimize();
+        Files.forceMkdirParent(file);
+        final File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(tempFile)))) {
+                final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC);
+                header.putInt(bitSet.getExpectedSize());
+                out.write(header.array());
+                bitmap.serialize(out);
+            }
+            Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        } catch (final IOException | RuntimeException e) {
+            Files.deleteQuietly(tempFile);
+            throw e;
+        }
+        return open(file);
+    }
+
+    public static MappedRoaringBitSet open(final File file) throws IOException {
+        final ByteBuffer buffer = Files.mapReadOnly(file).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Unexpected file format: " + file);
+        }
+        final int expectedSize = buffer.getInt(Integer.BYTES);
+        Buffers.position(buffer, HEADER_SIZE);
+        return new MappedRoaringBitSet(new ImmutableRoaringBitmap(buffer.slice()), expectedSize);
+    }
+
+}
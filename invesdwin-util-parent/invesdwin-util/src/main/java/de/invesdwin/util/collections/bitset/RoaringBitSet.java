@@ -2,12 +2,9 @@ package de.invesdwin.util.collections.bitset;
 
 import javax.annotation.concurrent.NotThreadSafe;
 
-import org.roaringbitmap.FastAggregation;
 import org.roaringbitmap.PeekableIntIterator;
 import org.roaringbitmap.RoaringBitmap;
 
-import de.invesdwin.util.collections.iterable.collection.ArrayCloseableIterator;
-
 @NotThreadSafe
 public class RoaringBitSet implements IBitSet {
 
@@ -29,14 +26,15 @@ public class RoaringBitSet implements IBitSet {
 
     @Override
     public void add(final int index) {
-        if (bitSet.checkedAdd(index)) {
+        //an unknown count (-1) stays unknown
+        if (bitSet.checkedAdd(index) && trueCount != -1) {
             trueCount++;
         }
     }
 
     @Override
     public void remove(final int index) {
-        if (bitSet.checkedRemove(index)) {
+        if (bitSet.checkedRemove(index) && trueCount != -1) {
             trueCount--;
         }
     }
@@ -59,38 +57,56 @@ public class RoaringBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        final RoaringBitmap[] cOthers = new RoaringBitmap[others.length + 1];
-        cOthers[0] = bitSet;
-        for (int i = 0; i < others.length; i++) {
-            final IBitSet other = others[i];
-            if (other.isEmpty()) {
-                return EmptyBitSet.INSTANCE;
-            }
-            final RoaringBitSet cOther = (RoaringBitSet) other.unwrap();
-            cOthers[i + 1] = cOther.bitSet;
-        }
-        final RoaringBitmap combined = FastAggregation.and(cOthers);
-        return new RoaringBitSet(combined, expectedSize);
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
-        if (fromInclusive == 0 && toExclusive >= bitSet.last()) {
-            return and(others);
-        }
-        final RoaringBitmap[] cOthers = new RoaringBitmap[others.length + 1];
-        cOthers[0] = bitSet;
-        for (int i = 0; i < others.length; i++) {
-            final IBitSet other = others[i];
-            if (other.isEmpty()) {
-                return EmptyBitSet.INSTANCE;
-            }
-            final RoaringBitSet cOther = (RoaringBitSet) other.unwrap();
-            cOthers[i + 1] = cOther.bitSet;
-        }
-        final RoaringBitmap combined = RoaringBitmap.and(new ArrayCloseableIterator<RoaringBitmap>(cOthers),
-                fromInclusive, (long) toExclusive);
-        return new RoaringBitSet(combined, expectedSize);
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        BitSetOperations.andInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        BitSetOperations.orInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        BitSetOperations.xorInPlace(bitSet, others);
+        trueCount = -1;
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        BitSetOperations.andNotInPlace(bitSet, others);
+        trueCount = -1;
     }
 
     @Override
@@ -45,11 +45,51 @@ public class ShallowNegatedBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        throw new UnsupportedOperationException();
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
         throw new UnsupportedOperationException();
     }
 
@@ -95,9 +135,16 @@ public class ShallowNegatedBitSet implements IBitSet {
         };
     }
 
+    public IBitSet getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * The negation is not part of the delegate, thus this instance has to be used as it is (see BitSetOperations).
+     */
     @Override
     public IBitSet unwrap() {
-        throw new UnsupportedOperationException();
+        return this;
     }
 
 }
@@ -58,12 +58,52 @@ public final class ShiftedIndexDelegateBitSet implements IBitSet {
 
     @Override
     public IBitSet and(final IBitSet... others) {
-        throw new UnsupportedOperationException("Indexes might get mangled");
+        return BitSetOperations.and(this, others);
     }
 
     @Override
     public IBitSet andRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
-        throw new UnsupportedOperationException("Indexes might get mangled");
+        return BitSetOperations.andRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        return BitSetOperations.or(this, others);
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        return BitSetOperations.orRange(this, fromInclusive, toExclusive, others);
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        return BitSetOperations.xor(this, others);
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        return BitSetOperations.andNot(this, others);
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        BitSetOperations.replace(this, BitSetOperations.and(this, others));
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        BitSetOperations.replace(this, BitSetOperations.or(this, others));
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        BitSetOperations.replace(this, BitSetOperations.xor(this, others));
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        BitSetOperations.replace(this, BitSetOperations.andNot(this, others));
     }
 
     @Override
@@ -101,9 +141,21 @@ public final class ShiftedIndexDelegateBitSet implements IBitSet {
         }
     }
 
+    public IBitSet getDelegate() {
+        return delegate;
+    }
+
+    public int getSubtractFromIndex() {
+        return subtractFromIndex;
+    }
+
+    /**
+     * Returning the delegate would mangle the indexes, thus this instance has to be used as it is (see
+     * BitSetOperations).
+     */
     @Override
     public IBitSet unwrap() {
-        throw new UnsupportedOperationException("Indexes might get mangled");
+        return this;
     }
 
     public static IBitSet of(final IBitSet delegate, final int subtractFromIndex) {
@@ -74,6 +74,62 @@ public class SynchronizedBitSet implements IBitSet {
         }
     }
 
+    @Override
+    public IBitSet or(final IBitSet... others) {
+        synchronized (lock) {
+            return delegate.or(others);
+        }
+    }
+
+    @Override
+    public IBitSet orRange(final int fromInclusive, final int toExclusive, final IBitSet[] others) {
+        synchronized (lock) {
+            return delegate.orRange(fromInclusive, toExclusive, others);
+        }
+    }
+
+    @Override
+    public IBitSet xor(final IBitSet... others) {
+        synchronized (lock) {
+            return delegate.xor(others);
+        }
+    }
+
+    @Override
+    public IBitSet andNot(final IBitSet... others) {
+        synchronized (lock) {
+            return delegate.andNot(others);
+        }
+    }
+
+    @Override
+    public void andInPlace(final IBitSet... others) {
+        synchronized (lock) {
+            delegate.andInPlace(others);
+        }
+    }
+
+    @Override
+    public void orInPlace(final IBitSet... others) {
+        synchronized (lock) {
+            delegate.orInPlace(others);
+        }
+    }
+
+    @Override
+    public void xorInPlace(final IBitSet... others) {
+        synchronized (lock) {
+            delegate.xorInPlace(others);
+        }
+    }
+
+    @Override
+    public void andNotInPlace(final IBitSet... others) {
+        synchronized (lock) {
+            delegate.andNotInPlace(others);
+        }
+    }
+
     @Override
     public IBitSet negate() {
         synchronized (lock) {
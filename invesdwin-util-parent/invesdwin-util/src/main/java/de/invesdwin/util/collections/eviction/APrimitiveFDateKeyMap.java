@@ -0,0 +1,165 @@
+package de.invesdwin.util.collections.eviction;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.time.fdate.FDate;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+
+/**
+ * Stores the keys as primitive longs of FDate.millisValue() in an open addressing map. This saves the FDate instance
+ * and the entry object per element that a generic hash map would keep. Keys only get instantiated again when iterating
+ * over the map. Subclasses of FDate (e.g. IndexedFDate) are not retained as keys.
+ */
+@NotThreadSafe
+public abstract class APrimitiveFDateKeyMap<V> extends AbstractMap<FDate, V> {
+
+    protected final Long2ObjectMap<V> map;
+    private EntrySet entrySet;
+
+    public APrimitiveFDateKeyMap(final Long2ObjectMap<V> map) {
+        this.map = map;
+    }
+
+    /**
+     * Hook for subclasses that keep track of the order of keys.
+     */
+    protected void onRemove(final long key) {
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        if (key instanceof FDate) {
+            final FDate cKey = (FDate) key;
+            return map.containsKey(cKey.millisValue());
+        } else {
+            return false;
+        }
+    }
+
+    @Override
+    public boolean containsValue(final Object value) {
+        return map.containsValue(value);
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (key instanceof FDate) {
+            final FDate cKey = (FDate) key;
+            return get(cKey.millisValue());
+        } else {
+            return null;
+        }
+    }
+
+    public V get(final long key) {
+        return map.get(key);
+    }
+
+    @Override
+    public V put(final FDate key, final V value) {
+        return put(key.millisValue(), value);
+    }
+
+    public V put(final long key, final V value) {
+        return map.put(key, value);
+    }
+
+    @Override
+    public V putIfAbsent(final FDate key, final V value) {
+        final long millis = key.millisValue();
+        final V existing = get(millis);
+        if (existing != null) {
+            return existing;
+        }
+        return put(millis, value);
+    }
+
+    @Override
+    public V remove(final Object key) {
+        if (key instanceof FDate) {
+            final FDate cKey = (FDate) key;
+            return remove(cKey.millisValue());
+        } else {
+            return null;
+        }
+    }
+
+    public V remove(final long key) {
+        final V removed = map.remove(key);
+        if (removed != null) {
+            onRemove(key);
+        }
+        return removed;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Set<Entry<FDate, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<FDate, V>> {
+
+        @Override
+        public Iterator<Entry<FDate, V>> iterator() {
+            final ObjectIterator<Long2ObjectMap.Entry<V>> delegate = map.long2ObjectEntrySet().iterator();
+            return new Iterator<Entry<FDate, V>>() {
+
+                private long lastKey;
+
+                @Override
+                public boolean hasNext() {
+                    return delegate.hasNext();
+                }
+
+                @Override
+                public Entry<FDate, V> next() {
+                    final Long2ObjectMap.Entry<V> next = delegate.next();
+                    lastKey = next.getLongKey();
+                    return new SimpleImmutableEntry<FDate, V>(new FDate(lastKey), next.getValue());
+                }
+
+                @Override
+                public void remove() {
+                    delegate.remove();
+                    onRemove(lastKey);
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public void clear() {
+            APrimitiveFDateKeyMap.this.clear();
+        }
+
+    }
+
+}
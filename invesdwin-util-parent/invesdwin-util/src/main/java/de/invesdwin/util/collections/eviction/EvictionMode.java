@@ -2,6 +2,8 @@ package de.invesdwin.util.collections.eviction;
 
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.time.fdate.FDate;
+
 @Immutable
 public enum EvictionMode {
 
@@ -16,20 +18,40 @@ public enum EvictionMode {
              */
             return new ArrayLeastRecentlyAddedMap<>(maximumSize);
         }
+
+        @Override
+        public <V> IEvictionMap<FDate, V> newPrimitiveFDateKeyMap(final int maximumSize) {
+            return new PrimitiveFDateKeyLeastRecentlyAddedMap<>(maximumSize);
+        }
     },
     LeastRecentlyModified {
         @Override
         public <K, V> IEvictionMap<K, V> newMap(final int maximumSize) {
             return new CommonsLeastRecentlyModifiedMap<>(maximumSize);
         }
+
+        @Override
+        public <V> IEvictionMap<FDate, V> newPrimitiveFDateKeyMap(final int maximumSize) {
+            return new PrimitiveFDateKeyLeastRecentlyModifiedMap<>(maximumSize);
+        }
     },
     LeastRecentlyUsed {
         @Override
         public <K, V> IEvictionMap<K, V> newMap(final int maximumSize) {
             return new CommonsLeastRecentlyUsedMap<>(maximumSize);
         }
+
+        @Override
+        public <V> IEvictionMap<FDate, V> newPrimitiveFDateKeyMap(final int maximumSize) {
+            return new PrimitiveFDateKeyLeastRecentlyUsedMap<>(maximumSize);
+        }
     };
 
     public abstract <K, V> IEvictionMap<K, V> newMap(int maximumSize);
 
+    /**
+     * Stores the keys as primitive longs to reduce the memory footprint of large historical caches.
+     */
+    public abstract <V> IEvictionMap<FDate, V> newPrimitiveFDateKeyMap(int maximumSize);
+
 }
@@ -0,0 +1,124 @@
+package de.invesdwin.util.collections.eviction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.Integers;
+import de.invesdwin.util.time.fdate.FDate;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Same eviction as ArrayLeastRecentlyAddedMap, but the ordered keys are stored as primitive longs.
+ */
+@NotThreadSafe
+public class PrimitiveFDateKeyLeastRecentlyAddedMap<V> extends APrimitiveFDateKeyMap<V>
+        implements IEvictionMap<FDate, V> {
+
+    private static final int EVICTION_SIZE_MULTIPLIER = 2;
+    /**
+     * marks removed keys, this millis value is not expected to be used as a key
+     */
+    private static final long REMOVED_KEY = Long.MIN_VALUE;
+    private static final long[] EMPTY_ORDERED_KEYS = new long[0];
+
+    private int maximumSize;
+    private int evictionSize;
+    private long[] orderedKeys;
+    private int leastRecentlyAddedKeyIndex = -1;
+    private int mostRecentlyAddedKeyIndex = -1;
+
+    public PrimitiveFDateKeyLeastRecentlyAddedMap(final int maximumSize) {
+        super(new Long2ObjectOpenHashMap<V>());
+        setMaximumSize(maximumSize);
+        this.orderedKeys = EMPTY_ORDERED_KEYS;
+    }
+
+    @Override
+    public void clear() {
+        orderedKeys = EMPTY_ORDERED_KEYS;
+        leastRecentlyAddedKeyIndex = -1;
+        mostRecentlyAddedKeyIndex = -1;
+        super.clear();
+    }
+
+    @Override
+    public V put(final long key, final V value) {
+        final V put = super.put(key, value);
+        if (put == null) {
+            updateMostRecentlyAdded(key);
+        }
+        return put;
+    }
+
+    private void updateMostRecentlyAdded(final long key) {
+        mostRecentlyAddedKeyIndex++;
+        if (mostRecentlyAddedKeyIndex >= evictionSize) {
+            mostRecentlyAddedKeyIndex = 0;
+        }
+        if (orderedKeys.length <= mostRecentlyAddedKeyIndex) {
+            final long[] oldArray = orderedKeys;
+            orderedKeys = new long[Integers.max(1, Integers.min(evictionSize, oldArray.length * 2))];
+            System.arraycopy(oldArray, 0, orderedKeys, 0, oldArray.length);
+            for (int i = oldArray.length; i < orderedKeys.length; i++) {
+                orderedKeys[i] = REMOVED_KEY;
+            }
+        }
+        if (map.size() > evictionSize) {
+            while (map.size() > maximumSize) {
+                do {
+                    leastRecentlyAddedKeyIndex++;
+                    if (leastRecentlyAddedKeyIndex >= evictionSize
+                            || leastRecentlyAddedKeyIndex >= orderedKeys.length) {
+                        leastRecentlyAddedKeyIndex = 0;
+                    }
+                    //jump over removed keys
+                } while (orderedKeys[leastRecentlyAddedKeyIndex] == REMOVED_KEY);
+                map.remove(orderedKeys[leastRecentlyAddedKeyIndex]);
+                orderedKeys[leastRecentlyAddedKeyIndex] = REMOVED_KEY;
+            }
+        }
+        orderedKeys[mostRecentlyAddedKeyIndex] = key;
+    }
+
+    @Override
+    protected void onRemove(final long key) {
+        if (map.isEmpty()) {
+            orderedKeys = EMPTY_ORDERED_KEYS;
+            leastRecentlyAddedKeyIndex = -1;
+            mostRecentlyAddedKeyIndex = -1;
+        } else {
+            final int index = findIndex(key);
+            if (index == mostRecentlyAddedKeyIndex) {
+                orderedKeys[mostRecentlyAddedKeyIndex] = REMOVED_KEY;
+                mostRecentlyAddedKeyIndex--;
+            } else {
+                orderedKeys[index] = REMOVED_KEY;
+            }
+        }
+    }
+
+    private int findIndex(final long key) {
+        for (int i = 0; i < orderedKeys.length; i++) {
+            if (orderedKeys[i] == key) {
+                return i;
+            }
+        }
+        throw new IllegalStateException("Key not found: " + key);
+    }
+
+    @Override
+    public EvictionMode getEvictionMode() {
+        return EvictionMode.LeastRecentlyAdded;
+    }
+
+    @Override
+    public void setMaximumSize(final int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.evictionSize = maximumSize * EVICTION_SIZE_MULTIPLIER;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+}
@@ -0,0 +1,25 @@
+package de.invesdwin.util.collections.eviction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Same eviction as CommonsLeastRecentlyModifiedMap, only updates count as modifications.
+ */
+@NotThreadSafe
+public class PrimitiveFDateKeyLeastRecentlyModifiedMap<V> extends PrimitiveFDateKeyLeastRecentlyUsedMap<V> {
+
+    public PrimitiveFDateKeyLeastRecentlyModifiedMap(final int maximumSize) {
+        super(maximumSize);
+    }
+
+    @Override
+    public V get(final long key) {
+        return map.get(key);
+    }
+
+    @Override
+    public EvictionMode getEvictionMode() {
+        return EvictionMode.LeastRecentlyModified;
+    }
+
+}
@@ -0,0 +1,61 @@
+package de.invesdwin.util.collections.eviction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.time.fdate.FDate;
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+
+/**
+ * Same eviction as CommonsLeastRecentlyUsedMap, the linked open addressing map keeps the access order without entry
+ * objects.
+ */
+@NotThreadSafe
+public class PrimitiveFDateKeyLeastRecentlyUsedMap<V> extends APrimitiveFDateKeyMap<V>
+        implements IEvictionMap<FDate, V> {
+
+    private final Long2ObjectLinkedOpenHashMap<V> linkedMap;
+    private int maximumSize;
+
+    public PrimitiveFDateKeyLeastRecentlyUsedMap(final int maximumSize) {
+        this(new Long2ObjectLinkedOpenHashMap<V>(), maximumSize);
+    }
+
+    private PrimitiveFDateKeyLeastRecentlyUsedMap(final Long2ObjectLinkedOpenHashMap<V> linkedMap,
+            final int maximumSize) {
+        super(linkedMap);
+        this.linkedMap = linkedMap;
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public V get(final long key) {
+        return linkedMap.getAndMoveToLast(key);
+    }
+
+    @Override
+    public V put(final long key, final V value) {
+        final V put = linkedMap.putAndMoveToLast(key, value);
+        if (put == null) {
+            while (linkedMap.size() > maximumSize) {
+                linkedMap.removeFirst();
+            }
+        }
+        return put;
+    }
+
+    @Override
+    public EvictionMode getEvictionMode() {
+        return EvictionMode.LeastRecentlyUsed;
+    }
+
+    @Override
+    public void setMaximumSize(final int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    @Override
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+}
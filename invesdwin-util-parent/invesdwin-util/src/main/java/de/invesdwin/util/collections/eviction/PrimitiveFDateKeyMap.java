@@ -0,0 +1,17 @@
+package de.invesdwin.util.collections.eviction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+/**
+ * Unlimited variant without eviction.
+ */
+@NotThreadSafe
+public class PrimitiveFDateKeyMap<V> extends APrimitiveFDateKeyMap<V> {
+
+    public PrimitiveFDateKeyMap() {
+        super(new Long2ObjectOpenHashMap<V>());
+    }
+
+}
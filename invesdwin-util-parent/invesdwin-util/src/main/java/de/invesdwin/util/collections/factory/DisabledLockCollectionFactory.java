@@ -41,14 +41,14 @@ import uk.co.omegaprime.btreemap.BTreeMap;
 public final class DisabledLockCollectionFactory implements ILockCollectionFactory {
 
     public static final DisabledLockCollectionFactory INSTANCE = new DisabledLockCollectionFactory();
-    //ServiceLoader does not work properly during maven builds, thus directly reference the actual factories
-    private static final HashObjObjMapFactory<?, ?> KOLOBOKE_MAP_FACTORY = new LHashParallelKVObjObjMapFactoryImpl<Object, Object>();
-    private static final HashObjSetFactory<?> KOLOBOKE_SET_FACTORY = new LHashObjSetFactoryImpl<Object>();
     /**
      * At a few 100k elements the speed of roaring bitmap is similar to that of java bitset (about 20-30% slower instead
      * of 50%). Thus prefer the memory saver version at some threshold.
      */
-    private static final int ROARING_BITMAP_THRESHOLD = 1_000_000;
+    public static final int ROARING_BITMAP_THRESHOLD = 1_000_000;
+    //ServiceLoader does not work properly during maven builds, thus directly reference the actual factories
+    private static final HashObjObjMapFactory<?, ?> KOLOBOKE_MAP_FACTORY = new LHashParallelKVObjObjMapFactoryImpl<Object, Object>();
+    private static final HashObjSetFactory<?> KOLOBOKE_SET_FACTORY = new LHashObjSetFactoryImpl<Object>();
 
     private DisabledLockCollectionFactory() {
     }
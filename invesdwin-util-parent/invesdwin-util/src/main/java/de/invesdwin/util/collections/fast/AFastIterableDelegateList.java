@@ -9,12 +9,12 @@ import java.util.ListIterator;
 import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 @ThreadSafe
 public abstract class AFastIterableDelegateList<E> implements IFastIterableList<E> {
 
-    private transient BufferingIterator<E> fastIterable;
+    private transient RingBufferingIterator<E> fastIterable;
     private transient E[] array;
     private final List<E> delegate;
 
@@ -106,14 +106,14 @@ public abstract class AFastIterableDelegateList<E> implements IFastIterableList<
     @Override
     public void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<E>();
+        fastIterable = new RingBufferingIterator<E>();
         array = null;
     }
 
     @Override
     public ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(delegate);
+            fastIterable = new RingBufferingIterator<E>(delegate);
         }
         return fastIterable.iterator();
     }
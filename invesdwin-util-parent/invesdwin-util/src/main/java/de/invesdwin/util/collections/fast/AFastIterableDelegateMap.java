@@ -9,7 +9,7 @@ import java.util.Set;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.bean.tuple.ImmutableEntry;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
@@ -20,7 +20,7 @@ import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
 @NotThreadSafe
 public abstract class AFastIterableDelegateMap<K, V> implements IFastIterableMap<K, V> {
 
-    private transient BufferingIterator<Entry<K, V>> fastIterable;
+    private transient RingBufferingIterator<Entry<K, V>> fastIterable;
 
     private transient Entry<K, V>[] entryArray;
     private transient K[] keyArray;
@@ -80,7 +80,7 @@ public abstract class AFastIterableDelegateMap<K, V> implements IFastIterableMap
     @Override
     public void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<Entry<K, V>>();
+        fastIterable = new RingBufferingIterator<Entry<K, V>>();
         entryArray = null;
         keyArray = null;
         valueArray = null;
@@ -376,7 +376,7 @@ public abstract class AFastIterableDelegateMap<K, V> implements IFastIterableMap
         @Override
         public Iterator<Entry<K, V>> iterator() {
             if (fastIterable == null) {
-                fastIterable = new BufferingIterator<Entry<K, V>>();
+                fastIterable = new RingBufferingIterator<Entry<K, V>>();
                 for (final Entry<K, V> e : delegate.entrySet()) {
                     //koloboke reuses/resets its entries, thus we have to make a safe copy
                     fastIterable.add(ImmutableEntry.of(e.getKey(), e.getValue()));
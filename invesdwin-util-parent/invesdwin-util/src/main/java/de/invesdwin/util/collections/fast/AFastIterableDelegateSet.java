@@ -7,7 +7,7 @@ import java.util.Set;
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
@@ -20,7 +20,7 @@ import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
 @NotThreadSafe
 public abstract class AFastIterableDelegateSet<E> implements IFastIterableSet<E> {
 
-    private transient BufferingIterator<E> fastIterable;
+    private transient RingBufferingIterator<E> fastIterable;
     private transient E[] array;
     private final Set<E> delegate;
 
@@ -90,14 +90,14 @@ public abstract class AFastIterableDelegateSet<E> implements IFastIterableSet<E>
     @Override
     public void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<E>();
+        fastIterable = new RingBufferingIterator<E>();
         array = null;
     }
 
     @Override
     public ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(delegate);
+            fastIterable = new RingBufferingIterator<E>(delegate);
         }
         return fastIterable.iterator();
     }
@@ -11,14 +11,14 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.collections.fast.IFastIterableList;
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 @ThreadSafe
 public abstract class ASynchronizedFastIterableDelegateList<E> implements IFastIterableList<E> {
 
     //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
     @GuardedBy("this")
-    private transient BufferingIterator<E> fastIterable;
+    private transient RingBufferingIterator<E> fastIterable;
     @GuardedBy("this")
     private transient E[] array;
     @GuardedBy("this")
@@ -112,14 +112,14 @@ public abstract class ASynchronizedFastIterableDelegateList<E> implements IFastI
     @Override
     public synchronized void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<E>();
+        fastIterable = new RingBufferingIterator<E>();
         array = null;
     }
 
     @Override
     public synchronized ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(delegate);
+            fastIterable = new RingBufferingIterator<E>(delegate);
         }
         return fastIterable.iterator();
     }
@@ -12,7 +12,7 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.bean.tuple.ImmutableEntry;
 import de.invesdwin.util.collections.fast.IFastIterableMap;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
@@ -25,7 +25,7 @@ public abstract class ASynchronizedFastIterableDelegateMap<K, V> implements IFas
 
     //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
     @GuardedBy("this")
-    private transient BufferingIterator<Entry<K, V>> fastIterable;
+    private transient RingBufferingIterator<Entry<K, V>> fastIterable;
 
     @GuardedBy("this")
     private transient Entry<K, V>[] entryArray;
@@ -89,7 +89,7 @@ public abstract class ASynchronizedFastIterableDelegateMap<K, V> implements IFas
     @Override
     public synchronized void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<Entry<K, V>>();
+        fastIterable = new RingBufferingIterator<Entry<K, V>>();
         entryArray = null;
         keyArray = null;
         valueArray = null;
@@ -404,7 +404,7 @@ public abstract class ASynchronizedFastIterableDelegateMap<K, V> implements IFas
         public Iterator<Entry<K, V>> iterator() {
             synchronized (ASynchronizedFastIterableDelegateMap.this) {
                 if (fastIterable == null) {
-                    fastIterable = new BufferingIterator<Entry<K, V>>();
+                    fastIterable = new RingBufferingIterator<Entry<K, V>>();
                     for (final Entry<K, V> e : delegate.entrySet()) {
                         //koloboke reuses/resets its entries, thus we have to make a safe copy
                         fastIterable.add(ImmutableEntry.of(e.getKey(), e.getValue()));
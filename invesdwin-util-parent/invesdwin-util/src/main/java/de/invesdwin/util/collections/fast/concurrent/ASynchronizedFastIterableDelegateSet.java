@@ -9,7 +9,7 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.collections.fast.IFastIterableSet;
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 
 /**
  * Boosts the iteration speed over the values by keeping a fast iterator instance that only gets modified when changes
@@ -24,7 +24,7 @@ public abstract class ASynchronizedFastIterableDelegateSet<E> implements IFastIt
 
     //arraylist wins in raw iterator speed compared to bufferingIterator since no remove is needed, though we need protection against concurrent modification
     @GuardedBy("this")
-    private transient BufferingIterator<E> fastIterable;
+    private transient RingBufferingIterator<E> fastIterable;
     @GuardedBy("this")
     private transient E[] array;
     @GuardedBy("this")
@@ -96,14 +96,14 @@ public abstract class ASynchronizedFastIterableDelegateSet<E> implements IFastIt
     @Override
     public synchronized void clear() {
         delegate.clear();
-        fastIterable = new BufferingIterator<E>();
+        fastIterable = new RingBufferingIterator<E>();
         array = null;
     }
 
     @Override
     public synchronized ICloseableIterator<E> iterator() {
         if (fastIterable == null) {
-            fastIterable = new BufferingIterator<E>(delegate);
+            fastIterable = new RingBufferingIterator<E>(delegate);
         }
         return fastIterable.iterator();
     }
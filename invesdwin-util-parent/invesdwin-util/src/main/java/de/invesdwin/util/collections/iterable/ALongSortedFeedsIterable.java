@@ -0,0 +1,37 @@
+package de.invesdwin.util.collections.iterable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+@NotThreadSafe
+public abstract class ALongSortedFeedsIterable<E> implements ICloseableIterable<E> {
+
+    private final Iterable<Iterable<E>> feeds;
+    private final int prefetchQueueSize;
+
+    public ALongSortedFeedsIterable(final Iterable<? extends Iterable<? extends E>> feeds) {
+        this(feeds, 0);
+    }
+
+    /**
+     * With a prefetchQueueSize greater than 0, each feed is read by a background thread into a queue of that size.
+     */
+    @SuppressWarnings("unchecked")
+    public ALongSortedFeedsIterable(final Iterable<? extends Iterable<? extends E>> feeds,
+            final int prefetchQueueSize) {
+        this.feeds = (Iterable<Iterable<E>>) feeds;
+        this.prefetchQueueSize = prefetchQueueSize;
+    }
+
+    @Override
+    public ICloseableIterator<E> iterator() {
+        return new ALongSortedFeedsIterator<E>(ASortedFeedsIterable.newFeedIterators(feeds), prefetchQueueSize) {
+            @Override
+            protected long getCompareKey(final E e) {
+                return ALongSortedFeedsIterable.this.getCompareKey(e);
+            }
+        };
+    }
+
+    protected abstract long getCompareKey(E e);
+
+}
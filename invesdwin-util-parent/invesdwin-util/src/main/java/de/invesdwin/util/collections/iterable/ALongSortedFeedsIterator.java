@@ -0,0 +1,43 @@
+package de.invesdwin.util.collections.iterable;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Merges feeds that are sorted by a primitive long key (e.g. FDate.millisValue()), thus comparisons do not need any
+ * boxing or virtual compareTo calls.
+ */
+@NotThreadSafe
+public abstract class ALongSortedFeedsIterator<E> extends ASortedFeedsHeapIterator<E> {
+
+    private long[] keys;
+
+    public ALongSortedFeedsIterator(final Iterable<? extends ICloseableIterator<? extends E>> feeds) {
+        this(feeds, 0);
+    }
+
+    /**
+     * With a prefetchQueueSize greater than 0, each feed is read by a background thread into a queue of that size.
+     */
+    public ALongSortedFeedsIterator(final Iterable<? extends ICloseableIterator<? extends E>> feeds,
+            final int prefetchQueueSize) {
+        super(feeds, prefetchQueueSize);
+    }
+
+    protected abstract long getCompareKey(E e);
+
+    @Override
+    protected void initKeys(final int feedsCount) {
+        keys = new long[feedsCount];
+    }
+
+    @Override
+    protected void updateKey(final int feedIndex, final E head) {
+        keys[feedIndex] = getCompareKey(head);
+    }
+
+    @Override
+    protected int compareKeys(final int feedIndex1, final int feedIndex2) {
+        return Long.compare(keys[feedIndex1], keys[feedIndex2]);
+    }
+
+}
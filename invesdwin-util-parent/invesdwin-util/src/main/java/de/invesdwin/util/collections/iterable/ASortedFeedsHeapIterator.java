@@ -0,0 +1,202 @@
+package de.invesdwin.util.collections.iterable;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.collections.iterable.concurrent.AProducerQueueIterator;
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Merges sorted feeds via a binary min heap of feed indexes, thus each element costs O(log k) comparisons for k feeds.
+ * The head element of each feed is kept in an array and its key is extracted only once per element by the subclass.
+ * Elements with equal keys are returned in the order of the feeds.
+ *
+ * When a prefetchQueueSize is given, each feed is read on its own background thread into a bounded queue. This only
+ * pays off when producing the elements of a feed is expensive (e.g. deserialization from disk), since every feed then
+ * occupies a thread.
+ */
+@NotThreadSafe
+abstract class ASortedFeedsHeapIterator<E> implements ICloseableIterator<E> {
+
+    private List<ICloseableIterator<? extends E>> pendingFeeds;
+    private ICloseableIterator<? extends E>[] feeds;
+    private Object[] heads;
+    private int[] heap;
+    private int heapSize;
+
+    ASortedFeedsHeapIterator(final Iterable<? extends ICloseableIterator<? extends E>> feeds,
+            final int prefetchQueueSize) {
+        final List<ICloseableIterator<? extends E>> pendingFeeds = new ArrayList<>();
+        for (final ICloseableIterator<? extends E> feed : feeds) {
+            if (prefetchQueueSize > 0) {
+                pendingFeeds.add(newPrefetchingFeed(feed, prefetchQueueSize, pendingFeeds.size()));
+            } else {
+                pendingFeeds.add(feed);
+            }
+        }
+        this.pendingFeeds = pendingFeeds;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E> ICloseableIterator<E> newPrefetchingFeed(final ICloseableIterator<? extends E> feed,
+            final int prefetchQueueSize, final int feedIndex) {
+        final String name = ASortedFeedsIterator.class.getSimpleName() + "_prefetch_" + feedIndex;
+        return new AProducerQueueIterator<E>(name, prefetchQueueSize) {
+            @Override
+            protected ICloseableIterator<E> newProducer() {
+                return (ICloseableIterator<E>) feed;
+            }
+        };
+    }
+
+    /**
+     * Called once before the first key is updated.
+     */
+    protected abstract void initKeys(int feedsCount);
+
+    /**
+     * Extracts the key of the new head element of the given feed.
+     */
+    protected abstract void updateKey(int feedIndex, E head);
+
+    protected abstract int compareKeys(int feedIndex1, int feedIndex2);
+
+    @SuppressWarnings("unchecked")
+    private void maybeInit() {
+        if (pendingFeeds == null) {
+            return;
+        }
+        final int feedsCount = pendingFeeds.size();
+        feeds = new ICloseableIterator[feedsCount];
+        heads = new Object[feedsCount];
+        heap = new int[feedsCount];
+        initKeys(feedsCount);
+        for (int i = 0; i < feedsCount; i++) {
+            final ICloseableIterator<? extends E> feed = pendingFeeds.get(i);
+            feeds[i] = feed;
+            //only add feeds that are not empty
+            if (readHead(i)) {
+                heap[heapSize] = i;
+                siftUp(heapSize);
+                heapSize++;
+            }
+        }
+        pendingFeeds = null;
+    }
+
+    /**
+     * Returns false and closes the feed if it is empty.
+     */
+    private boolean readHead(final int feedIndex) {
+        final ICloseableIterator<? extends E> feed = feeds[feedIndex];
+        try {
+            if (feed.hasNext()) {
+                final E head = feed.next();
+                heads[feedIndex] = head;
+                updateKey(feedIndex, head);
+                return true;
+            }
+        } catch (final NoSuchElementException e) {
+            //feed is empty
+        }
+        feed.close();
+        feeds[feedIndex] = null;
+        heads[feedIndex] = null;
+        return false;
+    }
+
+    @Override
+    public boolean hasNext() {
+        maybeInit();
+        return heapSize > 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() {
+        if (!hasNext()) {
+            throw new FastNoSuchElementException(getClass().getSimpleName() + " hasNext() returned false");
+        }
+        final int feedIndex = heap[0];
+        final E next = (E) heads[feedIndex];
+        if (!readHead(feedIndex)) {
+            heapSize--;
+            heap[0] = heap[heapSize];
+        }
+        if (heapSize > 0) {
+            siftDown(0);
+        }
+        return next;
+    }
+
+    private boolean isLess(final int heapIndex1, final int heapIndex2) {
+        final int feedIndex1 = heap[heapIndex1];
+        final int feedIndex2 = heap[heapIndex2];
+        final int compare = compareKeys(feedIndex1, feedIndex2);
+        if (compare != 0) {
+            return compare < 0;
+        }
+        return feedIndex1 < feedIndex2;
+    }
+
+    private void siftUp(final int heapIndex) {
+        int child = heapIndex;
+        while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (!isLess(child, parent)) {
+                return;
+            }
+            swap(child, parent);
+            child = parent;
+        }
+    }
+
+    private void siftDown(final int heapIndex) {
+        int parent = heapIndex;
+        while (true) {
+            final int left = 2 * parent + 1;
+            if (left >= heapSize) {
+                return;
+            }
+            int smallest = left;
+            final int right = left + 1;
+            if (right < heapSize && isLess(right, left)) {
+                smallest = right;
+            }
+            if (!isLess(smallest, parent)) {
+                return;
+            }
+            swap(smallest, parent);
+            parent = smallest;
+        }
+    }
+
+    private void swap(final int heapIndex1, final int heapIndex2) {
+        final int feedIndex = heap[heapIndex1];
+        heap[heapIndex1] = heap[heapIndex2];
+        heap[heapIndex2] = feedIndex;
+    }
+
+    @Override
+    public void close() {
+        if (pendingFeeds != null) {
+            for (int i = 0; i < pendingFeeds.size(); i++) {
+                pendingFeeds.get(i).close();
+            }
+            pendingFeeds = null;
+            heapSize = 0;
+            return;
+        }
+        for (int i = 0; i < heapSize; i++) {
+            final int feedIndex = heap[i];
+            feeds[feedIndex].close();
+            feeds[feedIndex] = null;
+            heads[feedIndex] = null;
+        }
+        heapSize = 0;
+    }
+
+}
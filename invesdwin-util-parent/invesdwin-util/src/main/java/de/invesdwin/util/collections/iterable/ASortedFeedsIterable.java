@@ -6,22 +6,24 @@ import javax.annotation.concurrent.NotThreadSafe;
 public abstract class ASortedFeedsIterable<E> implements ICloseableIterable<E> {
 
     private final Iterable<Iterable<E>> feeds;
+    private final int prefetchQueueSize;
 
-    @SuppressWarnings("unchecked")
     public ASortedFeedsIterable(final Iterable<? extends Iterable<? extends E>> feeds) {
+        this(feeds, 0);
+    }
+
+    /**
+     * With a prefetchQueueSize greater than 0, each feed is read by a background thread into a queue of that size.
+     */
+    @SuppressWarnings("unchecked")
+    public ASortedFeedsIterable(final Iterable<? extends Iterable<? extends E>> feeds, final int prefetchQueueSize) {
         this.feeds = (Iterable<Iterable<E>>) feeds;
+        this.prefetchQueueSize = prefetchQueueSize;
     }
 
     @Override
     public ICloseableIterator<E> iterator() {
-        final ATransformingIterable<Iterable<E>, ICloseableIterator<E>> iterators = new ATransformingIterable<Iterable<E>, ICloseableIterator<E>>(
-                WrapperCloseableIterable.maybeWrap(feeds)) {
-            @Override
-            protected ICloseableIterator<E> transform(final Iterable<E> value) {
-                return WrapperCloseableIterable.maybeWrap(value).iterator();
-            }
-        };
-        return new ASortedFeedsIterator<E>(iterators) {
+        return new ASortedFeedsIterator<E>(newFeedIterators(feeds), prefetchQueueSize) {
             @Override
             protected Comparable<?> getCompareCriteria(final E e) {
                 return ASortedFeedsIterable.this.getCompareCriteria(e);
@@ -31,4 +33,14 @@ public abstract class ASortedFeedsIterable<E> implements ICloseableIterable<E> {
 
     protected abstract Comparable<?> getCompareCriteria(E e);
 
+    static <E> ICloseableIterable<ICloseableIterator<E>> newFeedIterators(final Iterable<Iterable<E>> feeds) {
+        final ICloseableIterable<Iterable<E>> wrappedFeeds = WrapperCloseableIterable.maybeWrap(feeds);
+        return new ATransformingIterable<Iterable<E>, ICloseableIterator<E>>(wrappedFeeds) {
+            @Override
+            protected ICloseableIterator<E> transform(final Iterable<E> value) {
+                return WrapperCloseableIterable.maybeWrap(value).iterator();
+            }
+        };
+    }
+
 }
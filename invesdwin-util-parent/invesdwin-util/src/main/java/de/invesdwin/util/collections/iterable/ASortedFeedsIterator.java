@@ -1,73 +1,58 @@
 package de.invesdwin.util.collections.iterable;
 
-import java.util.LinkedList;
-import java.util.List;
-import java.util.NoSuchElementException;
-
 import javax.annotation.concurrent.NotThreadSafe;
 
-import de.invesdwin.util.collections.list.HighLowSortedList;
-import de.invesdwin.util.error.FastNoSuchElementException;
-import de.invesdwin.util.lang.ADelegateComparator;
-
+/**
+ * Merges feeds that are sorted by the compare criteria. The criteria is extracted only once per element, null sorts
+ * first. Use ALongSortedFeedsIterator when the criteria can be expressed as a primitive long (e.g.
+ * FDate.millisValue()).
+ */
 @NotThreadSafe
-public abstract class ASortedFeedsIterator<E> implements ICloseableIterator<E> {
+public abstract class ASortedFeedsIterator<E> extends ASortedFeedsHeapIterator<E> {
 
-    private final ADelegateComparator<PeekingCloseableIterator<E>> comparator = new ADelegateComparator<PeekingCloseableIterator<E>>() {
-        @Override
-        protected Comparable<?> getCompareCriteria(final PeekingCloseableIterator<E> e) {
-            return ASortedFeedsIterator.this.getCompareCriteria(e.peek());
-        }
-    };
-    private final HighLowSortedList<PeekingCloseableIterator<? extends E>> peekingFeeds = new HighLowSortedList<PeekingCloseableIterator<? extends E>>(
-            comparator) {
-        @Override
-        protected List<PeekingCloseableIterator<? extends E>> newDelegate() {
-            return new LinkedList<>();
-        }
-    };
+    private Comparable<Object>[] criteria;
 
     public ASortedFeedsIterator(final Iterable<? extends ICloseableIterator<? extends E>> feeds) {
-        for (final ICloseableIterator<? extends E> feed : feeds) {
-            final PeekingCloseableIterator<? extends E> peekingFeed = new PeekingCloseableIterator<>(feed);
-            //only add feeds that are not empty
-            if (peekingFeed.hasNext()) {
-                peekingFeeds.add(peekingFeed);
-            }
-        }
+        this(feeds, 0);
+    }
+
+    /**
+     * With a prefetchQueueSize greater than 0, each feed is read by a background thread into a queue of that size.
+     */
+    public ASortedFeedsIterator(final Iterable<? extends ICloseableIterator<? extends E>> feeds,
+            final int prefetchQueueSize) {
+        super(feeds, prefetchQueueSize);
     }
 
     protected abstract Comparable<?> getCompareCriteria(E e);
 
+    @SuppressWarnings("unchecked")
     @Override
-    public boolean hasNext() {
-        return !peekingFeeds.isEmpty();
+    protected void initKeys(final int feedsCount) {
+        criteria = new Comparable[feedsCount];
     }
 
+    @SuppressWarnings("unchecked")
     @Override
-    public E next() {
-        if (!hasNext()) {
-            throw new FastNoSuchElementException("ASortedFeedsIterator hasNext() returned false");
-        }
-        final PeekingCloseableIterator<? extends E> peekingFeed = peekingFeeds.remove(0);
-        try {
-            final E next = peekingFeed.next();
-            if (peekingFeed.hasNext()) {
-                peekingFeeds.add(peekingFeed); //add into the list with an updated sort order
-            }
-            return next;
-        } catch (final NoSuchElementException e) {
-            //feed is empty
-            return next();
-        }
+    protected void updateKey(final int feedIndex, final E head) {
+        criteria[feedIndex] = (Comparable<Object>) getCompareCriteria(head);
     }
 
     @Override
-    public void close() {
-        for (final PeekingCloseableIterator<? extends E> feed : peekingFeeds) {
-            feed.close();
+    protected int compareKeys(final int feedIndex1, final int feedIndex2) {
+        final Comparable<Object> c1 = criteria[feedIndex1];
+        final Comparable<Object> c2 = criteria[feedIndex2];
+        if (c1 == null) {
+            if (c2 == null) {
+                return 0;
+            } else {
+                return -1;
+            }
+        } else if (c2 == null) {
+            return 1;
+        } else {
+            return c1.compareTo(c2);
         }
-        peekingFeeds.clear();
     }
 
 }
@@ -0,0 +1,373 @@
+package de.invesdwin.util.collections.iterable.buffer;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.norva.marker.ISerializableValueObject;
+import de.invesdwin.util.collections.iterable.EmptyCloseableIterator;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.iterable.WrapperCloseableIterable;
+import de.invesdwin.util.collections.iterable.WrapperCloseableIterator;
+import de.invesdwin.util.collections.list.Lists;
+import de.invesdwin.util.error.FastNoSuchElementException;
+
+/**
+ * Same semantics as BufferingIterator, but the elements are stored in a ring array that grows by doubling instead of
+ * allocating a node per element. The array is kept on clear, thus a buffer that is refilled repeatedly does not
+ * allocate anything after it has reached its working size. Consuming another RingBufferingIterator into an empty one
+ * swaps the arrays instead of copying.
+ *
+ * In contrast to BufferingIterator, iterator() only stays valid as long as this buffer is not consumed via next() or
+ * cleared, since the slots are reused afterwards. Appending elements is fine, they are just not visible to the
+ * iterator.
+ */
+@NotThreadSafe
+public class RingBufferingIterator<E> implements IBufferingIterator<E>, ISerializableValueObject {
+
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private Object[] values;
+    private int mask;
+    private int head = 0;
+    private int size = 0;
+
+    public RingBufferingIterator() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public RingBufferingIterator(final int initialCapacity) {
+        final int capacity = newCapacity(initialCapacity);
+        this.values = new Object[capacity];
+        this.mask = capacity - 1;
+    }
+
+    public RingBufferingIterator(final ICloseableIterator<? extends E> iterator) {
+        this();
+        addAll(iterator);
+    }
+
+    public RingBufferingIterator(final ICloseableIterable<? extends E> iterable) {
+        this();
+        addAll(iterable);
+    }
+
+    public RingBufferingIterator(final Iterable<? extends E> iterable) {
+        this();
+        addAll(iterable);
+    }
+
+    private static int newCapacity(final int minCapacity) {
+        final int capacity = Math.max(2, minCapacity);
+        final int highestOneBit = Integer.highestOneBit(capacity);
+        if (highestOneBit == capacity) {
+            return capacity;
+        } else {
+            return highestOneBit << 1;
+        }
+    }
+
+    private void ensureCapacity(final int minCapacity) {
+        if (minCapacity <= values.length) {
+            return;
+        }
+        final Object[] newValues = new Object[newCapacity(minCapacity)];
+        copyTo(newValues);
+        values = newValues;
+        mask = newValues.length - 1;
+        head = 0;
+    }
+
+    /**
+     * Copies the elements in order to the beginning of the given array.
+     */
+    private void copyTo(final Object[] dest) {
+        final int firstLength = Math.min(size, values.length - head);
+        System.arraycopy(values, head, dest, 0, firstLength);
+        System.arraycopy(values, 0, dest, firstLength, size - firstLength);
+    }
+
+    @Override
+    public boolean hasNext() {
+        return size > 0;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E next() {
+        if (size == 0) {
+            throw new FastNoSuchElementException("RingBufferingIterator next() is empty");
+        }
+        final E value = (E) values[head];
+        values[head] = null;
+        head = (head + 1) & mask;
+        size--;
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getHead() {
+        if (size == 0) {
+            return null;
+        } else {
+            return (E) values[head];
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public E getTail() {
+        if (size == 0) {
+            return null;
+        } else {
+            return (E) values[(head + size - 1) & mask];
+        }
+    }
+
+    @Override
+    public boolean prepend(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        ensureCapacity(size + 1);
+        head = (head - 1) & mask;
+        values[head] = element;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean add(final E element) {
+        if (element == null) {
+            throw new NullPointerException();
+        }
+        ensureCapacity(size + 1);
+        values[(head + size) & mask] = element;
+        size++;
+        return true;
+    }
+
+    @Override
+    public boolean addAll(final Iterable<? extends E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else {
+            return addAll(WrapperCloseableIterable.maybeWrap(iterable));
+        }
+    }
+
+    @Override
+    public boolean addAll(final ICloseableIterable<? extends E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else {
+            return addAll(iterable.iterator());
+        }
+    }
+
+    @Override
+    public boolean addAll(final BufferingIterator<E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else {
+            return addAll(iterable.iterator());
+        }
+    }
+
+    @Deprecated
+    @Override
+    public boolean addAll(final Iterator<? extends E> iterator) {
+        if (iterator == null) {
+            return false;
+        } else {
+            return addAll(WrapperCloseableIterator.maybeWrap(iterator));
+        }
+    }
+
+    @Override
+    public boolean addAll(final ICloseableIterator<? extends E> iterator) {
+        if (iterator == null) {
+            return false;
+        } else {
+            final int sizeBefore = size;
+            try {
+                while (true) {
+                    final E next = iterator.next();
+                    if (size == values.length) {
+                        ensureCapacity(size + 1);
+                    }
+                    values[(head + size) & mask] = next;
+                    size++;
+                }
+            } catch (final NoSuchElementException e) {
+                //end reached
+            } finally {
+                iterator.close();
+            }
+            return sizeBefore < size;
+        }
+    }
+
+    @Override
+    public boolean consume(final Iterable<? extends E> iterable) {
+        if (iterable == null) {
+            return false;
+        } else if (iterable instanceof RingBufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final RingBufferingIterator<E> cIterable = (RingBufferingIterator<E>) iterable;
+            return consume(cIterable);
+        } else if (iterable instanceof BufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final BufferingIterator<E> cIterable = (BufferingIterator<E>) iterable;
+            return consume(cIterable);
+        } else {
+            return addAll(iterable);
+        }
+    }
+
+    @Deprecated
+    @Override
+    public boolean consume(final Iterator<? extends E> iterator) {
+        if (iterator == null) {
+            return false;
+        } else if (iterator instanceof RingBufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final RingBufferingIterator<E> cIterator = (RingBufferingIterator<E>) iterator;
+            return consume(cIterator);
+        } else if (iterator instanceof BufferingIterator) {
+            @SuppressWarnings("unchecked")
+            final BufferingIterator<E> cIterator = (BufferingIterator<E>) iterator;
+            return consume(cIterator);
+        } else {
+            return addAll(iterator);
+        }
+    }
+
+    @Override
+    public boolean consume(final BufferingIterator<E> iterator) {
+        final boolean added = addAll(iterator.iterator());
+        iterator.clear();
+        return added;
+    }
+
+    /**
+     * The other buffer is empty afterwards. If this buffer is empty, the arrays are swapped so that both can be reused.
+     */
+    public boolean consume(final RingBufferingIterator<E> iterator) {
+        if (iterator == this || iterator.size == 0) {
+            return false;
+        }
+        if (size == 0) {
+            final Object[] emptyValues = values;
+            values = iterator.values;
+            mask = iterator.mask;
+            head = iterator.head;
+            size = iterator.size;
+            iterator.values = emptyValues;
+            iterator.mask = emptyValues.length - 1;
+            iterator.head = 0;
+            iterator.size = 0;
+            return true;
+        }
+        ensureCapacity(size + iterator.size);
+        final Object[] otherValues = iterator.values;
+        final int otherMask = iterator.mask;
+        int otherIndex = iterator.head;
+        for (int i = 0; i < iterator.size; i++) {
+            values[(head + size) & mask] = otherValues[otherIndex];
+            size++;
+            otherIndex = (otherIndex + 1) & otherMask;
+        }
+        iterator.clear();
+        return true;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    /**
+     * Keeps the array so that it can be reused.
+     */
+    @Override
+    public void clear() {
+        if (size == 0) {
+            head = 0;
+            return;
+        }
+        final int firstEnd = Math.min(values.length, head + size);
+        Arrays.fill(values, head, firstEnd, null);
+        final int secondEnd = head + size - values.length;
+        if (secondEnd > 0) {
+            Arrays.fill(values, 0, secondEnd, null);
+        }
+        head = 0;
+        size = 0;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String toString() {
+        return Lists.toListWithoutHasNext(iterator()).toString();
+    }
+
+    @Override
+    public ICloseableIterator<E> iterator() {
+        if (size == 0) {
+            return EmptyCloseableIterator.getInstance();
+        } else {
+            return new RingBufferingIteratorIterator<E>(values, head, size);
+        }
+    }
+
+    private static final class RingBufferingIteratorIterator<_E> implements ICloseableIterator<_E> {
+        private final Object[] values;
+        private final int mask;
+        private int index;
+        private int remaining;
+
+        private RingBufferingIteratorIterator(final Object[] values, final int head, final int size) {
+            this.values = values;
+            this.mask = values.length - 1;
+            this.index = head;
+            this.remaining = size;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public _E next() {
+            if (!hasNext()) {
+                throw new FastNoSuchElementException("RingBufferingIterator: hasNext is false");
+            }
+            final _E value = (_E) values[index];
+            index = (index + 1) & mask;
+            remaining--;
+            return value;
+        }
+
+        @Override
+        public void close() {
+            remaining = 0;
+        }
+    }
+
+}
@@ -0,0 +1,52 @@
+package de.invesdwin.util.collections.iterable.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.collections.iterable.ADelegateCloseableIterator;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+
+@NotThreadSafe
+public abstract class ABatchProducerQueueIterator<E> extends AGenericBatchProducerQueueIterator<E> {
+
+    private final ICloseableIterator<E> producer;
+
+    public ABatchProducerQueueIterator(final String name) {
+        this(name, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_COUNT);
+    }
+
+    public ABatchProducerQueueIterator(final String name, final int batchSize, final int batchCount) {
+        this(name, batchSize, batchCount, null);
+    }
+
+    public ABatchProducerQueueIterator(final String name, final int batchSize, final int batchCount,
+            final ExecutorService executor) {
+        super(name, batchSize, batchCount, executor);
+        this.producer = new ADelegateCloseableIterator<E>() {
+
+            @Override
+            protected ICloseableIterator<E> newDelegate() {
+                return ABatchProducerQueueIterator.this.newProducer();
+            }
+        };
+        start();
+    }
+
+    protected abstract ICloseableIterator<E> newProducer();
+
+    @Override
+    protected void internalProduce(final Consumer<E> consumer) {
+        while (!isInnerClosed() && producer.hasNext()) {
+            final E next = producer.next();
+            consumer.accept(next);
+        }
+    }
+
+    @Override
+    protected void internalCloseProducer() {
+        producer.close();
+    }
+
+}
@@ -0,0 +1,325 @@
+package de.invesdwin.util.collections.iterable.concurrent;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ACloseableIterator;
+import de.invesdwin.util.concurrent.ASpinWait;
+import de.invesdwin.util.concurrent.ConditionSpinWait;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.error.FastNoSuchElementException;
+import de.invesdwin.util.lang.description.TextDescription;
+import de.invesdwin.util.lang.finalizer.AFinalizer;
+import de.invesdwin.util.time.duration.Duration;
+import de.invesdwin.util.time.fdate.FTimeUnit;
+
+/**
+ * An alternative to AGenericProducerQueueIterator for high throughput. The producer thread fills batches of elements
+ * in a single-producer/single-consumer ring of preallocated arrays and publishes each batch with one ordered write, the
+ * consumer drains whole batches. Thus there are no locks or queue nodes per element. A partially filled batch is
+ * published early when the consumer is waiting, so slow producers do not delay the consumer until a batch is full.
+ *
+ * Waiting on a full or empty ring is done via the ASpinWait instances of newProducerSpinWait() and
+ * newConsumerSpinWait(), which can be overridden to tune the wait strategy. The producer can run on a shared executor,
+ * though it blocks one of its threads while the ring is full.
+ */
+@NotThreadSafe
+public abstract class AGenericBatchProducerQueueIterator<E> extends ACloseableIterator<E> {
+
+    public static final int DEFAULT_BATCH_SIZE = 512;
+    public static final int DEFAULT_BATCH_COUNT = 32;
+    private static final Duration MAX_WAIT = new Duration(1, FTimeUnit.SECONDS);
+
+    private final BatchProducerQueueIteratorFinalizer finalizer;
+    private final int batchSize;
+    private final Object[][] batches;
+    private final int[] batchSizes;
+    private final int mask;
+    private final AtomicLong publishedSequence = new AtomicLong();
+    private final AtomicLong consumedSequence = new AtomicLong();
+    private volatile boolean producerFinished;
+    private volatile boolean consumerWaiting;
+    private final ASpinWait producerSpinWait;
+    private final ASpinWait consumerSpinWait;
+
+    //producer state
+    private long writeSequence;
+    private Object[] writeBatch;
+    private int writeCount;
+
+    //consumer state
+    private long readSequence;
+    private Object[] readBatch;
+    private int readIndex;
+    private int readCount;
+    private E nextElement;
+
+    public AGenericBatchProducerQueueIterator(final String name) {
+        this(name, DEFAULT_BATCH_SIZE, DEFAULT_BATCH_COUNT);
+    }
+
+    public AGenericBatchProducerQueueIterator(final String name, final int batchSize, final int batchCount) {
+        this(name, batchSize, batchCount, null);
+    }
+
+    /**
+     * The executor is not shut down on close since it is supposed to be shared. If it is null, an own thread is
+     * created.
+     */
+    public AGenericBatchProducerQueueIterator(final String name, final int batchSize, final int batchCount,
+            final ExecutorService executor) {
+        super(new TextDescription(name));
+        Assertions.checkTrue(batchSize > 0, "batchSize should be positive: %s", batchSize);
+        Assertions.checkTrue(batchCount > 0, "batchCount should be positive: %s", batchCount);
+        this.finalizer = new BatchProducerQueueIteratorFinalizer(name, executor);
+        this.batchSize = batchSize;
+        final int capacity = newCapacity(batchCount);
+        this.batches = new Object[capacity][batchSize];
+        this.batchSizes = new int[capacity];
+        this.mask = capacity - 1;
+        this.producerSpinWait = newProducerSpinWait();
+        this.consumerSpinWait = newConsumerSpinWait();
+    }
+
+    private static int newCapacity(final int batchCount) {
+        final int highestOneBit = Integer.highestOneBit(batchCount);
+        if (highestOneBit == batchCount) {
+            return batchCount;
+        } else {
+            return highestOneBit << 1;
+        }
+    }
+
+    protected ASpinWait newProducerSpinWait() {
+        return new ConditionSpinWait();
+    }
+
+    protected ASpinWait newConsumerSpinWait() {
+        return new ConditionSpinWait();
+    }
+
+    protected void start() {
+        finalizer.started = true;
+        finalizer.executor.execute(new ProducerRunnable());
+        this.finalizer.register(this);
+    }
+
+    protected abstract void internalProduce(Consumer<E> consumer);
+
+    /**
+     * Only the opening thread is supposed to close the producer.
+     */
+    protected abstract void internalCloseProducer();
+
+    protected boolean isInnerClosed() {
+        return finalizer.closed;
+    }
+
+    @Override
+    protected boolean innerHasNext() {
+        if (nextElement == null) {
+            nextElement = readNext();
+        }
+        return nextElement != null;
+    }
+
+    @Override
+    protected E innerNext() {
+        if (!innerHasNext()) {
+            throw new FastNoSuchElementException("BatchProducerQueueIterator: hasNext is false");
+        }
+        final E curElement = nextElement;
+        nextElement = null;
+        return curElement;
+    }
+
+    @SuppressWarnings("unchecked")
+    private E readNext() {
+        while (true) {
+            if (readIndex < readCount) {
+                final E element = (E) readBatch[readIndex];
+                readBatch[readIndex] = null;
+                readIndex++;
+                return element;
+            }
+            if (readBatch != null) {
+                //hand the batch back to the producer
+                readBatch = null;
+                readSequence++;
+                consumedSequence.lazySet(readSequence);
+            }
+            if (publishedSequence.get() > readSequence) {
+                final int index = (int) (readSequence & mask);
+                readBatch = batches[index];
+                readCount = batchSizes[index];
+                readIndex = 0;
+                continue;
+            }
+            if (producerFinished) {
+                if (publishedSequence.get() > readSequence) {
+                    continue;
+                }
+                finalizer.close();
+                return null;
+            }
+            if (isInnerClosed() || !awaitPublished()) {
+                return null;
+            }
+        }
+    }
+
+    private boolean awaitPublished() {
+        final long waitingSince = System.nanoTime();
+        final BooleanSupplier condition = new BooleanSupplier() {
+            @Override
+            public boolean getAsBoolean() {
+                return publishedSequence.get() > readSequence || producerFinished || isInnerClosed();
+            }
+        };
+        consumerWaiting = true;
+        try {
+            while (!consumerSpinWait.awaitFulfill(waitingSince, MAX_WAIT, condition)) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        } finally {
+            consumerWaiting = false;
+        }
+    }
+
+    private final class ProducerRunnable implements Runnable {
+
+        @Override
+        public void run() {
+            try {
+                final Consumer<E> consumer = new Consumer<E>() {
+                    @Override
+                    public void accept(final E t) {
+                        onElement(t);
+                    }
+                };
+                AGenericBatchProducerQueueIterator.this.internalProduce(consumer);
+            } catch (final NoSuchElementException e) {
+                //end reached
+            } finally {
+                if (writeCount > 0) {
+                    publish();
+                }
+                producerFinished = true;
+                internalCloseProducer();
+            }
+        }
+
+        private void onElement(final E element) {
+            Assertions.assertThat(element).isNotNull();
+            if (writeBatch == null) {
+                if (!awaitFreeBatch()) {
+                    return;
+                }
+                writeBatch = batches[(int) (writeSequence & mask)];
+                writeCount = 0;
+            }
+            writeBatch[writeCount] = element;
+            writeCount++;
+            if (writeCount == batchSize || consumerWaiting) {
+                publish();
+            }
+        }
+
+        private void publish() {
+            batchSizes[(int) (writeSequence & mask)] = writeCount;
+            writeBatch = null;
+            writeCount = 0;
+            writeSequence++;
+            //ordered write makes the batch content visible to the consumer
+            publishedSequence.lazySet(writeSequence);
+        }
+
+        private boolean awaitFreeBatch() {
+            final int capacity = batches.length;
+            if (writeSequence - consumedSequence.get() < capacity) {
+                return true;
+            }
+            final long waitingSince = System.nanoTime();
+            final BooleanSupplier condition = new BooleanSupplier() {
+                @Override
+                public boolean getAsBoolean() {
+                    return writeSequence - consumedSequence.get() < capacity || isInnerClosed();
+                }
+            };
+            try {
+                while (!producerSpinWait.awaitFulfill(waitingSince, MAX_WAIT, condition)) {
+                    if (Thread.currentThread().isInterrupted()) {
+                        finalizer.close();
+                        return false;
+                    }
+                }
+            } catch (final Exception e) {
+                throw new RuntimeException(e);
+            }
+            return !isInnerClosed();
+        }
+    }
+
+    private static final class BatchProducerQueueIteratorFinalizer extends AFinalizer {
+
+        private final boolean sharedExecutor;
+        private ExecutorService executor;
+        private boolean started;
+        private volatile boolean closed;
+
+        private BatchProducerQueueIteratorFinalizer(final String name, final ExecutorService executor) {
+            if (executor == null) {
+                this.sharedExecutor = false;
+                this.executor = Executors.newFixedThreadPool(name, 1);
+            } else {
+                this.sharedExecutor = true;
+                this.executor = executor;
+            }
+        }
+
+        @Override
+        protected void onClose() {
+            if (!started) {
+                throw new IllegalStateException("start() was forgotten to be called right after the constructor");
+            }
+        }
+
+        @Override
+        protected void clean() {
+            closed = true;
+            if (!sharedExecutor) {
+                //cannot wait here for executor to close completely since the thread could trigger it himself
+                executor.shutdown();
+            }
+            executor = null;
+        }
+
+        @Override
+        protected boolean isCleaned() {
+            return closed;
+        }
+
+        @Override
+        public boolean isThreadLocal() {
+            return true;
+        }
+
+    }
+
+    @Override
+    protected void innerClose() {
+        finalizer.close();
+    }
+
+}
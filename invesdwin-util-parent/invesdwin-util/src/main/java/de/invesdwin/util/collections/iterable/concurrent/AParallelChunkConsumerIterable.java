@@ -1,5 +1,7 @@
 package de.invesdwin.util.collections.iterable.concurrent;
 
+import java.util.concurrent.ExecutorService;
+
 import javax.annotation.concurrent.Immutable;
 
 import de.invesdwin.util.collections.iterable.ACloseableIterator;
@@ -12,21 +14,33 @@ public abstract class AParallelChunkConsumerIterable<R, E> implements ICloseable
 
     private final String name;
     private final ICloseableIterable<R> requests;
+    private final ExecutorService executor;
     private final int chunkSize;
+    private final boolean ordered;
 
     public AParallelChunkConsumerIterable(final String name, final ICloseableIterable<R> requests) {
         this(name, requests, DEFAULT_CHUNK_SIZE);
     }
 
     public AParallelChunkConsumerIterable(final String name, final ICloseableIterable<R> requests, final int chunkSize) {
+        this(name, requests, null, chunkSize, true);
+    }
+
+    /**
+     * All iterators share the given executor instead of creating their own thread pools.
+     */
+    public AParallelChunkConsumerIterable(final String name, final ICloseableIterable<R> requests,
+            final ExecutorService executor, final int chunkSize, final boolean ordered) {
         this.name = name;
         this.requests = requests;
+        this.executor = executor;
         this.chunkSize = chunkSize;
+        this.ordered = ordered;
     }
 
     @Override
     public ACloseableIterator<E> iterator() {
-        return new AParallelChunkConsumerIterator<R, E>(name, requests.iterator(), chunkSize) {
+        return new AParallelChunkConsumerIterator<R, E>(name, requests.iterator(), executor, chunkSize, ordered) {
             @Override
             protected E doWork(final R request) {
                 return AParallelChunkConsumerIterable.this.doWork(request);
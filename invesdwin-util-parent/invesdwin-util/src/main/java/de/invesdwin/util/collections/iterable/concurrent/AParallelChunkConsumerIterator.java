@@ -1,8 +1,8 @@
 package de.invesdwin.util.collections.iterable.concurrent;
 
-import java.util.ArrayList;
-import java.util.List;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
 
 import javax.annotation.concurrent.GuardedBy;
@@ -10,6 +10,7 @@ import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.collections.iterable.ACloseableIterator;
 import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 import de.invesdwin.util.concurrent.Executors;
 import de.invesdwin.util.concurrent.WrappedExecutorService;
 import de.invesdwin.util.concurrent.future.Futures;
@@ -17,14 +18,23 @@ import de.invesdwin.util.error.FastNoSuchElementException;
 import de.invesdwin.util.lang.description.TextDescription;
 import de.invesdwin.util.lang.finalizer.AFinalizer;
 
+/**
+ * Keeps up to chunkSize requests in flight and returns their results. Without a given executor, each iterator creates
+ * its own thread pool. With a given executor (e.g. a shared WrappedExecutorService or ForkJoinPool) no threads are
+ * created and the executor is not shut down on close, only the requests that are still in flight get cancelled.
+ *
+ * When ordered is false, the results are returned in the order they complete, thus a slow request does not hold back
+ * the results of faster ones.
+ */
 @ThreadSafe
 public abstract class AParallelChunkConsumerIterator<R, E> extends ACloseableIterator<E> {
 
     private static final int DEFAULT_CONSUMER_COUNT = Executors.getCpuThreadPoolCount();
     @GuardedBy("this")
-    private final ParallelChunkConsumerIteratorFinalizer<R> finalizer;
+    private final ParallelChunkConsumerIteratorFinalizer<R, E> finalizer;
+    private final boolean ordered;
     @GuardedBy("this")
-    private final List<Future<E>> futures;
+    private final ExecutorCompletionService<E> completionService;
 
     public AParallelChunkConsumerIterator(final String name, final ICloseableIterator<R> requests) {
         this(name, requests, DEFAULT_CONSUMER_COUNT);
@@ -32,36 +42,70 @@ public abstract class AParallelChunkConsumerIterator<R, E> extends ACloseableIte
 
     public AParallelChunkConsumerIterator(final String name, final ICloseableIterator<R> requests,
             final int chunkSize) {
+        this(name, requests, null, chunkSize, true);
+    }
+
+    /**
+     * The executor is not shut down on close since it is supposed to be shared. If it is null, an own thread pool with
+     * chunkSize threads is created.
+     */
+    public AParallelChunkConsumerIterator(final String name, final ICloseableIterator<R> requests,
+            final ExecutorService executor, final int chunkSize, final boolean ordered) {
         super(new TextDescription(name));
-        this.finalizer = new ParallelChunkConsumerIteratorFinalizer<>(name, requests, chunkSize);
+        this.finalizer = new ParallelChunkConsumerIteratorFinalizer<>(name, requests, executor, chunkSize);
         this.finalizer.register(this);
-        this.futures = new ArrayList<Future<E>>(chunkSize);
+        this.ordered = ordered;
+        if (ordered) {
+            this.completionService = null;
+        } else {
+            this.completionService = new ExecutorCompletionService<E>(finalizer.consumerExecutor);
+        }
+    }
+
+    public boolean isOrdered() {
+        return ordered;
     }
 
     @Override
     protected synchronized boolean innerHasNext() {
-        return finalizer.requests.hasNext() || !futures.isEmpty();
+        return finalizer.requests.hasNext() || finalizer.inFlightCount > 0;
     }
 
     @Override
     protected synchronized E innerNext() {
-        while (finalizer.requests.hasNext()
-                && finalizer.consumerExecutor.getPendingCount() < finalizer.consumerExecutor.getFullPendingCount()
-                && futures.size() < finalizer.chunkSize) {
+        while (finalizer.requests.hasNext() && finalizer.inFlightCount < finalizer.chunkSize
+                && (finalizer.inFlightCount == 0 || !isExecutorFull())) {
             final R request = finalizer.requests.next();
-            final Future<E> submit = finalizer.consumerExecutor.submit(new Callable<E>() {
+            final Callable<E> task = new Callable<E>() {
                 @Override
                 public E call() throws Exception {
                     return doWork(request);
                 }
-            });
-            futures.add(submit);
+            };
+            final Future<E> future;
+            if (ordered) {
+                future = finalizer.consumerExecutor.submit(task);
+            } else {
+                future = completionService.submit(task);
+            }
+            finalizer.inFlight.add(future);
+            finalizer.inFlightCount++;
         }
-        if (futures.isEmpty()) {
+        if (finalizer.inFlightCount == 0) {
             throw new FastNoSuchElementException("AParallelChunkConsumerIterator: futures is empty");
         }
-        final Future<E> future = futures.remove(0);
         try {
+            final Future<E> future;
+            if (ordered) {
+                future = finalizer.inFlight.next();
+            } else {
+                future = completionService.take();
+                //the ring buffer is only needed to cancel the pending futures on close
+                if (finalizer.inFlight.size() > finalizer.chunkSize * 2) {
+                    removeDone(finalizer.inFlight);
+                }
+            }
+            finalizer.inFlightCount--;
             final E result = Futures.get(future);
             return result;
         } catch (final InterruptedException e) {
@@ -70,19 +114,50 @@ public abstract class AParallelChunkConsumerIterator<R, E> extends ACloseableIte
         }
     }
 
+    private static <T> void removeDone(final RingBufferingIterator<Future<T>> inFlight) {
+        for (int i = inFlight.size(); i > 0; i--) {
+            final Future<T> future = inFlight.next();
+            if (!future.isDone()) {
+                inFlight.add(future);
+            }
+        }
+    }
+
+    /**
+     * A shared WrappedExecutorService might already be busy with other work, then we don't queue more requests than
+     * needed to keep this iterator going.
+     */
+    private boolean isExecutorFull() {
+        if (finalizer.consumerExecutor instanceof WrappedExecutorService) {
+            final WrappedExecutorService cExecutor = (WrappedExecutorService) finalizer.consumerExecutor;
+            return cExecutor.getPendingCount() >= cExecutor.getFullPendingCount();
+        }
+        return false;
+    }
+
     protected abstract E doWork(R request);
 
-    private static final class ParallelChunkConsumerIteratorFinalizer<_R> extends AFinalizer {
+    private static final class ParallelChunkConsumerIteratorFinalizer<_R, _E> extends AFinalizer {
 
         private final int chunkSize;
+        private final boolean sharedExecutor;
+        private final RingBufferingIterator<Future<_E>> inFlight;
+        private int inFlightCount;
         private ICloseableIterator<_R> requests;
-        private WrappedExecutorService consumerExecutor;
+        private ExecutorService consumerExecutor;
 
         private ParallelChunkConsumerIteratorFinalizer(final String name, final ICloseableIterator<_R> requests,
-                final int chunkSize) {
+                final ExecutorService executor, final int chunkSize) {
             this.chunkSize = chunkSize;
             this.requests = requests;
-            this.consumerExecutor = Executors.newFixedThreadPool(name, chunkSize).withDynamicThreadName(false);
+            this.inFlight = new RingBufferingIterator<Future<_E>>(chunkSize);
+            if (executor == null) {
+                this.sharedExecutor = false;
+                this.consumerExecutor = Executors.newFixedThreadPool(name, chunkSize).withDynamicThreadName(false);
+            } else {
+                this.sharedExecutor = true;
+                this.consumerExecutor = executor;
+            }
         }
 
         @Override
@@ -92,7 +167,16 @@ public abstract class AParallelChunkConsumerIterator<R, E> extends ACloseableIte
                 requests = null;
             }
             if (consumerExecutor != null) {
-                consumerExecutor.shutdown();
+                if (sharedExecutor) {
+                    //don't interrupt, since the tasks of the other users of the executor should not be affected
+                    while (inFlight.hasNext()) {
+                        inFlight.next().cancel(false);
+                    }
+                } else {
+                    consumerExecutor.shutdown();
+                }
+                inFlight.clear();
+                inFlightCount = 0;
                 consumerExecutor = null;
             }
         }
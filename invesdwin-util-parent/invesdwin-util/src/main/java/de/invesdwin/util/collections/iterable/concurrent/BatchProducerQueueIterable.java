@@ -0,0 +1,49 @@
+package de.invesdwin.util.collections.iterable.concurrent;
+
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.collections.iterable.ACloseableIterator;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+
+@NotThreadSafe
+public class BatchProducerQueueIterable<E> implements ICloseableIterable<E> {
+
+    private final String name;
+    private final ICloseableIterable<E> producer;
+    private final int batchSize;
+    private final int batchCount;
+    private final ExecutorService executor;
+
+    public BatchProducerQueueIterable(final String name, final ICloseableIterable<E> producer) {
+        this(name, producer, AGenericBatchProducerQueueIterator.DEFAULT_BATCH_SIZE,
+                AGenericBatchProducerQueueIterator.DEFAULT_BATCH_COUNT);
+    }
+
+    public BatchProducerQueueIterable(final String name, final ICloseableIterable<E> producer, final int batchSize,
+            final int batchCount) {
+        this(name, producer, batchSize, batchCount, null);
+    }
+
+    public BatchProducerQueueIterable(final String name, final ICloseableIterable<E> producer, final int batchSize,
+            final int batchCount, final ExecutorService executor) {
+        this.name = name;
+        this.producer = producer;
+        this.batchSize = batchSize;
+        this.batchCount = batchCount;
+        this.executor = executor;
+    }
+
+    @Override
+    public ACloseableIterator<E> iterator() {
+        return new ABatchProducerQueueIterator<E>(name, batchSize, batchCount, executor) {
+            @Override
+            protected ICloseableIterator<E> newProducer() {
+                return producer.iterator();
+            }
+        };
+    }
+
+}
@@ -1,10 +1,13 @@
 package de.invesdwin.util.collections.loadingcache;
 
+import java.util.Map;
 import java.util.function.Function;
 
 import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.collections.eviction.EvictionMode;
+import de.invesdwin.util.collections.eviction.IEvictionMap;
+import de.invesdwin.util.collections.factory.ILockCollectionFactory;
 import de.invesdwin.util.collections.loadingcache.map.CaffeineLoadingCache;
 import de.invesdwin.util.collections.loadingcache.map.EvictionMapLoadingCache;
 import de.invesdwin.util.collections.loadingcache.map.NoCachingLoadingCache;
@@ -43,6 +46,20 @@ public abstract class ALoadingCache<K, V> extends ADelegateLoadingCache<K, V> {
         return ALoadingCacheConfig.DEFAULT_EVICTION_MODE;
     }
 
+    /**
+     * Override this to use a different eviction map implementation, e.g. one that stores the keys as primitives.
+     */
+    protected IEvictionMap<K, V> newEvictionMap(final int maximumSize) {
+        return getEvictionMode().newMap(maximumSize);
+    }
+
+    /**
+     * Override this to use a different map implementation when the maximum size is unlimited.
+     */
+    protected Map<K, V> newUnlimitedMap() {
+        return ILockCollectionFactory.getInstance(false).newMap();
+    }
+
     protected abstract V loadValue(K key);
 
     @Override
@@ -58,17 +75,17 @@ public abstract class ALoadingCache<K, V> extends ADelegateLoadingCache<K, V> {
             return newCaffeineLoadingCache(maximumSize, loadValue);
         } else if (maximumSize == null) {
             if (isThreadSafe()) {
-                return new SynchronizedUnlimitedCachingLoadingCache<K, V>(loadValue);
+                return new SynchronizedUnlimitedCachingLoadingCache<K, V>(loadValue, newUnlimitedMap());
             } else {
-                return new UnlimitedCachingLoadingCache<K, V>(loadValue);
+                return new UnlimitedCachingLoadingCache<K, V>(loadValue, newUnlimitedMap());
             }
         } else if (maximumSize == 0) {
             return new NoCachingLoadingCache<K, V>(loadValue);
         } else {
             if (isThreadSafe()) {
-                return new SynchronizedEvictionMapLoadingCache<K, V>(loadValue, getEvictionMode().newMap(maximumSize));
+                return new SynchronizedEvictionMapLoadingCache<K, V>(loadValue, newEvictionMap(maximumSize));
             } else {
-                return new EvictionMapLoadingCache<>(loadValue, getEvictionMode().newMap(maximumSize));
+                return new EvictionMapLoadingCache<>(loadValue, newEvictionMap(maximumSize));
             }
         }
     }
@@ -0,0 +1,428 @@
+package de.invesdwin.util.collections.loadingcache.historical;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.array.DirectBufferDoubleArray;
+import de.invesdwin.util.collections.array.IDoubleArray;
+import de.invesdwin.util.collections.iterable.EmptyCloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.loadingcache.historical.interceptor.IHistoricalCachePreviousKeysQueryInterceptor;
+import de.invesdwin.util.collections.loadingcache.historical.interceptor.IHistoricalCacheRangeQueryInterceptor;
+import de.invesdwin.util.error.FastNoSuchElementException;
+import de.invesdwin.util.time.fdate.FDate;
+
+/**
+ * Keeps the whole series in columns instead of objects: a sorted long[] of key millis and one (per default off-heap)
+ * double column per field. This is meant for values that only consist of a timestamp and a few doubles (e.g. bars or
+ * indicator values). Values are only instantiated on demand for the (small) values map, previous/next keys are
+ * calculated via binary search and range queries are answered directly from the columns.
+ *
+ * For zero-allocation iterations use getIndex/getKeyMillis/getDouble of getColumnarStorage() directly. The storage is
+ * replaced after clear(), thus indexes should only be used with the snapshot they were retrieved from.
+ *
+ * The series is loaded completely on first access and loaded again after clear().
+ */
+@ThreadSafe
+public abstract class AColumnarHistoricalCache<V> extends AHistoricalCache<V> {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private volatile ColumnarStorage storage;
+    private final IHistoricalCacheRangeQueryInterceptor<V> rangeQueryInterceptor = new ColumnarRangeQueryInterceptor();
+    private final IHistoricalCachePreviousKeysQueryInterceptor previousKeysQueryInterceptor =
+            new ColumnarPreviousKeysQueryInterceptor();
+
+    /**
+     * Might return the values in batches like in AGapHistoricalCache. It is then called again from right after the last
+     * value that was returned until it returns no further values.
+     */
+    protected abstract Iterable<? extends V> readAllValuesAscendingFrom(FDate key);
+
+    /**
+     * The number of double columns that are stored per value.
+     */
+    protected abstract int getColumnCount();
+
+    protected abstract double extractColumnValue(V value, int column);
+
+    /**
+     * Creates a value from the columns at the given index, use getKeyMillis/getDouble of the given storage to read
+     * them. The cache might have been cleared and reloaded in the meantime, thus the index is only valid in this
+     * storage.
+     */
+    protected abstract V newValue(ColumnarStorage storage, int index);
+
+    /**
+     * Override this to store the columns differently, per default they are off-heap.
+     */
+    protected IDoubleArray newColumn(final int capacity) {
+        return new DirectBufferDoubleArray(capacity);
+    }
+
+    private ColumnarStorage getStorage() {
+        final ColumnarStorage storageCopy = storage;
+        if (storageCopy != null) {
+            return storageCopy;
+        }
+        synchronized (this) {
+            if (storage == null) {
+                storage = loadStorage();
+            }
+            return storage;
+        }
+    }
+
+    private ColumnarStorage loadStorage() {
+        final int columnCount = getColumnCount();
+        long[] keys = new long[INITIAL_CAPACITY];
+        //growing on the heap is a bulk copy, the columns are then created once with the final size
+        final double[][] values = new double[columnCount][INITIAL_CAPACITY];
+        int size = 0;
+        FDate curKey = minKey();
+        while (true) {
+            final int sizeBefore = size;
+            final long curKeyMillis = curKey.millisValue();
+            for (final V value : readAllValuesAscendingFrom(curKey)) {
+                final long key = extractKey(null, value).millisValue();
+                if (key < curKeyMillis) {
+                    //skip values from the previous batch
+                    continue;
+                }
+                if (size > 0) {
+                    final long lastKey = keys[size - 1];
+                    if (key == lastKey) {
+                        //skip duplicates
+                        continue;
+                    }
+                    Assertions.checkState(key > lastKey, "Not ascending sorted! At lastKey [%s] and key [%s]",
+                            new FDate(lastKey), new FDate(key));
+                }
+                if (size == keys.length) {
+                    final int capacity = keys.length * 2;
+                    keys = Arrays.copyOf(keys, capacity);
+                    for (int c = 0; c < columnCount; c++) {
+                        values[c] = Arrays.copyOf(values[c], capacity);
+                    }
+                }
+                keys[size] = key;
+                for (int c = 0; c < columnCount; c++) {
+                    values[c][size] = extractColumnValue(value, c);
+                }
+                size++;
+            }
+            if (size == sizeBefore) {
+                //end of data reached
+                break;
+            }
+            curKey = new FDate(keys[size - 1] + 1);
+        }
+        final IDoubleArray[] columns = new IDoubleArray[columnCount];
+        for (int c = 0; c < columnCount; c++) {
+            final IDoubleArray column = newColumn(size);
+            final double[] columnValues = values[c];
+            for (int i = 0; i < size; i++) {
+                column.set(i, columnValues[i]);
+            }
+            columns[c] = column;
+        }
+        return new ColumnarStorage(Arrays.copyOf(keys, size), columns, size);
+    }
+
+    /**
+     * Returns the current snapshot of the columns, it stays consistent even if the cache is cleared concurrently.
+     */
+    public ColumnarStorage getColumnarStorage() {
+        return getStorage();
+    }
+
+    /**
+     * The number of values in the columns.
+     */
+    public int getColumnarSize() {
+        return getStorage().getSize();
+    }
+
+    public long getKeyMillis(final int index) {
+        return getStorage().getKeyMillis(index);
+    }
+
+    public FDate getKey(final int index) {
+        return getStorage().getKey(index);
+    }
+
+    public double getDouble(final int index, final int column) {
+        return getStorage().getDouble(index, column);
+    }
+
+    /**
+     * Returns the index of the value with the given key or the one before it. Returns -1 if there is no such value.
+     */
+    public int getIndex(final FDate key) {
+        return getStorage().getIndex(key);
+    }
+
+    /**
+     * Returns the index of the value with the given key or the one after it. Returns getColumnarSize() if there is no
+     * such value.
+     */
+    public int getCeilingIndex(final FDate key) {
+        return getStorage().getCeilingIndex(key);
+    }
+
+    @Override
+    protected V loadValue(final FDate key) {
+        final ColumnarStorage storageCopy = getStorage();
+        if (storageCopy.size == 0) {
+            return null;
+        }
+        final int index = storageCopy.floorIndex(key.millisValue());
+        if (index < 0) {
+            //nearest neighbor from the future, will get filtered if needed
+            return newValue(storageCopy, 0);
+        } else {
+            return newValue(storageCopy, index);
+        }
+    }
+
+    @Override
+    protected FDate innerCalculatePreviousKey(final FDate key) {
+        final ColumnarStorage storageCopy = getStorage();
+        final int index = storageCopy.ceilingIndex(key.millisValue()) - 1;
+        if (index < 0) {
+            return key;
+        } else {
+            return new FDate(storageCopy.keys[index]);
+        }
+    }
+
+    @Override
+    protected FDate innerCalculateNextKey(final FDate key) {
+        final ColumnarStorage storageCopy = getStorage();
+        final int index = storageCopy.floorIndex(key.millisValue()) + 1;
+        if (index >= storageCopy.size) {
+            return key;
+        } else {
+            return new FDate(storageCopy.keys[index]);
+        }
+    }
+
+    @Override
+    protected IHistoricalCacheRangeQueryInterceptor<V> getRangeQueryInterceptor() {
+        return rangeQueryInterceptor;
+    }
+
+    @Override
+    public IHistoricalCachePreviousKeysQueryInterceptor getPreviousKeysQueryInterceptor() {
+        return previousKeysQueryInterceptor;
+    }
+
+    @Override
+    public void clear() {
+        super.clear();
+        synchronized (this) {
+            storage = null;
+        }
+    }
+
+    /**
+     * An immutable snapshot of the columns as they were loaded.
+     */
+    @Immutable
+    public static final class ColumnarStorage {
+        private final long[] keys;
+        private final IDoubleArray[] columns;
+        private final int size;
+
+        private ColumnarStorage(final long[] keys, final IDoubleArray[] columns, final int size) {
+            this.keys = keys;
+            this.columns = columns;
+            this.size = size;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public long getKeyMillis(final int index) {
+            return keys[index];
+        }
+
+        public FDate getKey(final int index) {
+            return new FDate(keys[index]);
+        }
+
+        public double getDouble(final int index, final int column) {
+            return columns[column].get(index);
+        }
+
+        /**
+         * Returns the index of the value with the given key or the one before it. Returns -1 if there is no such
+         * value.
+         */
+        public int getIndex(final FDate key) {
+            return floorIndex(key.millisValue());
+        }
+
+        /**
+         * Returns the index of the value with the given key or the one after it. Returns getSize() if there is no such
+         * value.
+         */
+        public int getCeilingIndex(final FDate key) {
+            return ceilingIndex(key.millisValue());
+        }
+
+        private int floorIndex(final long key) {
+            final int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return index;
+            } else {
+                //insertion point minus one
+                return -index - 2;
+            }
+        }
+
+        private int ceilingIndex(final long key) {
+            final int index = Arrays.binarySearch(keys, 0, size, key);
+            if (index >= 0) {
+                return index;
+            } else {
+                return -index - 1;
+            }
+        }
+
+    }
+
+    private abstract class AIndexRangeIterable<E> implements ICloseableIterable<E> {
+
+        private final ColumnarStorage columnarStorage;
+        private final int fromIndex;
+        private final int toIndex;
+
+        AIndexRangeIterable(final ColumnarStorage columnarStorage, final int fromIndex, final int toIndex) {
+            this.columnarStorage = columnarStorage;
+            this.fromIndex = fromIndex;
+            this.toIndex = toIndex;
+        }
+
+        protected abstract E newElement(ColumnarStorage columnarStorage, int index);
+
+        @Override
+        public ICloseableIterator<E> iterator() {
+            return new ICloseableIterator<E>() {
+
+                private int index = fromIndex;
+
+                @Override
+                public boolean hasNext() {
+                    return index <= toIndex;
+                }
+
+                @Override
+                public E next() {
+                    if (index > toIndex) {
+                        throw new FastNoSuchElementException("AColumnarHistoricalCache: end reached");
+                    }
+                    final E element = newElement(columnarStorage, index);
+                    index++;
+                    return element;
+                }
+
+                @Override
+                public void close() {
+                    index = toIndex + 1;
+                }
+            };
+        }
+
+    }
+
+    private final class ColumnarRangeQueryInterceptor implements IHistoricalCacheRangeQueryInterceptor<V> {
+
+        @Override
+        public ICloseableIterable<FDate> getKeys(final FDate from, final FDate to) {
+            final ColumnarStorage storageCopy = getStorage();
+            final int fromIndex = getFromIndex(storageCopy, from);
+            final int toIndex = getToIndex(storageCopy, to);
+            if (fromIndex > toIndex) {
+                return EmptyCloseableIterable.getInstance();
+            }
+            return new AIndexRangeIterable<FDate>(storageCopy, fromIndex, toIndex) {
+                @Override
+                protected FDate newElement(final ColumnarStorage columnarStorage, final int index) {
+                    return new FDate(columnarStorage.keys[index]);
+                }
+            };
+        }
+
+        @Override
+        public ICloseableIterable<IHistoricalEntry<V>> getEntries(final FDate from, final FDate to) {
+            final ColumnarStorage storageCopy = getStorage();
+            final int fromIndex = getFromIndex(storageCopy, from);
+            final int toIndex = getToIndex(storageCopy, to);
+            if (fromIndex > toIndex) {
+                return EmptyCloseableIterable.getInstance();
+            }
+            return new AIndexRangeIterable<IHistoricalEntry<V>>(storageCopy, fromIndex, toIndex) {
+                @Override
+                protected IHistoricalEntry<V> newElement(final ColumnarStorage columnarStorage, final int index) {
+                    return ImmutableHistoricalEntry.of(new FDate(columnarStorage.keys[index]),
+                            newValue(columnarStorage, index));
+                }
+            };
+        }
+
+        private int getFromIndex(final ColumnarStorage columnarStorage, final FDate from) {
+            if (from == null) {
+                return 0;
+            } else {
+                return columnarStorage.ceilingIndex(from.millisValue());
+            }
+        }
+
+        private int getToIndex(final ColumnarStorage columnarStorage, final FDate to) {
+            if (to == null) {
+                return columnarStorage.size - 1;
+            } else {
+                return columnarStorage.floorIndex(to.millisValue());
+            }
+        }
+
+    }
+
+    private final class ColumnarPreviousKeysQueryInterceptor implements IHistoricalCachePreviousKeysQueryInterceptor {
+
+        @Override
+        public Optional<FDate> getPreviousKey(final FDate key, final int shiftBackUnits) {
+            final ColumnarStorage storageCopy = getStorage();
+            final int index = storageCopy.floorIndex(key.millisValue());
+            if (index < 0) {
+                return Optional.empty();
+            }
+            return Optional.of(new FDate(storageCopy.keys[Math.max(0, index - shiftBackUnits)]));
+        }
+
+        @Override
+        public ICloseableIterable<FDate> getPreviousKeys(final FDate key, final int shiftBackUnits) {
+            final ColumnarStorage storageCopy = getStorage();
+            final int toIndex = storageCopy.floorIndex(key.millisValue());
+            if (toIndex < 0) {
+                return EmptyCloseableIterable.getInstance();
+            }
+            final int fromIndex = Math.max(0, toIndex - shiftBackUnits + 1);
+            return new AIndexRangeIterable<FDate>(storageCopy, fromIndex, toIndex) {
+                @Override
+                protected FDate newElement(final ColumnarStorage columnarStorage, final int index) {
+                    return new FDate(columnarStorage.keys[index]);
+                }
+            };
+        }
+
+    }
+
+}
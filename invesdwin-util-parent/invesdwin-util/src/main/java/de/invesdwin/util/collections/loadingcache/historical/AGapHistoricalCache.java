@@ -1,13 +1,24 @@
 package de.invesdwin.util.collections.loadingcache.historical;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import javax.annotation.concurrent.GuardedBy;
 import javax.annotation.concurrent.ThreadSafe;
 
 import de.invesdwin.util.assertions.Assertions;
-import de.invesdwin.util.collections.iterable.buffer.BufferingIterator;
+import de.invesdwin.util.collections.iterable.buffer.RingBufferingIterator;
 import de.invesdwin.util.collections.loadingcache.historical.internal.AGapHistoricalCacheMissCounter;
 import de.invesdwin.util.collections.loadingcache.historical.key.IHistoricalCacheAdjustKeyProvider;
 import de.invesdwin.util.collections.loadingcache.historical.query.IHistoricalCacheQuery;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.WrappedExecutorService;
+import de.invesdwin.util.concurrent.future.Futures;
+import de.invesdwin.util.concurrent.lock.IReentrantLock;
+import de.invesdwin.util.concurrent.lock.Locks;
 import de.invesdwin.util.time.duration.Duration;
 import de.invesdwin.util.time.fdate.FDate;
 import de.invesdwin.util.time.fdate.FDates;
@@ -23,6 +34,10 @@ import de.invesdwin.util.time.fdate.FTimeUnit;
  * 
  * WARNING: This cache does not work when the underlying data changes, the min and max values are cached here and
  * changes do not get detected!!!
+ * 
+ * Per default all cache misses are loaded sequentially by a single segment. Override
+ * getLoadingSegments() to let cache misses in disjoint key ranges load in parallel, each segment then keeps its own gap
+ * filling state.
  */
 @ThreadSafe
 public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
@@ -43,63 +58,99 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
      * having 2 here helps with queries for elements that are filtered by end time
      */
     private static final int MAX_LAST_VALUES_FROM_LOAD_FURTHER_VALUES = 2;
+    /**
+     * One segment means that all cache misses are loaded sequentially.
+     */
+    public static final int DEFAULT_LOADING_SEGMENTS = 1;
+    /**
+     * Prefetching is disabled per default, since readAllValuesAscendingFrom would then be called from a different
+     * thread.
+     */
+    public static final int DEFAULT_PREFETCH_DEPTH = 0;
+    public static final WrappedExecutorService DEFAULT_PREFETCH_EXECUTOR = Executors
+            .newCachedThreadPool(AGapHistoricalCache.class.getSimpleName() + "_PREFETCH")
+            .withDynamicThreadName(false);
 
-    @GuardedBy("this")
-    private final BufferingIterator<V> furtherValues = new BufferingIterator<V>();
-    @GuardedBy("this")
-    private final BufferingIterator<V> lastValuesFromFurtherValues = new BufferingIterator<V>();
-    @GuardedBy("this")
-    private final AGapHistoricalCacheMissCounter<V> cacheMissCounter = new AGapHistoricalCacheMissCounter<V>() {
+    private final IHistoricalCacheQuery<V> thisQueryWithFuture = query().withFuture();
 
-        @Override
-        protected Integer getInitialMaximumSize() {
-            return AGapHistoricalCache.this.getInitialMaximumSize();
+    /**
+     * Created lazily, since getLoadingSegments() might depend on the state of the subclass, which is not initialized
+     * yet while this class gets constructed.
+     */
+    private volatile GapSegment[] segments;
+    private final AtomicInteger segmentsRoundRobin = new AtomicInteger();
+
+    private GapSegment[] getSegments() {
+        GapSegment[] segmentsCopy = segments;
+        if (segmentsCopy == null) {
+            synchronized (this) {
+                segmentsCopy = segments;
+                if (segmentsCopy == null) {
+                    segmentsCopy = newSegments();
+                    segments = segmentsCopy;
+                }
+            }
         }
+        return segmentsCopy;
+    }
 
-        @Override
-        protected long getInitialReadBackStepMillis() {
-            return AGapHistoricalCache.this.getInitialReadBackStepMillis();
+    private GapSegment[] newSegments() {
+        final int loadingSegments = getLoadingSegments();
+        if (loadingSegments < 1) {
+            throw new IllegalArgumentException("loadingSegments should be at least 1: " + loadingSegments);
         }
-
-        @Override
-        protected void increaseOptimalMaximumSize(final int optimalMaximumSize, final String reason) {
-            AGapHistoricalCache.this.increaseMaximumSize(optimalMaximumSize, reason);
+        @SuppressWarnings("unchecked")
+        final GapSegment[] segments = new AGapHistoricalCache.GapSegment[loadingSegments];
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new GapSegment(i);
         }
+        return segments;
+    }
 
-        @Override
-        protected String parentToString() {
-            return AGapHistoricalCache.this.toString();
-        }
-    };
     /**
-     * As a convenience a field even if always reset
+     * When this is greater than 1, cache misses are distributed to that many segments that each keep their own gap
+     * filling state and can load in parallel. A miss is routed to the segment whose loaded range contains the key, so
+     * that concurrent misses for the same range wait for one readAllValuesAscendingFrom call instead of issuing their
+     * own. Other misses use an idle segment, preferrably the one that ended right before the key so that forward
+     * iterations stay in their segment.
+     * 
+     * Each segment reads the min and max keys from the db on its own and reoptimizes its read back step on its own.
+     * 
+     * This is called once on the first cache miss.
      */
-    @GuardedBy("this")
-    private boolean furtherValuesLoaded;
-    @GuardedBy("this")
-    private FDate minKeyInDB;
-    @GuardedBy("this")
-    private FDate minKeyInDBFromLoadFurtherValues;
-    @GuardedBy("this")
-    private FDate maxKeyInDBFromLoadFurtherValues;
+    protected int getLoadingSegments() {
+        return DEFAULT_LOADING_SEGMENTS;
+    }
+
     /**
-     * Remembering this for cache eviction
+     * When this is greater than 0 and a forward iteration is detected (a reload of the further values starts where the
+     * previous one ended), the next batches are loaded via readAllValuesAscendingFrom in the background so that the
+     * querying thread does not have to wait for them. This defines how many batches are loaded ahead of the current
+     * one, 1 means double buffering. A prefetch gets discarded as soon as the access pattern changes.
+     * 
+     * Only enable this when readAllValuesAscendingFrom can be called from any thread.
      */
-    @GuardedBy("this")
-    private FDate maxKeyInDB;
-    @GuardedBy("this")
-    private FDate maxKey;
-    @GuardedBy("this")
-    private FDate minKey;
-
-    private final IHistoricalCacheQuery<V> thisQueryWithFuture = query().withFuture();
+    protected int getPrefetchDepth() {
+        return DEFAULT_PREFETCH_DEPTH;
+    }
 
-    private boolean clearRequested;
+    /**
+     * The executor that runs the prefetches.
+     */
+    protected ExecutorService getPrefetchExecutor() {
+        return DEFAULT_PREFETCH_EXECUTOR;
+    }
 
     @Override
     protected void innerIncreaseMaximumSize(final int maximumSize, final String reason) {
         super.innerIncreaseMaximumSize(maximumSize, reason);
-        cacheMissCounter.increaseMaximumSize(maximumSize);
+        //segments that are created later start with the increased maximum size
+        final GapSegment[] segmentsCopy = segments;
+        if (segmentsCopy != null) {
+            for (int i = 0; i < segmentsCopy.length; i++) {
+                segmentsCopy[i].cacheMissCounter.increaseMaximumSize(maximumSize);
+            }
+        }
     }
 
     /**
@@ -109,462 +160,792 @@ public abstract class AGapHistoricalCache<V> extends AHistoricalCache<V> {
      * strategy
      */
     @Override
-    protected final synchronized V loadValue(final FDate key) {
-        maybeClear();
-        eventuallyGetMinMaxKeysInDB(key, false);
-
-        this.furtherValuesLoaded = false;
-        final FDate previousMaxKey = maxKey;
-        final boolean newMaxKey = updateMaxKey(key);
-        final boolean newMinKey = updateMinKey(key);
-
-        //Try loading from cache before trying a query; via gap finding or through min key
-        V value = loadFromCacheBeforeLoadFurtherValues(key, newMaxKey, newMinKey);
-        if (value != null) {
-            return value;
-        }
-
-        //Try the expensive query
-        if (!furtherValuesLoaded) {
-            final FDate adjKey = determineEaliestStartOfLoadFurtherValues(key);
-            furtherValuesLoaded = eventuallyLoadFurtherValues("loadValue", key, adjKey, newMinKey, false);
-        }
-        value = searchInFurtherValues(key);
-        if (!furtherValuesLoaded && isPotentiallyAlreadyEvicted(key, value)) {
-            cacheMissCounter.checkSuccessiveCacheEvictions(key);
-            final FDate adjKey = determineEaliestStartOfLoadFurtherValues(key);
-            furtherValuesLoaded = eventuallyLoadFurtherValues("loadValueBecauseOfEviction", key, adjKey, newMinKey,
-                    true);
-            value = searchInFurtherValues(key);
-        }
-        if (value != null) {
-            return value;
-        }
-
-        //Try to used the last value if there is no higher key in db
-        value = tryLoadFromCacheAfterLoadFurtherValues(key, newMaxKey, previousMaxKey);
-        if (value != null) {
-            return value;
+    protected final V loadValue(final FDate key) {
+        final GapSegment[] segments = getSegments();
+        if (segments.length == 1) {
+            final GapSegment segment = segments[0];
+            segment.lock.lock();
+            try {
+                return segment.loadValue(key);
+            } finally {
+                segment.lock.unlock();
+            }
+        } else {
+            final GapSegment segment = lockSegment(segments, key);
+            try {
+                final IHistoricalEntry<V> existing = getValuesMap().getIfPresent(key);
+                if (existing != null) {
+                    //another thread already loaded this key while we were waiting for the segment
+                    final V existingValue = existing.getValueIfPresent();
+                    if (existingValue != null) {
+                        return existingValue;
+                    }
+                }
+                /*
+                 * the value gets published by the values map after the segment is released, a thread that waited for
+                 * this segment and misses it anyway finds it in the further values of the segment without a new query
+                 */
+                return segment.loadValue(key);
+            } finally {
+                segment.lock.unlock();
+            }
         }
-
-        //And last we just try to get the newest value matching the key.
-        //If there are no values in db, this method is only called once
-        return readNewestValueFromDB(key);
     }
 
-    private boolean isPotentiallyAlreadyEvicted(final FDate key, final V value) {
-        final boolean isEvictedBeforeCurrentFurtherValues = (value == null || extractKey(null, value).isAfter(key))
-                && (key.isAfter(minKeyInDB) || key.isAfter(minKeyInDBFromLoadFurtherValues));
-        if (isEvictedBeforeCurrentFurtherValues) {
-            return true;
-        }
-        final boolean mightBeEvictedAfterFurtherValues = value != null && furtherValues.isEmpty();
-        if (mightBeEvictedAfterFurtherValues) {
-            final FDate valueKey = extractKey(null, value);
-            final boolean isEvictedAfterCurrentFurtherValues = valueKey.isBefore(key)
-                    && valueKey.isBeforeOrEqualTo(maxKeyInDB);
-            if (isEvictedAfterCurrentFurtherValues) {
-                return true;
+    private GapSegment lockSegment(final GapSegment[] segments, final FDate key) {
+        //nested loads (e.g. via thisQueryWithFuture) stay in the segment that is already held to prevent deadlocks
+        for (int i = 0; i < segments.length; i++) {
+            final GapSegment segment = segments[i];
+            if (segment.lock.isHeldByCurrentThread()) {
+                segment.lock.lock();
+                return segment;
             }
         }
+        //coalesce with a load that covers this key
+        GapSegment preceding = null;
+        FDate precedingRangeTo = null;
+        for (int i = 0; i < segments.length; i++) {
+            final GapSegment segment = segments[i];
+            final FDate rangeFrom = segment.rangeFrom;
+            final FDate rangeTo = segment.rangeTo;
+            if (rangeFrom == null || rangeTo == null) {
+                continue;
+            }
+            if (key.isAfterOrEqualToNotNullSafe(rangeFrom) && key.isBeforeOrEqualToNotNullSafe(rangeTo)) {
+                segment.lock.lock();
+                return segment;
+            }
+            if (rangeTo.isBeforeNotNullSafe(key)
+                    && (precedingRangeTo == null || rangeTo.isAfterNotNullSafe(precedingRangeTo))) {
+                preceding = segment;
+                precedingRangeTo = rangeTo;
+            }
+        }
+        //forward iterations should continue in their segment
+        if (preceding != null && preceding.lock.tryLock()) {
+            return preceding;
+        }
+        //otherwise use an idle segment
+        final int offset = Math.abs(segmentsRoundRobin.getAndIncrement() % segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            final GapSegment segment = segments[(offset + i) % segments.length];
+            if (segment.lock.tryLock()) {
+                return segment;
+            }
+        }
+        //all segments are busy, so wait for one of them
+        final GapSegment segment = segments[offset];
+        segment.lock.lock();
+        return segment;
+    }
 
-        return false;
+    protected boolean allowNoDataInDBShortcut() {
+        return true;
     }
 
-    private boolean eventuallyGetMinMaxKeysInDB(final FDate key, final boolean force) {
-        boolean changed = false;
-        if (eventuallyGetMinKeyInDB(key, force)) {
-            changed = true;
-        }
-        if (eventuallyGetMaxKeyInDB(key, force)) {
-            changed = true;
-        }
-        return changed;
+    protected long getInitialReadBackStepMillis() {
+        return DEFAULT_READ_BACK_STEP_MILLIS;
     }
 
-    private boolean eventuallyGetMaxKeyInDB(final FDate key, final boolean force) {
-        final IHistoricalCacheAdjustKeyProvider adjustKeyProvider = getAdjustKeyProvider();
-        final boolean alreadyAdjustingKey = adjustKeyProvider.isAlreadyAdjustingKey();
-        if (!alreadyAdjustingKey) {
-            //not updating highest allowed key, since this already happened during key adjustment
-            final FDate newMaxKeyInDB = adjustKeyProvider.getHighestAllowedKey();
-            if (newMaxKeyInDB != null) {
-                if (maxKeyInDB == null || newMaxKeyInDB.isAfterNotNullSafe(maxKeyInDB)) {
-                    maxKeyInDB = newMaxKeyInDB;
-                    return true;
-                } else {
-                    return false;
-                }
+    protected abstract Iterable<? extends V> readAllValuesAscendingFrom(FDate key);
+
+    /**
+     * This method first tries to load the nearest neighbor value to the given key. First it tries to load values <=
+     * key, if this fails it tries to load values >= key. If the caller does not accept values from the future, this
+     * will get handled properly later. For example financial backtests may not use values from the future to keep the
+     * test realistic.
+     */
+    protected abstract V readLatestValueFor(FDate key);
+
+    @Override
+    public void clear() {
+        super.clear();
+        //don't synchronize this clear method, instead just set the flag so that next loadValue clears
+        final GapSegment[] segmentsCopy = segments;
+        if (segmentsCopy != null) {
+            for (int i = 0; i < segmentsCopy.length; i++) {
+                segmentsCopy[i].clearRequested = true;
             }
         }
-        //fallback to normal procedure if curHighWaterMark is not provided by provider
-        if (maxKeyInDB == null || force || alreadyAdjustingKey) {
-            final V maxValue = readNewestValueFromDB(maxKey());
-            if (maxValue != null) {
-                final IHistoricalEntry<V> maxValueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null,
-                        maxValue);
-                final FDate maxValueKey = maxValueEntry.getKey();
-                if (maxKeyInDB == null || maxValueKey.compareTo(maxKeyInDB) >= 1) {
-                    maxKeyInDB = maxValueKey;
-                    getValuesMap().put(maxValueKey, maxValueEntry);
-                    return true;
-                }
+    }
+
+    /**
+     * Holds the gap filling state for a range of keys, guarded by the lock of the segment.
+     */
+    private final class GapSegment {
+
+        private final IReentrantLock lock;
+        @GuardedBy("lock")
+        private final RingBufferingIterator<V> furtherValues = new RingBufferingIterator<V>();
+        @GuardedBy("lock")
+        private final RingBufferingIterator<V> lastValuesFromFurtherValues = new RingBufferingIterator<V>();
+        /**
+         * reused for each batch so that its array gets swapped with the one of furtherValues instead of reallocated
+         */
+        @GuardedBy("lock")
+        private final RingBufferingIterator<V> newFurtherValuesBuffer = new RingBufferingIterator<V>();
+        @GuardedBy("lock")
+        private final AGapHistoricalCacheMissCounter<V> cacheMissCounter = new AGapHistoricalCacheMissCounter<V>() {
+
+            @Override
+            protected Integer getInitialMaximumSize() {
+                //segments are created lazily, thus the maximum size might have been increased already
+                return AGapHistoricalCache.this.getMaximumSize();
+            }
+
+            @Override
+            protected long getInitialReadBackStepMillis() {
+                return AGapHistoricalCache.this.getInitialReadBackStepMillis();
+            }
+
+            @Override
+            protected void increaseOptimalMaximumSize(final int optimalMaximumSize, final String reason) {
+                AGapHistoricalCache.this.increaseMaximumSize(optimalMaximumSize, reason);
+            }
+
+            @Override
+            protected String parentToString() {
+                return AGapHistoricalCache.this.toString();
             }
+        };
+        /**
+         * As a convenience a field even if always reset
+         */
+        @GuardedBy("lock")
+        private boolean furtherValuesLoaded;
+        @GuardedBy("lock")
+        private FDate minKeyInDB;
+        @GuardedBy("lock")
+        private FDate minKeyInDBFromLoadFurtherValues;
+        @GuardedBy("lock")
+        private FDate maxKeyInDBFromLoadFurtherValues;
+        /**
+         * Remembering this for cache eviction
+         */
+        @GuardedBy("lock")
+        private FDate maxKeyInDB;
+        @GuardedBy("lock")
+        private FDate maxKey;
+        @GuardedBy("lock")
+        private FDate minKey;
+
+        /**
+         * The range of keys that were loaded last via readAllValuesAscendingFrom, readable without the lock to route
+         * concurrent cache misses.
+         */
+        private volatile FDate rangeFrom;
+        private volatile FDate rangeTo;
+        private volatile boolean clearRequested;
+        /**
+         * Guarded by its own monitor instead of the lock, since finished prefetches submit their successors from the
+         * prefetch threads.
+         */
+        @GuardedBy("prefetches")
+        private final ArrayDeque<Prefetch> prefetches = new ArrayDeque<Prefetch>();
+        /**
+         * Remembering this to detect forward iterations
+         */
+        @GuardedBy("lock")
+        private FDate furtherValuesTailKey;
+
+        private GapSegment(final int index) {
+            this.lock = Locks.newReentrantLock(AGapHistoricalCache.class.getSimpleName() + "_segment" + index);
+        }
+
+        private V loadValue(final FDate key) {
+            maybeClear();
+            eventuallyGetMinMaxKeysInDB(key, false);
+
+            this.furtherValuesLoaded = false;
+            final FDate previousMaxKey = maxKey;
+            final boolean newMaxKey = updateMaxKey(key);
+            final boolean newMinKey = updateMinKey(key);
+
+            //Try loading from cache before trying a query; via gap finding or through min key
+            V value = loadFromCacheBeforeLoadFurtherValues(key, newMaxKey, newMinKey);
+            if (value != null) {
+                return value;
+            }
+
+            //Try the expensive query
+            if (!furtherValuesLoaded) {
+                final FDate adjKey = determineEaliestStartOfLoadFurtherValues(key);
+                furtherValuesLoaded = eventuallyLoadFurtherValues("loadValue", key, adjKey, newMinKey, false);
+            }
+            value = searchInFurtherValues(key);
+            if (!furtherValuesLoaded && isPotentiallyAlreadyEvicted(key, value)) {
+                cacheMissCounter.checkSuccessiveCacheEvictions(key);
+                final FDate adjKey = determineEaliestStartOfLoadFurtherValues(key);
+                furtherValuesLoaded = eventuallyLoadFurtherValues("loadValueBecauseOfEviction", key, adjKey, newMinKey,
+                        true);
+                value = searchInFurtherValues(key);
+            }
+            if (value != null) {
+                return value;
+            }
+
+            //Try to used the last value if there is no higher key in db
+            value = tryLoadFromCacheAfterLoadFurtherValues(key, newMaxKey, previousMaxKey);
+            if (value != null) {
+                return value;
+            }
+
+            //And last we just try to get the newest value matching the key.
+            //If there are no values in db, this method is only called once
+            return readNewestValueFromDB(key);
         }
-        return false;
-    }
 
-    private boolean eventuallyGetMinKeyInDB(final FDate key, final boolean force) {
-        if (minKeyInDB == null || force) {
-            final V minValue = readNewestValueFromDB(minKey());
-            if (minValue != null) {
-                final IHistoricalEntry<V> minValueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null,
-                        minValue);
-                final FDate minValueKey = minValueEntry.getKey();
-                //min key must be kept intact if all values have been loaded from a later key
-                if (minKeyInDB == null || minValueKey.compareTo(minKeyInDB) <= -1) {
-                    minKeyInDB = minValueKey;
-                    getValuesMap().put(minValueKey, minValueEntry);
+        private boolean isPotentiallyAlreadyEvicted(final FDate key, final V value) {
+            final boolean isEvictedBeforeCurrentFurtherValues = (value == null || extractKey(null, value).isAfter(key))
+                    && (key.isAfter(minKeyInDB) || key.isAfter(minKeyInDBFromLoadFurtherValues));
+            if (isEvictedBeforeCurrentFurtherValues) {
+                return true;
+            }
+            final boolean mightBeEvictedAfterFurtherValues = value != null && furtherValues.isEmpty();
+            if (mightBeEvictedAfterFurtherValues) {
+                final FDate valueKey = extractKey(null, value);
+                final boolean isEvictedAfterCurrentFurtherValues = valueKey.isBefore(key)
+                        && valueKey.isBeforeOrEqualTo(maxKeyInDB);
+                if (isEvictedAfterCurrentFurtherValues) {
                     return true;
                 }
             }
+
+            return false;
         }
-        return false;
-    }
 
-    private boolean updateMaxKey(final FDate key) {
-        if (maxKey == null || key.compareTo(maxKey) >= 1) {
-            maxKey = key;
-            return true;
-        } else {
+        private boolean eventuallyGetMinMaxKeysInDB(final FDate key, final boolean force) {
+            boolean changed = false;
+            if (eventuallyGetMinKeyInDB(key, force)) {
+                changed = true;
+            }
+            if (eventuallyGetMaxKeyInDB(key, force)) {
+                changed = true;
+            }
+            return changed;
+        }
+
+        private boolean eventuallyGetMaxKeyInDB(final FDate key, final boolean force) {
+            final IHistoricalCacheAdjustKeyProvider adjustKeyProvider = getAdjustKeyProvider();
+            final boolean alreadyAdjustingKey = adjustKeyProvider.isAlreadyAdjustingKey();
+            if (!alreadyAdjustingKey) {
+                //not updating highest allowed key, since this already happened during key adjustment
+                final FDate newMaxKeyInDB = adjustKeyProvider.getHighestAllowedKey();
+                if (newMaxKeyInDB != null) {
+                    if (maxKeyInDB == null || newMaxKeyInDB.isAfterNotNullSafe(maxKeyInDB)) {
+                        maxKeyInDB = newMaxKeyInDB;
+                        return true;
+                    } else {
+                        return false;
+                    }
+                }
+            }
+            //fallback to normal procedure if curHighWaterMark is not provided by provider
+            if (maxKeyInDB == null || force || alreadyAdjustingKey) {
+                final V maxValue = readNewestValueFromDB(maxKey());
+                if (maxValue != null) {
+                    final IHistoricalEntry<V> maxValueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null,
+                            maxValue);
+                    final FDate maxValueKey = maxValueEntry.getKey();
+                    if (maxKeyInDB == null || maxValueKey.compareTo(maxKeyInDB) >= 1) {
+                        maxKeyInDB = maxValueKey;
+                        getValuesMap().put(maxValueKey, maxValueEntry);
+                        return true;
+                    }
+                }
+            }
             return false;
         }
-    }
 
-    private boolean updateMinKey(final FDate key) {
-        if (minKey == null || key.compareTo(minKey) <= -1) {
-            minKey = key;
-            return true;
-        } else {
+        private boolean eventuallyGetMinKeyInDB(final FDate key, final boolean force) {
+            if (minKeyInDB == null || force) {
+                final V minValue = readNewestValueFromDB(minKey());
+                if (minValue != null) {
+                    final IHistoricalEntry<V> minValueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null,
+                            minValue);
+                    final FDate minValueKey = minValueEntry.getKey();
+                    //min key must be kept intact if all values have been loaded from a later key
+                    if (minKeyInDB == null || minValueKey.compareTo(minKeyInDB) <= -1) {
+                        minKeyInDB = minValueKey;
+                        getValuesMap().put(minValueKey, minValueEntry);
+                        return true;
+                    }
+                }
+            }
             return false;
         }
-    }
 
-    private V loadFromCacheBeforeLoadFurtherValues(final FDate key, final boolean newMaxKey, final boolean newMinKey) {
-        final V value = eventuallyGetMinValue(key, newMinKey);
-        if (value != null) {
-            return value;
+        private boolean updateMaxKey(final FDate key) {
+            if (maxKey == null || key.compareTo(maxKey) >= 1) {
+                maxKey = key;
+                return true;
+            } else {
+                return false;
+            }
         }
 
-        //maybe use max value
-        if (maxKeyInDB != null && key.compareTo(maxKeyInDB) >= 0 && containsKey(maxKeyInDB)) {
-            return thisQueryWithFuture.getEntry(maxKeyInDB).getValueIfPresent();
+        private boolean updateMinKey(final FDate key) {
+            if (minKey == null || key.compareTo(minKey) <= -1) {
+                minKey = key;
+                return true;
+            } else {
+                return false;
+            }
         }
-        return (V) null;
-    }
 
-    private V eventuallyGetMinValue(final FDate key, final boolean newMinKey) {
-        //if key < minKey; use value for minKey
-        if (minKeyInDB != null) {
-            final boolean afterMinKey = !newMinKey && key.compareTo(minKey) >= 0;
-            if (afterMinKey && key.compareTo(minKeyInDB) <= 0 && containsKey(minKey)) {
-                //via readNewestValueTo
-                return thisQueryWithFuture.getEntry(minKey).getValueIfPresent();
+        private V loadFromCacheBeforeLoadFurtherValues(final FDate key, final boolean newMaxKey, final boolean newMinKey) {
+            final V value = eventuallyGetMinValue(key, newMinKey);
+            if (value != null) {
+                return value;
             }
-            if (key.compareTo(minKeyInDB) <= 0 && containsKey(minKeyInDB)) {
-                //via searchInFurtherValues
-                return thisQueryWithFuture.getEntry(minKeyInDB).getValueIfPresent();
+
+            //maybe use max value
+            if (maxKeyInDB != null && key.compareTo(maxKeyInDB) >= 0 && containsKey(maxKeyInDB)) {
+                return thisQueryWithFuture.getEntry(maxKeyInDB).getValueIfPresent();
             }
+            return (V) null;
         }
-        return null;
-    }
 
-    private boolean eventuallyLoadFurtherValues(final String source, final FDate key, final FDate adjustedKey,
-            final boolean newMinKey, final boolean forced) {
-        if (forced || shouldLoadFurtherValues(key, newMinKey)) {
-            final FDate keyForReadAllValues = FDates.max(minKeyInDB, adjustedKey);
-            furtherValues.clear();
-            lastValuesFromFurtherValues.clear();
-            FDate curKey = keyForReadAllValues;
-            while (true) {
-                final BufferingIterator<V> newFurtherValuesBuffer = new BufferingIterator<V>();
-                final Iterable<? extends V> newFurtherValues = readAllValuesAscendingFrom(curKey);
-                newFurtherValuesBuffer.consume(newFurtherValues);
-                if (newFurtherValuesBuffer.isEmpty()) {
-                    //end of data reached
-                    break;
+        private V eventuallyGetMinValue(final FDate key, final boolean newMinKey) {
+            //if key < minKey; use value for minKey
+            if (minKeyInDB != null) {
+                final boolean afterMinKey = !newMinKey && key.compareTo(minKey) >= 0;
+                if (afterMinKey && key.compareTo(minKeyInDB) <= 0 && containsKey(minKey)) {
+                    //via readNewestValueTo
+                    return thisQueryWithFuture.getEntry(minKey).getValueIfPresent();
+                }
+                if (key.compareTo(minKeyInDB) <= 0 && containsKey(minKeyInDB)) {
+                    //via searchInFurtherValues
+                    return thisQueryWithFuture.getEntry(minKeyInDB).getValueIfPresent();
                 }
-                final boolean furtherValuesEmpty = furtherValues.isEmpty();
-                if (!furtherValuesEmpty) {
+            }
+            return null;
+        }
+
+        private boolean eventuallyLoadFurtherValues(final String source, final FDate key, final FDate adjustedKey,
+                final boolean newMinKey, final boolean forced) {
+            if (forced || shouldLoadFurtherValues(key, newMinKey)) {
+                FDate keyForReadAllValues = FDates.max(minKeyInDB, adjustedKey);
+                if (getPrefetchDepth() > 0 && furtherValuesTailKey != null && key.isAfter(furtherValuesTailKey)
+                        && keyForReadAllValues.isBefore(furtherValuesTailKey)) {
+                    //the tail is the latest value before the key, thus continue the forward iteration from there
+                    keyForReadAllValues = furtherValuesTailKey;
+                }
+                final boolean forwardIteration = keyForReadAllValues.equals(furtherValuesTailKey);
+                furtherValues.clear();
+                lastValuesFromFurtherValues.clear();
+                //announce the range so that concurrent misses in it wait for this segment instead of loading it again
+                rangeFrom = keyForReadAllValues;
+                rangeTo = FDates.max(keyForReadAllValues, key);
+                FDate curKey = keyForReadAllValues;
+                while (true) {
+                    newFurtherValuesBuffer.clear();
+                    final Iterable<? extends V> newFurtherValues = readFurtherValues(curKey, furtherValues.isEmpty());
+                    newFurtherValuesBuffer.consume(newFurtherValues);
+                    if (newFurtherValuesBuffer.isEmpty()) {
+                        //end of data reached
+                        break;
+                    }
+                    final boolean furtherValuesEmpty = furtherValues.isEmpty();
+                    if (!furtherValuesEmpty) {
+                        final FDate tailKey = innerExtractKey(furtherValues.getTail());
+                        final FDate newTailKey = innerExtractKey(newFurtherValuesBuffer.getTail());
+                        if (newTailKey.isAfter(tailKey)) {
+                            //skip duplicates on further queries
+                            skipDuplicates(key, curKey, newFurtherValuesBuffer);
+                        } else {
+                            //just a duplicate result...
+                            break;
+                        }
+                    }
+                    final boolean added = furtherValues.consume(newFurtherValuesBuffer);
+                    if (!added) {
+                        //end of data reached
+                        break;
+                    }
                     final FDate tailKey = innerExtractKey(furtherValues.getTail());
-                    final FDate newTailKey = innerExtractKey(newFurtherValuesBuffer.getTail());
-                    if (newTailKey.isAfter(tailKey)) {
-                        //skip duplicates on further queries
-                        skipDuplicates(key, curKey, newFurtherValuesBuffer);
-                    } else {
-                        //just a duplicate result...
+                    maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(furtherValuesEmpty, tailKey);
+                    if (tailKey.isAfterOrEqualTo(key) || tailKey.equals(maxKeyInDB)) {
+                        //request fulfilled
                         break;
                     }
+                    curKey = tailKey.addMilliseconds(1);
                 }
-                final boolean added = furtherValues.consume(newFurtherValuesBuffer);
-                if (!added) {
-                    //end of data reached
-                    break;
-                }
-                final FDate tailKey = innerExtractKey(furtherValues.getTail());
-                maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(furtherValuesEmpty, tailKey);
-                if (tailKey.isAfterOrEqualTo(key) || tailKey.equals(maxKeyInDB)) {
-                    //request fulfilled
-                    break;
+                //don't hold on to skipped values
+                newFurtherValuesBuffer.clear();
+
+                if (!furtherValues.isEmpty()) {
+                    assertFurtherValuesSorting(key);
+                    furtherValuesTailKey = innerExtractKey(furtherValues.getTail());
+                    rangeTo = FDates.max(rangeTo, furtherValuesTailKey);
+                    if (forwardIteration) {
+                        maybePrefetchFurtherValues();
+                    } else {
+                        cancelPrefetches();
+                    }
+                } else {
+                    furtherValuesTailKey = null;
+                    cancelPrefetches();
                 }
-                curKey = tailKey.addMilliseconds(1);
+                return true;
             }
+            return false;
+        }
 
-            if (!furtherValues.isEmpty()) {
-                assertFurtherValuesSorting(key);
+        private Iterable<? extends V> readFurtherValues(final FDate curKey, final boolean furtherValuesEmpty) {
+            final Prefetch prefetch;
+            synchronized (prefetches) {
+                prefetch = prefetches.pollFirst();
+            }
+            if (prefetch != null) {
+                final FDate prefetchFromKey = prefetch.fromKey;
+                /*
+                 * a prefetch starts at the tail of the previous batch, which is fine while adding to further values
+                 * because duplicates get skipped
+                 */
+                if (curKey.equals(prefetchFromKey)
+                        || (!furtherValuesEmpty && curKey.equals(prefetchFromKey.addMilliseconds(1)))) {
+                    //wait outside of the monitor, since the prefetch needs it to submit its successor
+                    return Futures.getNoInterrupt(prefetch.future);
+                }
+                synchronized (prefetches) {
+                    prefetch.cancel();
+                    cancelPrefetches();
+                }
             }
-            return true;
+            return readAllValuesAscendingFrom(curKey);
         }
-        return false;
-    }
 
-    private void maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(final boolean furtherValuesEmpty,
-            final FDate tailKey) {
-        //if the further values is less than 10 we might be at the beginning of the history, thus we should not count this
-        if (furtherValuesEmpty && furtherValues.size() > 10) {
-            final FDate headKey = innerExtractKey(furtherValues.getHead());
-            cacheMissCounter.maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(new Duration(headKey, tailKey));
+        private void maybePrefetchFurtherValues() {
+            final int prefetchDepth = getPrefetchDepth();
+            if (prefetchDepth <= 0 || furtherValuesTailKey.equals(maxKeyInDB)) {
+                //nothing more to prefetch
+                cancelPrefetches();
+                return;
+            }
+            synchronized (prefetches) {
+                if (prefetches.isEmpty()) {
+                    submitPrefetch(furtherValuesTailKey, maxKeyInDB);
+                }
+                topUpPrefetches();
+            }
         }
-    }
 
-    private void skipDuplicates(final FDate key, final FDate curKey,
-            final BufferingIterator<V> newFurtherValuesBuffer) {
-        while (!newFurtherValuesBuffer.isEmpty()
-                && innerExtractKey(newFurtherValuesBuffer.getHead()).isBefore(curKey)) {
-            newFurtherValuesBuffer.next();
+        /**
+         * Should only be called while holding the monitor of the prefetches. The start key of a prefetch is only known
+         * when its predecessor is finished, thus this is called after each load and by each prefetch when it is
+         * finished. Waiting for the predecessor inside the executor instead could deadlock bounded executors.
+         */
+        private void topUpPrefetches() {
+            final int prefetchDepth = getPrefetchDepth();
+            while (prefetches.size() < prefetchDepth) {
+                final Prefetch previous = prefetches.peekLast();
+                if (previous == null || !previous.finished) {
+                    //the previous prefetch submits its successor when it is finished
+                    return;
+                }
+                final FDate fromKey = previous.getNextFromKey();
+                if (fromKey == null) {
+                    //end of data reached
+                    return;
+                }
+                submitPrefetch(fromKey, previous.maxKeyInDB);
+            }
         }
-    }
 
-    protected boolean allowNoDataInDBShortcut() {
-        return true;
-    }
+        private void submitPrefetch(final FDate fromKey, final FDate maxKeyInDB) {
+            final Prefetch prefetch = new Prefetch(fromKey, maxKeyInDB);
+            prefetches.add(prefetch);
+            prefetch.future = getPrefetchExecutor().submit(prefetch);
+        }
 
-    private boolean shouldLoadFurtherValues(final FDate key, final boolean newMinKey) {
-        if (furtherValues.isEmpty()) {
-            final V tail = lastValuesFromFurtherValues.getTail();
-            if (tail == null) {
-                return true;
+        private void cancelPrefetches() {
+            synchronized (prefetches) {
+                while (!prefetches.isEmpty()) {
+                    prefetches.pollFirst().cancel();
+                }
             }
-            final V head = lastValuesFromFurtherValues.getHead();
-            final FDate tailKey = extractKey(null, tail);
-            final FDate headKey = extractKey(null, head);
-            final boolean isEndReachedAnyway = tailKey.equals(maxKeyInDB) && key.isBeforeOrEqualTo(maxKeyInDB)
-                    && headKey.isBeforeOrEqualTo(key);
-            return !isEndReachedAnyway;
         }
-        final boolean keyIsBeforeMinKeyFromLoadFurtherValues = newMinKey
-                && key.isBefore(minKeyInDBFromLoadFurtherValues);
-        if (keyIsBeforeMinKeyFromLoadFurtherValues) {
-            return true;
-        }
-        final boolean newMinKeyFromDBMayFindNewValues = isMinKeyInDBFromLoadFurtherValues()
-                && key.compareTo(minKeyInDB) <= -1 && newMinKey;
-        if (newMinKeyFromDBMayFindNewValues) {
-            return true;
+
+        private void maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(final boolean furtherValuesEmpty,
+                final FDate tailKey) {
+            //if the further values is less than 10 we might be at the beginning of the history, thus we should not count this
+            if (furtherValuesEmpty && furtherValues.size() > 10) {
+                final FDate headKey = innerExtractKey(furtherValues.getHead());
+                cacheMissCounter.maybeLimitOptimalReadBackStepByLoadFurtherValuesRange(new Duration(headKey, tailKey));
+            }
         }
 
-        return false;
-    }
+        private void skipDuplicates(final FDate key, final FDate curKey,
+                final RingBufferingIterator<V> newFurtherValuesBuffer) {
+            while (!newFurtherValuesBuffer.isEmpty()
+                    && innerExtractKey(newFurtherValuesBuffer.getHead()).isBefore(curKey)) {
+                newFurtherValuesBuffer.next();
+            }
+        }
 
-    private boolean isMinKeyInDBFromLoadFurtherValues() {
-        return minKeyInDBFromLoadFurtherValues != null
-                && FDates.isSameMillisecond(minKeyInDBFromLoadFurtherValues, minKeyInDB);
-    }
+        private boolean shouldLoadFurtherValues(final FDate key, final boolean newMinKey) {
+            if (furtherValues.isEmpty()) {
+                final V tail = lastValuesFromFurtherValues.getTail();
+                if (tail == null) {
+                    return true;
+                }
+                final V head = lastValuesFromFurtherValues.getHead();
+                final FDate tailKey = extractKey(null, tail);
+                final FDate headKey = extractKey(null, head);
+                final boolean isEndReachedAnyway = tailKey.equals(maxKeyInDB) && key.isBeforeOrEqualTo(maxKeyInDB)
+                        && headKey.isBeforeOrEqualTo(key);
+                return !isEndReachedAnyway;
+            }
+            final boolean keyIsBeforeMinKeyFromLoadFurtherValues = newMinKey
+                    && key.isBefore(minKeyInDBFromLoadFurtherValues);
+            if (keyIsBeforeMinKeyFromLoadFurtherValues) {
+                return true;
+            }
+            final boolean newMinKeyFromDBMayFindNewValues = isMinKeyInDBFromLoadFurtherValues()
+                    && key.compareTo(minKeyInDB) <= -1 && newMinKey;
+            if (newMinKeyFromDBMayFindNewValues) {
+                return true;
+            }
 
-    private void assertFurtherValuesSorting(final FDate key) {
-        final FDate firstKey = extractKey(null, furtherValues.getHead());
-        if (firstKey.compareTo(key) <= -1) {
-            /*
-             * readAllValuesAscendingFrom loads all data, thus we set the min key very deep so that later queries are
-             * skipped if they are before minKey
-             */
-            minKey = minKey();
-        }
-        if (minKeyInDB == null || firstKey.compareTo(minKey) <= -1) {
-            minKeyInDB = firstKey;
+            return false;
         }
-        minKeyInDBFromLoadFurtherValues = FDates.min(minKeyInDBFromLoadFurtherValues, firstKey);
-        final FDate lastKey = extractKey(null, furtherValues.getTail());
-        if (maxKeyInDB == null || lastKey.compareTo(maxKeyInDB) <= -1) {
-            maxKeyInDB = FDates.max(maxKeyInDB, lastKey);
+
+        private boolean isMinKeyInDBFromLoadFurtherValues() {
+            return minKeyInDBFromLoadFurtherValues != null
+                    && FDates.isSameMillisecond(minKeyInDBFromLoadFurtherValues, minKeyInDB);
         }
-        maxKeyInDBFromLoadFurtherValues = FDates.max(maxKeyInDBFromLoadFurtherValues, lastKey);
 
-        if (furtherValues.size() > 1) {
-            Assertions.checkState(firstKey.compareTo(lastKey) <= 0,
-                    "Not ascending sorted! At firstKey [%s] and lastKey [%s]", firstKey, lastKey);
+        private void assertFurtherValuesSorting(final FDate key) {
+            final FDate firstKey = extractKey(null, furtherValues.getHead());
+            if (firstKey.compareTo(key) <= -1) {
+                /*
+                 * readAllValuesAscendingFrom loads all data, thus we set the min key very deep so that later queries are
+                 * skipped if they are before minKey
+                 */
+                minKey = minKey();
+            }
+            if (minKeyInDB == null || firstKey.compareTo(minKey) <= -1) {
+                minKeyInDB = firstKey;
+            }
+            minKeyInDBFromLoadFurtherValues = FDates.min(minKeyInDBFromLoadFurtherValues, firstKey);
+            final FDate lastKey = extractKey(null, furtherValues.getTail());
+            if (maxKeyInDB == null || lastKey.compareTo(maxKeyInDB) <= -1) {
+                maxKeyInDB = FDates.max(maxKeyInDB, lastKey);
+            }
+            maxKeyInDBFromLoadFurtherValues = FDates.max(maxKeyInDBFromLoadFurtherValues, lastKey);
+
+            if (furtherValues.size() > 1) {
+                Assertions.checkState(firstKey.compareTo(lastKey) <= 0,
+                        "Not ascending sorted! At firstKey [%s] and lastKey [%s]", firstKey, lastKey);
+            }
         }
-    }
 
-    private V searchInFurtherValues(final FDate key) {
-        //Take the first matching value from the sorted list
-        //Search for the newest value
-        V prevValue = null;
-        FDate prevKey = null;
-        if (!lastValuesFromFurtherValues.isEmpty()) {
-            //though maybe use the last one for smaller increments than the data itself is loaded
-            for (final V lastValueFromFurtherValues : lastValuesFromFurtherValues) {
-                final FDate keyLastValueFromFurtherValues = extractKey(null, lastValueFromFurtherValues);
-                if (keyLastValueFromFurtherValues.isBeforeOrEqualTo(key)) {
-                    prevValue = lastValueFromFurtherValues;
-                    prevKey = keyLastValueFromFurtherValues;
-                } else {
-                    //only go to further values if it might be possible that those are useable
-                    return prevValue;
+        private V searchInFurtherValues(final FDate key) {
+            //Take the first matching value from the sorted list
+            //Search for the newest value
+            V prevValue = null;
+            FDate prevKey = null;
+            if (!lastValuesFromFurtherValues.isEmpty()) {
+                //though maybe use the last one for smaller increments than the data itself is loaded
+                for (final V lastValueFromFurtherValues : lastValuesFromFurtherValues) {
+                    final FDate keyLastValueFromFurtherValues = extractKey(null, lastValueFromFurtherValues);
+                    if (keyLastValueFromFurtherValues.isBeforeOrEqualTo(key)) {
+                        prevValue = lastValueFromFurtherValues;
+                        prevKey = keyLastValueFromFurtherValues;
+                    } else {
+                        //only go to further values if it might be possible that those are useable
+                        return prevValue;
+                    }
                 }
             }
-        }
 
-        final FDate earliestStartOfLoadFurtherValues = determineEaliestStartOfLoadFurtherValues(key);
-        while (furtherValues.size() > 0) {
-            final V newValue = furtherValues.getHead();
-            final FDate newValueKey = extractKey(null, newValue);
-            final int compare = key.compareTo(newValueKey);
-            if (compare < 0) {
-                //key < newValueKey
-                //run over the key we wanted
-                break;
-            } else if (compare == 0) {
-                //key == newValueKey
-                //This is the value we searched for! It will later be added with the db key to the cache.
-                pushLastValueFromFurtherValues();
-                return newValue;
-            } else {
-                //key > newValueKey
+            final FDate earliestStartOfLoadFurtherValues = determineEaliestStartOfLoadFurtherValues(key);
+            while (furtherValues.size() > 0) {
+                final V newValue = furtherValues.getHead();
+                final FDate newValueKey = extractKey(null, newValue);
+                final int compare = key.compareTo(newValueKey);
+                if (compare < 0) {
+                    //key < newValueKey
+                    //run over the key we wanted
+                    break;
+                } else if (compare == 0) {
+                    //key == newValueKey
+                    //This is the value we searched for! It will later be added with the db key to the cache.
+                    pushLastValueFromFurtherValues();
+                    return newValue;
+                } else {
+                    //key > newValueKey
 
-                //put this value into the cache; gaps do not get filled here, so that the max size of the cache does not get reached prematurely
-                getPutProvider().put(newValueKey, newValue, prevKey, prevValue, false);
+                    //put this value into the cache; gaps do not get filled here, so that the max size of the cache does not get reached prematurely
+                    getPutProvider().put(newValueKey, newValue, prevKey, prevValue, false);
 
-                pushLastValueFromFurtherValues();
-                if (prevKey != null) {
-                    cacheMissCounter.recordElementDistance(prevKey, newValueKey);
-                }
-                //continue with the next one
-                prevValue = newValue;
-                prevKey = newValueKey;
-
-                if (furtherValues.isEmpty() && newValueKey.isBefore(maxKeyInDB) && key.isBefore(maxKeyInDB)
-                        && maxKeyInDBFromLoadFurtherValues.isBefore(maxKeyInDB)) {
-                    final FDate timeForLoadFurtherValues = FDates.max(newValueKey, earliestStartOfLoadFurtherValues);
-                    Assertions.checkState(eventuallyLoadFurtherValues("searchInFurtherValues", newValueKey,
-                            timeForLoadFurtherValues, false, true));
-                    if (!furtherValues.isEmpty()) {
-                        pushLastValueFromFurtherValues();
-                        if (!timeForLoadFurtherValues.equals(newValue)) {
-                            //do not distort prev/next lookup when using earlisetStartOfLoadFurtherValues, thus reset those
-                            prevValue = null;
-                            prevKey = null;
+                    pushLastValueFromFurtherValues();
+                    if (prevKey != null) {
+                        cacheMissCounter.recordElementDistance(prevKey, newValueKey);
+                    }
+                    //continue with the next one
+                    prevValue = newValue;
+                    prevKey = newValueKey;
+
+                    if (furtherValues.isEmpty() && newValueKey.isBefore(maxKeyInDB) && key.isBefore(maxKeyInDB)
+                            && maxKeyInDBFromLoadFurtherValues.isBefore(maxKeyInDB)) {
+                        final FDate timeForLoadFurtherValues = FDates.max(newValueKey, earliestStartOfLoadFurtherValues);
+                        Assertions.checkState(eventuallyLoadFurtherValues("searchInFurtherValues", newValueKey,
+                                timeForLoadFurtherValues, false, true));
+                        if (!furtherValues.isEmpty()) {
+                            pushLastValueFromFurtherValues();
+                            if (!timeForLoadFurtherValues.equals(newValue)) {
+                                //do not distort prev/next lookup when using earlisetStartOfLoadFurtherValues, thus reset those
+                                prevValue = null;
+                                prevKey = null;
+                            }
                         }
                     }
                 }
             }
+            return prevValue;
         }
-        return prevValue;
-    }
 
-    private void pushLastValueFromFurtherValues() {
-        while (lastValuesFromFurtherValues.size() >= MAX_LAST_VALUES_FROM_LOAD_FURTHER_VALUES) {
-            lastValuesFromFurtherValues.next();
+        private void pushLastValueFromFurtherValues() {
+            while (lastValuesFromFurtherValues.size() >= MAX_LAST_VALUES_FROM_LOAD_FURTHER_VALUES) {
+                lastValuesFromFurtherValues.next();
+            }
+            lastValuesFromFurtherValues.add(furtherValues.next());
         }
-        lastValuesFromFurtherValues.add(furtherValues.next());
-    }
 
-    /**
-     * when this does not match, then getLatestValue will be used automatically anyway to go further back in time
-     */
+        /**
+         * when this does not match, then getLatestValue will be used automatically anyway to go further back in time
+         */
 
-    private FDate determineEaliestStartOfLoadFurtherValues(final FDate key) {
-        //1 day is fine for most cases
-        final long readBackStepMillis = cacheMissCounter.getOptimalReadBackStepMillis();
-        return key.addMilliseconds(-readBackStepMillis);
-    }
+        private FDate determineEaliestStartOfLoadFurtherValues(final FDate key) {
+            //1 day is fine for most cases
+            final long readBackStepMillis = cacheMissCounter.getOptimalReadBackStepMillis();
+            return key.addMilliseconds(-readBackStepMillis);
+        }
 
-    protected long getInitialReadBackStepMillis() {
-        return DEFAULT_READ_BACK_STEP_MILLIS;
-    }
+        /**
+         * These checks may only be called after furtherValues were searched and eventuelly the list has been reloaded.
+         */
 
-    /**
-     * These checks may only be called after furtherValues were searched and eventuelly the list has been reloaded.
-     */
+        private V tryLoadFromCacheAfterLoadFurtherValues(final FDate key, final boolean newMaxKey,
+                final FDate previousMaxKey) {
+            //maybe minKey in db did not change even though the minKey in the cache changed
+            //after reloading of furtherValues it is ok to search this again instead of doing another query for the newest value
+            if (furtherValuesLoaded) {
+                final V value = eventuallyGetMinValue(key, false);
+                if (value != null) {
+                    return value;
+                }
+            }
 
-    private V tryLoadFromCacheAfterLoadFurtherValues(final FDate key, final boolean newMaxKey,
-            final FDate previousMaxKey) {
-        //maybe minKey in db did not change even though the minKey in the cache changed
-        //after reloading of furtherValues it is ok to search this again instead of doing another query for the newest value
-        if (furtherValuesLoaded) {
-            final V value = eventuallyGetMinValue(key, false);
-            if (value != null) {
-                return value;
+            //with maxKey
+            if (newMaxKey && previousMaxKey != null && containsKey(previousMaxKey) && key.isAfterOrEqualTo(maxKeyInDB)) {
+                //use the last maxKey
+                //because this one is behind it and not a new one
+                //thus working if the db does not have further values
+                return thisQueryWithFuture.getEntry(previousMaxKey).getValueIfPresent();
             }
+            return null;
         }
 
-        //with maxKey
-        if (newMaxKey && previousMaxKey != null && containsKey(previousMaxKey) && key.isAfterOrEqualTo(maxKeyInDB)) {
-            //use the last maxKey
-            //because this one is behind it and not a new one
-            //thus working if the db does not have further values
-            return thisQueryWithFuture.getEntry(previousMaxKey).getValueIfPresent();
-        }
-        return null;
-    }
+        private V readNewestValueFromDB(final FDate key) {
+            // we give up and use the newest value from db
+            V value = readLatestValueFor(key);
 
-    private V readNewestValueFromDB(final FDate key) {
-        // we give up and use the newest value from db
-        V value = readLatestValueFor(key);
+            //try to use first value of furthervalues
+            if (value == null && furtherValuesLoaded && !furtherValues.isEmpty()) {
+                value = furtherValues.getHead();
+            }
 
-        //try to use first value of furthervalues
-        if (value == null && furtherValuesLoaded && !furtherValues.isEmpty()) {
-            value = furtherValues.getHead();
+            if (value != null) {
+                //we remember the db key of the value so that it can be found again later
+                //to use the parameter key would make the result incorrect
+                final IHistoricalEntry<V> valueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null, value);
+                getValuesMap().put(valueEntry.getKey(), valueEntry);
+                return value;
+            } else {
+                return null;
+            }
         }
 
-        if (value != null) {
-            //we remember the db key of the value so that it can be found again later
-            //to use the parameter key would make the result incorrect
-            final IHistoricalEntry<V> valueEntry = ImmutableHistoricalEntry.maybeExtractKey(this, null, value);
-            getValuesMap().put(valueEntry.getKey(), valueEntry);
-            return value;
-        } else {
-            return null;
+        private void maybeClear() {
+            if (clearRequested) {
+                //remove flags so that the limit check gets skipped if get has not been called yet and this method might be called again
+                maxKeyInDB = null;
+                minKeyInDB = null;
+                //a clear forces the list to be completely reloaded next time get is called
+                furtherValues.clear();
+                lastValuesFromFurtherValues.clear();
+                furtherValuesTailKey = null;
+                cancelPrefetches();
+                rangeFrom = null;
+                rangeTo = null;
+                clearRequested = false;
+            }
         }
-    }
 
-    protected abstract Iterable<? extends V> readAllValuesAscendingFrom(FDate key);
+        /**
+         * Loads a batch of further values in the background. When it is finished it submits the next prefetch starting
+         * at the tail of this batch, as long as fewer than getPrefetchDepth() prefetches are outstanding.
+         */
+        private final class Prefetch implements Callable<RingBufferingIterator<V>> {
+
+            private final FDate fromKey;
+            private final FDate maxKeyInDB;
+            private volatile FDate nextFromKey;
+            private volatile Future<RingBufferingIterator<V>> future;
+            @GuardedBy("prefetches")
+            private boolean finished;
+            @GuardedBy("prefetches")
+            private boolean cancelled;
+
+            private Prefetch(final FDate fromKey, final FDate maxKeyInDB) {
+                this.fromKey = fromKey;
+                this.maxKeyInDB = maxKeyInDB;
+            }
 
-    /**
-     * This method first tries to load the nearest neighbor value to the given key. First it tries to load values <=
-     * key, if this fails it tries to load values >= key. If the caller does not accept values from the future, this
-     * will get handled properly later. For example financial backtests may not use values from the future to keep the
-     * test realistic.
-     */
-    protected abstract V readLatestValueFor(FDate key);
+            /**
+             * Should only be called when this prefetch is finished. Null means that the end of data is reached or that
+             * this prefetch was cancelled or failed.
+             */
+            private FDate getNextFromKey() {
+                if (cancelled || nextFromKey == null || nextFromKey.equals(maxKeyInDB)) {
+                    return null;
+                }
+                return nextFromKey;
+            }
 
-    @Override
-    public void clear() {
-        super.clear();
-        //don't synchronize this clear method, instead just set the flag so that next loadValue clears
-        clearRequested = true;
-    }
+            @Override
+            public RingBufferingIterator<V> call() {
+                try {
+                    final RingBufferingIterator<V> values = new RingBufferingIterator<V>();
+                    values.consume(readAllValuesAscendingFrom(fromKey));
+                    if (!values.isEmpty()) {
+                        final FDate tailKey = innerExtractKey(values.getTail());
+                        if (tailKey.isAfter(fromKey)) {
+                            nextFromKey = tailKey;
+                        }
+                    }
+                    return values;
+                } finally {
+                    synchronized (prefetches) {
+                        finished = true;
+                        if (!cancelled) {
+                            topUpPrefetches();
+                        }
+                    }
+                }
+            }
+
+            private void cancel() {
+                cancelled = true;
+                //don't interrupt, since that might break the underlying storage
+                future.cancel(false);
+            }
 
-    private void maybeClear() {
-        if (clearRequested) {
-            //remove flags so that the limit check gets skipped if get has not been called yet and this method might be called again
-            maxKeyInDB = null;
-            minKeyInDB = null;
-            //a clear forces the list to be completely reloaded next time get is called
-            furtherValues.clear();
-            lastValuesFromFurtherValues.clear();
-            clearRequested = false;
         }
+
     }
 
 }
@@ -4,6 +4,7 @@ import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
@@ -16,6 +17,8 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 
 import de.invesdwin.util.assertions.Assertions;
 import de.invesdwin.util.collections.eviction.EvictionMode;
+import de.invesdwin.util.collections.eviction.IEvictionMap;
+import de.invesdwin.util.collections.eviction.PrimitiveFDateKeyMap;
 import de.invesdwin.util.collections.fast.concurrent.ASynchronizedFastIterableDelegateList;
 import de.invesdwin.util.collections.loadingcache.ADelegateLoadingCache;
 import de.invesdwin.util.collections.loadingcache.ALoadingCache;
@@ -41,6 +44,7 @@ import de.invesdwin.util.collections.loadingcache.historical.query.internal.Hist
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.IHistoricalCacheInternalMethods;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.core.CachedHistoricalCacheQueryCore;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.core.IHistoricalCacheQueryCore;
+import de.invesdwin.util.collections.loadingcache.historical.query.internal.core.ThreadLocalCachedHistoricalCacheQueryCore;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.core.TrailingHistoricalCacheQueryCore;
 import de.invesdwin.util.collections.loadingcache.historical.query.internal.filter.FilteringHistoricalCacheQuery;
 import de.invesdwin.util.collections.loadingcache.historical.refresh.HistoricalCacheRefreshManager;
@@ -156,6 +160,32 @@ public abstract class AHistoricalCache<V>
         }
     }
 
+    /**
+     * Override this to use a different eviction strategy for the values map of this cache.
+     */
+    protected EvictionMode getEvictionMode() {
+        return EVICTION_MODE;
+    }
+
+    /**
+     * Override this to store the keys of the values map as primitive longs instead of FDate instances. This reduces the
+     * memory footprint and GC pressure when millions of values are cached.
+     */
+    protected boolean isPrimitiveKeyValuesMap() {
+        return false;
+    }
+
+    /**
+     * Use a query core that gives each thread its own lookback cache, so that many concurrent readers (e.g. parallel
+     * backtests on the same instrument) don't fall back to uncached queries because another thread holds the lookback
+     * cache. This comes at the cost of a lookback cache per thread.
+     */
+    public void enableThreadLocalQueryCore() {
+        if (!(queryCore instanceof ThreadLocalCachedHistoricalCacheQueryCore)) {
+            queryCore = new ThreadLocalCachedHistoricalCacheQueryCore<>(internalMethods);
+        }
+    }
+
     protected IHistoricalCacheQueryCore<V> newQueryCore() {
         /*
          * always use lookback cache to make getPreviousXyz faster even though this instance might not cache anything in
@@ -266,7 +296,25 @@ public abstract class AHistoricalCache<V>
 
             @Override
             protected EvictionMode getEvictionMode() {
-                return EVICTION_MODE;
+                return AHistoricalCache.this.getEvictionMode();
+            }
+
+            @Override
+            protected IEvictionMap<FDate, T> newEvictionMap(final int maximumSize) {
+                if (isPrimitiveKeyValuesMap()) {
+                    return getEvictionMode().newPrimitiveFDateKeyMap(maximumSize);
+                } else {
+                    return super.newEvictionMap(maximumSize);
+                }
+            }
+
+            @Override
+            protected Map<FDate, T> newUnlimitedMap() {
+                if (isPrimitiveKeyValuesMap()) {
+                    return new PrimitiveFDateKeyMap<T>();
+                } else {
+                    return super.newUnlimitedMap();
+                }
             }
 
         };
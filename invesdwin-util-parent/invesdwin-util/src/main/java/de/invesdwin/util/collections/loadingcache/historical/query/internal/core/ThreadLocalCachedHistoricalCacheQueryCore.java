@@ -0,0 +1,215 @@
+package de.invesdwin.util.collections.loadingcache.historical.query.internal.core;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.collections.fast.concurrent.ASynchronizedFastIterableDelegateList;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.loadingcache.historical.IHistoricalEntry;
+import de.invesdwin.util.collections.loadingcache.historical.query.internal.HistoricalCacheAssertValue;
+import de.invesdwin.util.collections.loadingcache.historical.query.internal.HistoricalCacheQuery;
+import de.invesdwin.util.collections.loadingcache.historical.query.internal.IHistoricalCacheInternalMethods;
+import de.invesdwin.util.time.fdate.FDate;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * CachedHistoricalCacheQueryCore only allows one thread at a time to use its lookback cache, all other threads fall back
+ * to uncached queries that rebuild the trailing list from scratch. This query core instead gives each thread its own
+ * trailing window (cursor) over the shared values map of the parent cache. Thus concurrent readers never contend on
+ * the lookback cache and each of them gets the same cache hit rate as a single thread would.
+ * 
+ * The memory footprint of the lookback cache is multiplied by the number of threads that query this cache. Each
+ * trailing window is still limited by the maximum size of the parent cache.
+ * 
+ * The thread query cores are owned by this instance, threads only reference them weakly via one shared thread local.
+ * Thus pooled threads neither pin the cache nor does each cache instance allocate its own thread local index. Thread
+ * query cores of terminated threads are removed lazily.
+ */
+@ThreadSafe
+public class ThreadLocalCachedHistoricalCacheQueryCore<V> implements IHistoricalCacheQueryCore<V> {
+
+    private static final FastThreadLocal<Map<ThreadLocalCachedHistoricalCacheQueryCore<?>, WeakReference<IHistoricalCacheQueryCore<?>>>> THREAD_QUERY_CORES = new FastThreadLocal<Map<ThreadLocalCachedHistoricalCacheQueryCore<?>, WeakReference<IHistoricalCacheQueryCore<?>>>>() {
+        @Override
+        protected Map<ThreadLocalCachedHistoricalCacheQueryCore<?>, WeakReference<IHistoricalCacheQueryCore<?>>> initialValue() {
+            return new WeakHashMap<>();
+        }
+    };
+
+    private final DefaultHistoricalCacheQueryCore<V> delegate;
+    @SuppressWarnings("rawtypes")
+    private final ASynchronizedFastIterableDelegateList<ThreadQueryCore> threadQueryCores = new ASynchronizedFastIterableDelegateList<ThreadQueryCore>() {
+        @Override
+        protected List<ThreadQueryCore> newDelegate() {
+            return new ArrayList<>();
+        }
+    };
+
+    public ThreadLocalCachedHistoricalCacheQueryCore(final IHistoricalCacheInternalMethods<V> parent) {
+        this.delegate = new DefaultHistoricalCacheQueryCore<V>(parent);
+    }
+
+    /**
+     * Can be overridden to use a different lookback cache per thread, e.g. TrailingHistoricalCacheQueryCore.
+     */
+    protected IHistoricalCacheQueryCore<V> newThreadQueryCore(final IHistoricalCacheInternalMethods<V> parent) {
+        return new CachedHistoricalCacheQueryCore<V>(parent);
+    }
+
+    @Override
+    public IHistoricalCacheInternalMethods<V> getParent() {
+        return delegate.getParent();
+    }
+
+    @Override
+    public IHistoricalEntry<V> getPreviousEntry(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
+            final int shiftBackUnits) {
+        if (shiftBackUnits == 0) {
+            return delegate.getPreviousEntry(query, key, 0);
+        } else {
+            return getThreadQueryCore().getPreviousEntry(query, key, shiftBackUnits);
+        }
+    }
+
+    @Override
+    public ICloseableIterable<IHistoricalEntry<V>> getPreviousEntries(
+            final IHistoricalCacheQueryInternalMethods<V> query, final FDate key, final int shiftBackUnits) {
+        return getThreadQueryCore().getPreviousEntries(query, key, shiftBackUnits);
+    }
+
+    @Override
+    public V getValue(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
+            final HistoricalCacheAssertValue assertValue) {
+        return delegate.getValue(query, key, assertValue);
+    }
+
+    @Override
+    public IHistoricalEntry<V> getEntry(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
+            final HistoricalCacheAssertValue assertValue) {
+        return delegate.getEntry(query, key, assertValue);
+    }
+
+    @Override
+    public IHistoricalEntry<V> computeEntry(final HistoricalCacheQuery<V> historicalCacheQuery, final FDate key,
+            final HistoricalCacheAssertValue assertValue) {
+        return delegate.computeEntry(historicalCacheQuery, key, assertValue);
+    }
+
+    @Override
+    public ICloseableIterable<IHistoricalEntry<V>> getNextEntries(final IHistoricalCacheQueryInternalMethods<V> query,
+            final FDate key, final int shiftForwardUnits) {
+        return delegate.getNextEntries(query, key, shiftForwardUnits);
+    }
+
+    @Override
+    public IHistoricalEntry<V> getNextEntry(final IHistoricalCacheQueryInternalMethods<V> query, final FDate key,
+            final int shiftForwardUnits) {
+        return delegate.getNextEntry(query, key, shiftForwardUnits);
+    }
+
+    @Override
+    public void clear() {
+        @SuppressWarnings("rawtypes")
+        final ThreadQueryCore[] array = threadQueryCores.asArray(ThreadQueryCore.class);
+        for (int i = 0; i < array.length; i++) {
+            final IHistoricalCacheQueryCore<V> queryCore = getThreadQueryCore(array[i]);
+            if (queryCore != null) {
+                queryCore.clear();
+            }
+        }
+    }
+
+    @Override
+    public void increaseMaximumSize(final int maximumSize) {
+        @SuppressWarnings("rawtypes")
+        final ThreadQueryCore[] array = threadQueryCores.asArray(ThreadQueryCore.class);
+        for (int i = 0; i < array.length; i++) {
+            final IHistoricalCacheQueryCore<V> queryCore = getThreadQueryCore(array[i]);
+            if (queryCore != null) {
+                queryCore.increaseMaximumSize(maximumSize);
+            }
+        }
+    }
+
+    @Override
+    public void putPrevious(final FDate previousKey, final V value, final FDate valueKey) {
+        @SuppressWarnings("rawtypes")
+        final ThreadQueryCore[] array = threadQueryCores.asArray(ThreadQueryCore.class);
+        for (int i = 0; i < array.length; i++) {
+            final IHistoricalCacheQueryCore<V> queryCore = getThreadQueryCore(array[i]);
+            if (queryCore != null) {
+                queryCore.putPrevious(previousKey, value, valueKey);
+            }
+        }
+    }
+
+    /**
+     * The first matching thread query core puts the new entry into the parent which in turn notifies all thread query
+     * cores via putPrevious, thus the others will skip the computation since their last entry is not the previousKey
+     * anymore.
+     */
+    @Override
+    public void putPreviousKey(final FDate previousKey, final FDate valueKey) {
+        @SuppressWarnings("rawtypes")
+        final ThreadQueryCore[] array = threadQueryCores.asArray(ThreadQueryCore.class);
+        for (int i = 0; i < array.length; i++) {
+            final IHistoricalCacheQueryCore<V> queryCore = getThreadQueryCore(array[i]);
+            if (queryCore != null) {
+                queryCore.putPreviousKey(previousKey, valueKey);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private IHistoricalCacheQueryCore<V> getThreadQueryCore() {
+        final Map<ThreadLocalCachedHistoricalCacheQueryCore<?>, WeakReference<IHistoricalCacheQueryCore<?>>> map = THREAD_QUERY_CORES
+                .get();
+        final WeakReference<IHistoricalCacheQueryCore<?>> reference = map.get(this);
+        if (reference != null) {
+            final IHistoricalCacheQueryCore<V> queryCore = (IHistoricalCacheQueryCore<V>) reference.get();
+            if (queryCore != null) {
+                return queryCore;
+            }
+        }
+        final IHistoricalCacheQueryCore<V> queryCore = newThreadQueryCore(getParent());
+        threadQueryCores.add(new ThreadQueryCore<V>(Thread.currentThread(), queryCore));
+        map.put(this, new WeakReference<IHistoricalCacheQueryCore<?>>(queryCore));
+        return queryCore;
+    }
+
+    /**
+     * Returns null for threads that are terminated, those get removed here.
+     */
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private IHistoricalCacheQueryCore<V> getThreadQueryCore(final ThreadQueryCore threadQueryCore) {
+        if (!threadQueryCore.isAlive()) {
+            threadQueryCores.remove(threadQueryCore);
+            return null;
+        }
+        return threadQueryCore.queryCore;
+    }
+
+    @Immutable
+    private static final class ThreadQueryCore<V> {
+
+        private final WeakReference<Thread> thread;
+        private final IHistoricalCacheQueryCore<V> queryCore;
+
+        private ThreadQueryCore(final Thread thread, final IHistoricalCacheQueryCore<V> queryCore) {
+            this.thread = new WeakReference<Thread>(thread);
+            this.queryCore = queryCore;
+        }
+
+        private boolean isAlive() {
+            final Thread t = thread.get();
+            return t != null && t.isAlive();
+        }
+
+    }
+
+}
@@ -1,5 +1,6 @@
 package de.invesdwin.util.collections.loadingcache.map;
 
+import java.util.Map;
 import java.util.function.Function;
 
 import javax.annotation.concurrent.ThreadSafe;
@@ -13,6 +14,10 @@ public class UnlimitedCachingLoadingCache<K, V> extends ASynchronizedMapLoadingC
         super(loadValue, ILockCollectionFactory.getInstance(false).newMap());
     }
 
+    public UnlimitedCachingLoadingCache(final Function<K, V> loadValue, final Map<K, V> map) {
+        super(loadValue, map);
+    }
+
     @Override
     public void increaseMaximumSize(final int maximumSize) {
         //ignore
@@ -0,0 +1,19 @@
+package de.invesdwin.util.concurrent;
+
+import java.util.function.BooleanSupplier;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Waits for the outer condition that is given to awaitFulfill. Override the determine methods to tune the wait
+ * strategy, e.g. determineSpinAllowed() returning false to only park and preserve CPU.
+ */
+@Immutable
+public class ConditionSpinWait extends ASpinWait {
+
+    @Override
+    protected boolean isConditionFulfilled(final BooleanSupplier outerCondition) throws Exception {
+        return outerCondition.getAsBoolean();
+    }
+
+}
@@ -0,0 +1,9 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+public interface IReferenceCompressor {
+
+    byte[] compress(byte[] uncompressed);
+
+    byte[] decompress(byte[] compressed);
+
+}
@@ -0,0 +1,196 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.lang.Files;
+import de.invesdwin.util.lang.Objects;
+import de.invesdwin.util.lang.finalizer.AFinalizer;
+
+/**
+ * The referent is either on the heap, compressed on the heap or spilled to a temp file, as decided by the
+ * PersistentReferenceManager this reference was created by.
+ *
+ * The manager only knows the finalizer that holds the state, thus a reference that is never closed can still be
+ * garbage collected. Its budget is then released and its spill file is deleted during finalization.
+ */
+@ThreadSafe
+public final class ManagedPersistentReference<T extends Serializable> implements IPersistentReference<T> {
+
+    private final ManagedPersistentReferenceFinalizer<T> finalizer;
+
+    ManagedPersistentReference(final PersistentReferenceManager manager, final T referent, final long size) {
+        this.finalizer = new ManagedPersistentReferenceFinalizer<T>(manager);
+        finalizer.init(referent, size);
+        finalizer.register(this);
+    }
+
+    @Override
+    public T get() {
+        return finalizer.get();
+    }
+
+    boolean isCompressed() {
+        return finalizer.isCompressed();
+    }
+
+    boolean isSpilled() {
+        return finalizer.isSpilled();
+    }
+
+    /**
+     * Compresses the referent regardless of the budget.
+     */
+    @Override
+    public void clear() {
+        if (finalizer.compress()) {
+            finalizer.manager.evict();
+        }
+    }
+
+    @Override
+    public void close() {
+        finalizer.close();
+    }
+
+    static final class ManagedPersistentReferenceFinalizer<T extends Serializable> extends AFinalizer {
+
+        private final PersistentReferenceManager manager;
+        @GuardedBy("this")
+        private T referent;
+        @GuardedBy("this")
+        private byte[] compressed;
+        @GuardedBy("this")
+        private File file;
+        /**
+         * Written on every access without going through the manager, the manager only reads it when it needs to pick
+         * the least recently used referents.
+         */
+        private volatile long lastAccess;
+
+        private ManagedPersistentReferenceFinalizer(final PersistentReferenceManager manager) {
+            this.manager = manager;
+        }
+
+        private synchronized void init(final T referent, final long size) {
+            this.referent = referent;
+            if (referent != null) {
+                lastAccess = System.nanoTime();
+                manager.onLoaded(this, size);
+            }
+        }
+
+        long getLastAccess() {
+            return lastAccess;
+        }
+
+        private T get() {
+            final T loaded;
+            synchronized (this) {
+                if (referent != null) {
+                    lastAccess = System.nanoTime();
+                    return referent;
+                }
+                if (compressed == null && file == null) {
+                    //closed
+                    return null;
+                }
+                loaded = readReferent();
+            }
+            //the referent is already on the heap, thus it is not evicted again by this
+            manager.evict();
+            return loaded;
+        }
+
+        private T readReferent() {
+            final byte[] data;
+            if (compressed != null) {
+                data = compressed;
+            } else {
+                try {
+                    data = Files.readFileToByteArray(file);
+                } catch (final IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }
+            final byte[] serialized = manager.getCompressor().decompress(data);
+            referent = Objects.deserialize(serialized);
+            compressed = null;
+            deleteFile();
+            lastAccess = System.nanoTime();
+            manager.onLoaded(this, serialized.length);
+            return referent;
+        }
+
+        /**
+         * Returns false if the referent was already compressed or this reference was closed.
+         */
+        synchronized boolean compress() {
+            if (referent == null) {
+                return false;
+            }
+            compressed = manager.getCompressor().compress(Objects.serialize(referent));
+            referent = null;
+            manager.onCompressed(this, compressed.length);
+            return true;
+        }
+
+        /**
+         * Returns false if there is no compressed data on the heap.
+         */
+        synchronized boolean spill() {
+            if (compressed == null) {
+                return false;
+            }
+            try {
+                final File spillFile = File.createTempFile(ManagedPersistentReference.class.getSimpleName(), ".bin",
+                        manager.getSpillDirectory());
+                Files.writeByteArrayToFile(spillFile, compressed);
+                file = spillFile;
+            } catch (final IOException e) {
+                throw new RuntimeException(e);
+            }
+            compressed = null;
+            return true;
+        }
+
+        private synchronized boolean isCompressed() {
+            return compressed != null;
+        }
+
+        private synchronized boolean isSpilled() {
+            return file != null;
+        }
+
+        private void deleteFile() {
+            if (file != null) {
+                Files.deleteQuietly(file);
+                file = null;
+            }
+        }
+
+        @Override
+        protected void clean() {
+            referent = null;
+            compressed = null;
+            deleteFile();
+            manager.onClosed(this);
+        }
+
+        @Override
+        protected boolean isCleaned() {
+            return referent == null && compressed == null && file == null;
+        }
+
+        @Override
+        public boolean isThreadLocal() {
+            return false;
+        }
+
+    }
+
+}
@@ -0,0 +1,224 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import javax.annotation.concurrent.GuardedBy;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.concurrent.reference.persistent.ManagedPersistentReference.ManagedPersistentReferenceFinalizer;
+import de.invesdwin.util.lang.Objects;
+
+/**
+ * Keeps the referents of its ManagedPersistentReferences within a heap budget. When the budget is exceeded, the least
+ * recently accessed referents are serialized and compressed. Optionally the compressed data is spilled to temp files
+ * when it exceeds its own budget, oldest compressed first. This gives predictable memory usage instead of depending on
+ * the order in which the GC clears soft references.
+ *
+ * Sizes are estimated by the serialized length of a referent, which is not exact but proportional to the heap usage
+ * for most object graphs.
+ *
+ * Accesses only update an access stamp of the reference itself, the least recently used referents are determined by
+ * sorting those stamps when the budget is exceeded. The references are tracked via their finalizers, so references
+ * that are never closed do not leak.
+ */
+@ThreadSafe
+public class PersistentReferenceManager {
+
+    public static final long DISABLED = -1;
+
+    private final long heapBudget;
+    private final long compressedBudget;
+    private final File spillDirectory;
+    private final IReferenceCompressor compressor;
+
+    @GuardedBy("this")
+    private final Map<ManagedPersistentReferenceFinalizer<?>, Long> heapReferences = new HashMap<>();
+    @GuardedBy("this")
+    private long heapSize;
+    /**
+     * In insertion order, thus the eldest entry was compressed first.
+     */
+    @GuardedBy("this")
+    private final Map<ManagedPersistentReferenceFinalizer<?>, Long> compressedReferences = new LinkedHashMap<>();
+    @GuardedBy("this")
+    private long compressedSize;
+
+    public PersistentReferenceManager(final long heapBudget) {
+        this(heapBudget, DISABLED, null, ReferenceCompressors.DEFAULT);
+    }
+
+    /**
+     * @param compressedBudget
+     *            DISABLED keeps all compressed data on the heap
+     * @param spillDirectory
+     *            null uses the default temp directory
+     */
+    public PersistentReferenceManager(final long heapBudget, final long compressedBudget, final File spillDirectory,
+            final IReferenceCompressor compressor) {
+        if (heapBudget < 0) {
+            throw new IllegalArgumentException("heapBudget should not be negative: " + heapBudget);
+        }
+        this.heapBudget = heapBudget;
+        this.compressedBudget = compressedBudget;
+        this.spillDirectory = spillDirectory;
+        this.compressor = compressor;
+    }
+
+    /**
+     * Uses the given fraction of the maximum heap size as the budget.
+     */
+    public static PersistentReferenceManager newHeapFraction(final double fraction) {
+        return new PersistentReferenceManager((long) (Runtime.getRuntime().maxMemory() * fraction));
+    }
+
+    public long getHeapBudget() {
+        return heapBudget;
+    }
+
+    public long getCompressedBudget() {
+        return compressedBudget;
+    }
+
+    public File getSpillDirectory() {
+        return spillDirectory;
+    }
+
+    public IReferenceCompressor getCompressor() {
+        return compressor;
+    }
+
+    public synchronized long getHeapSize() {
+        return heapSize;
+    }
+
+    public synchronized long getCompressedSize() {
+        return compressedSize;
+    }
+
+    /**
+     * Serializes the referent once to estimate its size.
+     */
+    public <T extends Serializable> ManagedPersistentReference<T> newReference(final T referent) {
+        return newReference(referent, Objects.serialize(referent).length);
+    }
+
+    public <T extends Serializable> ManagedPersistentReference<T> newReference(final T referent,
+            final long estimatedSize) {
+        final ManagedPersistentReference<T> reference = new ManagedPersistentReference<T>(this, referent,
+                estimatedSize);
+        evict();
+        return reference;
+    }
+
+    /**
+     * Compresses least recently used referents and spills the eldest compressed data until the budgets are met. The
+     * most recently used referent is always kept on the heap, even if it alone exceeds the budget.
+     */
+    public void evict() {
+        final List<ManagedPersistentReferenceFinalizer<?>> heapVictims = pollHeapVictims();
+        for (int i = 0; i < heapVictims.size(); i++) {
+            heapVictims.get(i).compress();
+        }
+        while (true) {
+            final ManagedPersistentReferenceFinalizer<?> victim = pollCompressedVictim();
+            if (victim == null) {
+                break;
+            }
+            victim.spill();
+        }
+    }
+
+    private synchronized List<ManagedPersistentReferenceFinalizer<?>> pollHeapVictims() {
+        if (heapSize <= heapBudget || heapReferences.size() <= 1) {
+            return Collections.emptyList();
+        }
+        //the stamps are copied first since they can change concurrently while sorting
+        final List<HeapEntry> entries = new ArrayList<>(heapReferences.size());
+        for (final Entry<ManagedPersistentReferenceFinalizer<?>, Long> entry : heapReferences.entrySet()) {
+            entries.add(new HeapEntry(entry.getKey(), entry.getValue()));
+        }
+        entries.sort((o1, o2) -> Long.compare(o1.lastAccess, o2.lastAccess));
+        final List<ManagedPersistentReferenceFinalizer<?>> victims = new ArrayList<>();
+        //the most recently used referent is always kept
+        for (int i = 0; i < entries.size() - 1 && heapSize > heapBudget; i++) {
+            final HeapEntry eldest = entries.get(i);
+            heapReferences.remove(eldest.reference);
+            heapSize -= eldest.size;
+            victims.add(eldest.reference);
+        }
+        return victims;
+    }
+
+    private synchronized ManagedPersistentReferenceFinalizer<?> pollCompressedVictim() {
+        if (compressedBudget == DISABLED || compressedSize <= compressedBudget || compressedReferences.isEmpty()) {
+            return null;
+        }
+        final Iterator<Entry<ManagedPersistentReferenceFinalizer<?>, Long>> iterator = compressedReferences.entrySet()
+                .iterator();
+        final Entry<ManagedPersistentReferenceFinalizer<?>, Long> eldest = iterator.next();
+        iterator.remove();
+        compressedSize -= eldest.getValue();
+        return eldest.getKey();
+    }
+
+    synchronized void onLoaded(final ManagedPersistentReferenceFinalizer<?> reference, final long size) {
+        removeCompressed(reference);
+        final Long replaced = heapReferences.put(reference, size);
+        if (replaced != null) {
+            heapSize -= replaced;
+        }
+        heapSize += size;
+    }
+
+    synchronized void onCompressed(final ManagedPersistentReferenceFinalizer<?> reference, final long size) {
+        removeHeap(reference);
+        final Long replaced = compressedReferences.put(reference, size);
+        if (replaced != null) {
+            compressedSize -= replaced;
+        }
+        compressedSize += size;
+    }
+
+    synchronized void onClosed(final ManagedPersistentReferenceFinalizer<?> reference) {
+        removeHeap(reference);
+        removeCompressed(reference);
+    }
+
+    private void removeHeap(final ManagedPersistentReferenceFinalizer<?> reference) {
+        final Long removed = heapReferences.remove(reference);
+        if (removed != null) {
+            heapSize -= removed;
+        }
+    }
+
+    private void removeCompressed(final ManagedPersistentReferenceFinalizer<?> reference) {
+        final Long removed = compressedReferences.remove(reference);
+        if (removed != null) {
+            compressedSize -= removed;
+        }
+    }
+
+    @Immutable
+    private static final class HeapEntry {
+        private final ManagedPersistentReferenceFinalizer<?> reference;
+        private final long size;
+        private final long lastAccess;
+
+        private HeapEntry(final ManagedPersistentReferenceFinalizer<?> reference, final long size) {
+            this.reference = reference;
+            this.size = size;
+            this.lastAccess = reference.getLastAccess();
+        }
+    }
+
+}
@@ -0,0 +1,78 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import javax.annotation.concurrent.Immutable;
+
+@Immutable
+public enum ReferenceCompressors implements IReferenceCompressor {
+    /**
+     * Only serializes the referent, useful when the referent consists of already compressed data.
+     */
+    NONE {
+        @Override
+        public byte[] compress(final byte[] uncompressed) {
+            return uncompressed;
+        }
+
+        @Override
+        public byte[] decompress(final byte[] compressed) {
+            return compressed;
+        }
+    },
+    /**
+     * Deflate with the fastest level, serialized object graphs are quite redundant so this already gives most of the
+     * gain.
+     */
+    DEFLATE {
+        @Override
+        public byte[] compress(final byte[] uncompressed) {
+            final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+            try {
+                deflater.setInput(uncompressed);
+                deflater.finish();
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(
+                        Math.max(BUFFER_SIZE, uncompressed.length / 4));
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (!deflater.finished()) {
+                    final int length = deflater.deflate(buffer);
+                    out.write(buffer, 0, length);
+                }
+                return out.toByteArray();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        @Override
+        public byte[] decompress(final byte[] compressed) {
+            final Inflater inflater = new Inflater();
+            try {
+                inflater.setInput(compressed);
+                final ByteArrayOutputStream out = new ByteArrayOutputStream(
+                        Math.max(BUFFER_SIZE, compressed.length * 4));
+                final byte[] buffer = new byte[BUFFER_SIZE];
+                while (!inflater.finished()) {
+                    final int length = inflater.inflate(buffer);
+                    if (length == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                        throw new IllegalStateException("Truncated compressed data");
+                    }
+                    out.write(buffer, 0, length);
+                }
+                return out.toByteArray();
+            } catch (final DataFormatException e) {
+                throw new RuntimeException(e);
+            } finally {
+                inflater.end();
+            }
+        }
+    };
+
+    private static final int BUFFER_SIZE = 8192;
+
+    public static final ReferenceCompressors DEFAULT = DEFLATE;
+
+}
@@ -0,0 +1,36 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+import java.io.Serializable;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.lang.Objects;
+
+/**
+ * ACompressingSoftReference that serializes the referent with FST and compresses the bytes.
+ */
+@ThreadSafe
+public class SerializingSoftReference<T extends Serializable> extends ACompressingSoftReference<T, byte[]> {
+
+    private final IReferenceCompressor compressor;
+
+    public SerializingSoftReference(final T referent) {
+        this(referent, ReferenceCompressors.DEFAULT);
+    }
+
+    public SerializingSoftReference(final T referent, final IReferenceCompressor compressor) {
+        super(referent);
+        this.compressor = compressor;
+    }
+
+    @Override
+    protected byte[] toCompressed(final T referent) throws Exception {
+        return compressor.compress(Objects.serialize(referent));
+    }
+
+    @Override
+    protected T fromCompressed(final byte[] compressed) throws Exception {
+        return Objects.deserialize(compressor.decompress(compressed));
+    }
+
+}
@@ -18,6 +18,13 @@ public final class Buffers {
         buffer.position(position);
     }
 
+    /**
+     * Workaround for java 8 compiled on java 9 or higher
+     */
+    public static void limit(final Buffer buffer, final int limit) {
+        buffer.limit(limit);
+    }
+
     public static void get(final ByteBuffer buffer, final int position, final byte[] dst) {
         final ByteBuffer duplicate = buffer.duplicate();
         Buffers.position(duplicate, position);
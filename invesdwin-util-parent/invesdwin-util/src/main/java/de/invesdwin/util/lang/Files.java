@@ -2,9 +2,13 @@ package de.invesdwin.util.lang;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
 import java.nio.charset.Charset;
 import java.nio.file.DirectoryStream;
 import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.util.Iterator;
 
 import javax.annotation.concurrent.Immutable;
@@ -167,6 +171,27 @@ public final class Files extends AFilesStaticFacade {
         return deleteQuietly(file);
     }
 
+    /**
+     * Maps the whole file into memory. The mapping stays valid until the buffer is garbage collected, thus it can be
+     * used after this method closed the channel.
+     */
+    public static MappedByteBuffer mapReadOnly(final File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Maps the file for reading and writing, it is created or extended to the given size if needed. Changes are
+     * visible to other processes that map the same file and are written to disk by the operating system.
+     */
+    public static MappedByteBuffer mapReadWrite(final File file, final long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return channel.map(MapMode.READ_WRITE, 0, size);
+        }
+    }
+
     private static boolean deleteNativeUnixIfAvailable(final File file) {
         if (deleteNativeUnixAvailable == null) {
             final boolean success = deleteNativeUnix(file) && !file.exists();
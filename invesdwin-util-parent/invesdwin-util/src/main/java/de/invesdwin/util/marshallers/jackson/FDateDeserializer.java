@@ -4,17 +4,21 @@ import java.io.IOException;
 
 import javax.annotation.concurrent.Immutable;
 
+import org.joda.time.DateTimeZone;
+
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 
 import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.format.FDatePattern;
 
 @Immutable
 public final class FDateDeserializer extends JsonDeserializer<FDate> {
 
     public static final FDateDeserializer INSTANCE = new FDateDeserializer();
+    private static final FDatePattern PATTERN = FDatePattern.valueOf(FDate.FORMAT_ISO_DATE_TIME_MS);
 
     private FDateDeserializer() {}
 
@@ -25,7 +29,7 @@ public final class FDateDeserializer extends JsonDeserializer<FDate> {
         if (string.length() == 0) {
             return null;
         }
-        return FDate.valueOf(string, FDate.FORMAT_ISO_DATE_TIME_MS);
+        return PATTERN.parse(string, (DateTimeZone) null, null);
     }
 
 }
\ No newline at end of file
@@ -10,17 +10,19 @@ import com.fasterxml.jackson.databind.SerializerProvider;
 
 import de.invesdwin.util.time.fdate.FDate;
 import de.invesdwin.util.time.fdate.FDates;
+import de.invesdwin.util.time.fdate.format.FDatePattern;
 
 @Immutable
 public final class FDateSerializer extends JsonSerializer<FDate> {
 
     public static final FDateSerializer INSTANCE = new FDateSerializer();
+    private static final FDatePattern PATTERN = FDatePattern.valueOf(FDate.FORMAT_ISO_DATE_TIME_MS);
 
     private FDateSerializer() {}
 
     @Override
     public void serialize(final FDate value, final JsonGenerator gen, final SerializerProvider serializers)
             throws IOException {
-        gen.writeString(FDates.toString(value, FDate.FORMAT_ISO_DATE_TIME_MS));
+        gen.writeString(PATTERN.format(value.millisValue(), FDates.getDefaultDateTimeZone()));
     }
 }
\ No newline at end of file
@@ -17,6 +17,7 @@ import de.invesdwin.util.lang.Strings;
 import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.decimal.internal.DecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.DummyDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.PrimitiveDecimalAggregate;
 import io.netty.util.concurrent.FastThreadLocal;
 
 @Immutable
@@ -311,6 +312,18 @@ public class Decimal extends ADecimal<Decimal> {
         }
     }
 
+    /**
+     * Creates an aggregate that works on the primitive array directly, NaN represents null. The array should not be
+     * modified afterwards.
+     */
+    public static IDecimalAggregate<Decimal> valueOfArray(final double... values) {
+        if (values == null || values.length == 0) {
+            return DummyDecimalAggregate.getInstance();
+        } else {
+            return new PrimitiveDecimalAggregate<Decimal>(values, Decimal.ZERO);
+        }
+    }
+
     public static String newDefaultDecimalFormat(final int decimalDigits) {
         String format = "#,##0";
         if (decimalDigits > 0) {
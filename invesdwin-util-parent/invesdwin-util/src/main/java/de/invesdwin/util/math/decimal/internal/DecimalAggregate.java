@@ -448,7 +448,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
     public IDecimalAggregate<E> multiplyEach(final E multiplicant) {
         final List<E> multiplied = new ArrayList<E>(size());
         for (final E value : values) {
-            multiplied.add(value.add(multiplicant));
+            multiplied.add(value.multiply(multiplicant));
         }
         return new DecimalAggregate<E>(multiplied, getConverter());
     }
@@ -457,7 +457,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
     public IDecimalAggregate<E> divideEach(final E divisor) {
         final List<E> divided = new ArrayList<E>(size());
         for (final E value : values) {
-            divided.add(value.add(divisor));
+            divided.add(value.divide(divisor));
         }
         return new DecimalAggregate<E>(divided, getConverter());
     }
@@ -603,7 +603,7 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
                 if (i == 0) {
                     return DummyDecimalAggregate.getInstance();
                 }
-                final List<E> subList = values.subList(0, i - 1);
+                final List<E> subList = values.subList(0, i);
                 return new DecimalAggregate<E>(subList, getConverter());
             }
         }
@@ -626,11 +626,11 @@ public class DecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregat
 
     @Override
     public IDecimalAggregate<Decimal> defaultValues() {
-        final List<Decimal> defaultValues = new ArrayList<Decimal>(values.size());
-        for (int i = 0; i < size(); i++) {
-            defaultValues.add(Decimal.valueOf(values.get(i).getDefaultValue()));
+        final double[] defaultValues = new double[values.size()];
+        for (int i = 0; i < defaultValues.length; i++) {
+            defaultValues[i] = values.get(i).getDefaultValue();
         }
-        return new DecimalAggregate<Decimal>(defaultValues, Decimal.ZERO);
+        return new PrimitiveDecimalAggregate<Decimal>(defaultValues, Decimal.ZERO);
     }
 
     @Override
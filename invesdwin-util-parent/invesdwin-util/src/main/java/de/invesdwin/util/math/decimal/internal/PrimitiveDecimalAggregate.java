@@ -0,0 +1,768 @@
+package de.invesdwin.util.math.decimal.internal;
+
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.Doubles;
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.randomizers.DecimalAggregateRandomizers;
+import de.invesdwin.util.math.decimal.interpolations.IDecimalAggregateInterpolations;
+import de.invesdwin.util.math.decimal.randomizers.IDecimalAggregateRandomizers;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+import de.invesdwin.util.math.statistics.RunningMedian;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamAvg;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamGeomAvg;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamProduct;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamRelativeDetrending;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamStdev;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamVariance;
+
+/**
+ * An aggregate that keeps the default values in a plain double array. The converter is only used to create objects at
+ * the API boundary (results and values()), all transformations create new primitive arrays. NaN represents null and
+ * is skipped by the aggregations the same way DecimalAggregate skips null values.
+ *
+ * The given array is not copied, thus it should not be modified afterwards.
+ */
+@ThreadSafe
+public class PrimitiveDecimalAggregate<E extends ADecimal<E>> implements IDecimalAggregate<E> {
+
+    private final double[] values;
+    private final E converter;
+    private volatile List<E> valuesList;
+
+    private final IDecimalAggregateRandomizers<E> randomizers = new DecimalAggregateRandomizers<E>(this);
+
+    public PrimitiveDecimalAggregate(final double[] defaultValues, final E converter) {
+        Assertions.checkNotNull(converter);
+        this.values = defaultValues;
+        this.converter = converter;
+    }
+
+    public E getConverter() {
+        return converter;
+    }
+
+    /**
+     * Returns a copy of the default values.
+     */
+    public double[] toDefaultValueArray() {
+        return values.clone();
+    }
+
+    private PrimitiveDecimalAggregate<E> newAggregate(final double[] defaultValues) {
+        return new PrimitiveDecimalAggregate<E>(defaultValues, converter);
+    }
+
+    private PrimitiveDecimalAggregate<E> newAggregate(final double[] defaultValues, final int size) {
+        if (size == defaultValues.length) {
+            return newAggregate(defaultValues);
+        } else {
+            return newAggregate(Arrays.copyOf(defaultValues, size));
+        }
+    }
+
+    private E newValue(final double defaultValue) {
+        if (Doubles.isNaN(defaultValue)) {
+            return null;
+        } else {
+            return converter.fromDefaultValue(defaultValue);
+        }
+    }
+
+    /**
+     * All growth rates separately
+     */
+    @Override
+    public IDecimalAggregate<Percent> growthRates() {
+        final double[] growthRates = new double[Math.max(0, values.length - 1)];
+        for (int i = 1; i < values.length; i++) {
+            growthRates[i - 1] = Doubles.growthRate(values[i - 1], values[i]);
+        }
+        return new PrimitiveDecimalAggregate<Percent>(growthRates, Percent.ZERO_PERCENT);
+    }
+
+    public IDecimalAggregate<E> absoluteChanges() {
+        final double[] differences = new double[Math.max(0, values.length - 1)];
+        for (int i = 1; i < values.length; i++) {
+            differences[i - 1] = values[i] - values[i - 1];
+        }
+        return newAggregate(differences);
+    }
+
+    /**
+     * The average of all growthRates.
+     */
+    @Override
+    public Percent growthRate() {
+        return growthRates().avg();
+    }
+
+    /**
+     * The growthRate of the growthRates.
+     */
+    @Override
+    public Percent growthRatesTrend() {
+        return growthRates().growthRate();
+    }
+
+    @Override
+    public IDecimalAggregate<E> reverse() {
+        final double[] reversed = new double[values.length];
+        for (int i = 0, j = values.length - 1; i < values.length; i++, j--) {
+            reversed[i] = values[j];
+        }
+        return newAggregate(reversed);
+    }
+
+    /**
+     * Returns a weighted average where the first value has the least weight and the last value has the highest weight.
+     * Null values are skipped and get no weight.
+     */
+    @Override
+    public E avgWeightedAsc() {
+        int sumOfWeights = 0;
+        double sumOfWeightedValues = 0D;
+        int weight = 1;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                sumOfWeights += weight;
+                sumOfWeightedValues += value * weight;
+                weight++;
+            }
+        }
+        return weightedAvg(sumOfWeights, sumOfWeightedValues);
+    }
+
+    /**
+     * Returns a weighted average where the first value has the highest weight and the last value has the least weight.
+     * Null values are skipped and get no weight.
+     */
+    @Override
+    public E avgWeightedDesc() {
+        int sumOfWeights = 0;
+        double sumOfWeightedValues = 0D;
+        int weight = countNonNullValues();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                sumOfWeights += weight;
+                sumOfWeightedValues += value * weight;
+                weight--;
+            }
+        }
+        return weightedAvg(sumOfWeights, sumOfWeightedValues);
+    }
+
+    private E weightedAvg(final int sumOfWeights, final double sumOfWeightedValues) {
+        if (sumOfWeights == 0) {
+            return converter.zero();
+        } else {
+            return converter.fromDefaultValue(sumOfWeightedValues / sumOfWeights);
+        }
+    }
+
+    private int countNonNullValues() {
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (!Doubles.isNaN(values[i])) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Override
+    public E sum() {
+        double sum = 0D;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                sum += value;
+            }
+        }
+        return converter.fromDefaultValue(sum);
+    }
+
+    /**
+     * x_quer = (x_1 + x_2 + ... + x_n) / n
+     *
+     * @see <a href="http://de.wikipedia.org/wiki/Arithmetisches_Mittel">Source</a>
+     */
+    @Override
+    public E avg() {
+        final DoubleStreamAvg avg = new DoubleStreamAvg();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                avg.process(value);
+            }
+        }
+        return converter.fromDefaultValue(avg.getAvg());
+    }
+
+    @Override
+    public E median() {
+        final RunningMedian runningMedian = new RunningMedian(values.length);
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                runningMedian.add(value);
+            }
+        }
+        return newValue(runningMedian.getMedianDouble());
+    }
+
+    /**
+     * Product = x_1 * x_2 * ... * x_n
+     *
+     * @see <a href="http://de.wikipedia.org/wiki/Arithmetisches_Mittel">Source</a>
+     */
+    @Override
+    public E product() {
+        final DoubleStreamProduct product = new DoubleStreamProduct();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                product.process(value);
+            }
+        }
+        return converter.fromDefaultValue(product.getProduct());
+    }
+
+    /**
+     * x_quer = (x_1 * x_2 * ... * x_n)^1/n
+     *
+     * @see <a href="http://de.wikipedia.org/wiki/Geometrisches_Mittel">Source</a>
+     * @see <a href="http://www.ee.ucl.ac.uk/~mflanaga/java/Stat.html#geom2">Source with BigDecimal</a>
+     */
+    @Override
+    public E geomAvg() {
+        final DoubleStreamGeomAvg geomAvg = new DoubleStreamGeomAvg();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                geomAvg.process(value);
+            }
+        }
+        return converter.fromDefaultValue(geomAvg.getGeomAvg());
+    }
+
+    @Override
+    public E max() {
+        double highest = Double.NaN;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Doubles.isNaN(value)) {
+                continue;
+            } else if (Doubles.isNaN(highest) || Doubles.compare(highest, value) < 0) {
+                highest = value;
+            }
+        }
+        return newValue(highest);
+    }
+
+    @Override
+    public E min() {
+        double lowest = Double.NaN;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Doubles.isNaN(value)) {
+                continue;
+            } else if (Doubles.isNaN(lowest) || Doubles.compare(value, lowest) < 0) {
+                lowest = value;
+            }
+        }
+        return newValue(lowest);
+    }
+
+    @Override
+    public E minMaxDistance() {
+        final E min = min();
+        if (min == null) {
+            return null;
+        }
+        final E max = max();
+        if (max == null) {
+            return null;
+        }
+        return min.distance(max);
+    }
+
+    /**
+     * s = (1/(n-1) * sum((x_i - x_quer)^2))^1/2
+     */
+    @Override
+    public E sampleStandardDeviation() {
+        final DoubleStreamStdev stdev = new DoubleStreamStdev();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                stdev.process(value);
+            }
+        }
+        return converter.fromDefaultValue(stdev.getSampleStandardDeviation());
+    }
+
+    /**
+     * s = (1/(n) * sum((x_i - x_quer)^2))^1/2
+     *
+     * Warning: normally one will use the sampleStandardDeviation since it is hard to come by a complete set of values
+     * representing the distribution of reality
+     */
+    @Deprecated
+    @Override
+    public E standardDeviation() {
+        final DoubleStreamStdev stdev = new DoubleStreamStdev();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                stdev.process(value);
+            }
+        }
+        return converter.fromDefaultValue(stdev.getStandardDeviation());
+    }
+
+    /**
+     * s^2 = 1/(n) * sum((x_i - x_quer)^2)
+     *
+     * <a href="http://de.wikipedia.org/wiki/Stichprobenvarianz">Source</a>
+     *
+     * Warning: normally one will use the sampleVariance since it is hard to come by a complete set of values
+     * representing the distribution of reality
+     */
+    @Deprecated
+    @Override
+    public E variance() {
+        final DoubleStreamVariance variance = new DoubleStreamVariance();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                variance.process(value);
+            }
+        }
+        return converter.fromDefaultValue(variance.getVariance());
+    }
+
+    /**
+     * s^2 = 1/(n-1) * sum((x_i - x_quer)^2)
+     */
+    @Override
+    public E sampleVariance() {
+        final DoubleStreamVariance variance = new DoubleStreamVariance();
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                variance.process(value);
+            }
+        }
+        return converter.fromDefaultValue(variance.getSampleVariance());
+    }
+
+    /**
+     * Warning: normally one will use the sampleCoefficientOfVariation since it is hard to come by a complete set of
+     * values representing the distribution of reality
+     */
+    @Deprecated
+    @Override
+    public E coefficientOfVariation() {
+        return standardDeviation().divide(avg());
+    }
+
+    @Override
+    public E sampleCoefficientOfVariation() {
+        return sampleStandardDeviation().divide(avg());
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    /**
+     * The objects are only created on first access.
+     */
+    @Override
+    public List<E> values() {
+        if (valuesList == null) {
+            final List<E> list = new ArrayList<E>(values.length);
+            for (int i = 0; i < values.length; i++) {
+                list.add(newValue(values[i]));
+            }
+            valuesList = Collections.unmodifiableList(list);
+        }
+        return valuesList;
+    }
+
+    @Override
+    public IDecimalAggregate<E> round() {
+        return round(Decimal.DEFAULT_ROUNDING_SCALE);
+    }
+
+    @Override
+    public IDecimalAggregate<E> round(final RoundingMode roundingMode) {
+        return round(Decimal.DEFAULT_ROUNDING_SCALE, roundingMode);
+    }
+
+    @Override
+    public IDecimalAggregate<E> round(final int scale) {
+        return round(scale, Decimal.DEFAULT_ROUNDING_MODE);
+    }
+
+    /**
+     * Rounding happens in the scale of the converter, thus it goes through the objects.
+     */
+    @Override
+    public IDecimalAggregate<E> round(final int scale, final RoundingMode roundingMode) {
+        final double[] rounded = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final E value = newValue(values[i]);
+            if (value == null) {
+                rounded[i] = Double.NaN;
+            } else {
+                rounded[i] = value.round(scale, roundingMode).getDefaultValue();
+            }
+        }
+        return newAggregate(rounded);
+    }
+
+    @Override
+    public IDecimalAggregate<E> roundToStep(final E step) {
+        return roundToStep(step, Decimal.DEFAULT_ROUNDING_MODE);
+    }
+
+    @Override
+    public IDecimalAggregate<E> roundToStep(final E step, final RoundingMode roundingMode) {
+        final double[] rounded = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final E value = newValue(values[i]);
+            if (value == null) {
+                rounded[i] = Double.NaN;
+            } else {
+                rounded[i] = value.roundToStep(step, roundingMode).getDefaultValue();
+            }
+        }
+        return newAggregate(rounded);
+    }
+
+    @Override
+    public String toString() {
+        return values().toString();
+    }
+
+    @Override
+    public IDecimalAggregate<E> positiveValues() {
+        final double[] positives = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Doubles.isPositive(value)) {
+                positives[size++] = value;
+            }
+        }
+        return newAggregate(positives, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> positiveNonZeroValues() {
+        final double[] positives = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Doubles.isPositiveNonZero(value)) {
+                positives[size++] = value;
+            }
+        }
+        return newAggregate(positives, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> negativeValues() {
+        final double[] negatives = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (value < 0D) {
+                negatives[size++] = value;
+            }
+        }
+        return newAggregate(negatives, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> negativeOrZeroValues() {
+        final double[] negatives = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (value <= 0D) {
+                negatives[size++] = value;
+            }
+        }
+        return newAggregate(negatives, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> nonZeroValues() {
+        final double[] nonZeros = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isZero(value)) {
+                nonZeros[size++] = value;
+            }
+        }
+        return newAggregate(nonZeros, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> addEach(final E augend) {
+        final double augendValue = augend.getDefaultValue();
+        final double[] added = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            added[i] = values[i] + augendValue;
+        }
+        return newAggregate(added);
+    }
+
+    @Override
+    public IDecimalAggregate<E> subtractEach(final E subtrahend) {
+        final double subtrahendValue = subtrahend.getDefaultValue();
+        final double[] subtracted = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            subtracted[i] = values[i] - subtrahendValue;
+        }
+        return newAggregate(subtracted);
+    }
+
+    @Override
+    public IDecimalAggregate<E> multiplyEach(final E multiplicant) {
+        if (multiplicant == null || multiplicant.isZero()) {
+            return newAggregate(new double[values.length]);
+        }
+        final double multiplicantValue = multiplicant.doubleValue();
+        final double[] multiplied = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            multiplied[i] = values[i] * multiplicantValue;
+        }
+        return newAggregate(multiplied);
+    }
+
+    @Override
+    public IDecimalAggregate<E> divideEach(final E divisor) {
+        if (divisor == null || divisor.isZero()) {
+            //results in 0, thus multiply by 0
+            return newAggregate(new double[values.length]);
+        }
+        final double divisorValue = divisor.doubleValue();
+        final double[] divided = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            divided[i] = values[i] / divisorValue;
+        }
+        return newAggregate(divided);
+    }
+
+    @Override
+    public IDecimalAggregate<E> nullToZeroEach() {
+        final double[] replaced = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                replaced[i] = value;
+            }
+        }
+        return newAggregate(replaced);
+    }
+
+    @Override
+    public IDecimalAggregate<E> removeNullValues() {
+        final double[] filtered = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (!Doubles.isNaN(value)) {
+                filtered[size++] = value;
+            }
+        }
+        return newAggregate(filtered, size);
+    }
+
+    @Override
+    public boolean isStableOrRisingEach() {
+        for (int i = 1; i < values.length; i++) {
+            if (Doubles.compare(values[i], values[i - 1]) < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean isStableOrFallingEach() {
+        for (int i = 1; i < values.length; i++) {
+            if (Doubles.compare(values[i], values[i - 1]) > 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Integer bestValueIndex(final boolean isHigherBetter) {
+        double bestValue = Double.NaN;
+        Integer bestValueIndex = null;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (bestValueIndex == null) {
+                bestValue = value;
+                bestValueIndex = i;
+            } else if (isHigherBetter) {
+                if (Doubles.compare(value, bestValue) > 0) {
+                    bestValue = value;
+                    bestValueIndex = i;
+                }
+            } else {
+                if (Doubles.compare(value, bestValue) < 0) {
+                    bestValue = value;
+                    bestValueIndex = i;
+                }
+            }
+        }
+        return bestValueIndex;
+    }
+
+    @Override
+    public IDecimalAggregate<E> normalize() {
+        if (size() < 2) {
+            return this;
+        }
+        final E minValue = min();
+        if (minValue == null) {
+            //only null values
+            return this;
+        }
+        final double min = minValue.getDefaultValue();
+        final double max = max().getDefaultValue();
+        final double maxMinusMin = max - min;
+        final double[] results = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (Doubles.isNaN(value)) {
+                //null values stay null
+                results[i] = Double.NaN;
+            } else if (maxMinusMin == 0D) {
+                //results in 0, thus multiply by 0
+                results[i] = 0D;
+            } else {
+                results[i] = (value - min) / maxMinusMin;
+            }
+        }
+        return newAggregate(results);
+    }
+
+    @Override
+    public IDecimalAggregate<E> detrendAbsolute() {
+        if (size() < 3) {
+            return this;
+        }
+        final double firstValue = values[0];
+        final double lastValue = values[values.length - 1];
+        final double avgChange = (lastValue - firstValue) / (values.length - 1);
+        final double[] detrendedValues = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            detrendedValues[i] = values[i] - avgChange * i;
+        }
+        return newAggregate(detrendedValues);
+    }
+
+    @Override
+    public IDecimalAggregate<E> detrendRelative() {
+        if (size() < 3) {
+            return this;
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (Doubles.isNegativeOrZero(values[i])) {
+                throw new IllegalArgumentException("Current value [" + i + " -> " + newValue(values[i])
+                        + "] is negative or zero. Please preprocess the data so this does not happen because we cannot create a logarithm of a negative value.");
+            }
+        }
+        final DoubleStreamRelativeDetrending detrending = new DoubleStreamRelativeDetrending(0D, values[0],
+                values.length, values[values.length - 1]);
+        final double[] results = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            results[i] = detrending.process(i, values[i]);
+        }
+        return newAggregate(results);
+    }
+
+    @Override
+    public IDecimalAggregate<E> removeFlatSequences() {
+        final double[] deflattened = new double[values.length];
+        int size = 0;
+        for (int i = 0; i < values.length; i++) {
+            final double value = values[i];
+            if (i == 0 || !Doubles.equals(value, values[i - 1])) {
+                deflattened[size++] = value;
+            }
+        }
+        return newAggregate(deflattened, size);
+    }
+
+    @Override
+    public IDecimalAggregate<E> stopSequenceBeforeNegativeOrZero() {
+        for (int i = 0; i < values.length; i++) {
+            if (Doubles.isNegativeOrZero(values[i])) {
+                if (i == 0) {
+                    return DummyDecimalAggregate.getInstance();
+                }
+                return newAggregate(Arrays.copyOf(values, i));
+            }
+        }
+        return this;
+    }
+
+    @Override
+    public IDecimalAggregate<E> sortAscending() {
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return newAggregate(sorted);
+    }
+
+    @Override
+    public IDecimalAggregate<E> sortDescending() {
+        final double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (int i = 0, j = sorted.length - 1; i < j; i++, j--) {
+            final double temp = sorted[i];
+            sorted[i] = sorted[j];
+            sorted[j] = temp;
+        }
+        return newAggregate(sorted);
+    }
+
+    @Override
+    public IDecimalAggregate<Decimal> defaultValues() {
+        //the array is never modified, thus it can be shared
+        return new PrimitiveDecimalAggregate<Decimal>(values, Decimal.ZERO);
+    }
+
+    @Override
+    public IDecimalAggregateInterpolations<E> interpolate() {
+        return new DecimalAggregate<E>(values(), converter).interpolate();
+    }
+
+    @Override
+    public IDecimalAggregateRandomizers<E> randomize() {
+        return randomizers;
+    }
+
+}
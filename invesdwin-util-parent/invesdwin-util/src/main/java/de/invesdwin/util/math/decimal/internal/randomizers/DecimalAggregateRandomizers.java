@@ -14,6 +14,7 @@ import de.invesdwin.util.math.decimal.internal.randomizers.impl.CircularBootstra
 import de.invesdwin.util.math.decimal.internal.randomizers.impl.ShuffleRandomizer;
 import de.invesdwin.util.math.decimal.internal.randomizers.impl.StationaryBootstrapRandomizer;
 import de.invesdwin.util.math.decimal.internal.randomizers.impl.WeightedChunksAscendingRandomizer;
+import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.SampleAutoCovariances;
 import de.invesdwin.util.math.decimal.randomizers.IDecimalAggregateRandomizers;
 
 @ThreadSafe
@@ -25,6 +26,8 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> implements IDeci
     private CircularBootstrapRandomizer<E> circularBootstrapRandomizer;
     @GuardedBy("this")
     private StationaryBootstrapRandomizer<E> stationaryBootstrapRandomizer;
+    @GuardedBy("this")
+    private SampleAutoCovariances autoCovariances;
 
     public DecimalAggregateRandomizers(final IDecimalAggregate<E> parent) {
         this.parent = parent;
@@ -45,6 +48,27 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> implements IDeci
         return new WeightedChunksAscendingRandomizer<E>(parent.reverse(), chunkCount).randomize(random);
     }
 
+    @Override
+    public int[] shuffleIndexes(final RandomGenerator random) {
+        return new ShuffleRandomizer<E>(parent).randomizeIndexes(random);
+    }
+
+    @Override
+    public int[] weightedChunksAscendingIndexes(final RandomGenerator random, final int chunkCount) {
+        return new WeightedChunksAscendingRandomizer<E>(parent, chunkCount).randomizeIndexes(random);
+    }
+
+    @Override
+    public int[] weightedChunksDescendingIndexes(final RandomGenerator random, final int chunkCount) {
+        final int[] reversedIndexes = new WeightedChunksAscendingRandomizer<E>(parent.reverse(), chunkCount)
+                .randomizeIndexes(random);
+        final int maxIndex = parent.size() - 1;
+        for (int i = 0; i < reversedIndexes.length; i++) {
+            reversedIndexes[i] = maxIndex - reversedIndexes[i];
+        }
+        return reversedIndexes;
+    }
+
     @Override
     public Iterator<E> bootstrap(final RandomGenerator random) {
         return new BootstrapRandomizer<E>(parent).randomize(random);
@@ -55,9 +79,19 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> implements IDeci
         return getCircularBootstrapRandomizer().randomize(random);
     }
 
+    @Override
+    public int[] bootstrapIndexes(final RandomGenerator random) {
+        return new BootstrapRandomizer<E>(parent).randomizeIndexes(random);
+    }
+
+    @Override
+    public int[] circularBlockBootstrapIndexes(final RandomGenerator random) {
+        return getCircularBootstrapRandomizer().randomizeIndexes(random);
+    }
+
     private synchronized CircularBootstrapRandomizer<E> getCircularBootstrapRandomizer() {
         if (circularBootstrapRandomizer == null) {
-            circularBootstrapRandomizer = new CircularBootstrapRandomizer<E>(parent);
+            circularBootstrapRandomizer = new CircularBootstrapRandomizer<E>(parent, getAutoCovariances());
         }
         return circularBootstrapRandomizer;
     }
@@ -67,11 +101,26 @@ public class DecimalAggregateRandomizers<E extends ADecimal<E>> implements IDeci
         return getStationaryBootstrapRandomizer().randomize(random);
     }
 
+    @Override
+    public int[] stationaryBootstrapIndexes(final RandomGenerator random) {
+        return getStationaryBootstrapRandomizer().randomizeIndexes(random);
+    }
+
     private synchronized StationaryBootstrapRandomizer<E> getStationaryBootstrapRandomizer() {
         if (stationaryBootstrapRandomizer == null) {
-            stationaryBootstrapRandomizer = new StationaryBootstrapRandomizer<E>(parent);
+            stationaryBootstrapRandomizer = new StationaryBootstrapRandomizer<E>(parent, getAutoCovariances());
         }
         return stationaryBootstrapRandomizer;
     }
 
+    /**
+     * Calculated only once per aggregate for both the circular and the stationary bootstrap.
+     */
+    private synchronized SampleAutoCovariances getAutoCovariances() {
+        if (autoCovariances == null) {
+            autoCovariances = SampleAutoCovariances.valueOf(parent);
+        }
+        return autoCovariances;
+    }
+
 }
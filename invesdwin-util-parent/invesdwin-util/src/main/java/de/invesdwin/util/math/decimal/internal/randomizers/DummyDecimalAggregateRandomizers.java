@@ -7,6 +7,7 @@ import javax.annotation.concurrent.Immutable;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import de.invesdwin.util.collections.iterable.EmptyCloseableIterator;
+import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.randomizers.IDecimalAggregateRandomizers;
 
@@ -48,4 +49,34 @@ public final class DummyDecimalAggregateRandomizers<E extends ADecimal<E>> imple
         return EmptyCloseableIterator.getInstance();
     }
 
+    @Override
+    public int[] shuffleIndexes(final RandomGenerator random) {
+        return Integers.EMPTY_ARRAY;
+    }
+
+    @Override
+    public int[] bootstrapIndexes(final RandomGenerator random) {
+        return Integers.EMPTY_ARRAY;
+    }
+
+    @Override
+    public int[] circularBlockBootstrapIndexes(final RandomGenerator random) {
+        return Integers.EMPTY_ARRAY;
+    }
+
+    @Override
+    public int[] stationaryBootstrapIndexes(final RandomGenerator random) {
+        return Integers.EMPTY_ARRAY;
+    }
+
+    @Override
+    public int[] weightedChunksDescendingIndexes(final RandomGenerator random, final int chunkCount) {
+        return Integers.EMPTY_ARRAY;
+    }
+
+    @Override
+    public int[] weightedChunksAscendingIndexes(final RandomGenerator random, final int chunkCount) {
+        return Integers.EMPTY_ARRAY;
+    }
+
 }
@@ -0,0 +1,56 @@
+package de.invesdwin.util.math.decimal.internal.randomizers.impl;
+
+import java.util.Iterator;
+import java.util.List;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import de.invesdwin.util.error.FastNoSuchElementException;
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+
+/**
+ * The values are drawn via randomizeIndexes, thus the iterator and the indexes produce the same sequence for the same
+ * random generator state.
+ */
+@ThreadSafe
+public abstract class ADecimalRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+
+    private final List<? extends E> sample;
+
+    public ADecimalRandomizer(final IDecimalAggregate<E> parent) {
+        this.sample = parent.values();
+    }
+
+    protected int getSampleSize() {
+        return sample.size();
+    }
+
+    @Override
+    public Iterator<E> randomize(final RandomGenerator random) {
+        final int[] indexes = randomizeIndexes(random);
+        return new Iterator<E>() {
+
+            private int resampleIdx = 0;
+
+            @Override
+            public boolean hasNext() {
+                return resampleIdx < indexes.length;
+            }
+
+            @Override
+            public E next() {
+                if (resampleIdx >= indexes.length) {
+                    throw new FastNoSuchElementException("ADecimalRandomizer: end reached");
+                }
+                final E value = sample.get(indexes[resampleIdx]);
+                resampleIdx++;
+                return value;
+            }
+
+        };
+    }
+
+}
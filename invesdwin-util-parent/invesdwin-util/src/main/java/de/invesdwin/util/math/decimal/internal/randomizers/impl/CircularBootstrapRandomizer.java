@@ -1,8 +1,5 @@
 package de.invesdwin.util.math.decimal.internal.randomizers.impl;
 
-import java.util.Iterator;
-import java.util.List;
-
 import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.commons.math3.random.RandomGenerator;
@@ -11,6 +8,7 @@ import de.invesdwin.util.assertions.Assertions;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.CircularOptimalBlockLength;
+import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.SampleAutoCovariances;
 
 /**
  * http://www.math.ucsd.edu/~politis/SOFT/PPW/ppw.R
@@ -20,79 +18,66 @@ import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.Circ
  * https://github.com/colintbowers/DependentBootstrap.jl
  */
 @ThreadSafe
-public class CircularBootstrapRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+public class CircularBootstrapRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final int blockLength;
-    private final List<E> sample;
     private final IDecimalRandomizer<E> delegate;
 
     public CircularBootstrapRandomizer(final IDecimalAggregate<E> parent) {
-        this.sample = parent.values();
-        this.blockLength = newOptimalBlockLength(parent);
+        this(parent, SampleAutoCovariances.valueOf(parent));
+    }
+
+    /**
+     * The autocovariances can be shared between the circular and the stationary bootstrap of the same values.
+     */
+    public CircularBootstrapRandomizer(final IDecimalAggregate<E> parent, final SampleAutoCovariances autoCovariances) {
+        super(parent);
+        this.blockLength = newOptimalBlockLength(autoCovariances);
         Assertions.assertThat(blockLength).isGreaterThanOrEqualTo(1);
         if (blockLength == 1) {
             //blockwise resample makes no sense with block maxResampleIdx 1
             delegate = new BootstrapRandomizer<E>(parent);
         } else {
-            delegate = new IDecimalRandomizer<E>() {
-                @Override
-                public Iterator<E> randomize(final RandomGenerator random) {
-                    return internalResample(random);
-                }
-            };
+            delegate = null;
         }
     }
 
-    protected int newOptimalBlockLength(final IDecimalAggregate<E> parent) {
-        return new CircularOptimalBlockLength<E>(parent).getBlockLength();
+    protected int newOptimalBlockLength(final SampleAutoCovariances autoCovariances) {
+        return new CircularOptimalBlockLength<E>(autoCovariances).getBlockLength();
     }
 
     @Override
-    public final Iterator<E> randomize(final RandomGenerator random) {
-        return delegate.randomize(random);
+    public final int[] randomizeIndexes(final RandomGenerator random) {
+        if (delegate != null) {
+            return delegate.randomizeIndexes(random);
+        } else {
+            return internalResampleIndexes(random);
+        }
     }
 
     protected int nextBlockLength(final RandomGenerator random) {
         return blockLength;
     }
 
-    private Iterator<E> internalResample(final RandomGenerator random) {
-        return new Iterator<E>() {
-            private final int maxResampleIdx = sample.size();
-            private int curResampleIdx = 0;
-            private int curBlockIdx = 0;
-            private int maxBlockIdx = 0;
-            private int curStartIdx = 0;
-
-            @Override
-            public boolean hasNext() {
-                return curResampleIdx < maxResampleIdx;
+    private int[] internalResampleIndexes(final RandomGenerator random) {
+        final int maxResampleIdx = getSampleSize();
+        final int[] indexes = new int[maxResampleIdx];
+        int curResampleIdx = 0;
+        while (curResampleIdx < maxResampleIdx) {
+            final int curStartIdx = random.nextInt(maxResampleIdx);
+            final int curBlockLength = nextBlockLength(random);
+            final int maxBlockIdx;
+            if (curResampleIdx + curBlockLength < maxResampleIdx) {
+                maxBlockIdx = curBlockLength;
+            } else {
+                maxBlockIdx = maxResampleIdx - curResampleIdx;
             }
-
-            @Override
-            public E next() {
-                if (curBlockIdx == maxBlockIdx) {
-                    initNextBlock(random);
-                }
-                final int valuesIndex = (curStartIdx + curBlockIdx) % maxResampleIdx;
-                final E value = sample.get(valuesIndex);
-                curBlockIdx++;
+            for (int curBlockIdx = 0; curBlockIdx < maxBlockIdx; curBlockIdx++) {
+                indexes[curResampleIdx] = (curStartIdx + curBlockIdx) % maxResampleIdx;
                 curResampleIdx++;
-                return value;
-            }
-
-            private void initNextBlock(final RandomGenerator random) {
-                curStartIdx = random.nextInt(maxResampleIdx);
-                final int curBlockLength = nextBlockLength(random);
-                if (curResampleIdx + curBlockLength < maxResampleIdx) {
-                    maxBlockIdx = curBlockLength;
-                } else {
-                    maxBlockIdx = maxResampleIdx - curResampleIdx;
-                }
-                curBlockIdx = 0;
             }
-
-        };
+        }
+        return indexes;
     }
 
-}
\ No newline at end of file
+}
@@ -10,4 +10,10 @@ public interface IDecimalRandomizer<E extends ADecimal<E>> {
 
     Iterator<E> randomize(RandomGenerator random);
 
+    /**
+     * Returns the indexes of the values in the order they are drawn, this allows to work on primitive values without
+     * creating iterators or objects per resample.
+     */
+    int[] randomizeIndexes(RandomGenerator random);
+
 }
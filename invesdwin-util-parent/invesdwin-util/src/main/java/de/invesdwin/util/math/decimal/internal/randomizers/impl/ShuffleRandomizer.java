@@ -1,32 +1,36 @@
 package de.invesdwin.util.math.decimal.internal.randomizers.impl;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.List;
-
 import javax.annotation.concurrent.ThreadSafe;
 
-import org.apache.commons.math3.random.RandomAdaptor;
 import org.apache.commons.math3.random.RandomGenerator;
 
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 
 @ThreadSafe
-public class ShuffleRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
-
-    private final List<E> sample;
+public class ShuffleRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     public ShuffleRandomizer(final IDecimalAggregate<E> parent) {
-        this.sample = parent.values();
+        super(parent);
     }
 
+    /**
+     * Same algorithm as Collections.shuffle, thus the same permutation is drawn for the same random generator state.
+     */
     @Override
-    public Iterator<E> randomize(final RandomGenerator random) {
-        final List<E> sampleCopy = new ArrayList<E>(sample);
-        Collections.shuffle(sampleCopy, new RandomAdaptor(random));
-        return sampleCopy.iterator();
+    public int[] randomizeIndexes(final RandomGenerator random) {
+        final int size = getSampleSize();
+        final int[] indexes = new int[size];
+        for (int i = 0; i < size; i++) {
+            indexes[i] = i;
+        }
+        for (int i = size; i > 1; i--) {
+            final int swapIdx = random.nextInt(i);
+            final int temp = indexes[i - 1];
+            indexes[i - 1] = indexes[swapIdx];
+            indexes[swapIdx] = temp;
+        }
+        return indexes;
     }
 
 }
@@ -6,6 +6,7 @@ import org.apache.commons.math3.random.RandomGenerator;
 
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.SampleAutoCovariances;
 import de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength.StationaryOptimalBlockLength;
 
 @ThreadSafe
@@ -14,14 +15,19 @@ public class StationaryBootstrapRandomizer<E extends ADecimal<E>> extends Circul
     private final double divisor;
 
     public StationaryBootstrapRandomizer(final IDecimalAggregate<E> parent) {
-        super(parent);
+        this(parent, SampleAutoCovariances.valueOf(parent));
+    }
+
+    public StationaryBootstrapRandomizer(final IDecimalAggregate<E> parent,
+            final SampleAutoCovariances autoCovariances) {
+        super(parent, autoCovariances);
         final int superBlockLength = super.nextBlockLength(null);
         divisor = Math.log(1D - (1D / superBlockLength)) * -1D;
     }
 
     @Override
-    protected int newOptimalBlockLength(final IDecimalAggregate<E> parent) {
-        return new StationaryOptimalBlockLength<E>(parent).getBlockLength();
+    protected int newOptimalBlockLength(final SampleAutoCovariances autoCovariances) {
+        return new StationaryOptimalBlockLength<E>(autoCovariances).getBlockLength();
     }
 
     @Override
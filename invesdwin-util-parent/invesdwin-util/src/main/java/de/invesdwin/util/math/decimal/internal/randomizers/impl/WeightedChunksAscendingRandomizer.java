@@ -1,71 +1,82 @@
 package de.invesdwin.util.math.decimal.internal.randomizers.impl;
 
-import java.util.Iterator;
-import java.util.List;
-
-import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
 
 import org.apache.commons.math3.random.RandomGenerator;
 
-import de.invesdwin.util.bean.tuple.Pair;
-import de.invesdwin.util.collections.list.Lists;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.IDecimalAggregate;
 
-@NotThreadSafe
-public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> implements IDecimalRandomizer<E> {
+/**
+ * The chunks are built like Lists.splitIntoPackageCount does it (round robin), thus the value at index j of chunk i is
+ * located at index i + j * chunkCount in the sample.
+ */
+@ThreadSafe
+public class WeightedChunksAscendingRandomizer<E extends ADecimal<E>> extends ADecimalRandomizer<E> {
 
     private final int sampleSize;
-    private final Pair<Double, ? extends List<E>>[] threshold_chunk;
+    private final int realChunkCount;
+    private final double[] chunkThresholds;
+    private final int[] chunkSizes;
 
-    @SuppressWarnings("unchecked")
     public WeightedChunksAscendingRandomizer(final IDecimalAggregate<E> parent, final int chunkCount) {
-        this.sampleSize = parent.values().size();
-        final List<? extends List<E>> sampleChunks = Lists.splitIntoPackageCount(parent.values(), chunkCount);
+        super(parent);
+        if (chunkCount <= 0) {
+            throw new IllegalArgumentException("chunkCount needs to be at least 1: " + chunkCount);
+        }
+        this.sampleSize = getSampleSize();
+        if (chunkCount == 1) {
+            this.realChunkCount = 1;
+        } else {
+            this.realChunkCount = Math.min(chunkCount, sampleSize);
+        }
         double chunkWeightsSum = 0D;
         for (double i = 1; i <= chunkCount; i++) {
             chunkWeightsSum += i;
         }
         double chunkProbabilitiesSum = 0D;
-        threshold_chunk = new Pair[chunkCount];
+        chunkThresholds = new double[chunkCount];
+        chunkSizes = new int[chunkCount];
         for (int i = 1; i <= chunkCount; i++) {
             final double chunkWeight = i;
             final double chunkProbability = chunkWeight / chunkWeightsSum;
             chunkProbabilitiesSum += chunkProbability;
             final int chunkIndex = i - 1;
-            threshold_chunk[chunkIndex] = Pair.of(chunkProbabilitiesSum, sampleChunks.get(chunkIndex));
+            chunkThresholds[chunkIndex] = chunkProbabilitiesSum;
+            chunkSizes[chunkIndex] = newChunkSize(chunkIndex);
         }
     }
 
-    @Override
-    public Iterator<E> randomize(final RandomGenerator random) {
-        return new Iterator<E>() {
-
-            private int resampleIdx = 0;
-
-            @Override
-            public boolean hasNext() {
-                return resampleIdx < sampleSize;
-            }
-
-            @Override
-            public E next() {
-                final List<E> sampleChunk = getSampleChunk(random);
-                final int sourceIdx = random.nextInt(sampleChunk.size());
-                resampleIdx++;
-                return sampleChunk.get(sourceIdx);
-            }
+    private int newChunkSize(final int chunkIndex) {
+        if (chunkIndex >= realChunkCount) {
+            throw new IndexOutOfBoundsException(
+                    "Chunk [" + chunkIndex + "] does not exist with [" + sampleSize + "] values");
+        }
+        final int fullRounds = sampleSize / realChunkCount;
+        if (chunkIndex < sampleSize % realChunkCount) {
+            return fullRounds + 1;
+        } else {
+            return fullRounds;
+        }
+    }
 
-        };
+    @Override
+    public int[] randomizeIndexes(final RandomGenerator random) {
+        final int[] indexes = new int[sampleSize];
+        for (int resampleIdx = 0; resampleIdx < sampleSize; resampleIdx++) {
+            final int chunkIndex = getSampleChunkIndex(random);
+            final int sourceIdx = random.nextInt(chunkSizes[chunkIndex]);
+            indexes[resampleIdx] = chunkIndex + sourceIdx * realChunkCount;
+        }
+        return indexes;
     }
 
-    private List<E> getSampleChunk(final RandomGenerator random) {
+    private int getSampleChunkIndex(final RandomGenerator random) {
         final double chunkThreshold = random.nextDouble();
-        for (int i = 0; i < threshold_chunk.length; i++) {
-            final Pair<Double, ? extends List<E>> pair = threshold_chunk[i];
-            final double threshold = pair.getFirst();
+        for (int i = 0; i < chunkThresholds.length; i++) {
+            final double threshold = chunkThresholds[i];
             if (chunkThreshold <= threshold) {
-                return pair.getSecond();
+                return i;
             }
         }
         throw new IllegalStateException("No chunk found for threshold: " + chunkThreshold);
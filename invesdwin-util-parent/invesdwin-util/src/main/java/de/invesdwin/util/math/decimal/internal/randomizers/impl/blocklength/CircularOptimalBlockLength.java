@@ -1,7 +1,5 @@
 package de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength;
 
-import java.util.List;
-
 import javax.annotation.concurrent.NotThreadSafe;
 
 import de.invesdwin.util.math.Doubles;
@@ -25,18 +23,20 @@ public class CircularOptimalBlockLength<E extends ADecimal<E>> {
     private static final double ONE_THIRD = 1D / 3D;
     private static final double MULTIPLICATOR_ONE_AND_A_THIRD = 1D + ONE_THIRD;
 
-    private final List<E> sample;
-    private final double sampleAvg;
+    private final SampleAutoCovariances autoCovariances;
     private final double sampleAutoCovariance0;
 
     public CircularOptimalBlockLength(final IDecimalAggregate<E> parent) {
-        this.sample = parent.values();
-        this.sampleAvg = parent.avg().doubleValue();
+        this(SampleAutoCovariances.valueOf(parent));
+    }
+
+    public CircularOptimalBlockLength(final SampleAutoCovariances autoCovariances) {
+        this.autoCovariances = autoCovariances;
         this.sampleAutoCovariance0 = sampleAutoCovariance(0);
     }
 
     private long determineOptimalLag() {
-        final int length = sample.size();
+        final int length = autoCovariances.getLength();
         final int checkLag = determineOptimalLag_checkLagInterval(length);
         final long maxLag = determineOptimalLag_maxlag(length);
         final double correlationThreshold = determineOptimalLag_correlationThreshold(length);
@@ -66,14 +66,14 @@ public class CircularOptimalBlockLength<E extends ADecimal<E>> {
         return limitedLag;
     }
 
-    private int determineOptimalLag_checkLagInterval(final int length) {
+    private static int determineOptimalLag_checkLagInterval(final int length) {
         final double logLength = Math.log10(length);
         final double sqrtLogLength = Math.sqrt(logLength);
         final int roundedSqrtLogLength = (int) Math.ceil(sqrtLogLength);
         return Math.max(MIN_CHECK_LAG_INTERVAL, roundedSqrtLogLength);
     }
 
-    private long determineOptimalLag_maxlag(final int length) {
+    static long determineOptimalLag_maxlag(final int length) {
         final double sqrtLength = Math.sqrt(length);
         final long roundedSqrtLength = (long) Math.ceil(sqrtLength);
         final int checkLagInterval = determineOptimalLag_checkLagInterval(length);
@@ -114,7 +114,7 @@ public class CircularOptimalBlockLength<E extends ADecimal<E>> {
     }
 
     private long determineOptimalBlockLength() {
-        final int length = sample.size();
+        final int length = autoCovariances.getLength();
         final long optimalLag = determineOptimalLag();
         double sumTwoLagMultiCovar = sampleAutoCovariance0;
         double sumTwoLagMultiLagCovar = 0D;
@@ -143,19 +143,7 @@ public class CircularOptimalBlockLength<E extends ADecimal<E>> {
     }
 
     private double sampleAutoCovariance(final int lag) {
-        if (lag >= sample.size()) {
-            throw new IllegalArgumentException(
-                    "Index needs to be smaller than sample size [" + sample.size() + "]: " + lag);
-        }
-        final int length = sample.size();
-        double sum = 0D;
-        final int maxIdx = length - lag - 1;
-        for (int i = 0; i <= maxIdx; ++i) {
-            final double curAdj = sample.get(i).doubleValue() - sampleAvg;
-            final double nextAdj = sample.get(i + lag).doubleValue() - sampleAvg;
-            sum += curAdj * nextAdj;
-        }
-        return sum / length;
+        return autoCovariances.getAutoCovariance(lag);
     }
 
 }
@@ -0,0 +1,157 @@
+package de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength;
+
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.PrimitiveDecimalAggregate;
+
+/**
+ * The sample autocovariances of all lags that are needed for the block length selection. They are calculated once over
+ * a primitive array, for larger samples all lags are calculated at once via FFT in O(n log n) instead of O(n * maxLag).
+ *
+ * The block length selection is invariant to the scale of the values, thus the default values are used.
+ */
+@Immutable
+public final class SampleAutoCovariances {
+
+    /**
+     * The FFT needs two complex transforms per element, thus it only pays off if the direct calculation would need
+     * noticeably more operations.
+     */
+    private static final int FFT_COST_FACTOR = 10;
+
+    private final int length;
+    private final double[] autoCovariances;
+
+    private SampleAutoCovariances(final int length, final double[] autoCovariances) {
+        this.length = length;
+        this.autoCovariances = autoCovariances;
+    }
+
+    /**
+     * The size of the sample.
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public int getMaxLag() {
+        return autoCovariances.length - 1;
+    }
+
+    public double getAutoCovariance(final int lag) {
+        if (lag >= length) {
+            throw new IllegalArgumentException("Index needs to be smaller than sample size [" + length + "]: " + lag);
+        }
+        return autoCovariances[lag];
+    }
+
+    public double getAutoCorrelation(final int lag) {
+        return getAutoCovariance(lag) / autoCovariances[0];
+    }
+
+    public static <E extends ADecimal<E>> SampleAutoCovariances valueOf(final IDecimalAggregate<E> parent) {
+        final double[] sample;
+        if (parent instanceof PrimitiveDecimalAggregate) {
+            sample = ((PrimitiveDecimalAggregate<E>) parent).toDefaultValueArray();
+        } else {
+            final List<E> values = parent.values();
+            sample = new double[values.size()];
+            for (int i = 0; i < sample.length; i++) {
+                sample[i] = values.get(i).getDefaultValue();
+            }
+        }
+        return valueOf(sample);
+    }
+
+    public static SampleAutoCovariances valueOf(final double[] sample) {
+        final int maxLag = (int) CircularOptimalBlockLength.determineOptimalLag_maxlag(sample.length);
+        return valueOf(sample, maxLag);
+    }
+
+    public static SampleAutoCovariances valueOf(final double[] sample, final int maxLag) {
+        final int paddedLength = newPaddedLength(sample.length, maxLag);
+        final long directCost = (long) sample.length * (maxLag + 1);
+        final long fftCost = (long) FFT_COST_FACTOR * paddedLength * Integer.numberOfTrailingZeros(paddedLength);
+        if (directCost <= fftCost) {
+            return new SampleAutoCovariances(sample.length, newDirect(sample, maxLag));
+        } else {
+            return new SampleAutoCovariances(sample.length, newFft(sample, maxLag));
+        }
+    }
+
+    private static double avg(final double[] sample) {
+        double sum = 0D;
+        for (int i = 0; i < sample.length; i++) {
+            sum += sample[i];
+        }
+        return sum / sample.length;
+    }
+
+    /**
+     * The padding prevents the circular convolution from wrapping values of higher lags into the ones we need.
+     */
+    private static int newPaddedLength(final int length, final int maxLag) {
+        final int minLength = Math.max(2, length + maxLag + 1);
+        final int highestOneBit = Integer.highestOneBit(minLength);
+        if (highestOneBit == minLength) {
+            return minLength;
+        } else {
+            return highestOneBit << 1;
+        }
+    }
+
+    static double[] newDirect(final double[] sample, final int maxLag) {
+        final int length = sample.length;
+        final double sampleAvg = avg(sample);
+        final double[] adjSample = new double[length];
+        for (int i = 0; i < length; i++) {
+            adjSample[i] = sample[i] - sampleAvg;
+        }
+        final double[] autoCovariances = new double[maxLag + 1];
+        for (int lag = 0; lag <= maxLag; lag++) {
+            double sum = 0D;
+            final int maxIdx = length - lag - 1;
+            for (int i = 0; i <= maxIdx; ++i) {
+                sum += adjSample[i] * adjSample[i + lag];
+            }
+            autoCovariances[lag] = sum / length;
+        }
+        return autoCovariances;
+    }
+
+    /**
+     * autoCovariance = IFFT(|FFT(x - avg)|^2) / n
+     */
+    static double[] newFft(final double[] sample, final int maxLag) {
+        final int length = sample.length;
+        final double sampleAvg = avg(sample);
+        final int paddedLength = newPaddedLength(length, maxLag);
+        final double[] real = new double[paddedLength];
+        final double[] imaginary = new double[paddedLength];
+        for (int i = 0; i < length; i++) {
+            real[i] = sample[i] - sampleAvg;
+        }
+        final double[][] dataRI = new double[][] { real, imaginary };
+        FastFourierTransformer.transformInPlace(dataRI, DftNormalization.STANDARD, TransformType.FORWARD);
+        for (int i = 0; i < paddedLength; i++) {
+            real[i] = real[i] * real[i] + imaginary[i] * imaginary[i];
+            imaginary[i] = 0D;
+        }
+        //the inverse transform with standard normalization already divides by the padded length
+        FastFourierTransformer.transformInPlace(dataRI, DftNormalization.STANDARD, TransformType.INVERSE);
+        final double[] autoCovariances = new double[maxLag + 1];
+        for (int lag = 0; lag <= maxLag; lag++) {
+            autoCovariances[lag] = real[lag] / length;
+        }
+        return autoCovariances;
+    }
+
+}
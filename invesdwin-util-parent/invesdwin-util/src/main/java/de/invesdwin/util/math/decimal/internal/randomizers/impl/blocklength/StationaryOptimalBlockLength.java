@@ -14,6 +14,10 @@ public class StationaryOptimalBlockLength<E extends ADecimal<E>> extends Circula
         super(parent);
     }
 
+    public StationaryOptimalBlockLength(final SampleAutoCovariances autoCovariances) {
+        super(autoCovariances);
+    }
+
     @Override
     protected double determineOptimalBlockLength_blockLengthMultiplicator() {
         return MULTIPLICATOR_TWO;
@@ -0,0 +1,235 @@
+package de.invesdwin.util.math.decimal.randomizers;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+
+import de.invesdwin.util.math.decimal.ADecimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.PrimitiveDecimalAggregate;
+import de.invesdwin.util.math.random.RandomGenerators;
+import de.invesdwin.util.math.stream.doubl.IDoubleStreamAlgorithm;
+
+/**
+ * Draws a large number of resamples (e.g. for monte carlo robustness checks) in parallel on a ForkJoinPool. The
+ * resamples are produced as index arrays or primitive default values, thus no iterators or objects are created per
+ * value.
+ *
+ * Each resample gets its own random generator with a seed that is derived from the given seed and the index of the
+ * resample. Thus the results are reproducible regardless of the parallelism and the order of execution.
+ *
+ * Example: resampleStream(DecimalBootstrapType.StationaryBootstrap, seed, 10000, DoubleStreamProfitFactor::new,
+ * DoubleStreamProfitFactor::getProfitFactor)
+ */
+@ThreadSafe
+public class DecimalAggregateResampler<E extends ADecimal<E>> {
+
+    private static final int TASKS_PER_THREAD = 4;
+    private static final long SEED_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final IDecimalAggregate<E> parent;
+    private final double[] defaultValues;
+    private final ForkJoinPool pool;
+
+    public DecimalAggregateResampler(final IDecimalAggregate<E> parent) {
+        this(parent, ForkJoinPool.commonPool());
+    }
+
+    public DecimalAggregateResampler(final IDecimalAggregate<E> parent, final ForkJoinPool pool) {
+        this.parent = parent;
+        this.defaultValues = newDefaultValues(parent);
+        this.pool = pool;
+    }
+
+    private static double[] newDefaultValues(final IDecimalAggregate<?> parent) {
+        if (parent instanceof PrimitiveDecimalAggregate) {
+            final PrimitiveDecimalAggregate<?> cParent = (PrimitiveDecimalAggregate<?>) parent;
+            return cParent.toDefaultValueArray();
+        }
+        final List<? extends ADecimal<?>> values = parent.values();
+        final double[] defaultValues = new double[values.size()];
+        for (int i = 0; i < defaultValues.length; i++) {
+            final ADecimal<?> value = values.get(i);
+            if (value == null) {
+                defaultValues[i] = Double.NaN;
+            } else {
+                defaultValues[i] = value.getDefaultValue();
+            }
+        }
+        return defaultValues;
+    }
+
+    public IDecimalAggregate<E> getParent() {
+        return parent;
+    }
+
+    public int[][] resampleIndexes(final DecimalBootstrapType type, final long seed, final int count) {
+        return resampleIndexes(newIndexesFactory(type), seed, count);
+    }
+
+    /**
+     * The indexesFactory could be e.g. "random -> aggregate.randomize().shuffleIndexes(random)".
+     */
+    public int[][] resampleIndexes(final Function<RandomGenerator, int[]> indexesFactory, final long seed,
+            final int count) {
+        final int[][] resamples = new int[count][];
+        invoke(count, new IResampleRange() {
+            @Override
+            public void resample(final int fromResampleIdx, final int toResampleIdx) {
+                for (int i = fromResampleIdx; i < toResampleIdx; i++) {
+                    resamples[i] = indexesFactory.apply(newRandom(seed, i));
+                }
+            }
+        });
+        return resamples;
+    }
+
+    public double[][] resampleDefaultValues(final DecimalBootstrapType type, final long seed, final int count) {
+        return resampleDefaultValues(newIndexesFactory(type), seed, count);
+    }
+
+    public double[][] resampleDefaultValues(final Function<RandomGenerator, int[]> indexesFactory, final long seed,
+            final int count) {
+        final double[][] resamples = new double[count][];
+        invoke(count, new IResampleRange() {
+            @Override
+            public void resample(final int fromResampleIdx, final int toResampleIdx) {
+                for (int i = fromResampleIdx; i < toResampleIdx; i++) {
+                    final int[] indexes = indexesFactory.apply(newRandom(seed, i));
+                    final double[] resample = new double[indexes.length];
+                    fill(indexes, resample);
+                    resamples[i] = resample;
+                }
+            }
+        });
+        return resamples;
+    }
+
+    public double[] resampleStatistic(final DecimalBootstrapType type, final long seed, final int count,
+            final IDoubleResampleStatistic statistic) {
+        return resampleStatistic(newIndexesFactory(type), seed, count, statistic);
+    }
+
+    /**
+     * Calculates the statistic for each resample without keeping the resamples, the resample buffer is reused per
+     * task.
+     */
+    public double[] resampleStatistic(final Function<RandomGenerator, int[]> indexesFactory, final long seed,
+            final int count, final IDoubleResampleStatistic statistic) {
+        final double[] results = new double[count];
+        invoke(count, new IResampleRange() {
+            @Override
+            public void resample(final int fromResampleIdx, final int toResampleIdx) {
+                double[] resample = new double[defaultValues.length];
+                for (int i = fromResampleIdx; i < toResampleIdx; i++) {
+                    final int[] indexes = indexesFactory.apply(newRandom(seed, i));
+                    if (resample.length != indexes.length) {
+                        resample = new double[indexes.length];
+                    }
+                    fill(indexes, resample);
+                    results[i] = statistic.calculate(resample);
+                }
+            }
+        });
+        return results;
+    }
+
+    public <A extends IDoubleStreamAlgorithm> double[] resampleStream(final DecimalBootstrapType type,
+            final long seed, final int count, final Supplier<A> algorithmFactory, final ToDoubleFunction<A> result) {
+        return resampleStream(newIndexesFactory(type), seed, count, algorithmFactory, result);
+    }
+
+    /**
+     * Feeds each resample into a new stream algorithm (e.g. DoubleStreamProfitFactor or
+     * DoubleStreamPerformanceRateFromHPRs) and collects the result of it.
+     */
+    public <A extends IDoubleStreamAlgorithm> double[] resampleStream(
+            final Function<RandomGenerator, int[]> indexesFactory, final long seed, final int count,
+            final Supplier<A> algorithmFactory, final ToDoubleFunction<A> result) {
+        return resampleStatistic(indexesFactory, seed, count, new IDoubleResampleStatistic() {
+            @Override
+            public double calculate(final double[] resample) {
+                final A algorithm = algorithmFactory.get();
+                for (int i = 0; i < resample.length; i++) {
+                    algorithm.process(resample[i]);
+                }
+                return result.applyAsDouble(algorithm);
+            }
+        });
+    }
+
+    private Function<RandomGenerator, int[]> newIndexesFactory(final DecimalBootstrapType type) {
+        return new Function<RandomGenerator, int[]>() {
+            @Override
+            public int[] apply(final RandomGenerator random) {
+                return type.randomizeIndexes(parent, random);
+            }
+        };
+    }
+
+    private void fill(final int[] indexes, final double[] resample) {
+        for (int i = 0; i < indexes.length; i++) {
+            resample[i] = defaultValues[indexes[i]];
+        }
+    }
+
+    private void invoke(final int count, final IResampleRange range) {
+        if (count <= 0) {
+            return;
+        }
+        final int threshold = Math.max(1, count / (pool.getParallelism() * TASKS_PER_THREAD));
+        pool.invoke(new ResampleAction(range, 0, count, threshold));
+    }
+
+    /**
+     * Uses the SplitMix64 finalizer so that neighboring resamples get uncorrelated seeds.
+     */
+    public static RandomGenerator newRandom(final long seed, final int resampleIdx) {
+        long z = seed + (resampleIdx + 1L) * SEED_GAMMA;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return RandomGenerators.newDefaultRandom(z ^ (z >>> 31));
+    }
+
+    private interface IResampleRange {
+        void resample(int fromResampleIdx, int toResampleIdx);
+    }
+
+    @NotThreadSafe
+    private static final class ResampleAction extends RecursiveAction {
+
+        private final IResampleRange range;
+        private final int fromResampleIdx;
+        private final int toResampleIdx;
+        private final int threshold;
+
+        private ResampleAction(final IResampleRange range, final int fromResampleIdx, final int toResampleIdx,
+                final int threshold) {
+            this.range = range;
+            this.fromResampleIdx = fromResampleIdx;
+            this.toResampleIdx = toResampleIdx;
+            this.threshold = threshold;
+        }
+
+        @Override
+        protected void compute() {
+            if (toResampleIdx - fromResampleIdx <= threshold) {
+                range.resample(fromResampleIdx, toResampleIdx);
+            } else {
+                final int middleResampleIdx = (fromResampleIdx + toResampleIdx) >>> 1;
+                invokeAll(new ResampleAction(range, fromResampleIdx, middleResampleIdx, threshold),
+                        new ResampleAction(range, middleResampleIdx, toResampleIdx, threshold));
+            }
+        }
+
+    }
+
+}
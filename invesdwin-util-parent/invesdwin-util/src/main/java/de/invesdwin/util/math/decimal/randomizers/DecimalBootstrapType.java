@@ -18,6 +18,12 @@ public enum DecimalBootstrapType {
                 final RandomGenerator random) {
             return values.randomize().bootstrap(random);
         }
+
+        @Override
+        public <T extends ADecimal<T>> int[] randomizeIndexes(final IDecimalAggregate<T> values,
+                final RandomGenerator random) {
+            return values.randomize().bootstrapIndexes(random);
+        }
     },
     CircularBlockBootstrap {
         @Override
@@ -25,6 +31,12 @@ public enum DecimalBootstrapType {
                 final RandomGenerator random) {
             return values.randomize().circularBlockBootstrap(random);
         }
+
+        @Override
+        public <T extends ADecimal<T>> int[] randomizeIndexes(final IDecimalAggregate<T> values,
+                final RandomGenerator random) {
+            return values.randomize().circularBlockBootstrapIndexes(random);
+        }
     },
     StationaryBootstrap {
         @Override
@@ -32,8 +44,16 @@ public enum DecimalBootstrapType {
                 final RandomGenerator random) {
             return values.randomize().stationaryBootstrap(random);
         }
+
+        @Override
+        public <T extends ADecimal<T>> int[] randomizeIndexes(final IDecimalAggregate<T> values,
+                final RandomGenerator random) {
+            return values.randomize().stationaryBootstrapIndexes(random);
+        }
     };
 
     public abstract <T extends ADecimal<T>> Iterator<T> randomize(IDecimalAggregate<T> values, RandomGenerator random);
 
+    public abstract <T extends ADecimal<T>> int[] randomizeIndexes(IDecimalAggregate<T> values, RandomGenerator random);
+
 }
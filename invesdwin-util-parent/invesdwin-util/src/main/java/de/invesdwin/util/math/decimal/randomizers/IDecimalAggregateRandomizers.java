@@ -49,4 +49,34 @@ public interface IDecimalAggregateRandomizers<E extends ADecimal<E>> {
      */
     Iterator<E> weightedChunksAscending(RandomGenerator random, int chunkCount);
 
+    /**
+     * Same as shuffle, but returns the indexes of the drawn values.
+     */
+    int[] shuffleIndexes(RandomGenerator random);
+
+    /**
+     * Same as bootstrap, but returns the indexes of the drawn values.
+     */
+    int[] bootstrapIndexes(RandomGenerator random);
+
+    /**
+     * Same as circularBlockBootstrap, but returns the indexes of the drawn values.
+     */
+    int[] circularBlockBootstrapIndexes(RandomGenerator random);
+
+    /**
+     * Same as stationaryBootstrap, but returns the indexes of the drawn values.
+     */
+    int[] stationaryBootstrapIndexes(RandomGenerator random);
+
+    /**
+     * Same as weightedChunksDescending, but returns the indexes of the drawn values.
+     */
+    int[] weightedChunksDescendingIndexes(RandomGenerator random, int chunkCount);
+
+    /**
+     * Same as weightedChunksAscending, but returns the indexes of the drawn values.
+     */
+    int[] weightedChunksAscendingIndexes(RandomGenerator random, int chunkCount);
+
 }
@@ -0,0 +1,11 @@
+package de.invesdwin.util.math.decimal.randomizers;
+
+public interface IDoubleResampleStatistic {
+
+    /**
+     * The default values are given in the order they were drawn. The array is reused for the next resample, thus it
+     * should not be kept.
+     */
+    double calculate(double[] resample);
+
+}
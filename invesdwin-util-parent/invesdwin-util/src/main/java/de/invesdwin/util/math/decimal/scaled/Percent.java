@@ -8,8 +8,11 @@ import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.decimal.ADecimal;
 import de.invesdwin.util.math.decimal.AScaledDecimal;
 import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
 import de.invesdwin.util.math.decimal.IScaledNumber;
 import de.invesdwin.util.math.decimal.ScaledDecimalToStringBuilder;
+import de.invesdwin.util.math.decimal.internal.DummyDecimalAggregate;
+import de.invesdwin.util.math.decimal.internal.PrimitiveDecimalAggregate;
 import de.invesdwin.util.time.duration.Duration;
 import de.invesdwin.util.time.fdate.FTimeUnit;
 
@@ -241,6 +244,18 @@ public class Percent extends AScaledDecimal<Percent, PercentScale> {
         }
     }
 
+    /**
+     * Creates an aggregate that works on the primitive array of rates directly, NaN represents null. The array should
+     * not be modified afterwards.
+     */
+    public static IDecimalAggregate<Percent> valueOfRates(final double... rates) {
+        if (rates == null || rates.length == 0) {
+            return DummyDecimalAggregate.getInstance();
+        } else {
+            return new PrimitiveDecimalAggregate<Percent>(rates, ZERO_PERCENT);
+        }
+    }
+
     public static <T extends ADecimal<?>> Percent normalize(final T value, final T min, final T max) {
         return normalize(value.getDefaultValue(), min.getDefaultValue(), max.getDefaultValue());
     }
@@ -6,18 +6,21 @@ import de.invesdwin.util.math.expression.eval.IParsedExpression;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 @NotThreadSafe
 public abstract class ADelegateExpression implements IExpression {
@@ -39,6 +42,11 @@ public abstract class ADelegateExpression implements IExpression {
         return getDelegate().newEvaluateBooleanKey();
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return getDelegate().newEvaluateBooleanKeyRange();
+    }
+
     @Override
     public IEvaluateBooleanNullable newEvaluateBooleanNullable() {
         return getDelegate().newEvaluateBooleanNullable();
@@ -69,6 +77,11 @@ public abstract class ADelegateExpression implements IExpression {
         return getDelegate().newEvaluateDoubleKey();
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return getDelegate().newEvaluateDoubleKeyRange();
+    }
+
     @Override
     public IEvaluateInteger newEvaluateInteger() {
         return getDelegate().newEvaluateInteger();
@@ -84,6 +97,11 @@ public abstract class ADelegateExpression implements IExpression {
         return getDelegate().newEvaluateIntegerKey();
     }
 
+    @Override
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        return getDelegate().newEvaluateIntegerKeyRange();
+    }
+
     @Override
     public IEvaluateGeneric<String> newEvaluateFalseReason() {
         return getDelegate().newEvaluateFalseReason();
@@ -12,6 +12,7 @@ import de.invesdwin.util.error.Throwables;
 import de.invesdwin.util.lang.Objects;
 import de.invesdwin.util.lang.description.TextDescription;
 import de.invesdwin.util.math.expression.eval.BooleanConstantExpression;
+import de.invesdwin.util.math.expression.eval.CommonSubexpressionElimination;
 import de.invesdwin.util.math.expression.eval.ConstantExpression;
 import de.invesdwin.util.math.expression.eval.DynamicPreviousKeyExpression;
 import de.invesdwin.util.math.expression.eval.IParsedExpression;
@@ -253,8 +254,21 @@ public class ExpressionParser {
         return false;
     }
 
+    /**
+     * Override this to share structurally equal subtrees so that they are only calculated once per key by each
+     * evaluator.
+     */
+    protected boolean isCommonSubexpressionElimination() {
+        return false;
+    }
+
     protected IParsedExpression simplify(final IParsedExpression expression) {
-        return expression.simplify();
+        final IParsedExpression simplified = expression.simplify();
+        if (isCommonSubexpressionElimination()) {
+            return CommonSubexpressionElimination.eliminate(simplified);
+        } else {
+            return simplified;
+        }
     }
 
     protected IParsedExpression expression(final boolean commaAllowed) {
@@ -3,18 +3,21 @@ package de.invesdwin.util.math.expression;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 public interface IExpression extends IParsedExpressionProvider {
 
@@ -35,6 +38,14 @@ public interface IExpression extends IParsedExpressionProvider {
      */
     IEvaluateDouble newEvaluateDouble();
 
+    /**
+     * evaluates the expression for a range of int keys at once, this should be preferred over newEvaluateDoubleKey()
+     * when whole series are calculated since operations can then work on arrays instead of dispatching per key
+     */
+    default IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey());
+    }
+
     /**
      * Double.NaN is interpreted as 0.
      */
@@ -50,6 +61,13 @@ public interface IExpression extends IParsedExpressionProvider {
      */
     IEvaluateInteger newEvaluateInteger();
 
+    /**
+     * Double.NaN is interpreted as 0.
+     */
+    default IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        return IEvaluateIntegerKeyRange.of(newEvaluateIntegerKey());
+    }
+
     /**
      * Double.NaN is interpreted as false.
      */
@@ -65,6 +83,13 @@ public interface IExpression extends IParsedExpressionProvider {
      */
     IEvaluateBooleanKey newEvaluateBooleanKey();
 
+    /**
+     * Double.NaN is interpreted as false.
+     */
+    default IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return IEvaluateBooleanKeyRange.of(newEvaluateBooleanKey());
+    }
+
     /**
      * Double.NaN is interpreted as null.
      */
@@ -0,0 +1,429 @@
+package de.invesdwin.util.math.expression.compiler;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.springframework.asm.ClassWriter;
+import org.springframework.asm.Label;
+import org.springframework.asm.MethodVisitor;
+import org.springframework.asm.Opcodes;
+import org.springframework.asm.Type;
+
+import de.invesdwin.util.math.Booleans;
+import de.invesdwin.util.math.Doubles;
+import de.invesdwin.util.math.expression.IExpression;
+import de.invesdwin.util.math.expression.eval.IParsedExpression;
+import de.invesdwin.util.math.expression.eval.operation.DoubleBinaryOperation;
+import de.invesdwin.util.math.expression.eval.operation.Op;
+import de.invesdwin.util.math.expression.eval.operation.simple.BooleanAndOperation;
+import de.invesdwin.util.math.expression.eval.operation.simple.BooleanNotOperation;
+import de.invesdwin.util.math.expression.eval.operation.simple.BooleanOrOperation;
+import de.invesdwin.util.math.expression.eval.operation.simple.BooleanXorOperation;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.time.fdate.IFDateProvider;
+
+/**
+ * Compiles a parsed expression into a generated class with a single flat evaluation method. Constants are folded and
+ * arithmetic, comparison and boolean operators are inlined as static calls to Doubles/Booleans (which the JIT inlines
+ * reliably) instead of being dispatched through nested lambdas. Everything else (variables, function calls, crosses
+ * etc.) stays a leaf that is called via its own evaluator.
+ *
+ * The semantics are the same as for the interpreted evaluators. Each compiled expression gets its own class loader so
+ * that the classes can be unloaded again when the evaluator is not referenced anymore.
+ */
+@Immutable
+public final class ExpressionCompiler {
+
+    private static final AtomicLong CLASS_SEQUENCE = new AtomicLong();
+    private static final String CLASS_NAME_PREFIX = Type.getInternalName(ExpressionCompiler.class) + "$Compiled";
+    private static final String DOUBLES = Type.getInternalName(Doubles.class);
+    private static final String BOOLEANS = Type.getInternalName(Booleans.class);
+    private static final String BOOLEAN_OBJECT_DESCRIPTOR = Type.getDescriptor(Boolean.class);
+    private static final String CONSTRUCTOR_DESCRIPTOR = "([Ljava/lang/Object;)V";
+
+    private ExpressionCompiler() {
+    }
+
+    public static IEvaluateDoubleKey newEvaluateDoubleKey(final IExpression expression) {
+        return (IEvaluateDoubleKey) compile(expression.asParsedExpression(), KeyType.KEY, true);
+    }
+
+    public static IEvaluateBooleanKey newEvaluateBooleanKey(final IExpression expression) {
+        return (IEvaluateBooleanKey) compile(expression.asParsedExpression(), KeyType.KEY, false);
+    }
+
+    public static IEvaluateDoubleFDate newEvaluateDoubleFDate(final IExpression expression) {
+        return (IEvaluateDoubleFDate) compile(expression.asParsedExpression(), KeyType.FDATE, true);
+    }
+
+    public static IEvaluateBooleanFDate newEvaluateBooleanFDate(final IExpression expression) {
+        return (IEvaluateBooleanFDate) compile(expression.asParsedExpression(), KeyType.FDATE, false);
+    }
+
+    private static Object compile(final IParsedExpression expression, final KeyType keyType,
+            final boolean doubleResult) {
+        final String className = CLASS_NAME_PREFIX + CLASS_SEQUENCE.incrementAndGet();
+        final ClassGenerator generator = new ClassGenerator(className, keyType);
+        final byte[] bytes = generator.generate(expression, doubleResult);
+        final CompiledExpressionClassLoader classLoader = new CompiledExpressionClassLoader(
+                ExpressionCompiler.class.getClassLoader());
+        final Class<?> compiledClass = classLoader.define(className.replace('/', '.'), bytes);
+        try {
+            return compiledClass.getConstructor(Object[].class).newInstance((Object) generator.getLeaves());
+        } catch (final Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private enum KeyType {
+        KEY(Opcodes.ILOAD, Type.INT_TYPE.getDescriptor(), IEvaluateDoubleKey.class, IEvaluateBooleanKey.class) {
+            @Override
+            public Object newLeafEvaluator(final IParsedExpression leaf, final boolean doubleResult) {
+                if (doubleResult) {
+                    return leaf.newEvaluateDoubleKey();
+                } else {
+                    return leaf.newEvaluateBooleanKey();
+                }
+            }
+        },
+        FDATE(Opcodes.ALOAD, Type.getDescriptor(IFDateProvider.class), IEvaluateDoubleFDate.class,
+                IEvaluateBooleanFDate.class) {
+            @Override
+            public Object newLeafEvaluator(final IParsedExpression leaf, final boolean doubleResult) {
+                if (doubleResult) {
+                    return leaf.newEvaluateDoubleFDate();
+                } else {
+                    return leaf.newEvaluateBooleanFDate();
+                }
+            }
+        };
+
+        private final int loadOpcode;
+        private final String doubleInterface;
+        private final String booleanInterface;
+        private final String doubleMethodDescriptor;
+        private final String booleanMethodDescriptor;
+
+        KeyType(final int loadOpcode, final String keyDescriptor, final Class<?> doubleInterface,
+                final Class<?> booleanInterface) {
+            this.loadOpcode = loadOpcode;
+            this.doubleInterface = Type.getInternalName(doubleInterface);
+            this.booleanInterface = Type.getInternalName(booleanInterface);
+            this.doubleMethodDescriptor = "(" + keyDescriptor + ")D";
+            this.booleanMethodDescriptor = "(" + keyDescriptor + ")Z";
+        }
+
+        public abstract Object newLeafEvaluator(IParsedExpression leaf, boolean doubleResult);
+
+        public String getInterface(final boolean doubleResult) {
+            if (doubleResult) {
+                return doubleInterface;
+            } else {
+                return booleanInterface;
+            }
+        }
+
+        public String getMethodName(final boolean doubleResult) {
+            if (doubleResult) {
+                return "evaluateDouble";
+            } else {
+                return "evaluateBoolean";
+            }
+        }
+
+        public String getMethodDescriptor(final boolean doubleResult) {
+            if (doubleResult) {
+                return doubleMethodDescriptor;
+            } else {
+                return booleanMethodDescriptor;
+            }
+        }
+
+    }
+
+    @NotThreadSafe
+    private static final class ClassGenerator {
+
+        private final String className;
+        private final KeyType keyType;
+        private final List<Object> leaves = new ArrayList<>();
+        private final List<String> leafDescriptors = new ArrayList<>();
+        private final Map<IParsedExpression, Integer> doubleLeafIndexes = new IdentityHashMap<>();
+        private final Map<IParsedExpression, Integer> booleanLeafIndexes = new IdentityHashMap<>();
+        private MethodVisitor mv;
+
+        private ClassGenerator(final String className, final KeyType keyType) {
+            this.className = className;
+            this.keyType = keyType;
+        }
+
+        public Object[] getLeaves() {
+            return leaves.toArray();
+        }
+
+        public byte[] generate(final IParsedExpression expression, final boolean doubleResult) {
+            final ClassWriter cw = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS);
+            cw.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null,
+                    Type.getInternalName(Object.class), new String[] { keyType.getInterface(doubleResult) });
+
+            mv = cw.visitMethod(Opcodes.ACC_PUBLIC, keyType.getMethodName(doubleResult),
+                    keyType.getMethodDescriptor(doubleResult), null, null);
+            mv.visitCode();
+            if (doubleResult) {
+                emitDouble(expression);
+                mv.visitInsn(Opcodes.DRETURN);
+            } else {
+                emitBoolean(expression);
+                mv.visitInsn(Opcodes.IRETURN);
+            }
+            mv.visitMaxs(0, 0);
+            mv.visitEnd();
+
+            //leaves are known after the evaluation method has been generated
+            for (int i = 0; i < leaves.size(); i++) {
+                cw.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_FINAL, newLeafFieldName(i), leafDescriptors.get(i),
+                        null, null).visitEnd();
+            }
+            generateConstructor(cw);
+            cw.visitEnd();
+            return cw.toByteArray();
+        }
+
+        private void generateConstructor(final ClassWriter cw) {
+            final MethodVisitor constructor = cw.visitMethod(Opcodes.ACC_PUBLIC, "<init>", CONSTRUCTOR_DESCRIPTOR,
+                    null, null);
+            constructor.visitCode();
+            constructor.visitVarInsn(Opcodes.ALOAD, 0);
+            constructor.visitMethodInsn(Opcodes.INVOKESPECIAL, Type.getInternalName(Object.class), "<init>", "()V",
+                    false);
+            for (int i = 0; i < leaves.size(); i++) {
+                final String descriptor = leafDescriptors.get(i);
+                constructor.visitVarInsn(Opcodes.ALOAD, 0);
+                constructor.visitVarInsn(Opcodes.ALOAD, 1);
+                constructor.visitLdcInsn(i);
+                constructor.visitInsn(Opcodes.AALOAD);
+                constructor.visitTypeInsn(Opcodes.CHECKCAST, Type.getType(descriptor).getInternalName());
+                constructor.visitFieldInsn(Opcodes.PUTFIELD, className, newLeafFieldName(i), descriptor);
+            }
+            constructor.visitInsn(Opcodes.RETURN);
+            constructor.visitMaxs(0, 0);
+            constructor.visitEnd();
+        }
+
+        private void emitDouble(final IParsedExpression expression) {
+            if (expression.isConstant()) {
+                mv.visitLdcInsn(expression.newEvaluateDouble().evaluateDouble());
+            } else if (expression.getClass() == DoubleBinaryOperation.class) {
+                emitDoubleBinaryOperation((DoubleBinaryOperation) expression);
+            } else if (isBooleanOperation(expression)) {
+                emitBoolean(expression);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, "fromBoolean", "(Z)D", false);
+            } else {
+                emitLeaf(expression, true);
+            }
+        }
+
+        private void emitDoubleBinaryOperation(final DoubleBinaryOperation operation) {
+            final IParsedExpression left = operation.getLeft();
+            final IParsedExpression right = operation.getRight();
+            if (left.isConstant() && right.isConstant()) {
+                mv.visitLdcInsn(operation.newEvaluateDouble().evaluateDouble());
+                return;
+            }
+            final Op op = operation.getOp();
+            final String comparison = getComparisonMethod(op);
+            final String arithmetic = getArithmeticMethod(op);
+            if (comparison == null && arithmetic == null) {
+                emitLeaf(operation, true);
+                return;
+            }
+            if (isNaN(left) || isNaN(right)) {
+                mv.visitLdcInsn(Double.NaN);
+                return;
+            }
+            emitDouble(left);
+            emitDouble(right);
+            if (comparison != null) {
+                //NaN is interpreted as null which results in NaN
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, comparison + "Nullable",
+                        "(DD)" + BOOLEAN_OBJECT_DESCRIPTOR, false);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, "fromBoolean", "(" + BOOLEAN_OBJECT_DESCRIPTOR + ")D",
+                        false);
+            } else {
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, arithmetic, "(DD)D", false);
+            }
+        }
+
+        private void emitBoolean(final IParsedExpression expression) {
+            if (expression.isConstant()) {
+                emitBooleanConstant(expression.newEvaluateBoolean().evaluateBoolean());
+            } else if (expression.getClass() == DoubleBinaryOperation.class) {
+                emitBooleanFromDoubleBinaryOperation((DoubleBinaryOperation) expression);
+            } else if (expression.getClass() == BooleanAndOperation.class) {
+                final BooleanAndOperation operation = (BooleanAndOperation) expression;
+                final Label falseLabel = new Label();
+                final Label endLabel = new Label();
+                emitBoolean(operation.getLeft());
+                mv.visitJumpInsn(Opcodes.IFEQ, falseLabel);
+                emitBoolean(operation.getRight());
+                mv.visitJumpInsn(Opcodes.GOTO, endLabel);
+                mv.visitLabel(falseLabel);
+                mv.visitInsn(Opcodes.ICONST_0);
+                mv.visitLabel(endLabel);
+            } else if (expression.getClass() == BooleanOrOperation.class) {
+                final BooleanOrOperation operation = (BooleanOrOperation) expression;
+                final Label trueLabel = new Label();
+                final Label endLabel = new Label();
+                emitBoolean(operation.getLeft());
+                mv.visitJumpInsn(Opcodes.IFNE, trueLabel);
+                emitBoolean(operation.getRight());
+                mv.visitJumpInsn(Opcodes.GOTO, endLabel);
+                mv.visitLabel(trueLabel);
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitLabel(endLabel);
+            } else if (expression.getClass() == BooleanXorOperation.class) {
+                final BooleanXorOperation operation = (BooleanXorOperation) expression;
+                emitBoolean(operation.getLeft());
+                emitBoolean(operation.getRight());
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, BOOLEANS, "xor", "(ZZ)Z", false);
+            } else if (expression.getClass() == BooleanNotOperation.class) {
+                final BooleanNotOperation operation = (BooleanNotOperation) expression;
+                emitBoolean(operation.getRight());
+                mv.visitInsn(Opcodes.ICONST_1);
+                mv.visitInsn(Opcodes.IXOR);
+            } else {
+                emitLeaf(expression, false);
+            }
+        }
+
+        private void emitBooleanFromDoubleBinaryOperation(final DoubleBinaryOperation operation) {
+            final IParsedExpression left = operation.getLeft();
+            final IParsedExpression right = operation.getRight();
+            if (left.isConstant() && right.isConstant()) {
+                emitBooleanConstant(operation.newEvaluateBoolean().evaluateBoolean());
+                return;
+            }
+            final Op op = operation.getOp();
+            final String comparison = getComparisonMethod(op);
+            //power is not inlined for booleans by the interpreted evaluators either
+            final String arithmetic = op == Op.POWER ? null : getArithmeticMethod(op);
+            if (comparison == null && arithmetic == null) {
+                emitLeaf(operation, false);
+                return;
+            }
+            if (isNaN(left) || isNaN(right)) {
+                emitBooleanConstant(false);
+                return;
+            }
+            emitDouble(left);
+            emitDouble(right);
+            if (comparison != null) {
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, comparison, "(DD)Z", false);
+            } else {
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, arithmetic, "(DD)D", false);
+                mv.visitMethodInsn(Opcodes.INVOKESTATIC, DOUBLES, "toBoolean", "(D)Z", false);
+            }
+        }
+
+        private void emitBooleanConstant(final boolean value) {
+            if (value) {
+                mv.visitInsn(Opcodes.ICONST_1);
+            } else {
+                mv.visitInsn(Opcodes.ICONST_0);
+            }
+        }
+
+        private void emitLeaf(final IParsedExpression leaf, final boolean doubleResult) {
+            final Map<IParsedExpression, Integer> leafIndexes = doubleResult ? doubleLeafIndexes : booleanLeafIndexes;
+            Integer index = leafIndexes.get(leaf);
+            if (index == null) {
+                index = leaves.size();
+                leaves.add(keyType.newLeafEvaluator(leaf, doubleResult));
+                leafDescriptors.add("L" + keyType.getInterface(doubleResult) + ";");
+                leafIndexes.put(leaf, index);
+            }
+            mv.visitVarInsn(Opcodes.ALOAD, 0);
+            mv.visitFieldInsn(Opcodes.GETFIELD, className, newLeafFieldName(index), leafDescriptors.get(index));
+            mv.visitVarInsn(keyType.loadOpcode, 1);
+            mv.visitMethodInsn(Opcodes.INVOKEINTERFACE, keyType.getInterface(doubleResult),
+                    keyType.getMethodName(doubleResult), keyType.getMethodDescriptor(doubleResult), true);
+        }
+
+        private static String newLeafFieldName(final int index) {
+            return "leaf" + index;
+        }
+
+        private static boolean isBooleanOperation(final IParsedExpression expression) {
+            final Class<?> type = expression.getClass();
+            return type == BooleanAndOperation.class || type == BooleanOrOperation.class
+                    || type == BooleanXorOperation.class || type == BooleanNotOperation.class;
+        }
+
+        private static boolean isNaN(final IParsedExpression expression) {
+            return expression.isConstant() && Doubles.isNaN(expression.newEvaluateDouble().evaluateDouble());
+        }
+
+        private static String getComparisonMethod(final Op op) {
+            switch (op) {
+            case GT:
+                return "isGreaterThan";
+            case GT_EQ:
+                return "isGreaterThanOrEqualTo";
+            case LT:
+                return "isLessThan";
+            case LT_EQ:
+                return "isLessThanOrEqualTo";
+            case EQ:
+                return "equals";
+            case NEQ:
+                return "notEquals";
+            default:
+                return null;
+            }
+        }
+
+        private static String getArithmeticMethod(final Op op) {
+            switch (op) {
+            case ADD:
+                return "add";
+            case SUBTRACT:
+                return "subtract";
+            case MODULO:
+                return "modulo";
+            case DIVIDE:
+                return "divide";
+            case MULTIPLY:
+                return "multiply";
+            case POWER:
+                return "pow";
+            default:
+                return null;
+            }
+        }
+
+    }
+
+    @ThreadSafe
+    private static final class CompiledExpressionClassLoader extends ClassLoader {
+
+        private CompiledExpressionClassLoader(final ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(final String name, final byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+
+    }
+
+}
@@ -0,0 +1,176 @@
+package de.invesdwin.util.math.expression.eval;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.expression.eval.function.AFunctionCall;
+import de.invesdwin.util.math.expression.eval.operation.IBinaryOperation;
+
+/**
+ * Rewrites a (simplified) expression so that structurally equal subtrees are represented by the same instance.
+ * Subtrees that are referenced from more than one parent are wrapped in a MemoizedExpression and the root is wrapped in
+ * a MemoizationScopeExpression, thus a shared subtree is only calculated once per key by each evaluator tree.
+ *
+ * Structural equality is determined by the class and the string representation (which includes the contexts) of a
+ * subtree. This requires functions to be deterministic per key. Subtrees that should be persisted are not memoized.
+ * Direct parameters of function calls are not wrapped because functions might inspect the type of their arguments,
+ * shared subtrees below them are still memoized.
+ */
+@Immutable
+public final class CommonSubexpressionElimination {
+
+    private CommonSubexpressionElimination() {
+    }
+
+    public static IParsedExpression eliminate(final IParsedExpression expression) {
+        final Map<String, Integer> occurrences = new HashMap<>();
+        countOccurrences(expression, occurrences);
+        boolean shared = false;
+        for (final Integer count : occurrences.values()) {
+            if (count > 1) {
+                shared = true;
+                break;
+            }
+        }
+        if (!shared) {
+            return expression;
+        }
+        final Rewriter rewriter = new Rewriter(occurrences);
+        final IParsedExpression rewritten = rewriter.rewrite(expression, false);
+        if (rewriter.memoized.isEmpty()) {
+            return rewritten;
+        } else {
+            return new MemoizationScopeExpression(rewritten);
+        }
+    }
+
+    /**
+     * Repeated subtrees are not descended into again, thus the counts are the number of references after the
+     * rewrite.
+     */
+    private static void countOccurrences(final IParsedExpression expression, final Map<String, Integer> occurrences) {
+        if (!isRewritable(expression)) {
+            return;
+        }
+        final String key = newKey(expression);
+        final Integer count = occurrences.get(key);
+        if (count != null) {
+            occurrences.put(key, count + 1);
+            return;
+        }
+        occurrences.put(key, 1);
+        if (expression instanceof IBinaryOperation) {
+            final IBinaryOperation cExpression = (IBinaryOperation) expression;
+            countOccurrences(cExpression.getLeft(), occurrences);
+            countOccurrences(cExpression.getRight(), occurrences);
+        } else if (expression instanceof AFunctionCall) {
+            final AFunctionCall<?> cExpression = (AFunctionCall<?>) expression;
+            for (final IParsedExpression parameter : cExpression.getParameters()) {
+                countOccurrences(parameter, occurrences);
+            }
+        } else if (expression instanceof ConstantPreviousKeyExpression) {
+            final ConstantPreviousKeyExpression cExpression = (ConstantPreviousKeyExpression) expression;
+            countOccurrences(cExpression.getExpression(), occurrences);
+        } else if (expression instanceof DynamicPreviousKeyExpression) {
+            final DynamicPreviousKeyExpression cExpression = (DynamicPreviousKeyExpression) expression;
+            countOccurrences(cExpression.getExpression(), occurrences);
+            countOccurrences(cExpression.getIndexExpression(), occurrences);
+        }
+    }
+
+    /**
+     * Leafs like variables are cheap to evaluate and are thus not worth the memoization.
+     */
+    private static boolean isRewritable(final IParsedExpression expression) {
+        if (expression == null || expression.isConstant()) {
+            return false;
+        }
+        return expression instanceof IBinaryOperation || expression instanceof AFunctionCall
+                || expression instanceof ConstantPreviousKeyExpression
+                || expression instanceof DynamicPreviousKeyExpression;
+    }
+
+    private static String newKey(final IParsedExpression expression) {
+        return expression.getClass().getName() + ":" + expression;
+    }
+
+    @NotThreadSafe
+    private static final class Rewriter {
+
+        private final Map<String, Integer> occurrences;
+        private final Map<String, IParsedExpression> canonical = new HashMap<>();
+        private final Map<String, MemoizedExpression> memoized = new HashMap<>();
+
+        private Rewriter(final Map<String, Integer> occurrences) {
+            this.occurrences = occurrences;
+        }
+
+        private IParsedExpression rewrite(final IParsedExpression expression, final boolean functionParameter) {
+            if (!isRewritable(expression)) {
+                return expression;
+            }
+            final String key = newKey(expression);
+            IParsedExpression rewritten = canonical.get(key);
+            if (rewritten == null) {
+                rewritten = rewriteChildren(expression);
+                canonical.put(key, rewritten);
+            }
+            if (functionParameter || occurrences.get(key) <= 1 || rewritten.shouldPersist()) {
+                return rewritten;
+            }
+            MemoizedExpression memoizedExpression = memoized.get(key);
+            if (memoizedExpression == null) {
+                memoizedExpression = new MemoizedExpression(rewritten);
+                memoized.put(key, memoizedExpression);
+            }
+            return memoizedExpression;
+        }
+
+        private IParsedExpression rewriteChildren(final IParsedExpression expression) {
+            if (expression instanceof IBinaryOperation) {
+                final IBinaryOperation cExpression = (IBinaryOperation) expression;
+                final IParsedExpression left = rewrite(cExpression.getLeft(), false);
+                final IParsedExpression right = rewrite(cExpression.getRight(), false);
+                if (left == cExpression.getLeft() && right == cExpression.getRight()) {
+                    return cExpression;
+                }
+                return cExpression.setLeft(left).setRight(right);
+            } else if (expression instanceof AFunctionCall) {
+                final AFunctionCall<?> cExpression = (AFunctionCall<?>) expression;
+                final IParsedExpression[] parameters = cExpression.getParameters();
+                final IParsedExpression[] rewrittenParameters = new IParsedExpression[parameters.length];
+                boolean changed = false;
+                for (int i = 0; i < parameters.length; i++) {
+                    rewrittenParameters[i] = rewrite(parameters[i], true);
+                    changed |= rewrittenParameters[i] != parameters[i];
+                }
+                if (!changed) {
+                    return cExpression;
+                }
+                return cExpression.setParameters(rewrittenParameters);
+            } else if (expression instanceof ConstantPreviousKeyExpression) {
+                final ConstantPreviousKeyExpression cExpression = (ConstantPreviousKeyExpression) expression;
+                final IParsedExpression child = rewrite(cExpression.getExpression(), false);
+                if (child == cExpression.getExpression()) {
+                    return cExpression;
+                }
+                return cExpression.setExpression(child);
+            } else if (expression instanceof DynamicPreviousKeyExpression) {
+                final DynamicPreviousKeyExpression cExpression = (DynamicPreviousKeyExpression) expression;
+                final IParsedExpression child = rewrite(cExpression.getExpression(), false);
+                final IParsedExpression indexChild = rewrite(cExpression.getIndexExpression(), false);
+                if (child == cExpression.getExpression() && indexChild == cExpression.getIndexExpression()) {
+                    return cExpression;
+                }
+                return cExpression.setExpression(child).setIndexExpression(indexChild);
+            } else {
+                return expression;
+            }
+        }
+
+    }
+
+}
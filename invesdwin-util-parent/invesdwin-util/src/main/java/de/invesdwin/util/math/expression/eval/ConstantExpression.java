@@ -1,5 +1,7 @@
 package de.invesdwin.util.math.expression.eval;
 
+import java.util.Arrays;
+
 import javax.annotation.concurrent.Immutable;
 
 import de.invesdwin.util.lang.Objects;
@@ -12,18 +14,21 @@ import de.invesdwin.util.math.expression.IExpression;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 @Immutable
 public class ConstantExpression implements IParsedExpression {
@@ -59,6 +64,11 @@ public class ConstantExpression implements IParsedExpression {
         return key -> doubleValue;
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, doubleValue);
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         return () -> doubleValue;
@@ -74,6 +84,11 @@ public class ConstantExpression implements IParsedExpression {
         return key -> intValue;
     }
 
+    @Override
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, intValue);
+    }
+
     @Override
     public IEvaluateInteger newEvaluateInteger() {
         return () -> intValue;
@@ -104,6 +119,20 @@ public class ConstantExpression implements IParsedExpression {
         return key -> booleanValue;
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        if (booleanValue) {
+            return (fromKey, toKey, out) -> {
+                for (int i = 0; i <= toKey - fromKey; i++) {
+                    out.add(i);
+                }
+            };
+        } else {
+            return (fromKey, toKey, out) -> {
+            };
+        }
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         return () -> booleanValue;
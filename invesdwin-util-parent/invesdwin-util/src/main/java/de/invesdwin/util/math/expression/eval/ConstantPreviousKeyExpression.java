@@ -330,4 +330,12 @@ public class ConstantPreviousKeyExpression implements IParsedExpression {
     public IExpression[] getChildren() {
         return new IExpression[] { expression };
     }
+
+    public IParsedExpression getExpression() {
+        return expression;
+    }
+
+    public ConstantPreviousKeyExpression setExpression(final IParsedExpression expression) {
+        return new ConstantPreviousKeyExpression(expression, index, previousKeyFunction);
+    }
 }
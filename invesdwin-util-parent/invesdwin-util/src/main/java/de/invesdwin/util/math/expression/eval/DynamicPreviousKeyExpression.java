@@ -381,4 +381,20 @@ public class DynamicPreviousKeyExpression implements IParsedExpression {
         return new IExpression[] { expression, indexExpression };
     }
 
+    public IParsedExpression getExpression() {
+        return expression;
+    }
+
+    public DynamicPreviousKeyExpression setExpression(final IParsedExpression expression) {
+        return new DynamicPreviousKeyExpression(expression, indexExpression, previousKeyFunction);
+    }
+
+    public IParsedExpression getIndexExpression() {
+        return indexExpression;
+    }
+
+    public DynamicPreviousKeyExpression setIndexExpression(final IParsedExpression indexExpression) {
+        return new DynamicPreviousKeyExpression(expression, indexExpression, previousKeyFunction);
+    }
+
 }
@@ -0,0 +1,190 @@
+package de.invesdwin.util.math.expression.eval;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.math.expression.ADelegateExpression;
+import de.invesdwin.util.math.expression.ExpressionType;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
+import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
+import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
+
+/**
+ * The root of an expression that contains MemoizedExpression nodes. Every evaluator created here shares one memoizing
+ * evaluator per MemoizedExpression, thus each evaluator tree has its own memo and evaluators from different trees can
+ * be used by different threads.
+ */
+@Immutable
+public class MemoizationScopeExpression extends ADelegateExpression implements IParsedExpression {
+
+    private final IParsedExpression delegate;
+
+    public MemoizationScopeExpression(final IParsedExpression delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected IParsedExpression getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public ExpressionType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public IParsedExpression simplify() {
+        final IParsedExpression simplified = delegate.simplify();
+        if (simplified == delegate) {
+            return this;
+        } else {
+            return new MemoizationScopeExpression(simplified);
+        }
+    }
+
+    @Override
+    public IParsedExpression asParsedExpression() {
+        return this;
+    }
+
+    @Override
+    public IEvaluateBoolean newEvaluateBoolean() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBoolean);
+    }
+
+    @Override
+    public IEvaluateBooleanFDate newEvaluateBooleanFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanFDate);
+    }
+
+    @Override
+    public IEvaluateBooleanKey newEvaluateBooleanKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanKey);
+    }
+
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanKeyRange);
+    }
+
+    @Override
+    public IEvaluateBooleanNullable newEvaluateBooleanNullable() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanNullable);
+    }
+
+    @Override
+    public IEvaluateBooleanNullableFDate newEvaluateBooleanNullableFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanNullableFDate);
+    }
+
+    @Override
+    public IEvaluateBooleanNullableKey newEvaluateBooleanNullableKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateBooleanNullableKey);
+    }
+
+    @Override
+    public IEvaluateDouble newEvaluateDouble() {
+        return MemoizedExpression.newScope(delegate::newEvaluateDouble);
+    }
+
+    @Override
+    public IEvaluateDoubleFDate newEvaluateDoubleFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateDoubleFDate);
+    }
+
+    @Override
+    public IEvaluateDoubleKey newEvaluateDoubleKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateDoubleKey);
+    }
+
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return MemoizedExpression.newScope(delegate::newEvaluateDoubleKeyRange);
+    }
+
+    @Override
+    public IEvaluateInteger newEvaluateInteger() {
+        return MemoizedExpression.newScope(delegate::newEvaluateInteger);
+    }
+
+    @Override
+    public IEvaluateIntegerFDate newEvaluateIntegerFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateIntegerFDate);
+    }
+
+    @Override
+    public IEvaluateIntegerKey newEvaluateIntegerKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateIntegerKey);
+    }
+
+    @Override
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        return MemoizedExpression.newScope(delegate::newEvaluateIntegerKeyRange);
+    }
+
+    @Override
+    public IEvaluateGeneric<String> newEvaluateFalseReason() {
+        return MemoizedExpression.newScope(delegate::newEvaluateFalseReason);
+    }
+
+    @Override
+    public IEvaluateGenericFDate<String> newEvaluateFalseReasonFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateFalseReasonFDate);
+    }
+
+    @Override
+    public IEvaluateGenericKey<String> newEvaluateFalseReasonKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateFalseReasonKey);
+    }
+
+    @Override
+    public IEvaluateGeneric<String> newEvaluateTrueReason() {
+        return MemoizedExpression.newScope(delegate::newEvaluateTrueReason);
+    }
+
+    @Override
+    public IEvaluateGenericFDate<String> newEvaluateTrueReasonFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateTrueReasonFDate);
+    }
+
+    @Override
+    public IEvaluateGenericKey<String> newEvaluateTrueReasonKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateTrueReasonKey);
+    }
+
+    @Override
+    public IEvaluateGeneric<String> newEvaluateNullReason() {
+        return MemoizedExpression.newScope(delegate::newEvaluateNullReason);
+    }
+
+    @Override
+    public IEvaluateGenericFDate<String> newEvaluateNullReasonFDate() {
+        return MemoizedExpression.newScope(delegate::newEvaluateNullReasonFDate);
+    }
+
+    @Override
+    public IEvaluateGenericKey<String> newEvaluateNullReasonKey() {
+        return MemoizedExpression.newScope(delegate::newEvaluateNullReasonKey);
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+}
@@ -0,0 +1,349 @@
+package de.invesdwin.util.math.expression.eval;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.math.expression.ADelegateExpression;
+import de.invesdwin.util.math.expression.ExpressionType;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.time.fdate.IFDateProvider;
+import io.netty.util.concurrent.FastThreadLocal;
+
+/**
+ * Wraps a subexpression that is referenced from multiple parents (see CommonSubexpressionElimination). While an
+ * evaluator is being created inside a MemoizationScopeExpression, all parents get the same evaluator instance which
+ * remembers the last key and value. Thus the subexpression is only calculated once per key.
+ *
+ * Outside of a scope the evaluators of the delegate are returned as they are.
+ *
+ * The memoizing evaluators are not thread safe, just like the evaluator tree they belong to.
+ */
+@Immutable
+public class MemoizedExpression extends ADelegateExpression implements IParsedExpression {
+
+    private static final int SLOT_DOUBLE_KEY = 0;
+    private static final int SLOT_INTEGER_KEY = 1;
+    private static final int SLOT_BOOLEAN_KEY = 2;
+    private static final int SLOT_BOOLEAN_NULLABLE_KEY = 3;
+    private static final int SLOT_DOUBLE_FDATE = 4;
+    private static final int SLOT_INTEGER_FDATE = 5;
+    private static final int SLOT_BOOLEAN_FDATE = 6;
+    private static final int SLOT_BOOLEAN_NULLABLE_FDATE = 7;
+    private static final int SLOTS_COUNT = 8;
+
+    private static final FastThreadLocal<Map<MemoizedExpression, Object[]>> SCOPE = new FastThreadLocal<>();
+
+    private final IParsedExpression delegate;
+
+    public MemoizedExpression(final IParsedExpression delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    protected IParsedExpression getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public ExpressionType getType() {
+        return delegate.getType();
+    }
+
+    @Override
+    public IParsedExpression simplify() {
+        final IParsedExpression simplified = delegate.simplify();
+        if (simplified == delegate) {
+            return this;
+        } else if (simplified.isConstant()) {
+            return simplified;
+        } else {
+            return new MemoizedExpression(simplified);
+        }
+    }
+
+    @Override
+    public IParsedExpression asParsedExpression() {
+        return this;
+    }
+
+    /**
+     * Evaluators created by the factory share the memoizing evaluators of this thread until the outermost scope is
+     * finished.
+     */
+    static <T> T newScope(final Supplier<T> factory) {
+        if (SCOPE.get() != null) {
+            return factory.get();
+        }
+        SCOPE.set(new IdentityHashMap<MemoizedExpression, Object[]>());
+        try {
+            return factory.get();
+        } finally {
+            SCOPE.remove();
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T getOrCreate(final int slot, final Supplier<T> factory) {
+        final Map<MemoizedExpression, Object[]> scope = SCOPE.get();
+        if (scope == null) {
+            return null;
+        }
+        Object[] slots = scope.get(this);
+        if (slots == null) {
+            slots = new Object[SLOTS_COUNT];
+            scope.put(this, slots);
+        }
+        Object evaluator = slots[slot];
+        if (evaluator == null) {
+            evaluator = factory.get();
+            slots[slot] = evaluator;
+        }
+        return (T) evaluator;
+    }
+
+    @Override
+    public IEvaluateDoubleKey newEvaluateDoubleKey() {
+        final IEvaluateDoubleKey memoized = getOrCreate(SLOT_DOUBLE_KEY, this::newMemoizedEvaluateDoubleKey);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateDoubleKey();
+    }
+
+    private IEvaluateDoubleKey newMemoizedEvaluateDoubleKey() {
+        final IEvaluateDoubleKey f = delegate.newEvaluateDoubleKey();
+        return new IEvaluateDoubleKey() {
+            private boolean cached;
+            private int cachedKey;
+            private double cachedValue;
+
+            @Override
+            public double evaluateDouble(final int key) {
+                if (!cached || cachedKey != key) {
+                    cachedValue = f.evaluateDouble(key);
+                    cachedKey = key;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateIntegerKey newEvaluateIntegerKey() {
+        final IEvaluateIntegerKey memoized = getOrCreate(SLOT_INTEGER_KEY, this::newMemoizedEvaluateIntegerKey);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateIntegerKey();
+    }
+
+    private IEvaluateIntegerKey newMemoizedEvaluateIntegerKey() {
+        final IEvaluateIntegerKey f = delegate.newEvaluateIntegerKey();
+        return new IEvaluateIntegerKey() {
+            private boolean cached;
+            private int cachedKey;
+            private int cachedValue;
+
+            @Override
+            public int evaluateInteger(final int key) {
+                if (!cached || cachedKey != key) {
+                    cachedValue = f.evaluateInteger(key);
+                    cachedKey = key;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateBooleanKey newEvaluateBooleanKey() {
+        final IEvaluateBooleanKey memoized = getOrCreate(SLOT_BOOLEAN_KEY, this::newMemoizedEvaluateBooleanKey);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateBooleanKey();
+    }
+
+    private IEvaluateBooleanKey newMemoizedEvaluateBooleanKey() {
+        final IEvaluateBooleanKey f = delegate.newEvaluateBooleanKey();
+        return new IEvaluateBooleanKey() {
+            private boolean cached;
+            private int cachedKey;
+            private boolean cachedValue;
+
+            @Override
+            public boolean evaluateBoolean(final int key) {
+                if (!cached || cachedKey != key) {
+                    cachedValue = f.evaluateBoolean(key);
+                    cachedKey = key;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateBooleanNullableKey newEvaluateBooleanNullableKey() {
+        final IEvaluateBooleanNullableKey memoized = getOrCreate(SLOT_BOOLEAN_NULLABLE_KEY,
+                this::newMemoizedEvaluateBooleanNullableKey);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateBooleanNullableKey();
+    }
+
+    private IEvaluateBooleanNullableKey newMemoizedEvaluateBooleanNullableKey() {
+        final IEvaluateBooleanNullableKey f = delegate.newEvaluateBooleanNullableKey();
+        return new IEvaluateBooleanNullableKey() {
+            private boolean cached;
+            private int cachedKey;
+            private Boolean cachedValue;
+
+            @Override
+            public Boolean evaluateBooleanNullable(final int key) {
+                if (!cached || cachedKey != key) {
+                    cachedValue = f.evaluateBooleanNullable(key);
+                    cachedKey = key;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateDoubleFDate newEvaluateDoubleFDate() {
+        final IEvaluateDoubleFDate memoized = getOrCreate(SLOT_DOUBLE_FDATE, this::newMemoizedEvaluateDoubleFDate);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateDoubleFDate();
+    }
+
+    private IEvaluateDoubleFDate newMemoizedEvaluateDoubleFDate() {
+        final IEvaluateDoubleFDate f = delegate.newEvaluateDoubleFDate();
+        return new IEvaluateDoubleFDate() {
+            private boolean cached;
+            private long cachedKey;
+            private double cachedValue;
+
+            @Override
+            public double evaluateDouble(final IFDateProvider key) {
+                final long millis = key.asFDate().millisValue();
+                if (!cached || cachedKey != millis) {
+                    cachedValue = f.evaluateDouble(key);
+                    cachedKey = millis;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateIntegerFDate newEvaluateIntegerFDate() {
+        final IEvaluateIntegerFDate memoized = getOrCreate(SLOT_INTEGER_FDATE, this::newMemoizedEvaluateIntegerFDate);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateIntegerFDate();
+    }
+
+    private IEvaluateIntegerFDate newMemoizedEvaluateIntegerFDate() {
+        final IEvaluateIntegerFDate f = delegate.newEvaluateIntegerFDate();
+        return new IEvaluateIntegerFDate() {
+            private boolean cached;
+            private long cachedKey;
+            private int cachedValue;
+
+            @Override
+            public int evaluateInteger(final IFDateProvider key) {
+                final long millis = key.asFDate().millisValue();
+                if (!cached || cachedKey != millis) {
+                    cachedValue = f.evaluateInteger(key);
+                    cachedKey = millis;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateBooleanFDate newEvaluateBooleanFDate() {
+        final IEvaluateBooleanFDate memoized = getOrCreate(SLOT_BOOLEAN_FDATE, this::newMemoizedEvaluateBooleanFDate);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateBooleanFDate();
+    }
+
+    private IEvaluateBooleanFDate newMemoizedEvaluateBooleanFDate() {
+        final IEvaluateBooleanFDate f = delegate.newEvaluateBooleanFDate();
+        return new IEvaluateBooleanFDate() {
+            private boolean cached;
+            private long cachedKey;
+            private boolean cachedValue;
+
+            @Override
+            public boolean evaluateBoolean(final IFDateProvider key) {
+                final long millis = key.asFDate().millisValue();
+                if (!cached || cachedKey != millis) {
+                    cachedValue = f.evaluateBoolean(key);
+                    cachedKey = millis;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public IEvaluateBooleanNullableFDate newEvaluateBooleanNullableFDate() {
+        final IEvaluateBooleanNullableFDate memoized = getOrCreate(SLOT_BOOLEAN_NULLABLE_FDATE,
+                this::newMemoizedEvaluateBooleanNullableFDate);
+        if (memoized != null) {
+            return memoized;
+        }
+        return delegate.newEvaluateBooleanNullableFDate();
+    }
+
+    private IEvaluateBooleanNullableFDate newMemoizedEvaluateBooleanNullableFDate() {
+        final IEvaluateBooleanNullableFDate f = delegate.newEvaluateBooleanNullableFDate();
+        return new IEvaluateBooleanNullableFDate() {
+            private boolean cached;
+            private long cachedKey;
+            private Boolean cachedValue;
+
+            @Override
+            public Boolean evaluateBooleanNullable(final IFDateProvider key) {
+                final long millis = key.asFDate().millisValue();
+                if (!cached || cachedKey != millis) {
+                    cachedValue = f.evaluateBooleanNullable(key);
+                    cachedKey = millis;
+                    cached = true;
+                }
+                return cachedValue;
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return delegate.toString();
+    }
+
+}
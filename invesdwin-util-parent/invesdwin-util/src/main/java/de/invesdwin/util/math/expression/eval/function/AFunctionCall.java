@@ -70,6 +70,10 @@ public abstract class AFunctionCall<F extends AFunction> implements IParsedExpre
         return parameters;
     }
 
+    public AFunctionCall<F> setParameters(final IParsedExpression[] parameters) {
+        return newFunctionCall(context, function, parameters);
+    }
+
     @Override
     public boolean isConstant() {
         return false;
@@ -9,6 +9,7 @@ import de.invesdwin.util.math.expression.function.ABooleanFunction;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
@@ -193,6 +194,11 @@ public class BooleanFunctionCall extends AFunctionCall<ABooleanFunction> {
         return function.newEvaluateBooleanKey(getContext(), parameters);
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return function.newEvaluateBooleanKeyRange(getContext(), parameters);
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         return function.newEvaluateBoolean(getContext(), parameters);
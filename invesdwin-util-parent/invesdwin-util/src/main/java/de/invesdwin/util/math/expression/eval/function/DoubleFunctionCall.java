@@ -11,12 +11,14 @@ import de.invesdwin.util.math.expression.function.ADoubleFunction;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
@@ -50,6 +52,11 @@ public class DoubleFunctionCall extends AFunctionCall<ADoubleFunction> {
         return function.newEvaluateDoubleKey(getContext(), parameters);
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return function.newEvaluateDoubleKeyRange(getContext(), parameters);
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         return function.newEvaluateDouble(getContext(), parameters);
@@ -103,6 +110,20 @@ public class DoubleFunctionCall extends AFunctionCall<ADoubleFunction> {
         return key -> Doubles.toBoolean(f.evaluateDouble(key));
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        final IEvaluateDoubleKeyRange f = newEvaluateDoubleKeyRange();
+        return (fromKey, toKey, out) -> {
+            final double[] values = new double[toKey - fromKey + 1];
+            f.evaluateDouble(fromKey, toKey, values);
+            for (int i = 0; i < values.length; i++) {
+                if (Doubles.toBoolean(values[i])) {
+                    out.add(i);
+                }
+            }
+        };
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateDouble f = newEvaluateDouble();
@@ -8,6 +8,7 @@ import de.invesdwin.util.math.expression.function.AIntegerFunction;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
@@ -20,6 +21,7 @@ import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 @NotThreadSafe
 public class IntegerFunctionCall extends AFunctionCall<AIntegerFunction> {
@@ -48,6 +50,11 @@ public class IntegerFunctionCall extends AFunctionCall<AIntegerFunction> {
         return function.newEvaluateIntegerKey(getContext(), parameters);
     }
 
+    @Override
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        return function.newEvaluateIntegerKeyRange(getContext(), parameters);
+    }
+
     @Override
     public IEvaluateInteger newEvaluateInteger() {
         return function.newEvaluateInteger(getContext(), parameters);
@@ -101,6 +108,20 @@ public class IntegerFunctionCall extends AFunctionCall<AIntegerFunction> {
         return key -> Integers.toBoolean(f.evaluateInteger(key));
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        final IEvaluateIntegerKeyRange f = newEvaluateIntegerKeyRange();
+        return (fromKey, toKey, out) -> {
+            final int[] values = new int[toKey - fromKey + 1];
+            f.evaluateInteger(fromKey, toKey, values);
+            for (int i = 0; i < values.length; i++) {
+                if (Integers.toBoolean(values[i])) {
+                    out.add(i);
+                }
+            }
+        };
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateInteger f = newEvaluateInteger();
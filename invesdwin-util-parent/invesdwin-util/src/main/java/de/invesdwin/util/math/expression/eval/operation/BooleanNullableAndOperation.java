@@ -14,12 +14,14 @@ import de.invesdwin.util.math.expression.eval.operation.simple.BooleanAndOperati
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
@@ -52,6 +54,11 @@ public class BooleanNullableAndOperation extends DoubleBinaryOperation {
         };
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey());
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         final IEvaluateBooleanNullable f = newEvaluateBooleanNullable();
@@ -144,6 +151,11 @@ public class BooleanNullableAndOperation extends DoubleBinaryOperation {
         return key -> Booleans.isNotFalse(leftF.evaluateBooleanNullable(key)) && rightF.evaluateBoolean(key);
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return IEvaluateBooleanKeyRange.of(newEvaluateBooleanKey());
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBooleanNullable leftF = left.newEvaluateBooleanNullable();
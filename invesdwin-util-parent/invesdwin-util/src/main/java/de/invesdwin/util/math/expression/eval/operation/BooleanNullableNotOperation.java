@@ -13,12 +13,14 @@ import de.invesdwin.util.math.expression.eval.operation.simple.BooleanNotOperati
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
@@ -52,6 +54,11 @@ public class BooleanNullableNotOperation extends DoubleBinaryOperation {
         };
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey());
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         final IEvaluateBooleanNullable f = newEvaluateBooleanNullable();
@@ -127,6 +134,11 @@ public class BooleanNullableNotOperation extends DoubleBinaryOperation {
         return key -> Booleans.isTrue(f.evaluateBooleanNullable(key));
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return IEvaluateBooleanKeyRange.of(newEvaluateBooleanKey());
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBooleanNullable f = newEvaluateBooleanNullable();
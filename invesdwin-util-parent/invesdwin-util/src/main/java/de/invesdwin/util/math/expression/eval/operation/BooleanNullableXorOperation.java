@@ -12,12 +12,14 @@ import de.invesdwin.util.math.expression.eval.operation.simple.BooleanXorOperati
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
@@ -50,6 +52,11 @@ public class BooleanNullableXorOperation extends DoubleBinaryOperation {
         };
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey());
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         final IEvaluateBooleanNullable f = newEvaluateBooleanNullable();
@@ -133,6 +140,11 @@ public class BooleanNullableXorOperation extends DoubleBinaryOperation {
         return key -> Booleans.xor(leftF.evaluateBoolean(key), rightF.evaluateBoolean(key));
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        return IEvaluateBooleanKeyRange.of(newEvaluateBooleanKey());
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBoolean leftF = left.newEvaluateBoolean();
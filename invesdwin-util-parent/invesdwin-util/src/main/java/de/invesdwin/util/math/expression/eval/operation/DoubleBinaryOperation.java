@@ -1,8 +1,11 @@
 // CHECKSTYLE:OFF
 package de.invesdwin.util.math.expression.eval.operation;
 
+import java.util.Arrays;
+
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.collections.bitset.IBitSet;
 import de.invesdwin.util.error.UnknownArgumentException;
 import de.invesdwin.util.lang.Objects;
 import de.invesdwin.util.math.Booleans;
@@ -10,6 +13,7 @@ import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.expression.ExpressionType;
 import de.invesdwin.util.math.expression.IExpression;
+import de.invesdwin.util.math.expression.eval.BooleanConstantExpression;
 import de.invesdwin.util.math.expression.eval.ConstantExpression;
 import de.invesdwin.util.math.expression.eval.IParsedExpression;
 import de.invesdwin.util.math.expression.eval.operation.lambda.IBooleanFromDoublesBinaryOp;
@@ -20,12 +24,14 @@ import de.invesdwin.util.math.expression.eval.operation.simple.IntegerBinaryOper
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
@@ -71,6 +77,11 @@ public class DoubleBinaryOperation implements IBinaryOperation {
         return right;
     }
 
+    @Override
+    public IBinaryOperation setRight(final IParsedExpression right) {
+        return newBinaryOperation(left, right);
+    }
+
     @Override
     public void seal() {
         sealed = true;
@@ -571,6 +582,44 @@ public class DoubleBinaryOperation implements IBinaryOperation {
         }
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        if (left.isConstant() && right.isConstant()) {
+            final double result = newEvaluateDouble().evaluateDouble();
+            return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, result);
+        } else if (left.isConstant()) {
+            final double a = left.newEvaluateDouble().evaluateDouble();
+            if (Doubles.isNaN(a)) {
+                return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, Double.NaN);
+            }
+            final IEvaluateDoubleKeyRange rightF = right.newEvaluateDoubleKeyRange();
+            return (fromKey, toKey, out) -> {
+                rightF.evaluateDouble(fromKey, toKey, out);
+                applyDoubleFromConstantAndDoubles(a, out, toKey - fromKey + 1);
+            };
+        } else if (right.isConstant()) {
+            final IEvaluateDoubleKeyRange leftF = left.newEvaluateDoubleKeyRange();
+            final double b = right.newEvaluateDouble().evaluateDouble();
+            if (Doubles.isNaN(b)) {
+                return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, Double.NaN);
+            }
+            return (fromKey, toKey, out) -> {
+                leftF.evaluateDouble(fromKey, toKey, out);
+                applyDoubleFromDoublesAndConstant(out, b, toKey - fromKey + 1);
+            };
+        } else {
+            final IEvaluateDoubleKeyRange leftF = left.newEvaluateDoubleKeyRange();
+            final IEvaluateDoubleKeyRange rightF = right.newEvaluateDoubleKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                leftF.evaluateDouble(fromKey, toKey, out);
+                final double[] bs = new double[length];
+                rightF.evaluateDouble(fromKey, toKey, bs);
+                applyDoubleFromDoubles(out, bs, length);
+            };
+        }
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         if (left.isConstant() && right.isConstant()) {
@@ -2696,6 +2745,51 @@ public class DoubleBinaryOperation implements IBinaryOperation {
         }
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        if (left.isConstant() && right.isConstant()) {
+            final boolean result = newEvaluateBoolean().evaluateBoolean();
+            return BooleanConstantExpression.valueOf(result).newEvaluateBooleanKeyRange();
+        } else if (left.isConstant()) {
+            final double a = left.newEvaluateDouble().evaluateDouble();
+            if (Doubles.isNaN(a)) {
+                return (fromKey, toKey, out) -> {
+                };
+            }
+            final IEvaluateDoubleKeyRange rightF = right.newEvaluateDoubleKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final double[] bs = new double[length];
+                rightF.evaluateDouble(fromKey, toKey, bs);
+                applyBooleanFromConstantAndDoubles(a, bs, length, out);
+            };
+        } else if (right.isConstant()) {
+            final IEvaluateDoubleKeyRange leftF = left.newEvaluateDoubleKeyRange();
+            final double b = right.newEvaluateDouble().evaluateDouble();
+            if (Doubles.isNaN(b)) {
+                return (fromKey, toKey, out) -> {
+                };
+            }
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final double[] as = new double[length];
+                leftF.evaluateDouble(fromKey, toKey, as);
+                applyBooleanFromDoublesAndConstant(as, b, length, out);
+            };
+        } else {
+            final IEvaluateDoubleKeyRange leftF = left.newEvaluateDoubleKeyRange();
+            final IEvaluateDoubleKeyRange rightF = right.newEvaluateDoubleKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final double[] as = new double[length];
+                leftF.evaluateDouble(fromKey, toKey, as);
+                final double[] bs = new double[length];
+                rightF.evaluateDouble(fromKey, toKey, bs);
+                applyBooleanFromDoubles(as, bs, length, out);
+            };
+        }
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         if (left.isConstant() && right.isConstant()) {
@@ -3164,4 +3258,490 @@ public class DoubleBinaryOperation implements IBinaryOperation {
         return op.getReturnType();
     }
 
+    //the switch is done once per range here so that the loops stay tight
+    private void applyDoubleFromDoubles(final double[] as, final double[] bs, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isGreaterThanNullable(as[i], bs[i]));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isGreaterThanOrEqualToNullable(as[i], bs[i]));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isLessThanNullable(as[i], bs[i]));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isLessThanOrEqualToNullable(as[i], bs[i]));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.equalsNullable(as[i], bs[i]));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.notEqualsNullable(as[i], bs[i]));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.add(as[i], bs[i]);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.subtract(as[i], bs[i]);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.modulo(as[i], bs[i]);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.divide(as[i], bs[i]);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.multiply(as[i], bs[i]);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.pow(as[i], bs[i]);
+            }
+            break;
+        default:
+            final IDoubleFromDoublesBinaryOp opF = op.newDoubleFromDoubles();
+            for (int i = 0; i < length; i++) {
+                as[i] = opF.applyDoubleFromDoubles(as[i], bs[i]);
+            }
+            break;
+        }
+    }
+
+    private void applyDoubleFromConstantAndDoubles(final double a, final double[] bs, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.isGreaterThanNullable(a, bs[i]));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.isGreaterThanOrEqualToNullable(a, bs[i]));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.isLessThanNullable(a, bs[i]));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.isLessThanOrEqualToNullable(a, bs[i]));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.equalsNullable(a, bs[i]));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.fromBoolean(Doubles.notEqualsNullable(a, bs[i]));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.add(a, bs[i]);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.subtract(a, bs[i]);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.modulo(a, bs[i]);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.divide(a, bs[i]);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.multiply(a, bs[i]);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Doubles.pow(a, bs[i]);
+            }
+            break;
+        default:
+            final IDoubleFromDoublesBinaryOp opF = op.newDoubleFromDoubles();
+            for (int i = 0; i < length; i++) {
+                bs[i] = opF.applyDoubleFromDoubles(a, bs[i]);
+            }
+            break;
+        }
+    }
+
+    private void applyDoubleFromDoublesAndConstant(final double[] as, final double b, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isGreaterThanNullable(as[i], b));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isGreaterThanOrEqualToNullable(as[i], b));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isLessThanNullable(as[i], b));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.isLessThanOrEqualToNullable(as[i], b));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.equalsNullable(as[i], b));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.fromBoolean(Doubles.notEqualsNullable(as[i], b));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.add(as[i], b);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.subtract(as[i], b);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.modulo(as[i], b);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.divide(as[i], b);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.multiply(as[i], b);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                as[i] = Doubles.pow(as[i], b);
+            }
+            break;
+        default:
+            final IDoubleFromDoublesBinaryOp opF = op.newDoubleFromDoubles();
+            for (int i = 0; i < length; i++) {
+                as[i] = opF.applyDoubleFromDoubles(as[i], b);
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromDoubles(final double[] as, final double[] bs, final int length, final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThan(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThanOrEqualTo(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThan(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThanOrEqualTo(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.equals(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.notEquals(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.add(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.subtract(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.modulo(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.divide(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.multiply(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromDoublesBinaryOp opF = op.newBooleanFromDoubles();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromDoubles(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromConstantAndDoubles(final double a, final double[] bs, final int length,
+            final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThan(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThanOrEqualTo(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThan(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThanOrEqualTo(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.equals(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.notEquals(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.add(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.subtract(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.modulo(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.divide(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.multiply(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromDoublesBinaryOp opF = op.newBooleanFromDoubles();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromDoubles(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromDoublesAndConstant(final double[] as, final double b, final int length,
+            final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThan(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isGreaterThanOrEqualTo(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThan(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.isLessThanOrEqualTo(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.equals(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.notEquals(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.add(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.subtract(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.modulo(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.divide(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Doubles.toBoolean(Doubles.multiply(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromDoublesBinaryOp opF = op.newBooleanFromDoubles();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromDoubles(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
 }
@@ -2,6 +2,10 @@ package de.invesdwin.util.math.expression.eval.operation.simple;
 
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.collections.bitset.AdaptiveAndSkippingIndexProvider;
+import de.invesdwin.util.collections.bitset.IBitSet;
+import de.invesdwin.util.collections.bitset.ISkippingIndexProvider;
+import de.invesdwin.util.collections.bitset.JavaBitSet;
 import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.expression.ExpressionType;
@@ -10,6 +14,7 @@ import de.invesdwin.util.math.expression.eval.operation.BooleanNullableAndOperat
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
@@ -26,6 +31,8 @@ import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
 @Immutable
 public class BooleanAndOperation extends BooleanNullableAndOperation {
 
+    private static final int INDEXES_BUFFER_SIZE = 1024;
+
     public BooleanAndOperation(final IParsedExpression left, final IParsedExpression right) {
         super(left, right);
     }
@@ -116,6 +123,37 @@ public class BooleanAndOperation extends BooleanNullableAndOperation {
         return key -> leftF.evaluateBoolean(key) && rightF.evaluateBoolean(key);
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        final IEvaluateBooleanKeyRange leftF = left.newEvaluateBooleanKeyRange();
+        final IEvaluateBooleanKeyRange rightF = right.newEvaluateBooleanKeyRange();
+        return (fromKey, toKey, out) -> {
+            final int length = toKey - fromKey + 1;
+            final IBitSet leftValues = new JavaBitSet(length);
+            leftF.evaluateBoolean(fromKey, toKey, leftValues);
+            if (leftValues.isEmpty()) {
+                //short circuit
+                return;
+            }
+            final IBitSet rightValues = new JavaBitSet(length);
+            rightF.evaluateBoolean(fromKey, toKey, rightValues);
+            //driven by the sparser side
+            final ISkippingIndexProvider indexes = new AdaptiveAndSkippingIndexProvider(leftValues, rightValues);
+            final int[] buffer = new int[Math.min(length, INDEXES_BUFFER_SIZE)];
+            int next = 0;
+            while (true) {
+                final int count = indexes.next(next, length, buffer);
+                for (int i = 0; i < count; i++) {
+                    out.add(buffer[i]);
+                }
+                if (count < buffer.length) {
+                    break;
+                }
+                next = buffer[count - 1] + 1;
+            }
+        };
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBoolean leftF = left.newEvaluateBoolean();
@@ -2,6 +2,8 @@ package de.invesdwin.util.math.expression.eval.operation.simple;
 
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.collections.bitset.IBitSet;
+import de.invesdwin.util.collections.bitset.JavaBitSet;
 import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.expression.ExpressionType;
@@ -10,6 +12,7 @@ import de.invesdwin.util.math.expression.eval.operation.BooleanNullableNotOperat
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
@@ -118,6 +121,21 @@ public class BooleanNotOperation extends BooleanNullableNotOperation {
         return key -> !rightF.evaluateBoolean(key);
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        final IEvaluateBooleanKeyRange rightF = right.newEvaluateBooleanKeyRange();
+        return (fromKey, toKey, out) -> {
+            final int length = toKey - fromKey + 1;
+            final IBitSet rightValues = new JavaBitSet(length);
+            rightF.evaluateBoolean(fromKey, toKey, rightValues);
+            for (int i = 0; i < length; i++) {
+                if (!rightValues.contains(i)) {
+                    out.add(i);
+                }
+            }
+        };
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBoolean rightF = right.newEvaluateBoolean();
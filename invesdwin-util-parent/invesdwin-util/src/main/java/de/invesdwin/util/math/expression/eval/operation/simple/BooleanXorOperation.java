@@ -2,6 +2,9 @@ package de.invesdwin.util.math.expression.eval.operation.simple;
 
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.collections.bitset.IBitSet;
+import de.invesdwin.util.collections.bitset.ISkippingIndexProvider;
+import de.invesdwin.util.collections.bitset.JavaBitSet;
 import de.invesdwin.util.math.Booleans;
 import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.Integers;
@@ -11,6 +14,7 @@ import de.invesdwin.util.math.expression.eval.operation.BooleanNullableXorOperat
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
@@ -117,6 +121,26 @@ public class BooleanXorOperation extends BooleanNullableXorOperation {
         return key -> Booleans.xor(leftF.evaluateBoolean(key), rightF.evaluateBoolean(key));
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        final IEvaluateBooleanKeyRange leftF = left.newEvaluateBooleanKeyRange();
+        final IEvaluateBooleanKeyRange rightF = right.newEvaluateBooleanKeyRange();
+        return (fromKey, toKey, out) -> {
+            final int length = toKey - fromKey + 1;
+            final IBitSet leftValues = new JavaBitSet(length);
+            leftF.evaluateBoolean(fromKey, toKey, leftValues);
+            final IBitSet rightValues = new JavaBitSet(length);
+            rightF.evaluateBoolean(fromKey, toKey, rightValues);
+            leftValues.xorInPlace(rightValues);
+            final ISkippingIndexProvider indexes = leftValues.newSkippingIndexProvider();
+            int i = indexes.next(0);
+            while (i < length) {
+                out.add(i);
+                i = indexes.next(i + 1);
+            }
+        };
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         final IEvaluateBoolean leftF = left.newEvaluateBoolean();
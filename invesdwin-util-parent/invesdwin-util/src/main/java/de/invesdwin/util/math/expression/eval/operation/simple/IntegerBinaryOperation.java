@@ -1,10 +1,14 @@
 // CHECKSTYLE:OFF
 package de.invesdwin.util.math.expression.eval.operation.simple;
 
+import java.util.Arrays;
+
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.collections.bitset.IBitSet;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.expression.ExpressionType;
+import de.invesdwin.util.math.expression.eval.BooleanConstantExpression;
 import de.invesdwin.util.math.expression.eval.IParsedExpression;
 import de.invesdwin.util.math.expression.eval.operation.DoubleBinaryOperation;
 import de.invesdwin.util.math.expression.eval.operation.Op;
@@ -15,18 +19,21 @@ import de.invesdwin.util.math.expression.eval.operation.lambda.IIntegerFromInteg
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullable;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanNullableKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGeneric;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateGenericKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 /**
  * We flatten the operations here so that they become simpler for the JIT so they get inlined/optimized more
@@ -517,6 +524,12 @@ public class IntegerBinaryOperation extends DoubleBinaryOperation {
         }
     }
 
+    @Override
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange() {
+        //the double results of integer operations differ (e.g. for divisions), thus don't use the inherited arrays
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey());
+    }
+
     @Override
     public IEvaluateDouble newEvaluateDouble() {
         if (left.isConstant() && right.isConstant()) {
@@ -1234,6 +1247,38 @@ public class IntegerBinaryOperation extends DoubleBinaryOperation {
         }
     }
 
+    @Override
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange() {
+        if (left.isConstant() && right.isConstant()) {
+            final int result = newEvaluateInteger().evaluateInteger();
+            return (fromKey, toKey, out) -> Arrays.fill(out, 0, toKey - fromKey + 1, result);
+        } else if (left.isConstant()) {
+            final int a = left.newEvaluateInteger().evaluateInteger();
+            final IEvaluateIntegerKeyRange rightF = right.newEvaluateIntegerKeyRange();
+            return (fromKey, toKey, out) -> {
+                rightF.evaluateInteger(fromKey, toKey, out);
+                applyIntegerFromConstantAndIntegers(a, out, toKey - fromKey + 1);
+            };
+        } else if (right.isConstant()) {
+            final IEvaluateIntegerKeyRange leftF = left.newEvaluateIntegerKeyRange();
+            final int b = right.newEvaluateInteger().evaluateInteger();
+            return (fromKey, toKey, out) -> {
+                leftF.evaluateInteger(fromKey, toKey, out);
+                applyIntegerFromIntegersAndConstant(out, b, toKey - fromKey + 1);
+            };
+        } else {
+            final IEvaluateIntegerKeyRange leftF = left.newEvaluateIntegerKeyRange();
+            final IEvaluateIntegerKeyRange rightF = right.newEvaluateIntegerKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                leftF.evaluateInteger(fromKey, toKey, out);
+                final int[] bs = new int[length];
+                rightF.evaluateInteger(fromKey, toKey, bs);
+                applyIntegerFromIntegers(out, bs, length);
+            };
+        }
+    }
+
     @Override
     public IEvaluateInteger newEvaluateInteger() {
         if (left.isConstant() && right.isConstant()) {
@@ -2588,6 +2633,43 @@ public class IntegerBinaryOperation extends DoubleBinaryOperation {
         }
     }
 
+    @Override
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange() {
+        if (left.isConstant() && right.isConstant()) {
+            final boolean result = newEvaluateBoolean().evaluateBoolean();
+            return BooleanConstantExpression.valueOf(result).newEvaluateBooleanKeyRange();
+        } else if (left.isConstant()) {
+            final int a = left.newEvaluateInteger().evaluateInteger();
+            final IEvaluateIntegerKeyRange rightF = right.newEvaluateIntegerKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final int[] bs = new int[length];
+                rightF.evaluateInteger(fromKey, toKey, bs);
+                applyBooleanFromConstantAndIntegers(a, bs, length, out);
+            };
+        } else if (right.isConstant()) {
+            final IEvaluateIntegerKeyRange leftF = left.newEvaluateIntegerKeyRange();
+            final int b = right.newEvaluateInteger().evaluateInteger();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final int[] as = new int[length];
+                leftF.evaluateInteger(fromKey, toKey, as);
+                applyBooleanFromIntegersAndConstant(as, b, length, out);
+            };
+        } else {
+            final IEvaluateIntegerKeyRange leftF = left.newEvaluateIntegerKeyRange();
+            final IEvaluateIntegerKeyRange rightF = right.newEvaluateIntegerKeyRange();
+            return (fromKey, toKey, out) -> {
+                final int length = toKey - fromKey + 1;
+                final int[] as = new int[length];
+                leftF.evaluateInteger(fromKey, toKey, as);
+                final int[] bs = new int[length];
+                rightF.evaluateInteger(fromKey, toKey, bs);
+                applyBooleanFromIntegers(as, bs, length, out);
+            };
+        }
+    }
+
     @Override
     public IEvaluateBoolean newEvaluateBoolean() {
         if (left.isConstant() && right.isConstant()) {
@@ -2906,4 +2988,488 @@ public class IntegerBinaryOperation extends DoubleBinaryOperation {
         return op.getSimplifiedReturnType();
     }
 
+    //the switch is done once per range here so that the loops stay tight
+    private void applyIntegerFromIntegers(final int[] as, final int[] bs, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isGreaterThan(as[i], bs[i]));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isGreaterThanOrEqualTo(as[i], bs[i]));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isLessThan(as[i], bs[i]));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isLessThanOrEqualTo(as[i], bs[i]));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.equals(as[i], bs[i]));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.notEquals(as[i], bs[i]));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.add(as[i], bs[i]);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.subtract(as[i], bs[i]);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.modulo(as[i], bs[i]);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.divide(as[i], bs[i]);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.multiply(as[i], bs[i]);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.pow(as[i], bs[i]);
+            }
+            break;
+        default:
+            final IIntegerFromIntegersBinaryOp opF = op.newIntegerFromIntegers();
+            for (int i = 0; i < length; i++) {
+                as[i] = opF.applyIntegerFromIntegers(as[i], bs[i]);
+            }
+            break;
+        }
+    }
+
+    private void applyIntegerFromConstantAndIntegers(final int a, final int[] bs, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.isGreaterThan(a, bs[i]));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.isGreaterThanOrEqualTo(a, bs[i]));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.isLessThan(a, bs[i]));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.isLessThanOrEqualTo(a, bs[i]));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.equals(a, bs[i]));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.fromBoolean(Integers.notEquals(a, bs[i]));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.add(a, bs[i]);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.subtract(a, bs[i]);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.modulo(a, bs[i]);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.divide(a, bs[i]);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.multiply(a, bs[i]);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                bs[i] = Integers.pow(a, bs[i]);
+            }
+            break;
+        default:
+            final IIntegerFromIntegersBinaryOp opF = op.newIntegerFromIntegers();
+            for (int i = 0; i < length; i++) {
+                bs[i] = opF.applyIntegerFromIntegers(a, bs[i]);
+            }
+            break;
+        }
+    }
+
+    private void applyIntegerFromIntegersAndConstant(final int[] as, final int b, final int length) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isGreaterThan(as[i], b));
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isGreaterThanOrEqualTo(as[i], b));
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isLessThan(as[i], b));
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.isLessThanOrEqualTo(as[i], b));
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.equals(as[i], b));
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.fromBoolean(Integers.notEquals(as[i], b));
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.add(as[i], b);
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.subtract(as[i], b);
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.modulo(as[i], b);
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.divide(as[i], b);
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.multiply(as[i], b);
+            }
+            break;
+        case POWER:
+            for (int i = 0; i < length; i++) {
+                as[i] = Integers.pow(as[i], b);
+            }
+            break;
+        default:
+            final IIntegerFromIntegersBinaryOp opF = op.newIntegerFromIntegers();
+            for (int i = 0; i < length; i++) {
+                as[i] = opF.applyIntegerFromIntegers(as[i], b);
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromIntegers(final int[] as, final int[] bs, final int length, final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThan(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThanOrEqualTo(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThan(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThanOrEqualTo(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.equals(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.notEquals(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.add(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.subtract(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.modulo(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.divide(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.multiply(as[i], bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromIntegersBinaryOp opF = op.newBooleanFromIntegers();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromIntegers(as[i], bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromConstantAndIntegers(final int a, final int[] bs, final int length, final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThan(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThanOrEqualTo(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThan(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThanOrEqualTo(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.equals(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.notEquals(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.add(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.subtract(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.modulo(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.divide(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.multiply(a, bs[i]))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromIntegersBinaryOp opF = op.newBooleanFromIntegers();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromIntegers(a, bs[i])) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
+    private void applyBooleanFromIntegersAndConstant(final int[] as, final int b, final int length, final IBitSet out) {
+        switch (op) {
+        case GT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThan(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case GT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isGreaterThanOrEqualTo(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThan(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case LT_EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.isLessThanOrEqualTo(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case EQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.equals(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case NEQ:
+            for (int i = 0; i < length; i++) {
+                if (Integers.notEquals(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        case ADD:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.add(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case SUBTRACT:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.subtract(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MODULO:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.modulo(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case DIVIDE:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.divide(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        case MULTIPLY:
+            for (int i = 0; i < length; i++) {
+                if (Integers.toBoolean(Integers.multiply(as[i], b))) {
+                    out.add(i);
+                }
+            }
+            break;
+        default:
+            final IBooleanFromIntegersBinaryOp opF = op.newBooleanFromIntegers();
+            for (int i = 0; i < length; i++) {
+                if (opF.applyBooleanFromIntegers(as[i], b)) {
+                    out.add(i);
+                }
+            }
+            break;
+        }
+    }
+
 }
@@ -10,6 +10,7 @@ import de.invesdwin.util.math.expression.eval.function.BooleanFunctionCall;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKeyRange;
 
 @NotThreadSafe
 public abstract class ABooleanFunction extends AFunction {
@@ -18,6 +19,13 @@ public abstract class ABooleanFunction extends AFunction {
 
     public abstract IEvaluateBooleanKey newEvaluateBooleanKey(String context, IExpression[] args);
 
+    /**
+     * Override this to calculate the values for a range of keys in one go (e.g. with running aggregates).
+     */
+    public IEvaluateBooleanKeyRange newEvaluateBooleanKeyRange(final String context, final IExpression[] args) {
+        return IEvaluateBooleanKeyRange.of(newEvaluateBooleanKey(context, args));
+    }
+
     public abstract IEvaluateBoolean newEvaluateBoolean(String context, IExpression[] args);
 
     @Override
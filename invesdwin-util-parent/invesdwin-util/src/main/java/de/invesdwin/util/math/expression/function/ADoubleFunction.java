@@ -10,6 +10,7 @@ import de.invesdwin.util.math.expression.eval.function.DoubleFunctionCall;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKeyRange;
 
 @NotThreadSafe
 public abstract class ADoubleFunction extends AFunction {
@@ -18,6 +19,13 @@ public abstract class ADoubleFunction extends AFunction {
 
     public abstract IEvaluateDoubleKey newEvaluateDoubleKey(String context, IExpression[] args);
 
+    /**
+     * Override this to calculate the values for a range of keys in one go (e.g. with running aggregates).
+     */
+    public IEvaluateDoubleKeyRange newEvaluateDoubleKeyRange(final String context, final IExpression[] args) {
+        return IEvaluateDoubleKeyRange.of(newEvaluateDoubleKey(context, args));
+    }
+
     public abstract IEvaluateDouble newEvaluateDouble(String context, IExpression[] args);
 
     @Override
@@ -10,6 +10,7 @@ import de.invesdwin.util.math.expression.eval.function.IntegerFunctionCall;
 import de.invesdwin.util.math.expression.lambda.IEvaluateInteger;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateIntegerKeyRange;
 
 @NotThreadSafe
 public abstract class AIntegerFunction extends AFunction {
@@ -18,6 +19,13 @@ public abstract class AIntegerFunction extends AFunction {
 
     public abstract IEvaluateIntegerKey newEvaluateIntegerKey(String context, IExpression[] args);
 
+    /**
+     * Override this to calculate the values for a range of keys in one go (e.g. with running aggregates).
+     */
+    public IEvaluateIntegerKeyRange newEvaluateIntegerKeyRange(final String context, final IExpression[] args) {
+        return IEvaluateIntegerKeyRange.of(newEvaluateIntegerKey(context, args));
+    }
+
     public abstract IEvaluateInteger newEvaluateInteger(String context, IExpression[] args);
 
     @Override
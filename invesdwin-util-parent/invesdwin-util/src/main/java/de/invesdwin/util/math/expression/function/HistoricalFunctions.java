@@ -2,12 +2,16 @@ package de.invesdwin.util.math.expression.function;
 
 import javax.annotation.concurrent.Immutable;
 
+import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.expression.ExpressionReturnType;
 import de.invesdwin.util.math.expression.IExpression;
 import de.invesdwin.util.math.expression.IFunctionParameterInfo;
 import de.invesdwin.util.math.expression.eval.operation.IBinaryOperation;
 import de.invesdwin.util.math.expression.eval.operation.lambda.IBooleanFromDoublesBinaryOp;
 import de.invesdwin.util.math.expression.eval.operation.lambda.IBooleanNullableFromDoublesBinaryOp;
+import de.invesdwin.util.math.expression.function.window.BooleanWindowAggregate;
+import de.invesdwin.util.math.expression.function.window.SlidingWindowFDate;
+import de.invesdwin.util.math.expression.function.window.SlidingWindowKey;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBoolean;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
@@ -321,19 +325,29 @@ public final class HistoricalFunctions {
                     public IEvaluateBooleanKey newEvaluateBooleanKey(final String context, final IExpression[] args) {
                         final IEvaluateBooleanNullableKey conditionF = args[0].newEvaluateBooleanNullableKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final Boolean result = conditionF.evaluateBooleanNullable(curKey);
-                                if (result != null && !result) {
-                                    return false;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final Boolean result = conditionF.evaluateBooleanNullable(curKey);
+                                    if (result != null && !result) {
+                                        return false;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return true;
+                                return true;
+                            };
+                        }
+                        final IEvaluateDoubleKey valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBooleanNullable(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, valueF, aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getFalseCount() == 0;
                         };
                     }
 
@@ -342,19 +356,30 @@ public final class HistoricalFunctions {
                             final IExpression[] args) {
                         final IEvaluateBooleanNullableFDate conditionF = args[0].newEvaluateBooleanNullableFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final Boolean result = conditionF.evaluateBooleanNullable(curKey);
-                                if (result != null && !result) {
-                                    return false;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final Boolean result = conditionF.evaluateBooleanNullable(curKey);
+                                    if (result != null && !result) {
+                                        return false;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return true;
+                                return true;
+                            };
+                        }
+                        final IEvaluateDoubleFDate valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBooleanNullable(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, valueF,
+                                aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getFalseCount() == 0;
                         };
                     }
                 };
@@ -511,22 +536,32 @@ public final class HistoricalFunctions {
                     public IEvaluateIntegerKey newEvaluateIntegerKey(final String context, final IExpression[] args) {
                         final IEvaluateBooleanNullableKey conditionF = args[0].newEvaluateBooleanNullableKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int stableCount = 0;
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final Boolean result = conditionF.evaluateBooleanNullable(curKey);
-                                if (result != null && !result) {
-                                    return stableCount;
-                                } else if (result != null && result) {
-                                    stableCount++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int stableCount = 0;
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final Boolean result = conditionF.evaluateBooleanNullable(curKey);
+                                    if (result != null && !result) {
+                                        return stableCount;
+                                    } else if (result != null && result) {
+                                        stableCount++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return stableCount;
+                                return stableCount;
+                            };
+                        }
+                        final IEvaluateDoubleKey valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBooleanNullable(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, valueF, aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCountSinceFalse();
                         };
                     }
 
@@ -535,22 +570,33 @@ public final class HistoricalFunctions {
                             final IExpression[] args) {
                         final IEvaluateBooleanNullableFDate conditionF = args[0].newEvaluateBooleanNullableFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int stableCount = 0;
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final Boolean result = conditionF.evaluateBooleanNullable(curKey);
-                                if (result != null && !result) {
-                                    return stableCount;
-                                } else if (result != null && result) {
-                                    stableCount++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int stableCount = 0;
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final Boolean result = conditionF.evaluateBooleanNullable(curKey);
+                                    if (result != null && !result) {
+                                        return stableCount;
+                                    } else if (result != null && result) {
+                                        stableCount++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return stableCount;
+                                return stableCount;
+                            };
+                        }
+                        final IEvaluateDoubleFDate valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBooleanNullable(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, valueF,
+                                aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCountSinceFalse();
                         };
                     }
                 };
@@ -1544,19 +1590,29 @@ public final class HistoricalFunctions {
                         final IExpression condition = args[0];
                         final IEvaluateBooleanKey conditionF = condition.newEvaluateBooleanKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final boolean result = conditionF.evaluateBoolean(curKey);
-                                if (result) {
-                                    return true;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final boolean result = conditionF.evaluateBoolean(curKey);
+                                    if (result) {
+                                        return true;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return false;
+                                return false;
+                            };
+                        }
+                        final IEvaluateDoubleKey valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBoolean(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, valueF, aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCount() > 0;
                         };
                     }
 
@@ -1566,19 +1622,30 @@ public final class HistoricalFunctions {
                         final IExpression condition = args[0];
                         final IEvaluateBooleanFDate conditionF = condition.newEvaluateBooleanFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final boolean result = conditionF.evaluateBoolean(curKey);
-                                if (result) {
-                                    return true;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final boolean result = conditionF.evaluateBoolean(curKey);
+                                    if (result) {
+                                        return true;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return false;
+                                return false;
+                            };
+                        }
+                        final IEvaluateDoubleFDate valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBoolean(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, valueF,
+                                aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCount() > 0;
                         };
                     }
                 };
@@ -1736,20 +1803,30 @@ public final class HistoricalFunctions {
                         final IExpression condition = args[0];
                         final IEvaluateBooleanKey conditionF = condition.newEvaluateBooleanKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int occursCount = 0;
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final boolean result = conditionF.evaluateBoolean(curKey);
-                                if (result) {
-                                    occursCount++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int occursCount = 0;
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final boolean result = conditionF.evaluateBoolean(curKey);
+                                    if (result) {
+                                        occursCount++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return occursCount;
+                                return occursCount;
+                            };
+                        }
+                        final IEvaluateDoubleKey valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBoolean(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, valueF, aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCount();
                         };
                     }
 
@@ -1759,20 +1836,31 @@ public final class HistoricalFunctions {
                         final IExpression condition = args[0];
                         final IEvaluateBooleanFDate conditionF = condition.newEvaluateBooleanFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
-                        return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int occursCount = 0;
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final boolean result = conditionF.evaluateBoolean(curKey);
-                                if (result) {
-                                    occursCount++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int occursCount = 0;
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final boolean result = conditionF.evaluateBoolean(curKey);
+                                    if (result) {
+                                        occursCount++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
                                 }
-                            }
-                            return occursCount;
+                                return occursCount;
+                            };
+                        }
+                        final IEvaluateDoubleFDate valueF = k -> Doubles
+                                .fromBoolean(conditionF.evaluateBoolean(k));
+                        final BooleanWindowAggregate aggregate = new BooleanWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, valueF,
+                                aggregate);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
+                            return aggregate.getTrueCount();
                         };
                     }
                 };
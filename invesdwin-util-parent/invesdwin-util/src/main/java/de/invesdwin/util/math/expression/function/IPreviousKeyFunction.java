@@ -19,6 +19,16 @@ public interface IPreviousKeyFunction {
 
     int getPreviousKey(int key, int index);
 
+    /**
+     * Return true when each expression is only evaluated by one thread with ascending keys (e.g. during a backtest).
+     * Historical functions like sum, variance, stable or occurs then keep the values of the last window and only slide
+     * it by one value per key instead of evaluating the whole window again. Per default the evaluations are stateless
+     * and can be shared between threads.
+     */
+    default boolean isSequential() {
+        return false;
+    }
+
     default IEvaluateDoubleFDate newEvaluateDoubleFDate(final IParsedExpression expression) {
         return expression.newEvaluateDoubleFDate();
     }
@@ -6,6 +6,11 @@ import de.invesdwin.util.math.Doubles;
 import de.invesdwin.util.math.expression.ExpressionReturnType;
 import de.invesdwin.util.math.expression.IExpression;
 import de.invesdwin.util.math.expression.IFunctionParameterInfo;
+import de.invesdwin.util.math.expression.function.window.QuantileWindowAggregate;
+import de.invesdwin.util.math.expression.function.window.SlidingWindowFDate;
+import de.invesdwin.util.math.expression.function.window.SlidingWindowKey;
+import de.invesdwin.util.math.expression.function.window.SumWindowAggregate;
+import de.invesdwin.util.math.expression.function.window.VarianceWindowAggregate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
 import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
@@ -171,20 +176,28 @@ public final class StatisticalFunctions {
                     public IEvaluateIntegerKey newEvaluateIntegerKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int countNotNan = 0;
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        countNotNan++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return countNotNan;
+                            };
+                        }
+                        final SumWindowAggregate sum = new SumWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, sum);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int countNotNan = 0;
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    countNotNan++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return countNotNan;
+                            window.update(key, countF.evaluateInteger(key));
+                            return sum.getCountNotNaN();
                         };
                     }
 
@@ -193,20 +206,28 @@ public final class StatisticalFunctions {
                             final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                int countNotNan = 0;
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        countNotNan++;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return countNotNan;
+                            };
+                        }
+                        final SumWindowAggregate sum = new SumWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF, sum);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            int countNotNan = 0;
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    countNotNan++;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return countNotNan;
+                            window.update(key, countF.evaluateInteger(key));
+                            return sum.getCountNotNaN();
                         };
                     }
                 };
@@ -363,20 +384,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                double sum = 0D;
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        sum += result;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return sum;
+                            };
+                        }
+                        final SumWindowAggregate sum = new SumWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, sum);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            double sum = 0D;
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    sum += result;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return sum;
+                            window.update(key, countF.evaluateInteger(key));
+                            return sum.getSum();
                         };
                     }
 
@@ -384,20 +413,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                double sum = 0D;
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        sum += result;
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return sum;
+                            };
+                        }
+                        final SumWindowAggregate sum = new SumWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF, sum);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            double sum = 0D;
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    sum += result;
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return sum;
+                            window.update(key, countF.evaluateInteger(key));
+                            return sum.getSum();
                         };
                     }
                 };
@@ -747,19 +784,27 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamVariance variance = new DoubleStreamVariance();
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        variance.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return variance.getVariance();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamVariance variance = new DoubleStreamVariance();
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    variance.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return variance.getVariance();
                         };
                     }
@@ -769,19 +814,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamVariance variance = new DoubleStreamVariance();
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        variance.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return variance.getVariance();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF,
+                                variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamVariance variance = new DoubleStreamVariance();
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    variance.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return variance.getVariance();
                         };
                     }
@@ -939,19 +993,27 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamVariance variance = new DoubleStreamVariance();
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        variance.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return variance.getSampleVariance();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamVariance variance = new DoubleStreamVariance();
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    variance.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return variance.getSampleVariance();
                         };
                     }
@@ -960,19 +1022,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
-                        return key1 -> {
-                            final int count = countF.evaluateInteger(key1);
-                            final DoubleStreamVariance variance = new DoubleStreamVariance();
-                            IFDateProvider curKey = key1;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    variance.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                        if (!previousKeyFunction.isSequential()) {
+                            return key1 -> {
+                                final int count = countF.evaluateInteger(key1);
+                                final DoubleStreamVariance variance = new DoubleStreamVariance();
+                                IFDateProvider curKey = key1;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        variance.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return variance.getSampleVariance();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF,
+                                variance);
+                        return key -> {
+                            window.update(key, countF.evaluateInteger(key));
                             return variance.getSampleVariance();
                         };
                     }
@@ -1132,20 +1203,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        standardDeviation.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return standardDeviation.getStandardDeviation();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    standardDeviation.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return standardDeviation.getStandardDeviation();
+                            window.update(key, countF.evaluateInteger(key));
+                            return variance.getStandardDeviation();
                         };
                     }
 
@@ -1154,20 +1233,29 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        standardDeviation.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return standardDeviation.getStandardDeviation();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF,
+                                variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    standardDeviation.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return standardDeviation.getStandardDeviation();
+                            window.update(key, countF.evaluateInteger(key));
+                            return variance.getStandardDeviation();
                         };
                     }
                 };
@@ -1324,20 +1412,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        standardDeviation.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return standardDeviation.getSampleStandardDeviation();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    standardDeviation.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return standardDeviation.getSampleStandardDeviation();
+                            window.update(key, countF.evaluateInteger(key));
+                            return variance.getSampleStandardDeviation();
                         };
                     }
 
@@ -1345,20 +1441,29 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        standardDeviation.process(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return standardDeviation.getSampleStandardDeviation();
+                            };
+                        }
+                        final VarianceWindowAggregate variance = new VarianceWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF,
+                                variance);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final DoubleStreamStdev standardDeviation = new DoubleStreamStdev();
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    standardDeviation.process(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
-                            return standardDeviation.getSampleStandardDeviation();
+                            window.update(key, countF.evaluateInteger(key));
+                            return variance.getSampleStandardDeviation();
                         };
                     }
                 };
@@ -1515,19 +1620,27 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleKey newEvaluateDoubleKey(final String context, final IExpression[] args) {
                         final IEvaluateDoubleKey conditionF = args[0].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[1].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final RunningMedian median = new RunningMedian(count);
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        median.add(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return median.getMedianDouble();
+                            };
+                        }
+                        final QuantileWindowAggregate median = new QuantileWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, conditionF, median);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final RunningMedian median = new RunningMedian(count);
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    median.add(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return median.getMedian();
                         };
                     }
@@ -1536,19 +1649,28 @@ public final class StatisticalFunctions {
                     public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context, final IExpression[] args) {
                         final IEvaluateDoubleFDate conditionF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[1].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final int count = countF.evaluateInteger(key);
+                                final RunningMedian median = new RunningMedian(count);
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = conditionF.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        median.add(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return median.getMedianDouble();
+                            };
+                        }
+                        final QuantileWindowAggregate median = new QuantileWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, conditionF,
+                                median);
                         return key -> {
-                            final int count = countF.evaluateInteger(key);
-                            final RunningMedian median = new RunningMedian(count);
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = conditionF.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    median.add(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return median.getMedian();
                         };
                     }
@@ -1745,20 +1867,29 @@ public final class StatisticalFunctions {
                         final IEvaluateDoubleKey percentileF = args[0].newEvaluateDoubleKey();
                         final IEvaluateDoubleKey condition = args[1].newEvaluateDoubleKey();
                         final IEvaluateIntegerKey countF = args[2].newEvaluateIntegerKey();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final double percentile = percentileF.evaluateDouble(key);
+                                final int count = countF.evaluateInteger(key);
+                                final RunningMedian median = new RunningMedian(count);
+                                int curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = condition.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        median.add(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return median.getPercentileDouble(percentile);
+                            };
+                        }
+                        final QuantileWindowAggregate median = new QuantileWindowAggregate();
+                        final SlidingWindowKey window = new SlidingWindowKey(previousKeyFunction, condition, median);
                         return key -> {
                             final double percentile = percentileF.evaluateDouble(key);
-                            final int count = countF.evaluateInteger(key);
-                            final RunningMedian median = new RunningMedian(count);
-                            int curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = condition.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    median.add(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return median.getPercentile(percentile);
                         };
                     }
@@ -1768,20 +1899,30 @@ public final class StatisticalFunctions {
                         final IEvaluateDoubleFDate percentileF = args[0].newEvaluateDoubleFDate();
                         final IEvaluateDoubleFDate condition = args[1].newEvaluateDoubleFDate();
                         final IEvaluateIntegerFDate countF = args[2].newEvaluateIntegerFDate();
+                        if (!previousKeyFunction.isSequential()) {
+                            return key -> {
+                                final double percentile = percentileF.evaluateDouble(key);
+                                final int count = countF.evaluateInteger(key);
+                                final RunningMedian median = new RunningMedian(count);
+                                IFDateProvider curKey = key;
+                                for (int i = 1; i <= count; i++) {
+                                    final double result = condition.evaluateDouble(curKey);
+                                    if (!Doubles.isNaN(result)) {
+                                        median.add(result);
+                                    }
+                                    if (i != count) {
+                                        curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+                                    }
+                                }
+                                return median.getPercentileDouble(percentile);
+                            };
+                        }
+                        final QuantileWindowAggregate median = new QuantileWindowAggregate();
+                        final SlidingWindowFDate window = new SlidingWindowFDate(previousKeyFunction, condition,
+                                median);
                         return key -> {
                             final double percentile = percentileF.evaluateDouble(key);
-                            final int count = countF.evaluateInteger(key);
-                            final RunningMedian median = new RunningMedian(count);
-                            IFDateProvider curKey = key;
-                            for (int i = 1; i <= count; i++) {
-                                final double result = condition.evaluateDouble(curKey);
-                                if (!Doubles.isNaN(result)) {
-                                    median.add(result);
-                                }
-                                if (i != count) {
-                                    curKey = previousKeyFunction.getPreviousKey(curKey, 1);
-                                }
-                            }
+                            window.update(key, countF.evaluateInteger(key));
                             return median.getPercentile(percentile);
                         };
                     }
@@ -0,0 +1,85 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Keeps the values of the last window in a ring buffer so that the aggregate can be updated in O(1) when the next key
+ * is evaluated. Random access or a changing count falls back to evaluating the whole window again.
+ * 
+ * This state is not synchronized, thus windows are only used by the historical functions when
+ * IPreviousKeyFunction.isSequential() is enabled.
+ */
+@NotThreadSafe
+public abstract class ASlidingWindow {
+
+    private static final double[] EMPTY_VALUES = new double[0];
+
+    private final ISlidingWindowAggregate aggregate;
+    /**
+     * the values of the current window in ascending key order starting at oldestIndex
+     */
+    private double[] values = EMPTY_VALUES;
+    private int size;
+    private int oldestIndex;
+
+    public ASlidingWindow(final ISlidingWindowAggregate aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    protected boolean isSlidable(final int count) {
+        return size > 0 && size == count;
+    }
+
+    /**
+     * Replaces the oldest value with the newest one.
+     */
+    protected void slide(final double newestValue) {
+        aggregate.remove(values[oldestIndex]);
+        values[oldestIndex] = newestValue;
+        oldestIndex++;
+        if (oldestIndex == size) {
+            oldestIndex = 0;
+        }
+        aggregate.add(newestValue);
+        if (aggregate.isRebuildRequired()) {
+            aggregate.reset();
+            for (int i = 0; i < size; i++) {
+                int index = oldestIndex + i;
+                if (index >= size) {
+                    index -= size;
+                }
+                aggregate.add(values[index]);
+            }
+        }
+    }
+
+    protected void clear() {
+        size = 0;
+        oldestIndex = 0;
+        aggregate.reset();
+    }
+
+    protected void beginRebuild(final int count) {
+        if (values.length < count) {
+            values = new double[count];
+        }
+        size = count;
+        oldestIndex = 0;
+    }
+
+    /**
+     * The values are rebuilt from the newest (index 0) to the oldest (index count-1) like the previous keys are
+     * iterated.
+     */
+    protected void setRebuildValue(final int index, final double value) {
+        values[size - 1 - index] = value;
+    }
+
+    protected void endRebuild() {
+        aggregate.reset();
+        for (int i = 0; i < size; i++) {
+            aggregate.add(values[i]);
+        }
+    }
+
+}
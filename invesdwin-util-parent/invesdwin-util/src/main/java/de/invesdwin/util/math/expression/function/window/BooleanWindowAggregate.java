@@ -0,0 +1,71 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.Doubles;
+
+/**
+ * Values are expected to be 1 (true), 0 (false) or NaN (null, which is skipped). Besides the counts this keeps track of
+ * the streak of true values since the newest false value in the window.
+ */
+@NotThreadSafe
+public class BooleanWindowAggregate implements ISlidingWindowAggregate {
+
+    private int trueCount;
+    private int falseCount;
+    private int trueCountSinceFalse;
+
+    @Override
+    public void reset() {
+        trueCount = 0;
+        falseCount = 0;
+        trueCountSinceFalse = 0;
+    }
+
+    @Override
+    public void add(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        if (value != 0D) {
+            trueCount++;
+            trueCountSinceFalse++;
+        } else {
+            falseCount++;
+            trueCountSinceFalse = 0;
+        }
+    }
+
+    @Override
+    public void remove(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        if (value != 0D) {
+            trueCount--;
+            if (falseCount == 0) {
+                //the oldest true value is only part of the streak when there is no false value in the window
+                trueCountSinceFalse--;
+            }
+        } else {
+            //the newer true values already make up the streak
+            falseCount--;
+        }
+    }
+
+    public int getTrueCount() {
+        return trueCount;
+    }
+
+    public int getFalseCount() {
+        return falseCount;
+    }
+
+    /**
+     * The number of true values since the newest false value or the number of true values when there is no false value.
+     */
+    public int getTrueCountSinceFalse() {
+        return trueCountSinceFalse;
+    }
+
+}
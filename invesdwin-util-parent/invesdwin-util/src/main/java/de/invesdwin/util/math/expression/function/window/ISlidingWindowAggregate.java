@@ -0,0 +1,22 @@
+package de.invesdwin.util.math.expression.function.window;
+
+/**
+ * Values are added in ascending key order and removed in the same order when they leave the window.
+ */
+public interface ISlidingWindowAggregate {
+
+    void reset();
+
+    void add(double value);
+
+    void remove(double value);
+
+    /**
+     * Return true when the aggregate can not be updated anymore (e.g. after an overflow) and needs to be calculated
+     * from the values of the window again.
+     */
+    default boolean isRebuildRequired() {
+        return false;
+    }
+
+}
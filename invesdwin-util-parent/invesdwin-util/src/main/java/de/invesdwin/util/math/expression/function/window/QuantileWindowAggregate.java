@@ -0,0 +1,46 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.Doubles;
+import de.invesdwin.util.math.statistics.OrderStatisticsTree;
+
+/**
+ * Keeps the values of the window sorted in an OrderStatisticsTree. Skips NaN values. Results match RunningMedian but
+ * are NaN instead of null for an empty window.
+ */
+@NotThreadSafe
+public class QuantileWindowAggregate implements ISlidingWindowAggregate {
+
+    private final OrderStatisticsTree tree = new OrderStatisticsTree();
+
+    @Override
+    public void reset() {
+        tree.clear();
+    }
+
+    @Override
+    public void add(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        tree.add(value);
+    }
+
+    @Override
+    public void remove(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        tree.remove(value);
+    }
+
+    public double getMedian() {
+        return tree.getMedian();
+    }
+
+    public double getPercentile(final double percentileRate) {
+        return tree.getPercentile(percentileRate);
+    }
+
+}
@@ -0,0 +1,55 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.expression.function.IPreviousKeyFunction;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
+import de.invesdwin.util.time.fdate.IFDateProvider;
+
+/**
+ * The window for a key consists of the key itself and the previous keys up to the count. When the previous key of the
+ * evaluated key is the last evaluated key, the window only needs to slide by one value. Otherwise (also when the same
+ * key is evaluated again, since its value might have changed) the whole window is evaluated again.
+ * 
+ * Should only be used when IPreviousKeyFunction.isSequential() is true.
+ */
+@NotThreadSafe
+public class SlidingWindowFDate extends ASlidingWindow {
+
+    private final IPreviousKeyFunction previousKeyFunction;
+    private final IEvaluateDoubleFDate valueF;
+    private long lastKeyMillis;
+
+    public SlidingWindowFDate(final IPreviousKeyFunction previousKeyFunction, final IEvaluateDoubleFDate valueF,
+            final ISlidingWindowAggregate aggregate) {
+        super(aggregate);
+        this.previousKeyFunction = previousKeyFunction;
+        this.valueF = valueF;
+    }
+
+    public void update(final IFDateProvider key, final int count) {
+        if (count <= 0) {
+            clear();
+            return;
+        }
+        final long keyMillis = key.asFDate().millisValue();
+        if (isSlidable(count)) {
+            if (previousKeyFunction.getPreviousKey(key, 1).asFDate().millisValue() == lastKeyMillis) {
+                slide(valueF.evaluateDouble(key));
+                lastKeyMillis = keyMillis;
+                return;
+            }
+        }
+        beginRebuild(count);
+        IFDateProvider curKey = key;
+        for (int i = 0; i < count; i++) {
+            setRebuildValue(i, valueF.evaluateDouble(curKey));
+            if (i != count - 1) {
+                curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+            }
+        }
+        endRebuild();
+        lastKeyMillis = keyMillis;
+    }
+
+}
@@ -0,0 +1,53 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.expression.function.IPreviousKeyFunction;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
+
+/**
+ * The window for a key consists of the key itself and the previous keys up to the count. When the previous key of the
+ * evaluated key is the last evaluated key, the window only needs to slide by one value. Otherwise (also when the same
+ * key is evaluated again, since its value might have changed) the whole window is evaluated again.
+ * 
+ * Should only be used when IPreviousKeyFunction.isSequential() is true.
+ */
+@NotThreadSafe
+public class SlidingWindowKey extends ASlidingWindow {
+
+    private final IPreviousKeyFunction previousKeyFunction;
+    private final IEvaluateDoubleKey valueF;
+    private int lastKey;
+
+    public SlidingWindowKey(final IPreviousKeyFunction previousKeyFunction, final IEvaluateDoubleKey valueF,
+            final ISlidingWindowAggregate aggregate) {
+        super(aggregate);
+        this.previousKeyFunction = previousKeyFunction;
+        this.valueF = valueF;
+    }
+
+    public void update(final int key, final int count) {
+        if (count <= 0) {
+            clear();
+            return;
+        }
+        if (isSlidable(count)) {
+            if (previousKeyFunction.getPreviousKey(key, 1) == lastKey) {
+                slide(valueF.evaluateDouble(key));
+                lastKey = key;
+                return;
+            }
+        }
+        beginRebuild(count);
+        int curKey = key;
+        for (int i = 0; i < count; i++) {
+            setRebuildValue(i, valueF.evaluateDouble(curKey));
+            if (i != count - 1) {
+                curKey = previousKeyFunction.getPreviousKey(curKey, 1);
+            }
+        }
+        endRebuild();
+        lastKey = key;
+    }
+
+}
@@ -0,0 +1,109 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.Doubles;
+
+/**
+ * Skips NaN values. The running sum is compensated (Kahan) so that adding and removing values over long series does not
+ * accumulate rounding errors. Infinite values are only counted, so that they do not turn the compensation into NaN and
+ * the sum becomes finite again when they leave the window. An overflow or the removal of a value that is much larger
+ * than the remaining sum requests a rebuild of the window.
+ */
+@NotThreadSafe
+public class SumWindowAggregate implements ISlidingWindowAggregate {
+
+    private static final double MAX_RELATIVE_ERROR = 1E-12;
+
+    private double sum;
+    private double compensation;
+    private int countNotNaN;
+    private int countPositiveInfinity;
+    private int countNegativeInfinity;
+    private boolean rebuildRequired;
+
+    @Override
+    public void reset() {
+        sum = 0D;
+        compensation = 0D;
+        countNotNaN = 0;
+        countPositiveInfinity = 0;
+        countNegativeInfinity = 0;
+        rebuildRequired = false;
+    }
+
+    @Override
+    public void add(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        countNotNaN++;
+        if (value == Double.POSITIVE_INFINITY) {
+            countPositiveInfinity++;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            countNegativeInfinity++;
+        } else {
+            addCompensated(value);
+        }
+    }
+
+    @Override
+    public void remove(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        countNotNaN--;
+        if (value == Double.POSITIVE_INFINITY) {
+            countPositiveInfinity--;
+        } else if (value == Double.NEGATIVE_INFINITY) {
+            countNegativeInfinity--;
+        } else {
+            addCompensated(-value);
+        }
+    }
+
+    private void addCompensated(final double value) {
+        final double y = value - compensation;
+        final double t = sum + y;
+        if (Double.isInfinite(t)) {
+            //overflow of finite values, the compensation would become NaN
+            rebuildRequired = true;
+            compensation = 0D;
+        } else {
+            if (Math.abs((y - value) + compensation) > Math.abs(t) * MAX_RELATIVE_ERROR) {
+                //the compensation got lost in a much larger value
+                rebuildRequired = true;
+            }
+            compensation = (t - sum) - y;
+        }
+        sum = t;
+    }
+
+    /**
+     * An overflown sum or the rounding error of a much larger value does not get fixed by removing values again.
+     */
+    @Override
+    public boolean isRebuildRequired() {
+        return rebuildRequired;
+    }
+
+    public double getSum() {
+        if (countPositiveInfinity > 0) {
+            if (countNegativeInfinity > 0) {
+                return Double.NaN;
+            }
+            return Double.POSITIVE_INFINITY;
+        } else if (countNegativeInfinity > 0) {
+            return Double.NEGATIVE_INFINITY;
+        } else if (countNotNaN == 0) {
+            //prevent rounding residue
+            return 0D;
+        }
+        return sum;
+    }
+
+    public int getCountNotNaN() {
+        return countNotNaN;
+    }
+
+}
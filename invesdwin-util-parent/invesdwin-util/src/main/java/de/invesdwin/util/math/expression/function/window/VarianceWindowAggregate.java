@@ -0,0 +1,86 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import de.invesdwin.util.math.Doubles;
+
+/**
+ * Welford's algorithm with removal of the oldest value. Skips NaN values. Results match DoubleStreamVariance.
+ */
+@NotThreadSafe
+public class VarianceWindowAggregate implements ISlidingWindowAggregate {
+
+    private int count;
+    private double avg;
+    private double squareSum;
+
+    @Override
+    public void reset() {
+        count = 0;
+        avg = 0D;
+        squareSum = 0D;
+    }
+
+    @Override
+    public void add(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        count++;
+        final double delta = value - avg;
+        avg += delta / count;
+        squareSum += delta * (value - avg);
+    }
+
+    @Override
+    public void remove(final double value) {
+        if (Doubles.isNaN(value)) {
+            return;
+        }
+        if (count <= 1) {
+            reset();
+            return;
+        }
+        count--;
+        final double delta = value - avg;
+        avg -= delta / count;
+        squareSum -= delta * (value - avg);
+        if (squareSum < 0D) {
+            //prevent rounding residue
+            squareSum = 0D;
+        }
+    }
+
+    /**
+     * Infinite values make the running state NaN, which does not recover by removing them again.
+     */
+    @Override
+    public boolean isRebuildRequired() {
+        return !Double.isFinite(avg) || !Double.isFinite(squareSum);
+    }
+
+    public double getSampleVariance() {
+        if (count < 2) {
+            return 0D;
+        } else {
+            return squareSum / (count - 1);
+        }
+    }
+
+    public double getVariance() {
+        if (count < 2) {
+            return 0D;
+        } else {
+            return squareSum / count;
+        }
+    }
+
+    public double getSampleStandardDeviation() {
+        return Math.sqrt(getSampleVariance());
+    }
+
+    public double getStandardDeviation() {
+        return Math.sqrt(getVariance());
+    }
+
+}
@@ -0,0 +1,27 @@
+package de.invesdwin.util.math.expression.lambda;
+
+import de.invesdwin.util.collections.bitset.IBitSet;
+
+@FunctionalInterface
+public interface IEvaluateBooleanKeyRange {
+
+    /**
+     * evaluates the expression for all int keys from fromKey to toKey (both inclusive) and adds the index (key -
+     * fromKey) of each key that evaluates to true to the given bitset. The bitset is expected to be empty in that range.
+     */
+    void evaluateBoolean(int fromKey, int toKey, IBitSet out);
+
+    /**
+     * Evaluates the range key by key, for expressions that can not work on arrays.
+     */
+    static IEvaluateBooleanKeyRange of(final IEvaluateBooleanKey f) {
+        return (fromKey, toKey, out) -> {
+            for (int key = fromKey; key <= toKey; key++) {
+                if (f.evaluateBoolean(key)) {
+                    out.add(key - fromKey);
+                }
+            }
+        };
+    }
+
+}
@@ -0,0 +1,23 @@
+package de.invesdwin.util.math.expression.lambda;
+
+@FunctionalInterface
+public interface IEvaluateDoubleKeyRange {
+
+    /**
+     * evaluates the expression for all int keys from fromKey to toKey (both inclusive) and stores the result for each
+     * key at out[key - fromKey]
+     */
+    void evaluateDouble(int fromKey, int toKey, double[] out);
+
+    /**
+     * Evaluates the range key by key, for expressions that can not work on arrays.
+     */
+    static IEvaluateDoubleKeyRange of(final IEvaluateDoubleKey f) {
+        return (fromKey, toKey, out) -> {
+            for (int key = fromKey; key <= toKey; key++) {
+                out[key - fromKey] = f.evaluateDouble(key);
+            }
+        };
+    }
+
+}
@@ -0,0 +1,23 @@
+package de.invesdwin.util.math.expression.lambda;
+
+@FunctionalInterface
+public interface IEvaluateIntegerKeyRange {
+
+    /**
+     * evaluates the expression for all int keys from fromKey to toKey (both inclusive) and stores the result for each
+     * key at out[key - fromKey]
+     */
+    void evaluateInteger(int fromKey, int toKey, int[] out);
+
+    /**
+     * Evaluates the range key by key, for expressions that can not work on arrays.
+     */
+    static IEvaluateIntegerKeyRange of(final IEvaluateIntegerKey f) {
+        return (fromKey, toKey, out) -> {
+            for (int key = fromKey; key <= toKey; key++) {
+                out[key - fromKey] = f.evaluateInteger(key);
+            }
+        };
+    }
+
+}
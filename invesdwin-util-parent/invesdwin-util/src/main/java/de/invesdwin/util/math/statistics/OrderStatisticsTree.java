@@ -0,0 +1,291 @@
+package de.invesdwin.util.math.statistics;
+
+import java.util.Arrays;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * A sorted multiset of primitive doubles that supports add, remove and selecting the k-th smallest value in O(log n).
+ * It is implemented as a treap whose nodes are stored in arrays, thus no objects are allocated unless the capacity
+ * needs to grow.
+ *
+ * Values are ordered by Double.compare, thus NaN values are sorted to the end. Callers normally skip them.
+ */
+@NotThreadSafe
+public class OrderStatisticsTree {
+
+    private static final int NIL = -1;
+    private static final int DEFAULT_INITIAL_CAPACITY = 16;
+
+    private double[] values;
+    private int[] lefts;
+    private int[] rights;
+    private int[] sizes;
+    private int[] priorities;
+    private int[] freeNodes;
+    private int freeNodesCount;
+    private int root = NIL;
+    private int randomState = 0x2545F491;
+
+    public OrderStatisticsTree() {
+        this(DEFAULT_INITIAL_CAPACITY);
+    }
+
+    public OrderStatisticsTree(final int initialCapacity) {
+        allocate(Math.max(1, initialCapacity));
+    }
+
+    private void allocate(final int capacity) {
+        values = new double[capacity];
+        lefts = new int[capacity];
+        rights = new int[capacity];
+        sizes = new int[capacity];
+        priorities = new int[capacity];
+        freeNodes = new int[capacity];
+        freeNodesCount = capacity;
+        for (int i = 0; i < capacity; i++) {
+            //use lower nodes first
+            freeNodes[i] = capacity - 1 - i;
+        }
+    }
+
+    private void grow() {
+        final int oldCapacity = values.length;
+        final int newCapacity = oldCapacity * 2;
+        values = Arrays.copyOf(values, newCapacity);
+        lefts = Arrays.copyOf(lefts, newCapacity);
+        rights = Arrays.copyOf(rights, newCapacity);
+        sizes = Arrays.copyOf(sizes, newCapacity);
+        priorities = Arrays.copyOf(priorities, newCapacity);
+        freeNodes = new int[newCapacity];
+        freeNodesCount = 0;
+        for (int i = newCapacity - 1; i >= oldCapacity; i--) {
+            freeNodes[freeNodesCount++] = i;
+        }
+    }
+
+    public int size() {
+        return sizeOf(root);
+    }
+
+    public boolean isEmpty() {
+        return root == NIL;
+    }
+
+    public void clear() {
+        root = NIL;
+        final int capacity = values.length;
+        freeNodesCount = capacity;
+        for (int i = 0; i < capacity; i++) {
+            freeNodes[i] = capacity - 1 - i;
+        }
+    }
+
+    public void add(final double value) {
+        if (freeNodesCount == 0) {
+            grow();
+        }
+        final int node = freeNodes[--freeNodesCount];
+        values[node] = value;
+        lefts[node] = NIL;
+        rights[node] = NIL;
+        sizes[node] = 1;
+        priorities[node] = nextPriority();
+        root = insert(root, node);
+    }
+
+    /**
+     * Removes one occurrence of the value. Returns false if the value is not contained.
+     */
+    public boolean remove(final double value) {
+        final int sizeBefore = size();
+        root = remove(root, value);
+        return size() < sizeBefore;
+    }
+
+    /**
+     * Returns the k-th smallest value (starting at 0).
+     */
+    public double get(final int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("index=" + index + " size=" + size());
+        }
+        int node = root;
+        int k = index;
+        while (true) {
+            final int leftSize = sizeOf(lefts[node]);
+            if (k < leftSize) {
+                node = lefts[node];
+            } else if (k == leftSize) {
+                return values[node];
+            } else {
+                k -= leftSize + 1;
+                node = rights[node];
+            }
+        }
+    }
+
+    public double getMin() {
+        if (isEmpty()) {
+            return Double.NaN;
+        }
+        return get(0);
+    }
+
+    public double getMax() {
+        if (isEmpty()) {
+            return Double.NaN;
+        }
+        return get(size() - 1);
+    }
+
+    /**
+     * Returns NaN if empty, otherwise the average of both middle values for an even size.
+     */
+    public double getMedian() {
+        final int size = size();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        final int middle = size / 2;
+        if (size % 2 == 0) {
+            return (get(middle) + get(middle - 1)) / 2D;
+        } else {
+            return get(middle);
+        }
+    }
+
+    /**
+     * Nearest rank method, e.g. a rate of 0.9 returns the smallest value that is greater or equal than 90% of the
+     * values. Returns NaN if empty.
+     */
+    public double getPercentile(final double percentileRate) {
+        final int size = size();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        final int percentileIndex = (int) Math.ceil(size * percentileRate);
+        return get(Math.max(0, Math.min(size - 1, percentileIndex - 1)));
+    }
+
+    /**
+     * Linear interpolation between the closest ranks (like R-7 or Excel PERCENTILE.INC), a rate of 0.5 results in the
+     * median. Returns NaN if empty.
+     */
+    public double getQuantile(final double quantileRate) {
+        final int size = size();
+        if (size == 0) {
+            return Double.NaN;
+        }
+        final double position = Math.max(0D, Math.min(1D, quantileRate)) * (size - 1);
+        final int lowerIndex = (int) position;
+        final double lower = get(lowerIndex);
+        final double fraction = position - lowerIndex;
+        if (fraction == 0D) {
+            return lower;
+        }
+        final double upper = get(lowerIndex + 1);
+        return lower + (upper - lower) * fraction;
+    }
+
+    private int sizeOf(final int node) {
+        if (node == NIL) {
+            return 0;
+        } else {
+            return sizes[node];
+        }
+    }
+
+    private void update(final int node) {
+        sizes[node] = 1 + sizeOf(lefts[node]) + sizeOf(rights[node]);
+    }
+
+    /**
+     * xorshift, good enough for balancing
+     */
+    private int nextPriority() {
+        int x = randomState;
+        x ^= x << 13;
+        x ^= x >>> 17;
+        x ^= x << 5;
+        randomState = x;
+        return x;
+    }
+
+    private int insert(final int node, final int newNode) {
+        if (node == NIL) {
+            return newNode;
+        }
+        if (Double.compare(values[newNode], values[node]) < 0) {
+            lefts[node] = insert(lefts[node], newNode);
+            if (priorities[lefts[node]] > priorities[node]) {
+                return rotateRight(node);
+            }
+        } else {
+            rights[node] = insert(rights[node], newNode);
+            if (priorities[rights[node]] > priorities[node]) {
+                return rotateLeft(node);
+            }
+        }
+        update(node);
+        return node;
+    }
+
+    private int rotateRight(final int node) {
+        final int left = lefts[node];
+        lefts[node] = rights[left];
+        rights[left] = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private int rotateLeft(final int node) {
+        final int right = rights[node];
+        rights[node] = lefts[right];
+        lefts[right] = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private int remove(final int node, final double value) {
+        if (node == NIL) {
+            return NIL;
+        }
+        final int compare = Double.compare(value, values[node]);
+        if (compare == 0) {
+            final int merged = merge(lefts[node], rights[node]);
+            freeNodes[freeNodesCount++] = node;
+            return merged;
+        } else if (compare < 0) {
+            lefts[node] = remove(lefts[node], value);
+        } else {
+            rights[node] = remove(rights[node], value);
+        }
+        update(node);
+        return node;
+    }
+
+    /**
+     * All values of the left tree are less or equal than the values of the right tree.
+     */
+    private int merge(final int left, final int right) {
+        if (left == NIL) {
+            return right;
+        }
+        if (right == NIL) {
+            return left;
+        }
+        if (priorities[left] > priorities[right]) {
+            rights[left] = merge(rights[left], right);
+            update(left);
+            return left;
+        } else {
+            lefts[right] = merge(left, lefts[right]);
+            update(right);
+            return right;
+        }
+    }
+
+}
@@ -1,64 +1,73 @@
 package de.invesdwin.util.math.statistics;
 
-import java.util.Comparator;
-import java.util.Deque;
-import java.util.LinkedList;
-import java.util.List;
-
 import javax.annotation.concurrent.NotThreadSafe;
 
-import de.invesdwin.util.assertions.Assertions;
-import de.invesdwin.util.collections.list.BisectSortedList;
-import de.invesdwin.util.math.Doubles;
-import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.decimal.scaled.Percent;
 import de.invesdwin.util.math.decimal.scaled.PercentScale;
 
 /**
+ * Keeps the last values in a primitive ring buffer and the sorted view in an OrderStatisticsTree, thus add and the
+ * median/percentile/quantile lookups are O(log n) without allocations.
+ *
  * https://code.activestate.com/recipes/576930/#c3
  */
 @NotThreadSafe
 public class RunningMedian {
 
-    private final Deque<Double> queue = new LinkedList<Double>();
-    private final List<Double> sortedList = newSortedList(Doubles.COMPARATOR);
+    private final double[] queue;
+    private final OrderStatisticsTree sortedTree;
     private final int size;
+    private int queueStart;
+    private int queueSize;
 
     public RunningMedian(final int size) {
         this.size = size;
+        this.queue = new double[size];
+        this.sortedTree = new OrderStatisticsTree(size);
     }
 
-    @SuppressWarnings("rawtypes")
-    protected List<Double> newSortedList(final Comparator comparator) {
-        return new BisectSortedList<Double>(comparator);
+    public void add(final Double value) {
+        add(value.doubleValue());
     }
 
-    public void add(final Double value) {
-        if (queue.size() >= size) {
-            final Double first = queue.removeFirst();
-            Assertions.checkTrue(sortedList.remove(first));
+    public void add(final double value) {
+        if (size == 0) {
+            throw new IllegalStateException("size is 0");
+        }
+        if (queueSize >= size) {
+            final double first = queue[queueStart];
+            sortedTree.remove(first);
+            queue[queueStart] = value;
+            queueStart++;
+            if (queueStart == size) {
+                queueStart = 0;
+            }
+        } else {
+            int index = queueStart + queueSize;
+            if (index >= size) {
+                index -= size;
+            }
+            queue[index] = value;
+            queueSize++;
         }
-        queue.add(value);
-        sortedList.add(value);
+        sortedTree.add(value);
     }
 
     public Double getMedian() {
-        if (sortedList.isEmpty()) {
+        if (sortedTree.isEmpty()) {
             return null;
         }
-        if (sortedList.size() == 1) {
-            return sortedList.get(0);
-        }
-        final int middle = sortedList.size() / 2;
-        final Double median;
-        if (sortedList.size() % 2 == 0) {
-            final Double medianA = sortedList.get(middle);
-            final Double medianB = sortedList.get(middle - 1);
-            median = (medianA + medianB) / 2D;
-        } else {
-            median = sortedList.get(middle);
+        return getMedianDouble();
+    }
+
+    /**
+     * Returns NaN instead of null when there are no values, thus the result is not boxed.
+     */
+    public double getMedianDouble() {
+        if (sortedTree.isEmpty()) {
+            return Double.NaN;
         }
-        return median;
+        return sortedTree.getMedian();
     }
 
     public Double getPercentile(final Percent percentile) {
@@ -69,19 +78,54 @@ public class RunningMedian {
      * https://stackoverflow.com/questions/41413544/calculate-percentile-from-a-long-array
      */
     public Double getPercentile(final double percentileRate) {
-        if (sortedList.isEmpty()) {
+        if (sortedTree.isEmpty()) {
+            return null;
+        }
+        return getPercentileDouble(percentileRate);
+    }
+
+    /**
+     * Returns NaN instead of null when there are no values.
+     */
+    public double getPercentileDouble(final double percentileRate) {
+        if (sortedTree.isEmpty()) {
+            return Double.NaN;
+        }
+        return sortedTree.getPercentile(percentileRate);
+    }
+
+    /**
+     * Interpolates linearly between the closest ranks.
+     */
+    public Double getQuantile(final double quantileRate) {
+        if (sortedTree.isEmpty()) {
             return null;
         }
-        if (sortedList.size() == 1) {
-            return sortedList.get(0);
+        return getQuantileDouble(quantileRate);
+    }
+
+    /**
+     * Returns NaN instead of null when there are no values.
+     */
+    public double getQuantileDouble(final double quantileRate) {
+        if (sortedTree.isEmpty()) {
+            return Double.NaN;
         }
-        final int percentileIndex = (int) Math.ceil(sortedList.size() * percentileRate);
-        final Double percentile = sortedList.get(Integers.max(0, percentileIndex - 1));
-        return percentile;
+        return sortedTree.getQuantile(quantileRate);
     }
 
     public boolean isEmpty() {
-        return sortedList.isEmpty();
+        return sortedTree.isEmpty();
+    }
+
+    public int size() {
+        return queueSize;
+    }
+
+    public void clear() {
+        queueStart = 0;
+        queueSize = 0;
+        sortedTree.clear();
     }
 
 }
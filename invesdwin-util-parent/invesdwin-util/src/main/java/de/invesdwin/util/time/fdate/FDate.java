@@ -21,8 +21,6 @@ import org.joda.time.DateTimeZone;
 import org.joda.time.DurationFieldType;
 import org.joda.time.LocalDateTime;
 import org.joda.time.ReadableDateTime;
-import org.joda.time.format.DateTimeFormat;
-import org.joda.time.format.DateTimeFormatter;
 
 import de.invesdwin.norva.marker.IDate;
 import de.invesdwin.util.collections.loadingcache.historical.IHistoricalEntry;
@@ -32,8 +30,10 @@ import de.invesdwin.util.lang.ADelegateComparator;
 import de.invesdwin.util.lang.Strings;
 import de.invesdwin.util.math.Integers;
 import de.invesdwin.util.math.decimal.scaled.Percent;
-import de.invesdwin.util.time.TimeZones;
 import de.invesdwin.util.time.duration.Duration;
+import de.invesdwin.util.time.fdate.calendar.FLocalCalendar;
+import de.invesdwin.util.time.fdate.calendar.FZoneOffsets;
+import de.invesdwin.util.time.fdate.format.FDatePattern;
 
 /**
  * FDate stands for an immutable Fast Date implementation by utilizing heavy caching.
@@ -149,24 +149,24 @@ public class FDate
     }
 
     public int getYear(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getYear();
+        return FLocalCalendar.getYear(toLocalMillis(revertTimeZoneOffset(millis, timeZone)));
     }
 
     public int getYear() {
-        return FDates.getDefaultChronology().year().get(millis);
+        return FLocalCalendar.getYear(toLocalMillis(millis));
     }
 
     public int getMonth(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getMonth();
+        return FLocalCalendar.getMonth(toLocalMillis(revertTimeZoneOffset(millis, timeZone)));
     }
 
     public int getMonth() {
         //no conversion needed since joda time has same index
-        return FDates.getDefaultChronology().monthOfYear().get(millis);
+        return FLocalCalendar.getMonth(toLocalMillis(millis));
     }
 
     public FMonth getFMonth(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getFMonth();
+        return FMonth.valueOfIndex(getMonth(timeZone));
     }
 
     public FMonth getFMonth() {
@@ -174,24 +174,24 @@ public class FDate
     }
 
     public int getDay(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getDay();
+        return FLocalCalendar.getDay(toLocalMillis(revertTimeZoneOffset(millis, timeZone)));
     }
 
     public int getDay() {
-        return FDates.getDefaultChronology().dayOfMonth().get(millis);
+        return FLocalCalendar.getDay(toLocalMillis(millis));
     }
 
     public int getWeekday(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getWeekday();
+        return FLocalCalendar.getWeekday(toLocalMillis(revertTimeZoneOffset(millis, timeZone)));
     }
 
     public int getWeekday() {
         //no conversion needed since joda time has same index
-        return FDates.getDefaultChronology().dayOfWeek().get(millis);
+        return FLocalCalendar.getWeekday(toLocalMillis(millis));
     }
 
     public FWeekday getFWeekday(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getFWeekday();
+        return FWeekday.valueOfIndex(getWeekday(timeZone));
     }
 
     public FWeekday getFWeekday() {
@@ -199,23 +199,23 @@ public class FDate
     }
 
     public int getHour(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).getHour();
+        return FLocalCalendar.getHour(toLocalMillis(revertTimeZoneOffset(millis, timeZone)));
     }
 
     public int getHour() {
-        return FDates.getDefaultChronology().hourOfDay().get(millis);
+        return FLocalCalendar.getHour(toLocalMillis(millis));
     }
 
     public int getMinute() {
-        return FDates.getDefaultChronology().minuteOfHour().get(millis);
+        return FLocalCalendar.getMinute(toLocalMillis(millis));
     }
 
     public int getSecond() {
-        return FDates.getDefaultChronology().secondOfMinute().get(millis);
+        return FLocalCalendar.getSecond(toLocalMillis(millis));
     }
 
     public int getMillisecond() {
-        return FDates.getDefaultChronology().millisOfSecond().get(millis);
+        return FLocalCalendar.getMillisecond(toLocalMillis(millis));
     }
 
     public TimeZone getTimeZone() {
@@ -396,11 +396,11 @@ public class FDate
     }
 
     public int get(final FDateField field, final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).get(field);
+        return FLocalCalendar.get(toLocalMillis(revertTimeZoneOffset(millis, timeZone)), field);
     }
 
     public int get(final FDateField field) {
-        return field.jodaTimeValue().getField(FDates.getDefaultChronology()).get(millis);
+        return FLocalCalendar.get(toLocalMillis(millis), field);
     }
 
     public FDate set(final FDateField field, final int value, final ZoneId timeZone) {
@@ -473,49 +473,107 @@ public class FDate
     }
 
     public FDate truncate(final FDateField field, final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).truncate(field).applyTimeZoneOffset(timeZone);
+        if (timeZone == null) {
+            return truncate(field);
+        }
+        final long truncated = truncateMillis(revertTimeZoneOffset(millis, timeZone), field);
+        return new FDate(applyTimeZoneOffset(truncated, timeZone));
     }
 
     public FDate truncate(final FDateField field) {
+        return new FDate(truncateMillis(millis, field));
+    }
+
+    /**
+     * Truncates the local time in the default time zone. When the offset at the truncated time differs from the
+     * original one (a DST change in between), the joda field resolves the local time, so results stay the same.
+     */
+    private static long truncateMillis(final long millis, final FDateField field) {
+        final FZoneOffsets offsets = FDates.getDefaultDateTimeZoneOffsets();
+        final int offset = offsets.getOffsetMillis(millis);
+        final long truncated = FLocalCalendar.roundFloor(millis + offset, field) - offset;
+        if (offsets.isFixed() || isTimeField(field) || offsets.getOffsetMillis(truncated) == offset) {
+            return truncated;
+        }
         final DateTimeField jodaField = field.jodaTimeValue().getField(FDates.getDefaultChronology());
-        final long newMillis = jodaField.roundFloor(millis);
-        final FDate truncated = new FDate(newMillis);
-        return truncated;
+        return jodaField.roundFloor(millis);
+    }
+
+    /**
+     * Joda applies the original offset for fields shorter than half a day without resolving the local time.
+     */
+    private static boolean isTimeField(final FDateField field) {
+        switch (field) {
+        case Hour:
+        case Minute:
+        case Second:
+        case Millisecond:
+            return true;
+        default:
+            return false;
+        }
+    }
+
+    /**
+     * Same as withoutTime().setFWeekday(FWeekday.Monday) when there is no DST change in between.
+     */
+    private static long truncateWeekMillis(final long millis) {
+        final long day = truncateMillis(millis, FDateField.Day);
+        final FZoneOffsets offsets = FDates.getDefaultDateTimeZoneOffsets();
+        final int offset = offsets.getOffsetMillis(day);
+        final long truncated = FLocalCalendar.roundFloorWeek(day + offset) - offset;
+        if (offsets.isFixed() || offsets.getOffsetMillis(truncated) == offset) {
+            return truncated;
+        }
+        return new FDate(day).setFWeekday(FWeekday.Monday).millis;
     }
 
     public FDate truncate(final FTimeUnit timeUnit, final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).truncate(timeUnit).applyTimeZoneOffset(timeZone);
+        if (timeZone == null) {
+            return truncate(timeUnit);
+        }
+        final long truncated = truncateMillis(revertTimeZoneOffset(millis, timeZone), timeUnit);
+        return new FDate(applyTimeZoneOffset(truncated, timeZone));
     }
 
     public FDate truncate(final FTimeUnit timeUnit) {
+        return new FDate(truncateMillis(millis, timeUnit));
+    }
+
+    private static long truncateMillis(final long millis, final FTimeUnit timeUnit) {
         switch (timeUnit) {
         case MILLENIA:
-            return truncate(FDateField.Year).addYears(-getYear() % FTimeUnit.YEARS_IN_MILLENIUM);
+            return truncateYearsMillis(millis, FTimeUnit.YEARS_IN_MILLENIUM);
         case CENTURIES:
-            return truncate(FDateField.Year).addYears(-getYear() % FTimeUnit.YEARS_IN_CENTURY);
+            return truncateYearsMillis(millis, FTimeUnit.YEARS_IN_CENTURY);
         case DECADES:
-            return truncate(FDateField.Year).addYears(-getYear() % FTimeUnit.YEARS_IN_DECADE);
+            return truncateYearsMillis(millis, FTimeUnit.YEARS_IN_DECADE);
         case YEARS:
-            return truncate(FDateField.Year);
+            return truncateMillis(millis, FDateField.Year);
         case MONTHS:
-            return truncate(FDateField.Month);
+            return truncateMillis(millis, FDateField.Month);
         case WEEKS:
-            return withoutTime().setFWeekday(FWeekday.Monday);
+            return truncateWeekMillis(millis);
         case DAYS:
-            return truncate(FDateField.Day);
+            return truncateMillis(millis, FDateField.Day);
         case HOURS:
-            return truncate(FDateField.Hour);
+            return truncateMillis(millis, FDateField.Hour);
         case MINUTES:
-            return truncate(FDateField.Minute);
+            return truncateMillis(millis, FDateField.Minute);
         case SECONDS:
-            return truncate(FDateField.Second);
+            return truncateMillis(millis, FDateField.Second);
         case MILLISECONDS:
-            return truncate(FDateField.Millisecond);
+            return truncateMillis(millis, FDateField.Millisecond);
         default:
             throw UnknownArgumentException.newInstance(FTimeUnit.class, timeUnit);
         }
     }
 
+    private static long truncateYearsMillis(final long millis, final int years) {
+        final int year = FLocalCalendar.getYear(toLocalMillis(millis));
+        return new FDate(truncateMillis(millis, FDateField.Year)).addYears(-year % years).millis;
+    }
+
     /**
      * sets hour, minute, second and millisecond each to 0.
      */
@@ -524,7 +582,7 @@ public class FDate
     }
 
     public FDate withoutTime(final ZoneId timeZone) {
-        return revertTimeZoneOffset(timeZone).withoutTime().applyTimeZoneOffset(timeZone);
+        return truncate(FDateField.Day, timeZone);
     }
 
     public FDate applyTimeZoneOffset(final TimeZone timeZone) {
@@ -535,11 +593,14 @@ public class FDate
         if (timeZone == null) {
             return this;
         }
-        int seconds = TimeZones.getOffsetSeconds(timeZone, millis);
-        if (!FDates.isDefaultTimeZoneUTC()) {
-            seconds -= TimeZones.getOffsetSeconds(FDates.getDefaultZoneId(), millis);
+        return new FDate(applyTimeZoneOffset(millis, timeZone));
+    }
+
+    private static long applyTimeZoneOffset(final long millis, final ZoneId timeZone) {
+        if (timeZone == null) {
+            return millis;
         }
-        return addSeconds(seconds);
+        return millis + getTimeZoneOffsetSeconds(millis, timeZone) * FDates.MILLISECONDS_IN_SECOND;
     }
 
     public FDate revertTimeZoneOffset(final TimeZone timeZone) {
@@ -550,11 +611,30 @@ public class FDate
         if (timeZone == null) {
             return this;
         }
-        int seconds = TimeZones.getOffsetSeconds(timeZone, millis);
+        return new FDate(revertTimeZoneOffset(millis, timeZone));
+    }
+
+    private static long revertTimeZoneOffset(final long millis, final ZoneId timeZone) {
+        if (timeZone == null) {
+            return millis;
+        }
+        return millis - getTimeZoneOffsetSeconds(millis, timeZone) * FDates.MILLISECONDS_IN_SECOND;
+    }
+
+    private static int getTimeZoneOffsetSeconds(final long millis, final ZoneId timeZone) {
+        int seconds = FZoneOffsets.valueOf(timeZone).getOffsetSeconds(millis);
         if (!FDates.isDefaultTimeZoneUTC()) {
-            seconds -= TimeZones.getOffsetSeconds(FDates.getDefaultZoneId(), millis);
+            seconds -= FDates.getDefaultZoneIdOffsets().getOffsetSeconds(millis);
         }
-        return addSeconds(-seconds);
+        return seconds;
+    }
+
+    /**
+     * Adds the offset of the default time zone, the calendar fields of the result are the ones of the default
+     * chronology.
+     */
+    private static long toLocalMillis(final long millis) {
+        return millis + FDates.getDefaultDateTimeZoneOffsets().getOffsetMillis(millis);
     }
 
     /**
@@ -678,11 +758,14 @@ public class FDate
         if (parsePatterns == null || parsePatterns.length == 0) {
             throw new IllegalArgumentException("atleast one parsePattern is needed");
         }
+        if (Strings.isBlank(str)) {
+            return null;
+        }
+        final DateTimeZone zone = toDateTimeZone(timeZone);
         for (final String parsePattern : parsePatterns) {
-            try {
-                return valueOf(str, timeZone, locale, parsePattern);
-            } catch (final IllegalArgumentException e) {
-                continue;
+            final FDate date = FDatePattern.valueOf(parsePattern).tryParse(str, zone, locale);
+            if (date != null) {
+                return date;
             }
         }
         throw new IllegalArgumentException("None of the parsePatterns [" + Arrays.toString(parsePatterns)
@@ -694,11 +777,13 @@ public class FDate
         if (parsePatterns == null || parsePatterns.length == 0) {
             throw new IllegalArgumentException("atleast one parsePattern is needed");
         }
+        if (Strings.isBlank(str)) {
+            return null;
+        }
         for (final String parsePattern : parsePatterns) {
-            try {
-                return valueOf(str, timeZone, locale, parsePattern);
-            } catch (final IllegalArgumentException e) {
-                continue;
+            final FDate date = FDatePattern.valueOf(parsePattern).tryParse(str, timeZone, locale);
+            if (date != null) {
+                return date;
             }
         }
         throw new IllegalArgumentException("None of the parsePatterns [" + Arrays.toString(parsePatterns)
@@ -722,15 +807,15 @@ public class FDate
         if (Strings.isBlank(str)) {
             return null;
         }
-        DateTimeFormatter df = DateTimeFormat.forPattern(parsePattern);
+        return FDatePattern.valueOf(parsePattern).parse(str, toDateTimeZone(timeZone), locale);
+    }
+
+    private static DateTimeZone toDateTimeZone(final TimeZone timeZone) {
         if (timeZone != null) {
-            df = df.withZone(DateTimeZone.forTimeZone(timeZone));
-        }
-        if (locale != null) {
-            df = df.withLocale(locale);
+            return DateTimeZone.forTimeZone(timeZone);
+        } else {
+            return null;
         }
-        final DateTime date = df.parseDateTime(str);
-        return new FDate(date);
     }
 
     public static FDate valueOf(final String str, final ZoneId timeZone, final Locale locale,
@@ -738,17 +823,7 @@ public class FDate
         if (Strings.isBlank(str)) {
             return null;
         }
-        java.time.format.DateTimeFormatter df = java.time.format.DateTimeFormatter.ofPattern(parsePattern);
-        if (timeZone != null) {
-            df = df.withZone(timeZone);
-        } else {
-            df = df.withZone(FDates.getDefaultZoneId());
-        }
-        if (locale != null) {
-            df = df.withLocale(locale);
-        }
-        final java.time.ZonedDateTime date = java.time.ZonedDateTime.parse(str, df);
-        return new FDate(date);
+        return FDatePattern.valueOf(parsePattern).parse(str, timeZone, locale);
     }
 
     public static List<FDate> valueOf(final Collection<Date> list) {
@@ -841,25 +916,11 @@ public class FDate
     }
 
     public String toString(final String format, final TimeZone timeZone) {
-        final DateTime delegate = new DateTime(millis, FDates.getDefaultChronology());
-        DateTimeFormatter df = DateTimeFormat.forPattern(format);
-        if (timeZone != null) {
-            df = df.withZone(DateTimeZone.forTimeZone(timeZone));
-        } else {
-            df = df.withZone(FDates.getDefaultDateTimeZone());
-        }
-        return df.print(delegate);
+        return FDatePattern.valueOf(format).format(millis, toDateTimeZone(timeZone));
     }
 
     public String toString(final String format, final ZoneId timeZone) {
-        final java.time.ZonedDateTime delegate = javaTimeValueZoned();
-        java.time.format.DateTimeFormatter df = java.time.format.DateTimeFormatter.ofPattern(format);
-        if (timeZone != null) {
-            df = df.withZone(timeZone);
-        } else {
-            df = df.withZone(FDates.getDefaultZoneId());
-        }
-        return df.format(delegate);
+        return FDatePattern.valueOf(format).format(millis, timeZone);
     }
 
     public boolean isBefore(final FDate other) {
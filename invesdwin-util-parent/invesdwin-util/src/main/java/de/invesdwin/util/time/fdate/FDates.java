@@ -19,6 +19,7 @@ import de.invesdwin.util.error.FastNoSuchElementException;
 import de.invesdwin.util.error.UnknownArgumentException;
 import de.invesdwin.util.time.TimeZones;
 import de.invesdwin.util.time.duration.Duration;
+import de.invesdwin.util.time.fdate.calendar.FZoneOffsets;
 
 @ThreadSafe
 public final class FDates {
@@ -35,6 +36,8 @@ public final class FDates {
     private static DateTimeZone defaultDateTimeZone;
     private static Chronology defaultChronology;
     private static ZoneId defaultZoneId;
+    private static FZoneOffsets defaultDateTimeZoneOffsets;
+    private static FZoneOffsets defaultZoneIdOffsets;
 
     static {
         setDefaultTimeZone(TimeZone.getDefault());
@@ -49,6 +52,8 @@ public final class FDates {
         FDates.defaultDateTimeZone = DateTimeZone.forTimeZone(defaultTimeZone);
         FDates.defaultChronology = ISOChronology.getInstance(defaultDateTimeZone);
         FDates.defaultZoneId = defaultTimeZone.toZoneId();
+        FDates.defaultDateTimeZoneOffsets = FZoneOffsets.valueOf(defaultDateTimeZone);
+        FDates.defaultZoneIdOffsets = FZoneOffsets.valueOf(defaultZoneId);
         //CHECKSTYLE:OFF
         final Calendar cal = Calendar.getInstance();
         //CHECKSTYLE:ON
@@ -77,6 +82,17 @@ public final class FDates {
         return defaultZoneId;
     }
 
+    /**
+     * Offsets of the joda default zone that is used by the default chronology.
+     */
+    public static FZoneOffsets getDefaultDateTimeZoneOffsets() {
+        return defaultDateTimeZoneOffsets;
+    }
+
+    public static FZoneOffsets getDefaultZoneIdOffsets() {
+        return defaultZoneIdOffsets;
+    }
+
     public static Calendar newCalendar() {
         return (Calendar) templateCalendar.clone();
     }
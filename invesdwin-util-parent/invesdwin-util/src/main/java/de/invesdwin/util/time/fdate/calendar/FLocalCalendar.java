@@ -0,0 +1,302 @@
+package de.invesdwin.util.time.fdate.calendar;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.error.UnknownArgumentException;
+import de.invesdwin.util.time.fdate.FDateField;
+
+/**
+ * Calendar math on local millis (millis plus the zone offset) in the proleptic gregorian calendar (same as the ISO
+ * chronologies of joda and java.time). The calendar fields of the days between 1900 and 2100 are precomputed into a
+ * table, so getters and truncation are an array lookup plus integer math. Other days are calculated with the
+ * algorithms from http://howardhinnant.github.io/date_algorithms.html
+ *
+ * Month and weekday use the joda indexes, thus january and monday are 1.
+ */
+@Immutable
+public final class FLocalCalendar {
+
+    public static final long MILLISECONDS_IN_DAY = 24L * 60L * 60L * 1000L;
+    private static final int MILLISECONDS_IN_HOUR = 60 * 60 * 1000;
+    private static final int MILLISECONDS_IN_MINUTE = 60 * 1000;
+    private static final int MILLISECONDS_IN_SECOND = 1000;
+    private static final int DAYS_0000_TO_1970 = 719468;
+    private static final int DAYS_IN_ERA = 146097;
+
+    //1900-01-01
+    private static final int TABLE_FROM_EPOCH_DAY = -25567;
+    //2100-01-01
+    private static final int TABLE_TO_EPOCH_DAY = 47482;
+    private static final int DAY_BITS = 5;
+    private static final int MONTH_BITS = 4;
+    private static final int DAY_OF_YEAR_BITS = 9;
+    private static final int MONTH_SHIFT = DAY_BITS;
+    private static final int DAY_OF_YEAR_SHIFT = MONTH_SHIFT + MONTH_BITS;
+    private static final int YEAR_SHIFT = DAY_OF_YEAR_SHIFT + DAY_OF_YEAR_BITS;
+
+    private FLocalCalendar() {
+    }
+
+    public static long getEpochDay(final long localMillis) {
+        return Math.floorDiv(localMillis, MILLISECONDS_IN_DAY);
+    }
+
+    public static int getYear(final long localMillis) {
+        return getYearOfEpochDay(getEpochDay(localMillis));
+    }
+
+    public static int getMonth(final long localMillis) {
+        return getMonthOfEpochDay(getEpochDay(localMillis));
+    }
+
+    public static int getDay(final long localMillis) {
+        return getDayOfEpochDay(getEpochDay(localMillis));
+    }
+
+    public static int getDayOfYear(final long localMillis) {
+        return getDayOfYearOfEpochDay(getEpochDay(localMillis));
+    }
+
+    public static int getWeekday(final long localMillis) {
+        return getWeekdayOfEpochDay(getEpochDay(localMillis));
+    }
+
+    public static int getHour(final long localMillis) {
+        return getMillisOfDay(localMillis) / MILLISECONDS_IN_HOUR;
+    }
+
+    public static int getMinute(final long localMillis) {
+        return getMillisOfDay(localMillis) / MILLISECONDS_IN_MINUTE % 60;
+    }
+
+    public static int getSecond(final long localMillis) {
+        return getMillisOfDay(localMillis) / MILLISECONDS_IN_SECOND % 60;
+    }
+
+    public static int getMillisecond(final long localMillis) {
+        return getMillisOfDay(localMillis) % MILLISECONDS_IN_SECOND;
+    }
+
+    public static int getMillisOfDay(final long localMillis) {
+        return (int) Math.floorMod(localMillis, MILLISECONDS_IN_DAY);
+    }
+
+    public static int get(final long localMillis, final FDateField field) {
+        switch (field) {
+        case Year:
+            return getYear(localMillis);
+        case Month:
+            return getMonth(localMillis);
+        case Day:
+            return getDay(localMillis);
+        case Weekday:
+            return getWeekday(localMillis);
+        case Hour:
+            return getHour(localMillis);
+        case Minute:
+            return getMinute(localMillis);
+        case Second:
+            return getSecond(localMillis);
+        case Millisecond:
+            return getMillisecond(localMillis);
+        default:
+            throw UnknownArgumentException.newInstance(FDateField.class, field);
+        }
+    }
+
+    /**
+     * Same as roundFloor of the corresponding joda field in UTC. Weekday rounds to the start of the day like in joda.
+     */
+    public static long roundFloor(final long localMillis, final FDateField field) {
+        switch (field) {
+        case Year:
+            final long yearEpochDay = getEpochDay(localMillis);
+            return (yearEpochDay - getDayOfYearOfEpochDay(yearEpochDay) + 1) * MILLISECONDS_IN_DAY;
+        case Month:
+            final long monthEpochDay = getEpochDay(localMillis);
+            return (monthEpochDay - getDayOfEpochDay(monthEpochDay) + 1) * MILLISECONDS_IN_DAY;
+        case Day:
+        case Weekday:
+            return getEpochDay(localMillis) * MILLISECONDS_IN_DAY;
+        case Hour:
+            return localMillis - Math.floorMod(localMillis, MILLISECONDS_IN_HOUR);
+        case Minute:
+            return localMillis - Math.floorMod(localMillis, MILLISECONDS_IN_MINUTE);
+        case Second:
+            return localMillis - Math.floorMod(localMillis, MILLISECONDS_IN_SECOND);
+        case Millisecond:
+            return localMillis;
+        default:
+            throw UnknownArgumentException.newInstance(FDateField.class, field);
+        }
+    }
+
+    /**
+     * Rounds down to monday 00:00 of the ISO week.
+     */
+    public static long roundFloorWeek(final long localMillis) {
+        final long epochDay = getEpochDay(localMillis);
+        return (epochDay - getWeekdayOfEpochDay(epochDay) + 1) * MILLISECONDS_IN_DAY;
+    }
+
+    public static int getYearOfEpochDay(final long epochDay) {
+        if (isInTable(epochDay)) {
+            return Table.DAYS[(int) (epochDay - TABLE_FROM_EPOCH_DAY)] >>> YEAR_SHIFT;
+        }
+        return (int) calculateYear(epochDay);
+    }
+
+    public static int getMonthOfEpochDay(final long epochDay) {
+        if (isInTable(epochDay)) {
+            return (Table.DAYS[(int) (epochDay - TABLE_FROM_EPOCH_DAY)] >>> MONTH_SHIFT) & ((1 << MONTH_BITS) - 1);
+        }
+        return calculateMonth(epochDay);
+    }
+
+    public static int getDayOfEpochDay(final long epochDay) {
+        if (isInTable(epochDay)) {
+            return Table.DAYS[(int) (epochDay - TABLE_FROM_EPOCH_DAY)] & ((1 << DAY_BITS) - 1);
+        }
+        return calculateDay(epochDay);
+    }
+
+    public static int getDayOfYearOfEpochDay(final long epochDay) {
+        if (isInTable(epochDay)) {
+            return (Table.DAYS[(int) (epochDay - TABLE_FROM_EPOCH_DAY)] >>> DAY_OF_YEAR_SHIFT)
+                    & ((1 << DAY_OF_YEAR_BITS) - 1);
+        }
+        return (int) (epochDay - toEpochDay(calculateYear(epochDay), 1, 1)) + 1;
+    }
+
+    public static int getWeekdayOfEpochDay(final long epochDay) {
+        //1970-01-01 was a thursday
+        return (int) Math.floorMod(epochDay + 3, 7) + 1;
+    }
+
+    /**
+     * http://howardhinnant.github.io/date_algorithms.html#days_from_civil
+     */
+    public static long toEpochDay(final long year, final int month, final int day) {
+        final long y;
+        final int mp;
+        if (month <= 2) {
+            y = year - 1;
+            mp = month + 9;
+        } else {
+            y = year;
+            mp = month - 3;
+        }
+        final long era = Math.floorDiv(y, 400);
+        final int yoe = (int) (y - era * 400);
+        final int doy = (153 * mp + 2) / 5 + day - 1;
+        final int doe = yoe * 365 + yoe / 4 - yoe / 100 + doy;
+        return era * DAYS_IN_ERA + doe - DAYS_0000_TO_1970;
+    }
+
+    private static boolean isInTable(final long epochDay) {
+        return epochDay >= TABLE_FROM_EPOCH_DAY && epochDay < TABLE_TO_EPOCH_DAY;
+    }
+
+    /**
+     * http://howardhinnant.github.io/date_algorithms.html#civil_from_days
+     */
+    private static long calculateYear(final long epochDay) {
+        final long z = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(z, DAYS_IN_ERA);
+        final int doe = (int) (z - era * DAYS_IN_ERA);
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int mp = calculateMonthIndex(doe, yoe);
+        if (mp >= 10) {
+            //january and february belong to the next year
+            return yoe + era * 400 + 1;
+        } else {
+            return yoe + era * 400;
+        }
+    }
+
+    private static int calculateMonth(final long epochDay) {
+        final int doe = calculateDayOfEra(epochDay);
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int mp = calculateMonthIndex(doe, yoe);
+        if (mp < 10) {
+            return mp + 3;
+        } else {
+            return mp - 9;
+        }
+    }
+
+    private static int calculateDay(final long epochDay) {
+        final int doe = calculateDayOfEra(epochDay);
+        final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        final int mp = (5 * doy + 2) / 153;
+        return doy - (153 * mp + 2) / 5 + 1;
+    }
+
+    private static int calculateDayOfEra(final long epochDay) {
+        final long z = epochDay + DAYS_0000_TO_1970;
+        final long era = Math.floorDiv(z, DAYS_IN_ERA);
+        return (int) (z - era * DAYS_IN_ERA);
+    }
+
+    /**
+     * Returns the month starting from march with 0.
+     */
+    private static int calculateMonthIndex(final int doe, final int yoe) {
+        final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+        return (5 * doy + 2) / 153;
+    }
+
+    public static int getDaysInMonth(final long year, final int month) {
+        switch (month) {
+        case 2:
+            if (isLeapYear(year)) {
+                return 29;
+            } else {
+                return 28;
+            }
+        case 4:
+        case 6:
+        case 9:
+        case 11:
+            return 30;
+        default:
+            return 31;
+        }
+    }
+
+    public static boolean isLeapYear(final long year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    /**
+     * Lazily initialized on first use.
+     */
+    private static final class Table {
+        private static final int[] DAYS = newDays();
+
+        private static int[] newDays() {
+            final int[] days = new int[TABLE_TO_EPOCH_DAY - TABLE_FROM_EPOCH_DAY];
+            int year = (int) calculateYear(TABLE_FROM_EPOCH_DAY);
+            int month = calculateMonth(TABLE_FROM_EPOCH_DAY);
+            int day = calculateDay(TABLE_FROM_EPOCH_DAY);
+            int dayOfYear = 1;
+            for (int i = 0; i < days.length; i++) {
+                days[i] = (year << YEAR_SHIFT) | (dayOfYear << DAY_OF_YEAR_SHIFT) | (month << MONTH_SHIFT) | day;
+                day++;
+                dayOfYear++;
+                if (day > getDaysInMonth(year, month)) {
+                    day = 1;
+                    month++;
+                    if (month > 12) {
+                        month = 1;
+                        year++;
+                        dayOfYear = 1;
+                    }
+                }
+            }
+            return days;
+        }
+    }
+
+}
@@ -0,0 +1,228 @@
+package de.invesdwin.util.time.fdate.calendar;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.Arrays;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.joda.time.DateTimeZone;
+
+import de.invesdwin.util.collections.loadingcache.ALoadingCache;
+import de.invesdwin.util.lang.Objects;
+
+/**
+ * Precomputed offset transitions of a time zone, so that the offset for an instant can be looked up without
+ * allocating Instant objects or walking the zone rules. Instants are grouped into buckets of about 50 days that point
+ * to the transition that was active at the bucket start, thus a lookup is an array access plus a check of the
+ * following transitions (which are rarely more than one in a bucket).
+ *
+ * Instants before 1900 or after 2100 are delegated to the zone rules.
+ */
+@Immutable
+public final class FZoneOffsets {
+
+    //1900-01-01T00:00:00Z
+    public static final long RANGE_FROM_MILLIS = -2208988800000L;
+    //2100-01-01T00:00:00Z
+    public static final long RANGE_TO_MILLIS = 4102444800000L;
+    private static final int BUCKET_SHIFT = 32;
+
+    private static final ALoadingCache<ZoneId, FZoneOffsets> ZONE_ID_OFFSETS = new ALoadingCache<ZoneId, FZoneOffsets>() {
+        @Override
+        protected FZoneOffsets loadValue(final ZoneId key) {
+            return newInstance(key);
+        }
+
+        @Override
+        protected boolean isHighConcurrency() {
+            return true;
+        }
+    };
+    private static final ALoadingCache<DateTimeZone, FZoneOffsets> DATE_TIME_ZONE_OFFSETS = new ALoadingCache<DateTimeZone, FZoneOffsets>() {
+        @Override
+        protected FZoneOffsets loadValue(final DateTimeZone key) {
+            return newInstance(key);
+        }
+
+        @Override
+        protected boolean isHighConcurrency() {
+            return true;
+        }
+    };
+
+    /**
+     * Most callers use the same zone over and over again, this saves the cache lookup for them.
+     */
+    private static volatile FZoneOffsets lastZoneIdOffsets = newInstance(ZoneOffset.UTC);
+
+    private final Object zone;
+    private final ZoneRules zoneRules;
+    private final DateTimeZone dateTimeZone;
+    private final boolean fixed;
+    private final int fixedOffsetMillis;
+    private final long[] transitionMillis;
+    private final int[] offsetMillis;
+    private final int[] bucketIndexes;
+
+    private FZoneOffsets(final Object zone, final ZoneRules zoneRules, final DateTimeZone dateTimeZone,
+            final boolean fixed, final long[] transitionMillis, final int[] offsetMillis) {
+        this.zone = zone;
+        this.zoneRules = zoneRules;
+        this.dateTimeZone = dateTimeZone;
+        this.transitionMillis = transitionMillis;
+        this.offsetMillis = offsetMillis;
+        this.fixed = fixed;
+        this.fixedOffsetMillis = offsetMillis[0];
+        final int bucketsCount = (int) ((RANGE_TO_MILLIS - RANGE_FROM_MILLIS - 1) >>> BUCKET_SHIFT) + 1;
+        this.bucketIndexes = new int[bucketsCount];
+        int index = 0;
+        for (int bucket = 0; bucket < bucketsCount; bucket++) {
+            final long bucketFromMillis = RANGE_FROM_MILLIS + ((long) bucket << BUCKET_SHIFT);
+            while (index + 1 < transitionMillis.length && transitionMillis[index + 1] <= bucketFromMillis) {
+                index++;
+            }
+            bucketIndexes[bucket] = index;
+        }
+    }
+
+    /**
+     * Either the ZoneId or the DateTimeZone this instance was created for.
+     */
+    public Object getZone() {
+        return zone;
+    }
+
+    /**
+     * True if the zone always has the same offset.
+     */
+    public boolean isFixed() {
+        return fixed;
+    }
+
+    public int getOffsetMillis(final long millis) {
+        if (fixed) {
+            return fixedOffsetMillis;
+        }
+        if (millis < RANGE_FROM_MILLIS || millis >= RANGE_TO_MILLIS) {
+            return getOffsetMillisOutOfRange(millis);
+        }
+        int index = bucketIndexes[(int) ((millis - RANGE_FROM_MILLIS) >>> BUCKET_SHIFT)];
+        while (index + 1 < transitionMillis.length && transitionMillis[index + 1] <= millis) {
+            index++;
+        }
+        return offsetMillis[index];
+    }
+
+    public int getOffsetSeconds(final long millis) {
+        return getOffsetMillis(millis) / 1000;
+    }
+
+    private int getOffsetMillisOutOfRange(final long millis) {
+        if (zoneRules != null) {
+            return zoneRules.getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds() * 1000;
+        } else {
+            return dateTimeZone.getOffset(millis);
+        }
+    }
+
+    public static FZoneOffsets valueOf(final ZoneId zoneId) {
+        final FZoneOffsets last = lastZoneIdOffsets;
+        if (last.zone == zoneId || last.zone.equals(zoneId)) {
+            return last;
+        }
+        final FZoneOffsets offsets = ZONE_ID_OFFSETS.get(zoneId);
+        lastZoneIdOffsets = offsets;
+        return offsets;
+    }
+
+    public static FZoneOffsets valueOf(final DateTimeZone dateTimeZone) {
+        return DATE_TIME_ZONE_OFFSETS.get(dateTimeZone);
+    }
+
+    private static FZoneOffsets newInstance(final ZoneId zoneId) {
+        final ZoneRules rules = zoneId.getRules();
+        final TransitionsBuilder builder = new TransitionsBuilder(
+                rules.getOffset(Instant.ofEpochMilli(RANGE_FROM_MILLIS)).getTotalSeconds() * 1000);
+        if (!rules.isFixedOffset()) {
+            Instant instant = Instant.ofEpochMilli(RANGE_FROM_MILLIS);
+            while (true) {
+                final ZoneOffsetTransition transition = rules.nextTransition(instant);
+                if (transition == null) {
+                    break;
+                }
+                instant = transition.getInstant();
+                if (instant.toEpochMilli() >= RANGE_TO_MILLIS) {
+                    break;
+                }
+                builder.add(instant.toEpochMilli(), transition.getOffsetAfter().getTotalSeconds() * 1000);
+            }
+        }
+        return new FZoneOffsets(zoneId, rules, null, rules.isFixedOffset(), builder.getTransitionMillis(),
+                builder.getOffsetMillis());
+    }
+
+    private static FZoneOffsets newInstance(final DateTimeZone dateTimeZone) {
+        final TransitionsBuilder builder = new TransitionsBuilder(dateTimeZone.getOffset(RANGE_FROM_MILLIS));
+        if (!dateTimeZone.isFixed()) {
+            long millis = RANGE_FROM_MILLIS;
+            while (true) {
+                final long nextMillis = dateTimeZone.nextTransition(millis);
+                if (nextMillis == millis || nextMillis >= RANGE_TO_MILLIS) {
+                    break;
+                }
+                millis = nextMillis;
+                builder.add(millis, dateTimeZone.getOffset(millis));
+            }
+        }
+        return new FZoneOffsets(dateTimeZone, null, dateTimeZone, dateTimeZone.isFixed(),
+                builder.getTransitionMillis(), builder.getOffsetMillis());
+    }
+
+    @Override
+    public String toString() {
+        return Objects.toStringHelper(this)
+                .add("zone", zone)
+                .add("transitions", transitionMillis.length - 1)
+                .toString();
+    }
+
+    private static final class TransitionsBuilder {
+
+        private long[] transitionMillis = new long[16];
+        private int[] offsetMillis = new int[16];
+        private int size;
+
+        private TransitionsBuilder(final int initialOffsetMillis) {
+            transitionMillis[0] = RANGE_FROM_MILLIS;
+            offsetMillis[0] = initialOffsetMillis;
+            size = 1;
+        }
+
+        private void add(final long millis, final int offset) {
+            if (offsetMillis[size - 1] == offset) {
+                //only the name changed
+                return;
+            }
+            if (size == transitionMillis.length) {
+                transitionMillis = Arrays.copyOf(transitionMillis, size * 2);
+                offsetMillis = Arrays.copyOf(offsetMillis, size * 2);
+            }
+            transitionMillis[size] = millis;
+            offsetMillis[size] = offset;
+            size++;
+        }
+
+        private long[] getTransitionMillis() {
+            return Arrays.copyOf(transitionMillis, size);
+        }
+
+        private int[] getOffsetMillis() {
+            return Arrays.copyOf(offsetMillis, size);
+        }
+    }
+
+}
@@ -0,0 +1,326 @@
+package de.invesdwin.util.time.fdate.format;
+
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.TemporalAccessor;
+import java.util.Locale;
+
+import javax.annotation.concurrent.Immutable;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.DateTimeParser;
+import org.joda.time.format.DateTimeParserBucket;
+
+import de.invesdwin.util.collections.loadingcache.ALoadingCache;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDates;
+
+/**
+ * A compiled date pattern that is cached per pattern string, so the pattern does not have to be parsed again for every
+ * date that gets parsed or formatted.
+ *
+ * Fixed width numeric patterns (e.g. FDate.FORMAT_ISO_*, FDate.FORMAT_NUMBER_* or FDate.FORMAT_GERMAN_*) are handled
+ * by a hand written parser and printer that works on CharSequence, ASCII bytes and StringBuilder without creating
+ * intermediate date objects. Everything else (and any input the fast path does not accept) is delegated to the joda or
+ * java.time formatters, so the results and exceptions stay the same as with DateTimeFormat.forPattern(...).
+ */
+@Immutable
+public final class FDatePattern {
+
+    private static final ALoadingCache<String, FDatePattern> PATTERNS = new ALoadingCache<String, FDatePattern>() {
+        @Override
+        protected FDatePattern loadValue(final String key) {
+            return new FDatePattern(key);
+        }
+
+        @Override
+        protected boolean isHighConcurrency() {
+            return true;
+        }
+
+        @Override
+        protected Integer getInitialMaximumSize() {
+            return 1000;
+        }
+    };
+
+    private final String pattern;
+    private final FastFDateLayout fastLayout;
+    private volatile DateTimeFormatter jodaFormatter;
+    private volatile java.time.format.DateTimeFormatter javaFormatter;
+
+    private FDatePattern(final String pattern) {
+        this.pattern = pattern;
+        this.fastLayout = FastFDateLayout.compile(pattern);
+    }
+
+    public static FDatePattern valueOf(final String pattern) {
+        return PATTERNS.get(pattern);
+    }
+
+    public String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * True if the hand written parser and printer is used for this pattern.
+     */
+    public boolean isFast() {
+        return fastLayout != null;
+    }
+
+    public DateTimeFormatter getJodaFormatter() {
+        if (jodaFormatter == null) {
+            //races are harmless, the formatter is immutable
+            jodaFormatter = DateTimeFormat.forPattern(pattern);
+        }
+        return jodaFormatter;
+    }
+
+    public java.time.format.DateTimeFormatter getJavaFormatter() {
+        if (javaFormatter == null) {
+            javaFormatter = java.time.format.DateTimeFormatter.ofPattern(pattern);
+        }
+        return javaFormatter;
+    }
+
+    private DateTimeFormatter getJodaFormatter(final DateTimeZone timeZone, final Locale locale) {
+        DateTimeFormatter df = getJodaFormatter().withZone(timeZone);
+        if (locale != null) {
+            df = df.withLocale(locale);
+        }
+        return df;
+    }
+
+    private java.time.format.DateTimeFormatter getJavaFormatter(final ZoneId timeZone, final Locale locale) {
+        java.time.format.DateTimeFormatter df = getJavaFormatter().withZone(timeZone);
+        if (locale != null) {
+            df = df.withLocale(locale);
+        }
+        return df;
+    }
+
+    /**
+     * A null timeZone means DateTimeZone.getDefault() like with joda formatters without a zone.
+     *
+     * @throws IllegalArgumentException
+     *             if the string does not match the pattern
+     */
+    public FDate parse(final CharSequence str, final DateTimeZone timeZone, final Locale locale) {
+        return new FDate(parseMillis(str, timeZone, locale));
+    }
+
+    public long parseMillis(final CharSequence str, final DateTimeZone timeZone, final Locale locale) {
+        final DateTimeZone zone = jodaZoneOrDefault(timeZone);
+        if (fastLayout != null) {
+            final long millis = localToMillis(fastLayout.parseLocalMillis(str), zone);
+            if (millis != FastFDateLayout.NO_MATCH) {
+                return millis;
+            }
+        }
+        return getJodaFormatter(zone, locale).parseMillis(str.toString());
+    }
+
+    /**
+     * Parses ASCII bytes without creating a String when the fast path can be used.
+     */
+    public long parseMillis(final byte[] bytes, final int offset, final int length, final DateTimeZone timeZone) {
+        final DateTimeZone zone = jodaZoneOrDefault(timeZone);
+        if (fastLayout != null) {
+            final long millis = localToMillis(fastLayout.parseLocalMillis(bytes, offset, length), zone);
+            if (millis != FastFDateLayout.NO_MATCH) {
+                return millis;
+            }
+        }
+        return getJodaFormatter(zone, null).parseMillis(new String(bytes, offset, length, StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Returns null instead of throwing an exception if the string does not match the pattern. This is cheaper when
+     * multiple patterns are tried one after another.
+     */
+    public FDate tryParse(final CharSequence str, final DateTimeZone timeZone, final Locale locale) {
+        final DateTimeZone zone = jodaZoneOrDefault(timeZone);
+        if (fastLayout != null) {
+            final long millis = localToMillis(fastLayout.parseLocalMillis(str), zone);
+            if (millis != FastFDateLayout.NO_MATCH) {
+                return new FDate(millis);
+            }
+        }
+        final DateTimeFormatter df = getJodaFormatter(zone, locale);
+        final DateTimeParser parser = df.getParser();
+        final String text = str.toString();
+        //same as DateTimeFormatter.parseMillis(...) but without an exception on mismatch
+        final DateTimeParserBucket bucket = new DateTimeParserBucket(0, ISOChronology.getInstance(zone),
+                df.getLocale(), df.getPivotYear(), df.getDefaultYear());
+        if (parser.parseInto(bucket, text, 0) != text.length()) {
+            return null;
+        }
+        try {
+            return new FDate(bucket.computeMillis(true, text));
+        } catch (final IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A null timeZone means FDates.getDefaultZoneId().
+     *
+     * @throws DateTimeException
+     *             if the string does not match the pattern
+     */
+    public FDate parse(final CharSequence str, final ZoneId timeZone, final Locale locale) {
+        return new FDate(parseMillis(str, timeZone, locale));
+    }
+
+    public long parseMillis(final CharSequence str, final ZoneId timeZone, final Locale locale) {
+        final ZoneId zone = javaZoneOrDefault(timeZone);
+        if (fastLayout != null && fastLayout.isDateTime()) {
+            final long millis = localToMillis(fastLayout.parseLocalMillis(str), zone);
+            if (millis != FastFDateLayout.NO_MATCH) {
+                return millis;
+            }
+        }
+        return ZonedDateTime.parse(str, getJavaFormatter(zone, locale)).toInstant().toEpochMilli();
+    }
+
+    /**
+     * Returns null instead of throwing an exception if the string does not match the pattern.
+     */
+    public FDate tryParse(final CharSequence str, final ZoneId timeZone, final Locale locale) {
+        final ZoneId zone = javaZoneOrDefault(timeZone);
+        if (fastLayout != null && fastLayout.isDateTime()) {
+            final long millis = localToMillis(fastLayout.parseLocalMillis(str), zone);
+            if (millis != FastFDateLayout.NO_MATCH) {
+                return new FDate(millis);
+            }
+        }
+        final java.time.format.DateTimeFormatter df = getJavaFormatter(zone, locale);
+        final ParsePosition position = new ParsePosition(0);
+        final TemporalAccessor unresolved = df.parseUnresolved(str, position);
+        if (unresolved == null || position.getErrorIndex() >= 0 || position.getIndex() != str.length()) {
+            return null;
+        }
+        try {
+            return new FDate(ZonedDateTime.parse(str, df).toInstant().toEpochMilli());
+        } catch (final DateTimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * A null timeZone means FDates.getDefaultDateTimeZone().
+     */
+    public String format(final long millis, final DateTimeZone timeZone) {
+        final StringBuilder sb = new StringBuilder(getFormatCapacity());
+        format(millis, timeZone, sb);
+        return sb.toString();
+    }
+
+    public void format(final long millis, final DateTimeZone timeZone, final StringBuilder sb) {
+        final DateTimeZone zone;
+        if (timeZone != null) {
+            zone = timeZone;
+        } else {
+            zone = FDates.getDefaultDateTimeZone();
+        }
+        if (fastLayout != null && fastLayout.format(millis + zone.getOffset(millis), sb)) {
+            return;
+        }
+        getJodaFormatter().withZone(zone).printTo(sb, millis);
+    }
+
+    /**
+     * A null timeZone means FDates.getDefaultZoneId().
+     */
+    public String format(final long millis, final ZoneId timeZone) {
+        final StringBuilder sb = new StringBuilder(getFormatCapacity());
+        format(millis, timeZone, sb);
+        return sb.toString();
+    }
+
+    public void format(final long millis, final ZoneId timeZone, final StringBuilder sb) {
+        final ZoneId zone = javaZoneOrDefault(timeZone);
+        if (fastLayout != null) {
+            final ZoneOffset offset;
+            if (zone instanceof ZoneOffset) {
+                offset = (ZoneOffset) zone;
+            } else {
+                offset = zone.getRules().getOffset(Instant.ofEpochMilli(millis));
+            }
+            if (fastLayout.format(millis + offset.getTotalSeconds() * 1000L, sb)) {
+                return;
+            }
+        }
+        getJavaFormatter().withZone(zone).formatTo(Instant.ofEpochMilli(millis), sb);
+    }
+
+    private int getFormatCapacity() {
+        if (fastLayout != null) {
+            return fastLayout.getLength();
+        } else {
+            return pattern.length() + 16;
+        }
+    }
+
+    private static DateTimeZone jodaZoneOrDefault(final DateTimeZone timeZone) {
+        if (timeZone != null) {
+            return timeZone;
+        } else {
+            return DateTimeZone.getDefault();
+        }
+    }
+
+    private static ZoneId javaZoneOrDefault(final ZoneId timeZone) {
+        if (timeZone != null) {
+            return timeZone;
+        } else {
+            return FDates.getDefaultZoneId();
+        }
+    }
+
+    /**
+     * Returns NO_MATCH for a local time that does not exist in the zone (DST gap), the formatter will then throw the
+     * appropriate exception.
+     */
+    private static long localToMillis(final long localMillis, final DateTimeZone zone) {
+        if (localMillis == FastFDateLayout.NO_MATCH) {
+            return FastFDateLayout.NO_MATCH;
+        }
+        if (zone.isFixed()) {
+            return localMillis - zone.getOffset(0L);
+        }
+        final int offset = zone.getOffsetFromLocal(localMillis);
+        final long millis = localMillis - offset;
+        if (offset != zone.getOffset(millis)) {
+            return FastFDateLayout.NO_MATCH;
+        }
+        return millis;
+    }
+
+    /**
+     * Resolves gaps and overlaps like ZonedDateTime.parse(...) does.
+     */
+    private static long localToMillis(final long localMillis, final ZoneId zone) {
+        if (localMillis == FastFDateLayout.NO_MATCH) {
+            return FastFDateLayout.NO_MATCH;
+        }
+        if (zone instanceof ZoneOffset) {
+            return localMillis - ((ZoneOffset) zone).getTotalSeconds() * 1000L;
+        }
+        final long epochSecond = Math.floorDiv(localMillis, 1000L);
+        final int nanos = (int) Math.floorMod(localMillis, 1000L) * 1000000;
+        final java.time.LocalDateTime local = java.time.LocalDateTime.ofEpochSecond(epochSecond, nanos,
+                ZoneOffset.UTC);
+        return ZonedDateTime.ofLocal(local, zone, null).toInstant().toEpochMilli();
+    }
+
+}
@@ -0,0 +1,346 @@
+package de.invesdwin.util.time.fdate.format;
+
+import javax.annotation.concurrent.Immutable;
+
+import de.invesdwin.util.time.fdate.calendar.FLocalCalendar;
+
+/**
+ * Hand written parser and printer for fixed width numeric patterns like the FDate.FORMAT_ISO_* and
+ * FDate.FORMAT_NUMBER_* ones. It works on local millis (the wall clock time as if it was UTC), the zone conversion is
+ * done by the caller.
+ *
+ * Input that does not exactly match the layout or that contains out of range values is rejected with NO_MATCH, so
+ * that the regular formatter can decide how to handle it (lenient parsing, resolving or throwing an exception).
+ */
+@Immutable
+final class FastFDateLayout {
+
+    public static final long NO_MATCH = Long.MIN_VALUE;
+
+    private static final int MIN_YEAR = 1;
+    private static final int MAX_YEAR = 9999;
+
+    private static final int LITERAL = -1;
+    private static final int YEAR = 0;
+    private static final int MONTH = 1;
+    private static final int DAY = 2;
+    private static final int HOUR = 3;
+    private static final int MINUTE = 4;
+    private static final int SECOND = 5;
+    private static final int MILLISECOND = 6;
+    private static final int FIELDS_COUNT = 7;
+    private static final char[] FIELD_LETTERS = { 'y', 'M', 'd', 'H', 'm', 's', 'S' };
+    private static final int[] FIELD_WIDTHS = { 4, 2, 2, 2, 2, 2, 3 };
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1000 };
+
+    private final int[] fieldAt;
+    private final int[] powerAt;
+    private final char[] literalAt;
+    private final boolean hasDate;
+    private final boolean hasDateTime;
+
+    private FastFDateLayout(final int[] fieldAt, final int[] powerAt, final char[] literalAt,
+            final boolean[] hasField) {
+        this.fieldAt = fieldAt;
+        this.powerAt = powerAt;
+        this.literalAt = literalAt;
+        this.hasDate = hasField[YEAR];
+        this.hasDateTime = hasDate && hasField[HOUR] && hasField[MINUTE] && hasField[SECOND];
+    }
+
+    public int getLength() {
+        return fieldAt.length;
+    }
+
+    public boolean isDate() {
+        return hasDate;
+    }
+
+    /**
+     * True if year, month, day, hour, minute and second are present.
+     */
+    public boolean isDateTime() {
+        return hasDateTime;
+    }
+
+    /**
+     * Returns null if the pattern contains anything else than yyyy, MM, dd, HH, mm, ss, SSS and non letter or quoted
+     * literals.
+     */
+    public static FastFDateLayout compile(final String pattern) {
+        final StringBuilder layout = new StringBuilder();
+        final boolean[] hasField = new boolean[FIELDS_COUNT];
+        int i = 0;
+        while (i < pattern.length()) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                final int end = pattern.indexOf('\'', i + 1);
+                if (end <= i + 1) {
+                    //unterminated or escaped quote
+                    return null;
+                }
+                for (int j = i + 1; j < end; j++) {
+                    final char literal = pattern.charAt(j);
+                    if (literal >= '0' && literal <= '9') {
+                        return null;
+                    }
+                    layout.append(literal);
+                }
+                i = end + 1;
+            } else if ((c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z')) {
+                int end = i + 1;
+                while (end < pattern.length() && pattern.charAt(end) == c) {
+                    end++;
+                }
+                final int field = indexOfField(c);
+                if (field == LITERAL || hasField[field] || end - i != FIELD_WIDTHS[field]) {
+                    return null;
+                }
+                hasField[field] = true;
+                for (int j = 0; j < FIELD_WIDTHS[field]; j++) {
+                    //placeholders that are replaced below
+                    layout.append((char) field);
+                }
+                i = end;
+            } else if (c >= '0' && c <= '9') {
+                return null;
+            } else {
+                layout.append(c);
+                i++;
+            }
+        }
+        if (!isValid(hasField)) {
+            return null;
+        }
+        final int length = layout.length();
+        final int[] fieldAt = new int[length];
+        final int[] powerAt = new int[length];
+        final char[] literalAt = new char[length];
+        int j = 0;
+        while (j < length) {
+            final char c = layout.charAt(j);
+            if (c < FIELDS_COUNT) {
+                final int width = FIELD_WIDTHS[c];
+                for (int k = 0; k < width; k++) {
+                    fieldAt[j + k] = c;
+                    powerAt[j + k] = POWERS_OF_TEN[width - 1 - k];
+                }
+                j += width;
+            } else {
+                fieldAt[j] = LITERAL;
+                literalAt[j] = c;
+                j++;
+            }
+        }
+        return new FastFDateLayout(fieldAt, powerAt, literalAt, hasField);
+    }
+
+    private static int indexOfField(final char letter) {
+        for (int i = 0; i < FIELD_LETTERS.length; i++) {
+            if (FIELD_LETTERS[i] == letter) {
+                return i;
+            }
+        }
+        return LITERAL;
+    }
+
+    private static boolean isValid(final boolean[] hasField) {
+        final boolean anyDate = hasField[YEAR] || hasField[MONTH] || hasField[DAY];
+        final boolean allDate = hasField[YEAR] && hasField[MONTH] && hasField[DAY];
+        if (anyDate && !allDate) {
+            //defaults for partial dates differ between the formatters
+            return false;
+        }
+        if ((hasField[MINUTE] || hasField[SECOND] || hasField[MILLISECOND]) && !hasField[HOUR]) {
+            return false;
+        }
+        if ((hasField[SECOND] || hasField[MILLISECOND]) && !hasField[MINUTE]) {
+            return false;
+        }
+        if (hasField[MILLISECOND] && !hasField[SECOND]) {
+            return false;
+        }
+        return anyDate || hasField[HOUR];
+    }
+
+    public long parseLocalMillis(final CharSequence str) {
+        final int length = fieldAt.length;
+        if (str.length() != length) {
+            return NO_MATCH;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millisecond = 0;
+        for (int i = 0; i < length; i++) {
+            final char c = str.charAt(i);
+            final int field = fieldAt[i];
+            if (field == LITERAL) {
+                if (c != literalAt[i]) {
+                    return NO_MATCH;
+                }
+                continue;
+            }
+            final int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_MATCH;
+            }
+            switch (field) {
+            case YEAR:
+                year = year * 10 + digit;
+                break;
+            case MONTH:
+                month = month * 10 + digit;
+                break;
+            case DAY:
+                day = day * 10 + digit;
+                break;
+            case HOUR:
+                hour = hour * 10 + digit;
+                break;
+            case MINUTE:
+                minute = minute * 10 + digit;
+                break;
+            case SECOND:
+                second = second * 10 + digit;
+                break;
+            default:
+                millisecond = millisecond * 10 + digit;
+                break;
+            }
+        }
+        return toLocalMillis(year, month, day, hour, minute, second, millisecond);
+    }
+
+    /**
+     * Parses ASCII bytes, e.g. directly from a CSV or JSON buffer.
+     */
+    public long parseLocalMillis(final byte[] bytes, final int offset, final int length) {
+        if (length != fieldAt.length) {
+            return NO_MATCH;
+        }
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        int hour = 0;
+        int minute = 0;
+        int second = 0;
+        int millisecond = 0;
+        for (int i = 0; i < length; i++) {
+            final int c = bytes[offset + i];
+            final int field = fieldAt[i];
+            if (field == LITERAL) {
+                if (c != literalAt[i]) {
+                    return NO_MATCH;
+                }
+                continue;
+            }
+            final int digit = c - '0';
+            if (digit < 0 || digit > 9) {
+                return NO_MATCH;
+            }
+            switch (field) {
+            case YEAR:
+                year = year * 10 + digit;
+                break;
+            case MONTH:
+                month = month * 10 + digit;
+                break;
+            case DAY:
+                day = day * 10 + digit;
+                break;
+            case HOUR:
+                hour = hour * 10 + digit;
+                break;
+            case MINUTE:
+                minute = minute * 10 + digit;
+                break;
+            case SECOND:
+                second = second * 10 + digit;
+                break;
+            default:
+                millisecond = millisecond * 10 + digit;
+                break;
+            }
+        }
+        return toLocalMillis(year, month, day, hour, minute, second, millisecond);
+    }
+
+    private long toLocalMillis(final int year, final int month, final int day, final int hour, final int minute,
+            final int second, final int millisecond) {
+        final long days;
+        if (hasDate) {
+            if (year < MIN_YEAR || month < 1 || month > 12 || day < 1
+                    || day > FLocalCalendar.getDaysInMonth(year, month)) {
+                return NO_MATCH;
+            }
+            days = FLocalCalendar.toEpochDay(year, month, day);
+        } else {
+            days = 0;
+        }
+        if (hour > 23 || minute > 59 || second > 59) {
+            return NO_MATCH;
+        }
+        final long millisOfDay = ((hour * 60L + minute) * 60L + second) * 1000L + millisecond;
+        return days * FLocalCalendar.MILLISECONDS_IN_DAY + millisOfDay;
+    }
+
+    /**
+     * Returns false without appending anything if the year can not be printed with four digits.
+     */
+    public boolean format(final long localMillis, final StringBuilder sb) {
+        int year = 0;
+        int month = 0;
+        int day = 0;
+        if (hasDate) {
+            final long epochDay = FLocalCalendar.getEpochDay(localMillis);
+            year = FLocalCalendar.getYearOfEpochDay(epochDay);
+            if (year < MIN_YEAR || year > MAX_YEAR) {
+                return false;
+            }
+            month = FLocalCalendar.getMonthOfEpochDay(epochDay);
+            day = FLocalCalendar.getDayOfEpochDay(epochDay);
+        }
+        final int millisOfDay = FLocalCalendar.getMillisOfDay(localMillis);
+        final int hour = millisOfDay / 3600000;
+        final int minute = millisOfDay / 60000 % 60;
+        final int second = millisOfDay / 1000 % 60;
+        final int millisecond = millisOfDay % 1000;
+        for (int i = 0; i < fieldAt.length; i++) {
+            final int field = fieldAt[i];
+            final int value;
+            switch (field) {
+            case LITERAL:
+                sb.append(literalAt[i]);
+                continue;
+            case YEAR:
+                value = year;
+                break;
+            case MONTH:
+                value = month;
+                break;
+            case DAY:
+                value = day;
+                break;
+            case HOUR:
+                value = hour;
+                break;
+            case MINUTE:
+                value = minute;
+                break;
+            case SECOND:
+                value = second;
+                break;
+            default:
+                value = millisecond;
+                break;
+            }
+            sb.append((char) ('0' + value / powerAt[i] % 10));
+        }
+        return true;
+    }
+
+}
@@ -3,6 +3,10 @@ package de.invesdwin.util.bean;
 import java.beans.PropertyChangeEvent;
 import java.beans.PropertyChangeListener;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import javax.annotation.concurrent.ThreadSafe;
 
@@ -46,6 +50,37 @@ public class AValueObjectTest {
         Assertions.assertThat(vo.getCloneableVO()).isEqualTo(voClone.getCloneableVO());
     }
 
+    @Test
+    public void testDeepCloneCollections() {
+        final CollectionsVO vo = new CollectionsVO();
+        final CloneableVO element = new CloneableVO();
+        element.setValue(5);
+        element.setMutableValue(new MutableInt(6));
+        vo.list.add(element);
+        vo.list.add(null);
+        vo.map.put("key", element);
+        vo.ints = new int[] { 1, 2, 3 };
+        vo.array = new CloneableVO[] { element };
+        vo.self = vo;
+        vo.cache = new Object();
+        final CollectionsVO voClone = (CollectionsVO) vo.clone();
+        Assertions.assertThat(vo).isNotSameAs(voClone);
+        Assertions.assertThat(vo.list).isNotSameAs(voClone.list);
+        Assertions.assertThat(vo.list).isEqualTo(voClone.list);
+        Assertions.assertThat(vo.list.get(0)).isNotSameAs(voClone.list.get(0));
+        Assertions.assertThat(vo.list.get(0).getMutableValue()).isNotSameAs(voClone.list.get(0).getMutableValue());
+        Assertions.assertThat(vo.list.get(0).getValue()).isSameAs(voClone.list.get(0).getValue());
+        Assertions.assertThat(vo.ints).isNotSameAs(voClone.ints);
+        Assertions.assertThat(vo.ints).isEqualTo(voClone.ints);
+        //shared references and cycles are preserved like with serialization
+        Assertions.assertThat(voClone.list.get(0)).isSameAs(voClone.map.get("key"));
+        Assertions.assertThat(voClone.list.get(0)).isSameAs(voClone.array[0]);
+        Assertions.assertThat(voClone.self).isSameAs(voClone);
+        //transient fields are not copied
+        Assertions.assertThat(voClone.cache).isNull();
+        Assertions.assertThat(vo.cache).isNotNull();
+    }
+
     @Test
     public void testShallowCloneableClass() {
         final CloneableClass vo = new CloneableClass();
@@ -225,6 +260,33 @@ public class AValueObjectTest {
 
     }
 
+    public static class CollectionsVO extends AValueObject {
+        //CHECKSTYLE:OFF
+        public List<CloneableVO> list = new ArrayList<>();
+        public Map<String, CloneableVO> map = new HashMap<>();
+        public int[] ints;
+        public CloneableVO[] array;
+        public CollectionsVO self;
+        public transient Object cache;
+        //CHECKSTYLE:ON
+
+        @Override
+        public int hashCode() {
+            return list.hashCode();
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj == this;
+        }
+
+        @Override
+        public String toString() {
+            return getClass().getSimpleName();
+        }
+
+    }
+
     public static class CloneableClass implements Cloneable, Serializable {
         private CloneableVO value;
         private Integer otherValue;
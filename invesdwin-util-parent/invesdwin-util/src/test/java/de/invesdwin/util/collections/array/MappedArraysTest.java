@@ -0,0 +1,122 @@
+package de.invesdwin.util.collections.array;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ReadOnlyBufferException;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.lang.Files;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class MappedArraysTest {
+
+    private static final int SIZE = 10000;
+
+    @Test
+    public void testDoubleArray() throws IOException {
+        final File file = newTempFile();
+        try {
+            final Random random = RandomGenerators.newDefaultRandom(1);
+            final IDoubleArray expected = IDoubleArray.newInstance(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                expected.set(i, random.nextDouble());
+            }
+            final MappedDoubleArray written = MappedDoubleArray.create(file, expected);
+            written.set(1, -1D);
+            expected.set(1, -1D);
+            final MappedDoubleArray opened = MappedDoubleArray.open(file, true);
+            Assertions.checkEquals(SIZE, opened.size());
+            for (int i = 0; i < SIZE; i++) {
+                Assertions.checkEquals(expected.get(i), opened.get(i));
+            }
+            final IDoubleArray subarray = opened.subarray(100, 200);
+            Assertions.checkEquals(100, subarray.size());
+            Assertions.checkEquals(expected.get(150), subarray.get(50));
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testIntegerArray() throws IOException {
+        final File file = newTempFile();
+        try {
+            final Random random = RandomGenerators.newDefaultRandom(1);
+            final IIntegerArray expected = IIntegerArray.newInstance(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                expected.set(i, random.nextInt());
+            }
+            MappedIntegerArray.create(file, expected);
+            final MappedIntegerArray opened = MappedIntegerArray.open(file, false);
+            Assertions.checkEquals(SIZE, opened.size());
+            for (int i = 0; i < SIZE; i++) {
+                Assertions.checkEquals(expected.get(i), opened.get(i));
+            }
+            opened.set(5, 5);
+            Assertions.checkEquals(5, MappedIntegerArray.open(file, true).get(5));
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    @Test
+    public void testBooleanArray() throws IOException {
+        final File file = newTempFile();
+        try {
+            final Random random = RandomGenerators.newDefaultRandom(1);
+            final IBooleanArray expected = IBooleanArray.newInstance(SIZE);
+            for (int i = 0; i < SIZE; i++) {
+                expected.set(i, random.nextBoolean());
+            }
+            final MappedBooleanArray written = MappedBooleanArray.create(file, expected);
+            written.set(3, !expected.get(3));
+            expected.set(3, !expected.get(3));
+            final MappedBooleanArray opened = MappedBooleanArray.open(file, true);
+            Assertions.checkEquals(SIZE, opened.size());
+            for (int i = 0; i < SIZE; i++) {
+                Assertions.checkEquals(expected.get(i), opened.get(i));
+            }
+            final IBooleanArray subarray = opened.subarray(13, 77);
+            for (int i = 0; i < subarray.size(); i++) {
+                Assertions.checkEquals(expected.get(13 + i), subarray.get(i));
+            }
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    @Test(expected = ReadOnlyBufferException.class)
+    public void testReadOnly() throws IOException {
+        final File file = newTempFile();
+        try {
+            MappedDoubleArray.create(file, 10);
+            MappedDoubleArray.open(file, true).set(0, 1D);
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testWrongType() throws IOException {
+        final File file = newTempFile();
+        try {
+            MappedDoubleArray.create(file, 10);
+            MappedIntegerArray.open(file, true);
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    private File newTempFile() throws IOException {
+        final File file = File.createTempFile(getClass().getSimpleName(), ".bin");
+        file.deleteOnExit();
+        return file;
+    }
+
+}
@@ -0,0 +1,122 @@
+package de.invesdwin.util.collections.bitset;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class AdaptiveAndSkippingIndexProviderTest {
+
+    private static final int SIZE = 10000;
+    private static final int ITERATIONS = 200;
+    private static final double[] PROBABILITIES = { 0.001, 0.01, 0.1, 0.5, 0.9, 0.999 };
+
+    @Test
+    public void testIntersection() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            final int count = 1 + random.nextInt(4);
+            final IBitSet[] bitSets = new IBitSet[count];
+            final PeekingSkippingIndexProvider[] peeking = new PeekingSkippingIndexProvider[count];
+            final boolean[] expected = new boolean[SIZE];
+            Arrays.fill(expected, true);
+            for (int b = 0; b < count; b++) {
+                final boolean[] values = newValues(random);
+                bitSets[b] = newBitSet(random.nextInt(3), values);
+                peeking[b] = new PeekingSkippingIndexProvider(newBitSet(random.nextInt(2), values)
+                        .newSkippingIndexProvider());
+                for (int i = 0; i < SIZE; i++) {
+                    expected[i] &= values[i];
+                }
+            }
+            assertIndexes(expected, new AdaptiveAndSkippingIndexProvider(bitSets));
+            assertIndexes(expected, new AndSkippingIndexProvider(peeking));
+            assertBlocks(expected, new AdaptiveAndSkippingIndexProvider(bitSets), 1 + random.nextInt(100));
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final IBitSet bitSet = newBitSet(0, new boolean[] { true, true, false, true });
+        Assertions.checkEquals(ISkippingIndexProvider.END,
+                new AdaptiveAndSkippingIndexProvider(bitSet, EmptyBitSet.INSTANCE).next(0));
+        Assertions.checkEquals(ISkippingIndexProvider.END, new AdaptiveAndSkippingIndexProvider().next(0));
+        Assertions.checkEquals(0, new AdaptiveAndSkippingIndexProvider(bitSet).next(0, 4, new int[0]));
+        Assertions.checkEquals(3, new AdaptiveAndSkippingIndexProvider(bitSet).next(2));
+    }
+
+    private static void assertIndexes(final boolean[] expected, final ISkippingIndexProvider actual) {
+        int next = actual.next(0);
+        for (int i = 0; i < SIZE; i++) {
+            if (expected[i]) {
+                Assertions.checkEquals(i, next);
+                next = actual.next(i + 1);
+            }
+        }
+        Assertions.checkTrue(next >= SIZE, "next: %s", next);
+    }
+
+    private static void assertBlocks(final boolean[] expected, final ISkippingIndexProvider actual,
+            final int bufferSize) {
+        final int[] buffer = new int[bufferSize];
+        int i = 0;
+        int next = 0;
+        while (true) {
+            final int count = actual.next(next, SIZE, buffer);
+            for (int j = 0; j < count; j++) {
+                while (!expected[i]) {
+                    i++;
+                }
+                Assertions.checkEquals(i, buffer[j]);
+                i++;
+            }
+            if (count < buffer.length) {
+                break;
+            }
+            next = buffer[count - 1] + 1;
+        }
+        while (i < SIZE) {
+            Assertions.checkFalse(expected[i], "i: %s", i);
+            i++;
+        }
+    }
+
+    private static IBitSet newBitSet(final int type, final boolean[] values) {
+        final IBitSet bitSet;
+        switch (type) {
+        case 0:
+            bitSet = new JavaBitSet(values.length);
+            break;
+        case 1:
+            bitSet = new RoaringBitSet(values.length);
+            break;
+        case 2:
+            bitSet = new BooleanArrayBitSet(values.length);
+            break;
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) {
+                bitSet.add(i);
+            }
+        }
+        return bitSet;
+    }
+
+    private static boolean[] newValues(final Random random) {
+        final double probability = PROBABILITIES[random.nextInt(PROBABILITIES.length)];
+        final boolean[] values = new boolean[SIZE];
+        for (int i = 0; i < SIZE; i++) {
+            values[i] = random.nextDouble() < probability;
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,223 @@
+package de.invesdwin.util.collections.bitset;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.lang.Files;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class BitSetOperationsTest {
+
+    private static final int SIZE = 1000;
+    private static final int SHIFT = 5;
+    private static final int TYPES = 9;
+    private static final int ITERATIONS = 1000;
+
+    @Test
+    public void testMixedOperands() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (int iteration = 0; iteration < ITERATIONS; iteration++) {
+            final int type = random.nextInt(TYPES);
+            final boolean[] values = newValues(random);
+            final int othersCount = 1 + random.nextInt(3);
+            final boolean[][] othersValues = new boolean[othersCount][];
+            final IBitSet[] others = new IBitSet[othersCount];
+            final boolean[] and = values.clone();
+            final boolean[] or = values.clone();
+            final boolean[] xor = values.clone();
+            final boolean[] andNot = values.clone();
+            for (int o = 0; o < othersCount; o++) {
+                othersValues[o] = newValues(random);
+                others[o] = newBitSet(random.nextInt(TYPES), othersValues[o]);
+                for (int i = 0; i < SIZE; i++) {
+                    and[i] &= othersValues[o][i];
+                    or[i] |= othersValues[o][i];
+                    xor[i] ^= othersValues[o][i];
+                    andNot[i] &= !othersValues[o][i];
+                }
+            }
+            assertValues(and, newBitSet(type, values).and(others), 0, SIZE);
+            assertValues(or, newBitSet(type, values).or(others), 0, SIZE);
+            assertValues(xor, newBitSet(type, values).xor(others), 0, SIZE);
+            assertValues(andNot, newBitSet(type, values).andNot(others), 0, SIZE);
+            final int from = random.nextInt(SIZE);
+            final int to = from + random.nextInt(SIZE - from + 1);
+            assertValues(and, newBitSet(type, values).andRange(from, to, others), from, to);
+            assertValues(or, newBitSet(type, values).orRange(from, to, others), from, to);
+            for (int o = 0; o < othersCount; o++) {
+                //operands are not modified
+                assertValues(othersValues[o], others[o], SHIFT, SIZE);
+            }
+            if (isModifiable(type)) {
+                final IBitSet andInPlace = newBitSet(type, values);
+                andInPlace.andInPlace(others);
+                assertValues(and, andInPlace, SHIFT, SIZE);
+                final IBitSet orInPlace = newBitSet(type, values);
+                orInPlace.orInPlace(others);
+                assertValues(or, orInPlace, SHIFT, SIZE);
+                final IBitSet xorInPlace = newBitSet(type, values);
+                xorInPlace.xorInPlace(others);
+                assertValues(xor, xorInPlace, SHIFT, SIZE);
+                final IBitSet andNotInPlace = newBitSet(type, values);
+                andNotInPlace.andNotInPlace(others);
+                assertValues(andNot, andNotInPlace, SHIFT, SIZE);
+                Assertions.checkEquals(count(andNot), andNotInPlace.getTrueCount());
+            }
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        final boolean[] values = newValues(random);
+        final IBitSet roaring = newBitSet(1, values);
+        assertValues(values, EmptyBitSet.INSTANCE.or(roaring), 0, SIZE);
+        assertValues(values, EmptyBitSet.INSTANCE.xor(roaring), 0, SIZE);
+        Assertions.checkSame(EmptyBitSet.INSTANCE, EmptyBitSet.INSTANCE.andNot(roaring));
+        Assertions.checkSame(EmptyBitSet.INSTANCE, roaring.and(EmptyBitSet.INSTANCE));
+        assertValues(values, roaring.or(EmptyBitSet.INSTANCE), 0, SIZE);
+        assertValues(values, roaring.andNot(EmptyBitSet.INSTANCE), 0, SIZE);
+    }
+
+    @Test
+    public void testTrueCountAfterModification() {
+        final JavaBitSet bitSet = new JavaBitSet(SIZE);
+        bitSet.add(1);
+        bitSet.add(2);
+        bitSet.orInPlace(newBitSet(2, new boolean[] { false, false, false, true }));
+        Assertions.checkEquals(3, bitSet.getTrueCount());
+        bitSet.remove(1);
+        bitSet.add(10);
+        Assertions.checkEquals(3, bitSet.getTrueCount());
+
+        final JavaBitSet duplicates = new JavaBitSet(SIZE);
+        duplicates.add(1);
+        duplicates.add(1);
+        Assertions.checkEquals(1, duplicates.getTrueCount());
+    }
+
+    @Test
+    public void testMappedRoaring() throws IOException {
+        final File file = File.createTempFile(getClass().getSimpleName(), ".bin");
+        file.deleteOnExit();
+        try {
+            final Random random = RandomGenerators.newDefaultRandom(1);
+            final boolean[] values = newValues(random);
+            final boolean[] otherValues = newValues(random);
+            MappedRoaringBitSet.write(file, newBitSet(2, values));
+            final MappedRoaringBitSet mapped = MappedRoaringBitSet.open(file);
+            Assertions.checkEquals(SIZE, mapped.getExpectedSize());
+            Assertions.checkEquals(count(values), mapped.getTrueCount());
+            assertValues(values, mapped, 0, SIZE);
+            assertValues(negate(values), mapped.negate(), 0, SIZE);
+            final boolean[] and = new boolean[SIZE];
+            final boolean[] or = new boolean[SIZE];
+            final boolean[] otherAndNot = new boolean[SIZE];
+            for (int i = 0; i < SIZE; i++) {
+                and[i] = values[i] && otherValues[i];
+                or[i] = values[i] || otherValues[i];
+                otherAndNot[i] = otherValues[i] && !values[i];
+            }
+            assertValues(and, mapped.and(newBitSet(0, otherValues)), 0, SIZE);
+            assertValues(or, mapped.or(newBitSet(1, otherValues)), 0, SIZE);
+            assertValues(and, newBitSet(0, otherValues).and(mapped), 0, SIZE);
+            assertValues(or, newBitSet(1, otherValues).or(mapped), 0, SIZE);
+            //mapped operands of roaring operations are combined via the buffer API
+            assertValues(and, mapped.and(newBitSet(1, otherValues)), 0, SIZE);
+            assertValues(and, newBitSet(1, otherValues).and(mapped), 0, SIZE);
+            assertValues(values, mapped.and(mapped), 0, SIZE);
+            assertValues(otherAndNot, newBitSet(1, otherValues).andNot(mapped), 0, SIZE);
+            final IBitSet inPlace = newBitSet(1, otherValues);
+            inPlace.andInPlace(mapped);
+            assertValues(and, inPlace, 0, SIZE);
+        } finally {
+            Files.deleteQuietly(file);
+        }
+    }
+
+    private static boolean isModifiable(final int type) {
+        return type != 5 && type != 6;
+    }
+
+    private static IBitSet newBitSet(final int type, final boolean[] values) {
+        final IBitSet bitSet;
+        switch (type) {
+        case 0:
+            bitSet = new JavaBitSet(SIZE);
+            break;
+        case 1:
+            bitSet = new RoaringBitSet(SIZE);
+            break;
+        case 2:
+            bitSet = new BooleanArrayBitSet(SIZE);
+            break;
+        case 3:
+            bitSet = new BooleanListBitSet(SIZE);
+            break;
+        case 4:
+            bitSet = ShiftedIndexDelegateBitSet.of(new JavaBitSet(SIZE), SHIFT);
+            break;
+        case 5:
+            return newBitSet(1, negate(values)).negateShallow();
+        case 6:
+            return newBitSet(0, negate(values)).negateShallow();
+        case 7:
+            return new LockedBitSet(newBitSet(1, values));
+        case 8:
+            return new SynchronizedBitSet(newBitSet(2, values));
+        default:
+            throw new IllegalArgumentException("Unknown type: " + type);
+        }
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) {
+                bitSet.add(i);
+            }
+        }
+        return bitSet;
+    }
+
+    /**
+     * The indexes below SHIFT can not be stored in a ShiftedIndexDelegateBitSet, thus they are always false.
+     */
+    private static boolean[] newValues(final Random random) {
+        final double probability = random.nextDouble();
+        final boolean[] values = new boolean[SIZE];
+        for (int i = SHIFT; i < SIZE; i++) {
+            values[i] = random.nextDouble() < probability;
+        }
+        return values;
+    }
+
+    private static boolean[] negate(final boolean[] values) {
+        final boolean[] negated = new boolean[values.length];
+        for (int i = 0; i < values.length; i++) {
+            negated[i] = !values[i];
+        }
+        return negated;
+    }
+
+    private static int count(final boolean[] values) {
+        int count = 0;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i]) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static void assertValues(final boolean[] expected, final IBitSet actual, final int fromInclusive,
+            final int toExclusive) {
+        for (int i = fromInclusive; i < toExclusive; i++) {
+            Assertions.checkEquals(expected[i], actual.contains(i), "i: %s", i);
+        }
+    }
+
+}
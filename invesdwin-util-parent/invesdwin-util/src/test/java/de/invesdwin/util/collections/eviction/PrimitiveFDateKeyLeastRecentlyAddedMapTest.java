@@ -0,0 +1,53 @@
+package de.invesdwin.util.collections.eviction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class PrimitiveFDateKeyLeastRecentlyAddedMapTest {
+
+    @Test
+    public void testSameEvictionAsArrayLeastRecentlyAddedMap() {
+        final int maximumSize = 100;
+        final ArrayLeastRecentlyAddedMap<FDate, Integer> expected = new ArrayLeastRecentlyAddedMap<>(maximumSize);
+        final PrimitiveFDateKeyLeastRecentlyAddedMap<Integer> actual = new PrimitiveFDateKeyLeastRecentlyAddedMap<>(
+                maximumSize);
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(1);
+        for (int i = 0; i < 100000; i++) {
+            final FDate key = new FDate(random.nextInt(1000));
+            if (random.nextBoolean()) {
+                Assertions.checkEquals(expected.get(key), actual.get(key));
+            } else {
+                Assertions.checkEquals(expected.put(key, i), actual.put(key, i));
+            }
+            Assertions.checkEquals(expected.size(), actual.size());
+        }
+        Assertions.checkEquals(new HashMap<FDate, Integer>(expected), new HashMap<FDate, Integer>(actual));
+    }
+
+    @Test
+    public void testRemoveAndClear() {
+        final Map<FDate, Integer> map = new PrimitiveFDateKeyLeastRecentlyAddedMap<>(3);
+        for (int i = 0; i < 10; i++) {
+            map.put(new FDate(i), i);
+        }
+        Assertions.assertThat(map.remove(new FDate(9))).isEqualTo(9);
+        Assertions.assertThat(map.containsKey(new FDate(9))).isFalse();
+        map.put(new FDate(10), 10);
+        Assertions.assertThat(map.get(new FDate(10))).isEqualTo(10);
+        map.clear();
+        Assertions.assertThat(map).isEmpty();
+        map.put(new FDate(1), 1);
+        Assertions.assertThat(map.get(new FDate(1))).isEqualTo(1);
+    }
+
+}
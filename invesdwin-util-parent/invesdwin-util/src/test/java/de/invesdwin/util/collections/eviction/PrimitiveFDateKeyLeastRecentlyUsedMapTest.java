@@ -0,0 +1,55 @@
+package de.invesdwin.util.collections.eviction;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class PrimitiveFDateKeyLeastRecentlyUsedMapTest {
+
+    @Test
+    public void testLeastRecentlyUsedIsRemoved() {
+        final PrimitiveFDateKeyLeastRecentlyUsedMap<Integer> map = new PrimitiveFDateKeyLeastRecentlyUsedMap<>(3);
+        map.put(new FDate(1), 1);
+        map.put(new FDate(2), 2);
+        map.put(new FDate(3), 3);
+        Assertions.assertThat(map).hasSize(3);
+        map.put(new FDate(4), 4);
+        Assertions.assertThat(map).hasSize(3);
+        Assertions.assertThat(map.get(new FDate(1))).isNull();
+        map.put(new FDate(4), 4);
+        map.put(new FDate(3), 3);
+        map.put(new FDate(2), 2);
+        map.get(new FDate(4));
+        map.get(new FDate(2));
+        Assertions.assertThat(map).hasSize(3);
+        map.put(new FDate(5), 5);
+        Assertions.assertThat(map).hasSize(3);
+        Assertions.assertThat(map.get(new FDate(1))).isNull();
+        Assertions.assertThat(map.get(new FDate(3))).isNull();
+        Assertions.assertThat(map.keySet()).containsOnly(new FDate(2), new FDate(4), new FDate(5));
+    }
+
+    @Test
+    public void testLeastRecentlyModifiedIsRemoved() {
+        final PrimitiveFDateKeyLeastRecentlyModifiedMap<Integer> map = new PrimitiveFDateKeyLeastRecentlyModifiedMap<>(
+                3);
+        map.put(new FDate(1), 1);
+        map.put(new FDate(2), 2);
+        map.put(new FDate(3), 3);
+        map.put(new FDate(4), 4);
+        map.put(new FDate(4), 4);
+        map.put(new FDate(3), 3);
+        map.put(new FDate(2), 2);
+        map.get(new FDate(4));
+        map.get(new FDate(2));
+        map.put(new FDate(5), 5);
+        Assertions.assertThat(map).hasSize(3);
+        Assertions.assertThat(map.get(new FDate(1))).isNull();
+        Assertions.assertThat(map.get(new FDate(4))).isNull();
+    }
+
+}
@@ -0,0 +1,103 @@
+package de.invesdwin.util.collections.iterable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class ASortedFeedsIteratorTest {
+
+    private static final int FEEDS = 50;
+    private static final int MAX_FEED_SIZE = 200;
+
+    @Test
+    public void testMerge() {
+        final List<List<Long>> feeds = newFeeds();
+        final List<Long> expected = newExpected(feeds);
+        final List<ICloseableIterator<Long>> iterators = new ArrayList<>();
+        for (final List<Long> feed : feeds) {
+            iterators.add(WrapperCloseableIterable.maybeWrap(feed).iterator());
+        }
+        final ASortedFeedsIterator<Long> merged = new ASortedFeedsIterator<Long>(iterators) {
+            @Override
+            protected Comparable<?> getCompareCriteria(final Long e) {
+                return e;
+            }
+        };
+        Assertions.checkEquals(expected, drain(merged));
+    }
+
+    @Test
+    public void testMergeLong() {
+        final List<List<Long>> feeds = newFeeds();
+        final List<Long> expected = newExpected(feeds);
+        final ALongSortedFeedsIterable<Long> merged = new ALongSortedFeedsIterable<Long>(feeds) {
+            @Override
+            protected long getCompareKey(final Long e) {
+                return e;
+            }
+        };
+        Assertions.checkEquals(expected, drain(merged.iterator()));
+    }
+
+    @Test
+    public void testMergePrefetch() {
+        final List<List<Long>> feeds = newFeeds();
+        final List<Long> expected = newExpected(feeds);
+        final ASortedFeedsIterable<Long> merged = new ASortedFeedsIterable<Long>(feeds, 10) {
+            @Override
+            protected Comparable<?> getCompareCriteria(final Long e) {
+                return e;
+            }
+        };
+        Assertions.checkEquals(expected, drain(merged.iterator()));
+    }
+
+    private List<List<Long>> newFeeds() {
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(42L);
+        final List<List<Long>> feeds = new ArrayList<>();
+        for (int i = 0; i < FEEDS; i++) {
+            final List<Long> feed = new ArrayList<>();
+            //some feeds are empty
+            final int size = random.nextInt(MAX_FEED_SIZE);
+            long value = 0;
+            for (int j = 0; j < size; j++) {
+                //duplicates within and across feeds
+                value += random.nextInt(3);
+                feed.add(value);
+            }
+            feeds.add(feed);
+        }
+        return feeds;
+    }
+
+    private List<Long> newExpected(final List<List<Long>> feeds) {
+        final List<Long> expected = new ArrayList<>();
+        for (final List<Long> feed : feeds) {
+            expected.addAll(feed);
+        }
+        Collections.sort(expected);
+        return expected;
+    }
+
+    private List<Long> drain(final ICloseableIterator<Long> iterator) {
+        final List<Long> values = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) {
+                values.add(iterator.next());
+            }
+        } finally {
+            iterator.close();
+        }
+        return values;
+    }
+
+}
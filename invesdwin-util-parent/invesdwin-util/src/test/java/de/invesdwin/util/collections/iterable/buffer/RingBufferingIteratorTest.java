@@ -0,0 +1,75 @@
+package de.invesdwin.util.collections.iterable.buffer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.list.Lists;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class RingBufferingIteratorTest {
+
+    private static final int ITERATIONS = 10_000;
+
+    @Test
+    public void testAgainstDeque() {
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(42L);
+        final RingBufferingIterator<Integer> buffer = new RingBufferingIterator<Integer>(2);
+        final ArrayDeque<Integer> expected = new ArrayDeque<Integer>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            final int action = random.nextInt(10);
+            if (action < 4) {
+                buffer.add(i);
+                expected.addLast(i);
+            } else if (action < 6) {
+                buffer.prepend(i);
+                expected.addFirst(i);
+            } else if (action < 9) {
+                if (!expected.isEmpty()) {
+                    Assertions.checkEquals(expected.pollFirst(), buffer.next());
+                }
+            } else if (random.nextInt(20) == 0) {
+                buffer.clear();
+                expected.clear();
+            }
+            Assertions.checkEquals(expected.size(), buffer.size());
+            Assertions.checkEquals(expected.peekFirst(), buffer.getHead());
+            Assertions.checkEquals(expected.peekLast(), buffer.getTail());
+        }
+        Assertions.checkEquals(new ArrayList<Integer>(expected), Lists.toListWithoutHasNext(buffer.iterator()));
+    }
+
+    @Test
+    public void testConsume() {
+        final RingBufferingIterator<Integer> buffer = new RingBufferingIterator<Integer>();
+        final RingBufferingIterator<Integer> other = new RingBufferingIterator<Integer>(Arrays.asList(1, 2, 3));
+        //swaps the arrays
+        Assertions.checkTrue(buffer.consume(other));
+        Assertions.checkTrue(other.isEmpty());
+        other.add(4);
+        other.prepend(0);
+        //copies the values
+        Assertions.checkTrue(buffer.consume(other));
+        Assertions.checkTrue(other.isEmpty());
+        final BufferingIterator<Integer> linked = new BufferingIterator<Integer>(Arrays.asList(5, 6));
+        Assertions.checkTrue(buffer.consume(linked));
+        Assertions.checkTrue(linked.isEmpty());
+        final List<Integer> expected = Arrays.asList(1, 2, 3, 0, 4, 5, 6);
+        Assertions.checkEquals(expected, Lists.toListWithoutHasNext(buffer.iterator()));
+        final List<Integer> consumed = new ArrayList<Integer>();
+        while (buffer.hasNext()) {
+            consumed.add(buffer.next());
+        }
+        Assertions.checkEquals(expected, consumed);
+        Assertions.checkNull(buffer.getHead());
+    }
+
+}
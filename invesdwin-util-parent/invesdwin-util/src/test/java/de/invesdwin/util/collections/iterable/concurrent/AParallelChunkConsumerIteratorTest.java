@@ -0,0 +1,94 @@
+package de.invesdwin.util.collections.iterable.concurrent;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.collections.iterable.WrapperCloseableIterable;
+import de.invesdwin.util.collections.list.Lists;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.WrappedExecutorService;
+
+@NotThreadSafe
+public class AParallelChunkConsumerIteratorTest {
+
+    private static final int REQUESTS = 1000;
+
+    @Test
+    public void testOwnExecutor() {
+        Assertions.checkEquals(newExpected(), Lists.toListWithoutHasNext(newIterator(null, true)));
+    }
+
+    @Test
+    public void testSharedExecutorOrdered() {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool("testSharedExecutorOrdered", 4);
+        try {
+            for (int i = 0; i < 10; i++) {
+                Assertions.checkEquals(newExpected(), Lists.toListWithoutHasNext(newIterator(executor, true)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSharedForkJoinPoolUnordered() {
+        final ForkJoinPool executor = new ForkJoinPool(4);
+        try {
+            final List<Integer> results = Lists.toListWithoutHasNext(newIterator(executor, false));
+            Collections.sort(results);
+            Assertions.checkEquals(newExpected(), results);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testCloseEarly() {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool("testCloseEarly", 4);
+        try {
+            final ICloseableIterator<Integer> iterator = newIterator(executor, true);
+            Assertions.checkEquals(0, iterator.next());
+            iterator.close();
+            //the shared executor stays usable
+            Assertions.checkEquals(newExpected(), Lists.toListWithoutHasNext(newIterator(executor, true)));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private List<Integer> newExpected() {
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            expected.add(i * 2);
+        }
+        return expected;
+    }
+
+    private ICloseableIterator<Integer> newIterator(final ExecutorService executor, final boolean ordered) {
+        final List<Integer> requests = new ArrayList<>();
+        for (int i = 0; i < REQUESTS; i++) {
+            requests.add(i);
+        }
+        return new AParallelChunkConsumerIterator<Integer, Integer>("test",
+                WrapperCloseableIterable.maybeWrap(requests).iterator(), executor, 16, ordered) {
+            @Override
+            protected Integer doWork(final Integer request) {
+                if (request % 7 == 0) {
+                    //let some requests complete out of order
+                    Thread.yield();
+                }
+                return request * 2;
+            }
+        };
+    }
+
+}
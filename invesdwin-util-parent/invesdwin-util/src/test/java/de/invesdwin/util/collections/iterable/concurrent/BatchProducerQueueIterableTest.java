@@ -0,0 +1,110 @@
+package de.invesdwin.util.collections.iterable.concurrent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.iterable.ACloseableIterator;
+import de.invesdwin.util.collections.iterable.ICloseableIterable;
+import de.invesdwin.util.collections.iterable.ICloseableIterator;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.WrappedExecutorService;
+import de.invesdwin.util.error.FastNoSuchElementException;
+import de.invesdwin.util.lang.description.TextDescription;
+
+@NotThreadSafe
+public class BatchProducerQueueIterableTest {
+
+    private static final int COUNT = 100_000;
+
+    @Test
+    public void testIterate() {
+        //small batches in a small ring to make the producer wait for the consumer
+        final BatchProducerQueueIterable<Integer> iterable = new BatchProducerQueueIterable<Integer>("testIterate",
+                newProducer(COUNT, null), 7, 3);
+        assertIterate(iterable);
+    }
+
+    @Test
+    public void testIterateSharedExecutor() {
+        final WrappedExecutorService executor = Executors.newFixedThreadPool("testIterateSharedExecutor", 2);
+        try {
+            final BatchProducerQueueIterable<Integer> iterable = new BatchProducerQueueIterable<Integer>(
+                    "testIterateSharedExecutor", newProducer(COUNT, null), 64, 4, executor);
+            for (int i = 0; i < 3; i++) {
+                assertIterate(iterable);
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmpty() {
+        final BatchProducerQueueIterable<Integer> iterable = new BatchProducerQueueIterable<Integer>("testEmpty",
+                newProducer(0, null));
+        Assertions.checkFalse(iterable.iterator().hasNext());
+    }
+
+    @Test
+    public void testCloseEarly() throws InterruptedException {
+        final AtomicBoolean producerClosed = new AtomicBoolean();
+        final BatchProducerQueueIterable<Integer> iterable = new BatchProducerQueueIterable<Integer>(
+                "testCloseEarly", newProducer(Integer.MAX_VALUE, producerClosed), 16, 2);
+        final ICloseableIterator<Integer> iterator = iterable.iterator();
+        Assertions.checkEquals(0, iterator.next());
+        Assertions.checkEquals(1, iterator.next());
+        iterator.close();
+        for (int i = 0; i < 100 && !producerClosed.get(); i++) {
+            Thread.sleep(10);
+        }
+        Assertions.checkTrue(producerClosed.get());
+    }
+
+    private void assertIterate(final ICloseableIterable<Integer> iterable) {
+        int expected = 0;
+        try (ICloseableIterator<Integer> iterator = iterable.iterator()) {
+            while (iterator.hasNext()) {
+                Assertions.checkEquals(expected, iterator.next());
+                expected++;
+            }
+        }
+        Assertions.checkEquals(COUNT, expected);
+    }
+
+    private ICloseableIterable<Integer> newProducer(final int count, final AtomicBoolean closed) {
+        return new ICloseableIterable<Integer>() {
+            @Override
+            public ICloseableIterator<Integer> iterator() {
+                return new ACloseableIterator<Integer>(new TextDescription("producer")) {
+
+                    private int next = 0;
+
+                    @Override
+                    protected boolean innerHasNext() {
+                        return next < count;
+                    }
+
+                    @Override
+                    protected Integer innerNext() {
+                        if (!innerHasNext()) {
+                            throw new FastNoSuchElementException("end reached");
+                        }
+                        return next++;
+                    }
+
+                    @Override
+                    protected void innerClose() {
+                        if (closed != null) {
+                            closed.set(true);
+                        }
+                    }
+                };
+            }
+        };
+    }
+
+}
@@ -0,0 +1,172 @@
+package de.invesdwin.util.collections.loadingcache.historical;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.list.Lists;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+@NotThreadSafe
+public class AColumnarHistoricalCacheTest {
+
+    private static final int COUNT_ENTITIES = 5000;
+    //the series is loaded in multiple batches
+    private static final int COUNT_RETRIEVAL = 1200;
+
+    private final List<TestBar> entities;
+    private final TestColumnarHistoricalCache cache = new TestColumnarHistoricalCache();
+
+    public AColumnarHistoricalCacheTest() {
+        this.entities = new ArrayList<TestBar>();
+        FDate key = FDateBuilder.newDate(1990, 1, 1);
+        for (int i = 0; i < COUNT_ENTITIES; i++) {
+            entities.add(new TestBar(key, i, i * 2D));
+            key = key.addDays(1);
+        }
+    }
+
+    @Test
+    public void testGetPreviousAndNextValue() {
+        for (int i = 0; i < entities.size(); i++) {
+            final TestBar expected = entities.get(i);
+            Assertions.checkEquals(expected, cache.query().getValue(expected.key));
+            Assertions.checkEquals(expected, cache.query().getValue(expected.key.addHours(1)));
+            if (i > 0) {
+                Assertions.checkEquals(entities.get(i - 1), cache.query().getPreviousValue(expected.key, 1));
+            }
+            if (i < entities.size() - 1) {
+                Assertions.checkEquals(entities.get(i + 1), cache.query().withFuture().getNextValue(expected.key, 1));
+            }
+        }
+        Assertions.checkNull(cache.query().getValue(entities.get(0).key.addDays(-1)));
+        Assertions.checkEquals(entities.get(0), cache.query().getPreviousValue(entities.get(10).key, 100));
+    }
+
+    @Test
+    public void testGetPreviousValues() {
+        final TestBar last = entities.get(entities.size() - 1);
+        final List<TestBar> values = Lists.toListWithoutHasNext(cache.query().getPreviousValues(last.key, 10));
+        Assertions.checkEquals(entities.subList(entities.size() - 10, entities.size()), values);
+        final List<FDate> keys = Lists.toListWithoutHasNext(cache.query().getPreviousKeys(last.key, 3));
+        Assertions.checkEquals(3, keys.size());
+        Assertions.checkEquals(entities.get(entities.size() - 3).key, keys.get(0));
+    }
+
+    @Test
+    public void testGetValuesRange() {
+        final FDate from = entities.get(100).key.addHours(-1);
+        final FDate to = entities.get(200).key;
+        final List<TestBar> values = Lists.toListWithoutHasNext(cache.query().getValues(from, to));
+        Assertions.checkEquals(entities.subList(100, 201), values);
+        Assertions.checkTrue(Lists.toListWithoutHasNext(cache.query().getValues(to.addHours(1), to.addHours(2)))
+                .isEmpty());
+    }
+
+    @Test
+    public void testZeroAllocationAccess() {
+        Assertions.checkEquals(COUNT_ENTITIES, cache.getColumnarSize());
+        final int fromIndex = cache.getCeilingIndex(entities.get(10).key.addHours(-1));
+        final int toIndex = cache.getIndex(entities.get(20).key.addHours(1));
+        Assertions.checkEquals(10, fromIndex);
+        Assertions.checkEquals(20, toIndex);
+        double sum = 0D;
+        for (int i = fromIndex; i <= toIndex; i++) {
+            sum += cache.getDouble(i, 0);
+        }
+        Assertions.checkEquals(165D, sum);
+        Assertions.checkEquals(-1, cache.getIndex(entities.get(0).key.addDays(-1)));
+
+        //the snapshot stays valid after the cache is cleared
+        final AColumnarHistoricalCache.ColumnarStorage storage = cache.getColumnarStorage();
+        cache.clear();
+        double storageSum = 0D;
+        for (int i = storage.getCeilingIndex(entities.get(10).key); i <= storage.getIndex(entities.get(20).key); i++) {
+            storageSum += storage.getDouble(i, 0);
+        }
+        Assertions.checkEquals(sum, storageSum);
+        Assertions.checkEquals(COUNT_ENTITIES, storage.getSize());
+    }
+
+    @Immutable
+    private static final class TestBar {
+        private final FDate key;
+        private final double open;
+        private final double close;
+
+        private TestBar(final FDate key, final double open, final double close) {
+            this.key = key;
+            this.open = open;
+            this.close = close;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (obj instanceof TestBar) {
+                final TestBar cObj = (TestBar) obj;
+                return key.equals(cObj.key) && open == cObj.open && close == cObj.close;
+            } else {
+                return false;
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + ": " + open + "/" + close;
+        }
+    }
+
+    private class TestColumnarHistoricalCache extends AColumnarHistoricalCache<TestBar> {
+
+        @Override
+        protected Iterable<? extends TestBar> readAllValuesAscendingFrom(final FDate key) {
+            final List<TestBar> list = new ArrayList<TestBar>();
+            for (final TestBar bar : entities) {
+                if (!bar.key.isBefore(key)) {
+                    list.add(bar);
+                    if (list.size() >= COUNT_RETRIEVAL) {
+                        break;
+                    }
+                }
+            }
+            return list;
+        }
+
+        @Override
+        protected int getColumnCount() {
+            return 2;
+        }
+
+        @Override
+        protected double extractColumnValue(final TestBar value, final int column) {
+            if (column == 0) {
+                return value.open;
+            } else {
+                return value.close;
+            }
+        }
+
+        @Override
+        protected TestBar newValue(final ColumnarStorage storage, final int index) {
+            return new TestBar(storage.getKey(index), storage.getDouble(index, 0), storage.getDouble(index, 1));
+        }
+
+        @Override
+        protected FDate innerExtractKey(final TestBar value) {
+            return value.key;
+        }
+
+    }
+
+}
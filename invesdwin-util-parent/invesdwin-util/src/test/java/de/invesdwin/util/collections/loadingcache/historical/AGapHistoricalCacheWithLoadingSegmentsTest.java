@@ -0,0 +1,143 @@
+package de.invesdwin.util.collections.loadingcache.historical;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.future.Futures;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+@ThreadSafe
+public class AGapHistoricalCacheWithLoadingSegmentsTest {
+
+    private static final int COUNT_THREADS = 8;
+    private static final int COUNT_LOADING_SEGMENTS = 4;
+    private static final int COUNT_ENTITIES = 2000;
+    private static final int COUNT_RETRIEVAL = 100;
+
+    private final List<FDate> entities;
+    private final AtomicInteger countReadAllValuesAscendingFrom = new AtomicInteger();
+
+    public AGapHistoricalCacheWithLoadingSegmentsTest() {
+        this.entities = new ArrayList<FDate>();
+        FDate entity = FDateBuilder.newDate(1990, 1, 1);
+        for (int i = 0; i < COUNT_ENTITIES; i++) {
+            entities.add(entity);
+            entity = entity.addDays(1);
+        }
+    }
+
+    @Test
+    public void testConcurrentForwardIterations() throws InterruptedException {
+        final TestGapHistoricalCache cache = new TestGapHistoricalCache(COUNT_LOADING_SEGMENTS);
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        final int countPerThread = entities.size() / COUNT_THREADS;
+        for (int t = 0; t < COUNT_THREADS; t++) {
+            //each two threads share a range so that their misses can be coalesced
+            final int fromIndex = (t / 2) * countPerThread * 2;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = fromIndex; i < fromIndex + countPerThread * 2; i++) {
+                        final FDate expectedValue = entities.get(i);
+                        final FDate value = cache.query().getValue(expectedValue);
+                        Assertions.checkEquals(expectedValue, value);
+                        if (i > 0) {
+                            final FDate previousValue = cache.query().getPreviousValue(expectedValue, 1);
+                            Assertions.checkEquals(entities.get(i - 1), previousValue);
+                        }
+                    }
+                }
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool("testConcurrentForwardIterations",
+                COUNT_THREADS);
+        try {
+            Futures.submitAndWait(executor, tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+        //each batch should be read once by one of the two threads sharing the range, allow some reads for read back
+        //steps and evictions; without segments each forward iteration would be cut off by the others
+        final int expectedBatchReads = COUNT_ENTITIES / COUNT_RETRIEVAL;
+        final int batchReads = countReadAllValuesAscendingFrom.get();
+        Assertions.checkTrue(batchReads <= expectedBatchReads * 2, "%s should be close to %s", batchReads,
+                expectedBatchReads);
+        for (int i = 0; i < entities.size(); i++) {
+            final FDate expectedValue = entities.get(i);
+            Assertions.checkEquals(expectedValue, cache.query().getValue(expectedValue));
+        }
+    }
+
+    private class TestGapHistoricalCache extends AGapHistoricalCache<FDate> {
+
+        //injected via the constructor to verify that the segments are not created before it ran
+        private final int loadingSegments;
+
+        TestGapHistoricalCache(final int loadingSegments) {
+            this.loadingSegments = loadingSegments;
+        }
+
+        @Override
+        protected int getLoadingSegments() {
+            return loadingSegments;
+        }
+
+        @Override
+        protected Iterable<FDate> readAllValuesAscendingFrom(final FDate key) {
+            countReadAllValuesAscendingFrom.incrementAndGet();
+            final List<FDate> list = new ArrayList<FDate>();
+            for (final FDate d : entities) {
+                if (!d.isBefore(key)) {
+                    list.add(d);
+                    if (list.size() >= COUNT_RETRIEVAL) {
+                        break;
+                    }
+                }
+            }
+            return list;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate entity) {
+            return entity;
+        }
+
+        @Override
+        protected FDate readLatestValueFor(final FDate key) {
+            FDate previousE = null;
+            for (final FDate e : entities) {
+                if (previousE == null) {
+                    previousE = e;
+                } else {
+                    if (key.isAfter(e)) {
+                        previousE = e;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return previousE;
+        }
+
+        @Override
+        protected FDate innerCalculatePreviousKey(final FDate key) {
+            return key.addDays(-1);
+        }
+
+        @Override
+        protected FDate innerCalculateNextKey(final FDate key) {
+            return key.addDays(1);
+        }
+
+    }
+
+}
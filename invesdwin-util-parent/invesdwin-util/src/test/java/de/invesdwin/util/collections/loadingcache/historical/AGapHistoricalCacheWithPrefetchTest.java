@@ -0,0 +1,181 @@
+package de.invesdwin.util.collections.loadingcache.historical;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.time.Instant;
+import de.invesdwin.util.time.duration.Duration;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+import de.invesdwin.util.time.fdate.FTimeUnit;
+
+@ThreadSafe
+public class AGapHistoricalCacheWithPrefetchTest {
+
+    private static final int PREFETCH_DEPTH = 2;
+    private static final int COUNT_ENTITIES = 2000;
+    private static final int COUNT_RETRIEVAL = 100;
+
+    private final List<FDate> entities;
+    private final AtomicInteger countPrefetchedReadAllValuesAscendingFrom = new AtomicInteger();
+    private final AtomicInteger countSynchronousReadAllValuesAscendingFrom = new AtomicInteger();
+    private final List<FDate> prefetchedFromKeys = new CopyOnWriteArrayList<FDate>();
+    private final Thread testThread = Thread.currentThread();
+
+    public AGapHistoricalCacheWithPrefetchTest() {
+        this.entities = new ArrayList<FDate>();
+        FDate entity = FDateBuilder.newDate(1990, 1, 1);
+        for (int i = 0; i < COUNT_ENTITIES; i++) {
+            entities.add(entity);
+            entity = entity.addDays(1);
+        }
+    }
+
+    @Test
+    public void testForwardIteration() {
+        assertForwardIteration(new TestGapHistoricalCache(AGapHistoricalCache.DEFAULT_PREFETCH_EXECUTOR));
+    }
+
+    @Test
+    public void testForwardIterationWithSingleThread() {
+        //prefetches must not wait for each other inside the executor
+        final ExecutorService executor = Executors.newFixedThreadPool("testForwardIterationWithSingleThread", 1);
+        try {
+            assertForwardIteration(new TestGapHistoricalCache(executor));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testPrefetchDepth() throws InterruptedException {
+        final TestGapHistoricalCache cache = new TestGapHistoricalCache(AGapHistoricalCache.DEFAULT_PREFETCH_EXECUTOR);
+        final int warmup = entities.size() / 2;
+        for (int i = 0; i < warmup; i++) {
+            Assertions.checkEquals(entities.get(i), cache.query().getValue(entities.get(i)));
+        }
+        //each prefetch submits its successor when it is finished, thus wait for the chain to be topped up
+        final FDate lastKey = entities.get(warmup - 1);
+        final Instant start = new Instant();
+        while (countPrefetchesFrom(lastKey) < PREFETCH_DEPTH && !start.isGreaterThan(Duration.ONE_MINUTE)) {
+            FTimeUnit.MILLISECONDS.sleep(1);
+        }
+        Assertions.checkEquals(PREFETCH_DEPTH, countPrefetchesFrom(lastKey));
+
+        final int countSynchronousAfterWarmup = countSynchronousReadAllValuesAscendingFrom.get();
+        for (int i = warmup; i < entities.size(); i++) {
+            Assertions.checkEquals(entities.get(i), cache.query().getValue(entities.get(i)));
+        }
+        Assertions.checkEquals(countSynchronousAfterWarmup, countSynchronousReadAllValuesAscendingFrom.get());
+    }
+
+    private int countPrefetchesFrom(final FDate key) {
+        int count = 0;
+        for (final FDate fromKey : prefetchedFromKeys) {
+            if (fromKey.isAfterOrEqualTo(key)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void assertForwardIteration(final TestGapHistoricalCache cache) {
+        for (int i = 0; i < entities.size(); i++) {
+            final FDate expectedValue = entities.get(i);
+            final FDate value = cache.query().getValue(expectedValue);
+            Assertions.checkEquals(expectedValue, value);
+            if (i > 0) {
+                final FDate previousValue = cache.query().getPreviousValue(expectedValue, 1);
+                Assertions.checkEquals(entities.get(i - 1), previousValue);
+            }
+        }
+        Assertions.checkTrue(countPrefetchedReadAllValuesAscendingFrom.get() > 0);
+        //backward iteration discards the prefetches
+        for (int i = entities.size() - 1; i >= 0; i--) {
+            final FDate expectedValue = entities.get(i);
+            Assertions.checkEquals(expectedValue, cache.query().getValue(expectedValue));
+        }
+    }
+
+    private class TestGapHistoricalCache extends AGapHistoricalCache<FDate> {
+
+        private final ExecutorService prefetchExecutor;
+
+        TestGapHistoricalCache(final ExecutorService prefetchExecutor) {
+            this.prefetchExecutor = prefetchExecutor;
+        }
+
+        @Override
+        protected int getPrefetchDepth() {
+            return PREFETCH_DEPTH;
+        }
+
+        @Override
+        protected ExecutorService getPrefetchExecutor() {
+            return prefetchExecutor;
+        }
+
+        @Override
+        protected Iterable<FDate> readAllValuesAscendingFrom(final FDate key) {
+            if (Thread.currentThread() != testThread) {
+                countPrefetchedReadAllValuesAscendingFrom.incrementAndGet();
+                prefetchedFromKeys.add(key);
+            } else {
+                countSynchronousReadAllValuesAscendingFrom.incrementAndGet();
+            }
+            final List<FDate> list = new ArrayList<FDate>();
+            for (final FDate d : entities) {
+                if (!d.isBefore(key)) {
+                    list.add(d);
+                    if (list.size() >= COUNT_RETRIEVAL) {
+                        break;
+                    }
+                }
+            }
+            return list;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate entity) {
+            return entity;
+        }
+
+        @Override
+        protected FDate readLatestValueFor(final FDate key) {
+            FDate previousE = null;
+            for (final FDate e : entities) {
+                if (previousE == null) {
+                    previousE = e;
+                } else {
+                    if (key.isAfter(e)) {
+                        previousE = e;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return previousE;
+        }
+
+        @Override
+        protected FDate innerCalculatePreviousKey(final FDate key) {
+            return key.addDays(-1);
+        }
+
+        @Override
+        protected FDate innerCalculateNextKey(final FDate key) {
+            return key.addDays(1);
+        }
+
+    }
+
+}
@@ -0,0 +1,120 @@
+package de.invesdwin.util.collections.loadingcache.historical.query.internal.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.list.Lists;
+import de.invesdwin.util.collections.loadingcache.historical.AGapHistoricalCache;
+import de.invesdwin.util.concurrent.Executors;
+import de.invesdwin.util.concurrent.future.Futures;
+import de.invesdwin.util.time.fdate.FDate;
+import de.invesdwin.util.time.fdate.FDateBuilder;
+
+@ThreadSafe
+public class ThreadLocalCachedHistoricalCacheQueryCoreTest {
+
+    private static final int COUNT_THREADS = 8;
+    private static final int COUNT_ENTITIES = 500;
+    private static final int SHIFT_BACK_UNITS = 10;
+
+    private final List<FDate> entities;
+
+    public ThreadLocalCachedHistoricalCacheQueryCoreTest() {
+        this.entities = new ArrayList<FDate>();
+        FDate entity = FDateBuilder.newDate(1990, 1, 1);
+        for (int i = 0; i < COUNT_ENTITIES; i++) {
+            entities.add(entity);
+            entity = entity.addDays(1);
+        }
+    }
+
+    @Test
+    public void testConcurrentPreviousValues() throws InterruptedException {
+        final TestGapHistoricalCache cache = new TestGapHistoricalCache();
+        cache.enableThreadLocalQueryCore();
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int t = 0; t < COUNT_THREADS; t++) {
+            final boolean forward = t % 2 == 0;
+            tasks.add(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = SHIFT_BACK_UNITS; i < entities.size(); i++) {
+                        final int index;
+                        if (forward) {
+                            index = i;
+                        } else {
+                            index = entities.size() - 1 - i + SHIFT_BACK_UNITS;
+                        }
+                        final List<FDate> values = Lists.toListWithoutHasNext(
+                                cache.query().getPreviousValues(entities.get(index), SHIFT_BACK_UNITS));
+                        final List<FDate> expectedValues = entities.subList(index - SHIFT_BACK_UNITS + 1, index + 1);
+                        Assertions.checkEquals(expectedValues, values);
+                        final FDate value = cache.query().getPreviousValue(entities.get(index), SHIFT_BACK_UNITS - 1);
+                        Assertions.checkEquals(expectedValues.get(0), value);
+                    }
+                }
+            });
+        }
+        final ExecutorService executor = Executors.newFixedThreadPool("testConcurrentPreviousValues",
+                COUNT_THREADS);
+        try {
+            Futures.submitAndWait(executor, tasks);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private class TestGapHistoricalCache extends AGapHistoricalCache<FDate> {
+
+        @Override
+        protected Iterable<FDate> readAllValuesAscendingFrom(final FDate key) {
+            final List<FDate> list = new ArrayList<FDate>();
+            for (final FDate d : entities) {
+                if (!d.isBefore(key)) {
+                    list.add(d);
+                }
+            }
+            return list;
+        }
+
+        @Override
+        protected FDate innerExtractKey(final FDate entity) {
+            return entity;
+        }
+
+        @Override
+        protected FDate readLatestValueFor(final FDate key) {
+            FDate previousE = null;
+            for (final FDate e : entities) {
+                if (previousE == null) {
+                    previousE = e;
+                } else {
+                    if (key.isAfter(e)) {
+                        previousE = e;
+                    } else {
+                        break;
+                    }
+                }
+            }
+            return previousE;
+        }
+
+        @Override
+        protected FDate innerCalculatePreviousKey(final FDate key) {
+            return key.addDays(-1);
+        }
+
+        @Override
+        protected FDate innerCalculateNextKey(final FDate key) {
+            return key.addDays(1);
+        }
+
+    }
+
+}
@@ -0,0 +1,133 @@
+package de.invesdwin.util.concurrent.reference.persistent;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.lang.Files;
+
+@NotThreadSafe
+public class PersistentReferenceManagerTest {
+
+    private static final int SIZE = 1000;
+
+    @Test
+    public void testLeastRecentlyUsedIsCompressed() {
+        final PersistentReferenceManager manager = new PersistentReferenceManager(SIZE * 2);
+        final ManagedPersistentReference<ArrayList<Integer>> first = manager.newReference(newValues(1), SIZE);
+        final ManagedPersistentReference<ArrayList<Integer>> second = manager.newReference(newValues(2), SIZE);
+        Assertions.checkEquals(SIZE * 2L, manager.getHeapSize());
+        Assertions.checkFalse(first.isCompressed());
+        //first is now the most recently used
+        Assertions.checkEquals(newValues(1), first.get());
+        final ManagedPersistentReference<ArrayList<Integer>> third = manager.newReference(newValues(3), SIZE);
+        Assertions.checkFalse(first.isCompressed());
+        Assertions.checkTrue(second.isCompressed());
+        Assertions.checkFalse(third.isCompressed());
+        Assertions.checkEquals(SIZE * 2L, manager.getHeapSize());
+        Assertions.checkTrue(manager.getCompressedSize() > 0);
+
+        Assertions.checkEquals(newValues(2), second.get());
+        Assertions.checkFalse(second.isCompressed());
+        Assertions.checkTrue(first.isCompressed());
+        Assertions.checkEquals(newValues(1), first.get());
+        Assertions.checkEquals(newValues(3), third.get());
+    }
+
+    @Test
+    public void testSpill() {
+        final File directory = new File(System.getProperty("java.io.tmpdir"), getClass().getSimpleName());
+        Files.deleteQuietly(directory);
+        Assertions.checkTrue(directory.mkdirs());
+        try {
+            final PersistentReferenceManager manager = new PersistentReferenceManager(0, 0, directory,
+                    ReferenceCompressors.DEFLATE);
+            final List<ManagedPersistentReference<ArrayList<Integer>>> references = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                references.add(manager.newReference(newValues(i)));
+            }
+            Assertions.checkEquals(0L, manager.getCompressedSize());
+            Assertions.checkTrue(references.get(0).isSpilled());
+            Assertions.checkTrue(references.get(1).isSpilled());
+            Assertions.checkFalse(references.get(2).isSpilled());
+            Assertions.checkEquals(2, directory.list().length);
+            for (int i = 0; i < references.size(); i++) {
+                Assertions.checkEquals(newValues(i), references.get(i).get());
+            }
+            for (int i = 0; i < references.size(); i++) {
+                references.get(i).close();
+                Assertions.checkNull(references.get(i).get());
+            }
+            Assertions.checkEquals(0, directory.list().length);
+            Assertions.checkEquals(0L, manager.getHeapSize());
+            Assertions.checkEquals(0L, manager.getCompressedSize());
+        } finally {
+            Files.deleteQuietly(directory);
+        }
+    }
+
+    @Test
+    public void testUnclosedReferencesAreFinalized() throws InterruptedException {
+        final File directory = new File(System.getProperty("java.io.tmpdir"),
+                getClass().getSimpleName() + "Finalized");
+        Files.deleteQuietly(directory);
+        Assertions.checkTrue(directory.mkdirs());
+        try {
+            final PersistentReferenceManager manager = new PersistentReferenceManager(0, 0, directory,
+                    ReferenceCompressors.DEFLATE);
+            for (int i = 0; i < 3; i++) {
+                //the manager should not keep these references reachable
+                manager.newReference(newValues(i));
+            }
+            Assertions.checkEquals(2, directory.list().length);
+            for (int i = 0; i < 100 && (directory.list().length > 0 || manager.getHeapSize() > 0); i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+            Assertions.checkEquals(0, directory.list().length);
+            Assertions.checkEquals(0L, manager.getHeapSize());
+            Assertions.checkEquals(0L, manager.getCompressedSize());
+        } finally {
+            Files.deleteQuietly(directory);
+        }
+    }
+
+    @Test
+    public void testClear() {
+        final PersistentReferenceManager manager = new PersistentReferenceManager(Long.MAX_VALUE);
+        final ManagedPersistentReference<ArrayList<Integer>> reference = manager.newReference(newValues(1));
+        reference.clear();
+        Assertions.checkTrue(reference.isCompressed());
+        Assertions.checkEquals(0L, manager.getHeapSize());
+        Assertions.checkEquals(newValues(1), reference.get());
+        Assertions.checkFalse(reference.isCompressed());
+        Assertions.checkEquals(0L, manager.getCompressedSize());
+    }
+
+    @Test
+    public void testCompressors() {
+        final byte[] data = new byte[SIZE * 10];
+        for (int i = 0; i < data.length; i++) {
+            data[i] = (byte) (i % 7);
+        }
+        for (final ReferenceCompressors compressor : ReferenceCompressors.values()) {
+            Assertions.checkTrue(Arrays.equals(data, compressor.decompress(compressor.compress(data))));
+        }
+        Assertions.checkTrue(ReferenceCompressors.DEFLATE.compress(data).length < data.length);
+    }
+
+    private static ArrayList<Integer> newValues(final int seed) {
+        final ArrayList<Integer> values = new ArrayList<>(SIZE);
+        for (int i = 0; i < SIZE; i++) {
+            values.add(seed * i);
+        }
+        return values;
+    }
+
+}
@@ -0,0 +1,126 @@
+package de.invesdwin.util.math.decimal.internal;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.decimal.scaled.Percent;
+import de.invesdwin.util.math.decimal.scaled.PercentScale;
+
+@NotThreadSafe
+public class PrimitiveDecimalAggregateTest {
+
+    private static final int COUNT_VALUES = 1000;
+
+    private final List<Decimal> values;
+    private final double[] array;
+
+    public PrimitiveDecimalAggregateTest() {
+        this.values = new ArrayList<Decimal>(COUNT_VALUES);
+        this.array = new double[COUNT_VALUES];
+        for (int i = 0; i < COUNT_VALUES; i++) {
+            final double value = 100D + i + Math.sin(i) * 10D;
+            values.add(new Decimal(value));
+            array[i] = value;
+        }
+    }
+
+    @Test
+    public void testSameResultsAsDecimalAggregate() {
+        final IDecimalAggregate<Decimal> expected = Decimal.valueOf(values);
+        final IDecimalAggregate<Decimal> actual = Decimal.valueOfArray(array);
+        Assertions.checkTrue(actual instanceof PrimitiveDecimalAggregate);
+        assertSameResults(expected, actual);
+        assertSameResults(expected.detrendRelative(), actual.detrendRelative());
+        assertSameResults(expected.detrendAbsolute(), actual.detrendAbsolute());
+        assertSameResults(expected.normalize(), actual.normalize());
+        assertSameResults(expected.reverse(), actual.reverse());
+        assertSameResults(expected.sortDescending(), actual.sortDescending());
+        assertSameResults(expected.multiplyEach(new Decimal(2)), actual.multiplyEach(new Decimal(2)));
+        assertSameResults(expected.divideEach(new Decimal(2)), actual.divideEach(new Decimal(2)));
+        assertSameResults(expected.subtractEach(new Decimal(150)).positiveValues(),
+                actual.subtractEach(new Decimal(150)).positiveValues());
+        assertSameResults(expected.round(1), actual.round(1));
+        Assertions.checkEquals(expected.growthRate(), actual.growthRate());
+        Assertions.checkEquals(expected.growthRatesTrend(), actual.growthRatesTrend());
+        Assertions.checkEquals(expected.growthRates().values(), actual.growthRates().values());
+    }
+
+    @Test
+    public void testNullValues() {
+        final IDecimalAggregate<Decimal> agg = Decimal.valueOfArray(1D, Double.NaN, 3D);
+        Assertions.checkNull(agg.values().get(1));
+        Assertions.checkEquals(new Decimal(4), agg.sum());
+        Assertions.checkEquals(new Decimal(3), agg.max());
+        Assertions.checkEquals(new Decimal(1), agg.min());
+        Assertions.checkEquals(2, agg.removeNullValues().size());
+        Assertions.checkEquals(Decimal.ZERO, agg.nullToZeroEach().values().get(1));
+        Assertions.checkEquals(new Decimal(2), agg.median());
+        Assertions.checkEquals(agg.removeNullValues().avgWeightedAsc(), agg.avgWeightedAsc());
+        Assertions.checkEquals(agg.removeNullValues().avgWeightedDesc(), agg.avgWeightedDesc());
+        final List<Decimal> normalized = agg.normalize().values();
+        Assertions.checkEquals(Decimal.ZERO, normalized.get(0));
+        Assertions.checkNull(normalized.get(1));
+        Assertions.checkEquals(Decimal.ONE, normalized.get(2));
+
+        //DecimalAggregate only skips nulls in some of its aggregations, thus compare against it without the nulls
+        final IDecimalAggregate<Decimal> expected = Decimal.valueOf(Arrays.asList(new Decimal(1), null, new Decimal(3)))
+                .removeNullValues();
+        Assertions.checkEquals(expected.avg(), agg.avg());
+        Assertions.checkEquals(expected.sampleVariance(), agg.sampleVariance());
+        Assertions.checkEquals(expected.sampleStandardDeviation(), agg.sampleStandardDeviation());
+        Assertions.checkEquals(expected.product(), agg.product());
+        Assertions.checkEquals(expected.geomAvg(), agg.geomAvg());
+
+        final IDecimalAggregate<Decimal> trailingNull = Decimal.valueOfArray(5D, Double.NaN);
+        Assertions.checkEquals(new Decimal(5), trailingNull.min());
+        Assertions.checkEquals(new Decimal(5), trailingNull.max());
+    }
+
+    @Test
+    public void testOnlyNullValues() {
+        final IDecimalAggregate<Decimal> agg = Decimal.valueOfArray(Double.NaN, Double.NaN, Double.NaN);
+        Assertions.checkEquals(Decimal.ZERO, agg.sum());
+        Assertions.checkEquals(Decimal.ZERO, agg.avgWeightedAsc());
+        Assertions.checkEquals(Decimal.ZERO, agg.avgWeightedDesc());
+        Assertions.checkNull(agg.median());
+        Assertions.checkNull(agg.min());
+        Assertions.checkNull(agg.max());
+        Assertions.checkEquals(agg.values(), agg.normalize().values());
+    }
+
+    @Test
+    public void testPercent() {
+        final IDecimalAggregate<Percent> agg = Percent.valueOfRates(0.1D, 0.2D, 0.3D);
+        Assertions.checkEquals(new Percent(20D, PercentScale.PERCENT), agg.avg());
+        Assertions.checkEquals(new Percent(60D, PercentScale.PERCENT), agg.sum());
+        Assertions.checkEquals(new Decimal(0.2D), agg.defaultValues().avg());
+    }
+
+    private void assertSameResults(final IDecimalAggregate<Decimal> expected, final IDecimalAggregate<Decimal> actual) {
+        Assertions.checkEquals(expected.size(), actual.size());
+        Assertions.checkEquals(expected.values(), actual.values());
+        Assertions.checkEquals(expected.sum(), actual.sum());
+        Assertions.checkEquals(expected.avg(), actual.avg());
+        Assertions.checkEquals(expected.median(), actual.median());
+        Assertions.checkEquals(expected.min(), actual.min());
+        Assertions.checkEquals(expected.max(), actual.max());
+        Assertions.checkEquals(expected.avgWeightedAsc(), actual.avgWeightedAsc());
+        Assertions.checkEquals(expected.avgWeightedDesc(), actual.avgWeightedDesc());
+        Assertions.checkEquals(expected.geomAvg(), actual.geomAvg());
+        Assertions.checkEquals(expected.sampleVariance(), actual.sampleVariance());
+        Assertions.checkEquals(expected.sampleStandardDeviation(), actual.sampleStandardDeviation());
+        Assertions.checkEquals(expected.bestValueIndex(true), actual.bestValueIndex(true));
+        Assertions.checkEquals(expected.bestValueIndex(false), actual.bestValueIndex(false));
+        Assertions.checkEquals(expected.isStableOrRisingEach(), actual.isStableOrRisingEach());
+        Assertions.checkEquals(expected.removeFlatSequences().size(), actual.removeFlatSequences().size());
+    }
+
+}
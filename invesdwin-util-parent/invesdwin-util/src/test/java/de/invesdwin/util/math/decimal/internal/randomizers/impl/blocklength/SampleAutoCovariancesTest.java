@@ -0,0 +1,39 @@
+package de.invesdwin.util.math.decimal.internal.randomizers.impl.blocklength;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class SampleAutoCovariancesTest {
+
+    private static final double TOLERANCE = 1E-9;
+
+    @Test
+    public void testFftEqualsDirect() {
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(1L);
+        for (final int length : new int[] { 2, 3, 10, 1000, 12345 }) {
+            final double[] sample = new double[length];
+            double value = 100D;
+            for (int i = 0; i < length; i++) {
+                //autocorrelated random walk
+                value += random.nextGaussian();
+                sample[i] = value;
+            }
+            final int maxLag = (int) CircularOptimalBlockLength.determineOptimalLag_maxlag(length);
+            final double[] direct = SampleAutoCovariances.newDirect(sample, maxLag);
+            final double[] fft = SampleAutoCovariances.newFft(sample, maxLag);
+            Assertions.checkEquals(direct.length, fft.length);
+            for (int lag = 0; lag < direct.length; lag++) {
+                final double difference = Math.abs(direct[lag] - fft[lag]);
+                Assertions.checkTrue(difference <= TOLERANCE * Math.max(1D, Math.abs(direct[0])),
+                        "length=%s lag=%s direct=%s fft=%s", length, lag, direct[lag], fft[lag]);
+            }
+        }
+    }
+
+}
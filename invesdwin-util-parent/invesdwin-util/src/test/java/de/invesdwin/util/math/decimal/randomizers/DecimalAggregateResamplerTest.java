@@ -0,0 +1,88 @@
+package de.invesdwin.util.math.decimal.randomizers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.decimal.Decimal;
+import de.invesdwin.util.math.decimal.IDecimalAggregate;
+import de.invesdwin.util.math.stream.doubl.DoubleStreamProfitFactor;
+
+@NotThreadSafe
+public class DecimalAggregateResamplerTest {
+
+    private static final int COUNT_VALUES = 1000;
+    private static final int COUNT_RESAMPLES = 500;
+    private static final long SEED = 123456789L;
+
+    private final IDecimalAggregate<Decimal> agg;
+
+    public DecimalAggregateResamplerTest() {
+        final List<Decimal> values = new ArrayList<Decimal>(COUNT_VALUES);
+        for (int i = 0; i < COUNT_VALUES; i++) {
+            values.add(new Decimal(Math.sin(i) * 100D));
+        }
+        this.agg = Decimal.valueOf(values);
+    }
+
+    @Test
+    public void testReproducibleRegardlessOfParallelism() {
+        final ForkJoinPool singlePool = new ForkJoinPool(1);
+        final ForkJoinPool multiPool = new ForkJoinPool(4);
+        try {
+            final DecimalAggregateResampler<Decimal> singleResampler = new DecimalAggregateResampler<Decimal>(agg,
+                    singlePool);
+            final DecimalAggregateResampler<Decimal> multiResampler = new DecimalAggregateResampler<Decimal>(agg,
+                    multiPool);
+            for (final DecimalBootstrapType type : DecimalBootstrapType.values()) {
+                final double[] single = singleResampler.resampleStream(type, SEED, COUNT_RESAMPLES,
+                        DoubleStreamProfitFactor::new, DoubleStreamProfitFactor::getProfitFactor);
+                final double[] multi = multiResampler.resampleStream(type, SEED, COUNT_RESAMPLES,
+                        DoubleStreamProfitFactor::new, DoubleStreamProfitFactor::getProfitFactor);
+                Assertions.checkTrue(Arrays.equals(single, multi));
+            }
+        } finally {
+            singlePool.shutdown();
+            multiPool.shutdown();
+        }
+    }
+
+    @Test
+    public void testIndexesMatchIterator() {
+        final DecimalAggregateResampler<Decimal> resampler = new DecimalAggregateResampler<Decimal>(agg);
+        for (final DecimalBootstrapType type : DecimalBootstrapType.values()) {
+            final double[][] resamples = resampler.resampleDefaultValues(type, SEED, 10);
+            for (int i = 0; i < resamples.length; i++) {
+                final Iterator<Decimal> iterator = type.randomize(agg, DecimalAggregateResampler.newRandom(SEED, i));
+                final double[] resample = resamples[i];
+                Assertions.checkEquals(COUNT_VALUES, resample.length);
+                for (int j = 0; j < resample.length; j++) {
+                    Assertions.checkEquals(iterator.next().getDefaultValue(), resample[j]);
+                }
+                Assertions.checkFalse(iterator.hasNext());
+            }
+        }
+    }
+
+    @Test
+    public void testShuffleIsPermutation() {
+        final DecimalAggregateResampler<Decimal> resampler = new DecimalAggregateResampler<Decimal>(agg);
+        final int[][] resamples = resampler.resampleIndexes(random -> agg.randomize().shuffleIndexes(random), SEED,
+                COUNT_RESAMPLES);
+        for (int i = 0; i < resamples.length; i++) {
+            final int[] sorted = resamples[i].clone();
+            Arrays.sort(sorted);
+            for (int j = 0; j < sorted.length; j++) {
+                Assertions.checkEquals(j, sorted[j]);
+            }
+        }
+    }
+
+}
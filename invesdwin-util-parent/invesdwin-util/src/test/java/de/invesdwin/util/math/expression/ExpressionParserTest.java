@@ -6,11 +6,20 @@ import org.junit.ComparisonFailure;
 import org.junit.Test;
 
 import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.collections.bitset.IBitSet;
+import de.invesdwin.util.collections.bitset.JavaBitSet;
 import de.invesdwin.util.math.Characters;
+import de.invesdwin.util.math.expression.compiler.ExpressionCompiler;
 import de.invesdwin.util.math.expression.eval.IParsedExpression;
 import de.invesdwin.util.math.expression.eval.operation.Op;
+import de.invesdwin.util.math.expression.eval.variable.AVariableReference;
 import de.invesdwin.util.math.expression.function.IPreviousKeyFunction;
+import de.invesdwin.util.math.expression.lambda.IEvaluateBooleanKey;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDouble;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleFDate;
+import de.invesdwin.util.math.expression.lambda.IEvaluateDoubleKey;
 import de.invesdwin.util.math.expression.tokenizer.ParseException;
+import de.invesdwin.util.math.expression.variable.IDoubleVariable;
 import de.invesdwin.util.time.fdate.IFDateProvider;
 
 @NotThreadSafe
@@ -125,6 +134,160 @@ public class ExpressionParserTest {
         Assertions.checkEquals(Double.NaN, evaluateDouble);
     }
 
+    @Test
+    public void testKeyRange() {
+        final String[] expressions = { "x", "x+1", "2*x", "x/3-x", "x^2", "x%7", "5-x", "x>10", "x>=x*2", "3<x",
+                "x>10 && x<20", "x>10 || x<-20", "!(x>10)", "x>10 xor x<20", "abs(x)", "abs(x)>5 && isNaN(x)",
+                "1+2", "x+NaN", "NaN>x" };
+        final int fromKey = 3;
+        final int toKey = 97;
+        for (final String expression : expressions) {
+            final IExpression parsed = new ExpressionParser(expression) {
+                @Override
+                protected AVariableReference<?> getVariable(final String context, final String name) {
+                    if ("x".equals(name)) {
+                        return new KeyVariable().newReference(context);
+                    }
+                    return super.getVariable(context, name);
+                }
+            }.parse();
+            final IEvaluateDoubleKey doubleF = parsed.newEvaluateDoubleKey();
+            final double[] doubles = new double[toKey - fromKey + 1];
+            parsed.newEvaluateDoubleKeyRange().evaluateDouble(fromKey, toKey, doubles);
+            final IEvaluateBooleanKey booleanF = parsed.newEvaluateBooleanKey();
+            final IBitSet booleans = new JavaBitSet(doubles.length);
+            parsed.newEvaluateBooleanKeyRange().evaluateBoolean(fromKey, toKey, booleans);
+            for (int key = fromKey; key <= toKey; key++) {
+                Assertions.checkEquals(doubleF.evaluateDouble(key), doubles[key - fromKey], "%s", expression);
+                Assertions.checkEquals(booleanF.evaluateBoolean(key), booleans.contains(key - fromKey), "%s",
+                        expression);
+            }
+        }
+    }
+
+    @Test
+    public void testCompile() {
+        final String[] expressions = { "x", "5-x", "x+1", "2*x-3/x", "x^2", "x%7", "x>10", "x>=x*2", "x=5", "x!=5",
+                "x>10 && x<20", "x>10 || x<-20", "!(x>10)", "x>10 xor x<20", "abs(x)", "isNaN(x)", "1+2", "x+NaN",
+                "NaN>x", "(x+1)*(x-1) > 100 || !(x > 0 && x % 2 = 0)" };
+        for (final String expression : expressions) {
+            final IExpression parsed = new ExpressionParser(expression) {
+                @Override
+                protected AVariableReference<?> getVariable(final String context, final String name) {
+                    if ("x".equals(name)) {
+                        return new KeyVariable().newReference(context);
+                    }
+                    return super.getVariable(context, name);
+                }
+            }.parse();
+            final IEvaluateDoubleKey doubleF = parsed.newEvaluateDoubleKey();
+            final IEvaluateDoubleKey compiledDoubleF = ExpressionCompiler.newEvaluateDoubleKey(parsed);
+            final IEvaluateBooleanKey booleanF = parsed.newEvaluateBooleanKey();
+            final IEvaluateBooleanKey compiledBooleanF = ExpressionCompiler.newEvaluateBooleanKey(parsed);
+            for (int key = 0; key <= 100; key++) {
+                Assertions.checkEquals(doubleF.evaluateDouble(key), compiledDoubleF.evaluateDouble(key), "%s",
+                        expression);
+                Assertions.checkEquals(booleanF.evaluateBoolean(key), compiledBooleanF.evaluateBoolean(key), "%s",
+                        expression);
+            }
+        }
+    }
+
+    @Test
+    public void testSlidingWindow() {
+        final String[] expressions = { "sum(x, 7)", "count(x, 7)", "variance(x, 7)", "sampleStddev(x, 7)",
+                "median(x, 7)", "percentile(0.3, x, 7)", "stable(x > -20, 7)", "stableCount(x > -20, 7)",
+                "occurs(x > 30, 7)", "occursCount(x > 30, 7)" };
+        for (final String expression : expressions) {
+            final IEvaluateDoubleKey statelessF = parseSlidingWindow(expression, false).newEvaluateDoubleKey();
+            final IEvaluateDoubleKey slidingF = parseSlidingWindow(expression, true).newEvaluateDoubleKey();
+            for (int key = 0; key <= 100; key++) {
+                assertSlidingWindow(expression, statelessF.evaluateDouble(key), slidingF.evaluateDouble(key));
+                //the same key is evaluated again instead of sliding
+                assertSlidingWindow(expression, statelessF.evaluateDouble(key), slidingF.evaluateDouble(key));
+            }
+            for (int key = 100; key >= 0; key -= 3) {
+                //random access falls back to calculating the whole window
+                assertSlidingWindow(expression, statelessF.evaluateDouble(key), slidingF.evaluateDouble(key));
+            }
+        }
+    }
+
+    private void assertSlidingWindow(final String expression, final double expected, final double actual) {
+        if (Double.isNaN(expected)) {
+            Assertions.checkEquals(expected, actual, "%s", expression);
+        } else {
+            Assertions.checkTrue(Math.abs(expected - actual) < 0.000001D, "%s: %s != %s", expression, expected,
+                    actual);
+        }
+    }
+
+    private IExpression parseSlidingWindow(final String expression, final boolean sequential) {
+        return new ExpressionParser(expression) {
+            @Override
+            protected AVariableReference<?> getVariable(final String context, final String name) {
+                if ("x".equals(name)) {
+                    return new KeyVariable().newReference(context);
+                }
+                return super.getVariable(context, name);
+            }
+
+            @Override
+            protected IPreviousKeyFunction getPreviousKeyFunction(final String context) {
+                return new IPreviousKeyFunction() {
+
+                    @Override
+                    public int getPreviousKey(final int key, final int index) {
+                        return Math.max(0, key - index);
+                    }
+
+                    @Override
+                    public IFDateProvider getPreviousKey(final IFDateProvider key, final int index) {
+                        return key.asFDate().addDays(-index);
+                    }
+
+                    @Override
+                    public boolean isSequential() {
+                        return sequential;
+                    }
+                };
+            }
+        }.parse();
+    }
+
+    @Test
+    public void testCommonSubexpressionElimination() {
+        final String expression = "(x*2+1) + (x*2+1)*3 - (x*2+1)/2";
+        final KeyVariable variable = new KeyVariable();
+        final KeyVariable cseVariable = new KeyVariable();
+        final IEvaluateDoubleKey doubleF = parseWithKeyVariable(expression, variable, false).newEvaluateDoubleKey();
+        final IEvaluateDoubleKey cseDoubleF = parseWithKeyVariable(expression, cseVariable, true)
+                .newEvaluateDoubleKey();
+        for (int key = 0; key <= 100; key++) {
+            Assertions.checkEquals(doubleF.evaluateDouble(key), cseDoubleF.evaluateDouble(key));
+        }
+        Assertions.checkEquals(303, variable.evaluations);
+        Assertions.checkEquals(101, cseVariable.evaluations);
+    }
+
+    private IExpression parseWithKeyVariable(final String expression, final KeyVariable variable,
+            final boolean commonSubexpressionElimination) {
+        return new ExpressionParser(expression) {
+            @Override
+            protected AVariableReference<?> getVariable(final String context, final String name) {
+                if ("x".equals(name)) {
+                    return variable.newReference(context);
+                }
+                return super.getVariable(context, name);
+            }
+
+            @Override
+            protected boolean isCommonSubexpressionElimination() {
+                return commonSubexpressionElimination;
+            }
+        }.parse();
+    }
+
     @Test
     public void testPreviousKeyWithComment() {
         final IExpression parsed = new ExpressionParser("//asdf\nNaN").parse();
@@ -1417,4 +1580,70 @@ public class ExpressionParserTest {
         final boolean result = parsed.newEvaluateBoolean().evaluateBoolean();
         Assertions.checkEquals(false, result);
     }
+
+    private static final class KeyVariable implements IDoubleVariable {
+
+        private int evaluations;
+
+        private double valueOf(final int key) {
+            evaluations++;
+            if (key % 10 == 0) {
+                return Double.NaN;
+            } else {
+                return key - 50;
+            }
+        }
+
+        @Override
+        public IEvaluateDoubleFDate newEvaluateDoubleFDate(final String context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public IEvaluateDoubleKey newEvaluateDoubleKey(final String context) {
+            return key -> valueOf(key);
+        }
+
+        @Override
+        public IEvaluateDouble newEvaluateDouble(final String context) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public String getExpressionName() {
+            return "x";
+        }
+
+        @Override
+        public String getName() {
+            return "x";
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public boolean isConstant() {
+            return false;
+        }
+
+        @Override
+        public boolean shouldPersist() {
+            return false;
+        }
+
+        @Override
+        public boolean shouldDraw() {
+            return true;
+        }
+
+        @Override
+        public boolean shouldCompress() {
+            return true;
+        }
+
+    }
+
 }
@@ -0,0 +1,60 @@
+package de.invesdwin.util.math.expression.function.window;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.expression.function.IPreviousKeyFunction;
+import de.invesdwin.util.time.fdate.IFDateProvider;
+
+@NotThreadSafe
+public class SumWindowAggregateTest {
+
+    private static final int COUNT = 3;
+
+    @Test
+    public void testInfinity() {
+        final double[] values = { 1.1, 2.2, Double.POSITIVE_INFINITY, 3.3, 4.4, 5.5, Double.NEGATIVE_INFINITY, 6.6,
+                Double.POSITIVE_INFINITY, Double.NaN, 7.7, 8.8, 9.9, 10.1 };
+        assertSlidingSum(values);
+    }
+
+    @Test
+    public void testOverflow() {
+        final double[] values = { 1.1, Double.MAX_VALUE, Double.MAX_VALUE, 2.2, 3.3, 4.4, -Double.MAX_VALUE,
+                -Double.MAX_VALUE, 5.5, 6.6, 7.7 };
+        assertSlidingSum(values);
+    }
+
+    private void assertSlidingSum(final double[] values) {
+        final SumWindowAggregate sum = new SumWindowAggregate();
+        final SlidingWindowKey window = new SlidingWindowKey(new IPreviousKeyFunction() {
+            @Override
+            public int getPreviousKey(final int key, final int index) {
+                return Math.max(0, key - index);
+            }
+
+            @Override
+            public IFDateProvider getPreviousKey(final IFDateProvider key, final int index) {
+                throw new UnsupportedOperationException();
+            }
+        }, key -> values[key], sum);
+        for (int key = COUNT - 1; key < values.length; key++) {
+            window.update(key, COUNT);
+            double expected = 0D;
+            for (int i = key - COUNT + 1; i <= key; i++) {
+                if (!Double.isNaN(values[i])) {
+                    expected += values[i];
+                }
+            }
+            final double actual = sum.getSum();
+            if (Double.isFinite(expected)) {
+                Assertions.checkTrue(Math.abs(expected - actual) < 0.000001D, "%s: %s != %s", key, expected, actual);
+            } else {
+                Assertions.checkEquals(expected, actual, "%s", key);
+            }
+        }
+    }
+
+}
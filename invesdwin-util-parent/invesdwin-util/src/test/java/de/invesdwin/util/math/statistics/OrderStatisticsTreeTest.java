@@ -0,0 +1,74 @@
+package de.invesdwin.util.math.statistics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.stat.descriptive.rank.Percentile;
+import org.apache.commons.math3.stat.descriptive.rank.Percentile.EstimationType;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+
+@NotThreadSafe
+public class OrderStatisticsTreeTest {
+
+    private static final int ITERATIONS = 10_000;
+    private static final int SIZE = 100;
+
+    @Test
+    public void testAgainstSortedList() {
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(42L);
+        //small initial capacity to test growing
+        final OrderStatisticsTree tree = new OrderStatisticsTree(1);
+        final List<Double> window = new ArrayList<>();
+        for (int i = 0; i < ITERATIONS; i++) {
+            //few distinct values to test duplicates
+            final double value = random.nextInt(50);
+            tree.add(value);
+            window.add(value);
+            if (window.size() > SIZE) {
+                final double removed = window.remove(random.nextInt(window.size()));
+                Assertions.checkTrue(tree.remove(removed));
+            }
+            final List<Double> sorted = new ArrayList<>(window);
+            Collections.sort(sorted);
+            Assertions.checkEquals(sorted.size(), tree.size());
+            for (int k = 0; k < sorted.size(); k++) {
+                Assertions.checkEquals(sorted.get(k), tree.get(k));
+            }
+            Assertions.checkEquals(sorted.get(0), tree.getMin());
+            Assertions.checkEquals(sorted.get(sorted.size() - 1), tree.getMax());
+        }
+        Assertions.checkFalse(tree.remove(1000D));
+        tree.clear();
+        Assertions.checkTrue(tree.isEmpty());
+        Assertions.checkTrue(Double.isNaN(tree.getMedian()));
+    }
+
+    @Test
+    public void testQuantile() {
+        final RandomGenerator random = RandomGenerators.newDefaultRandom(42L);
+        final OrderStatisticsTree tree = new OrderStatisticsTree();
+        final double[] values = new double[SIZE + 1];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextGaussian();
+            tree.add(values[i]);
+        }
+        final Percentile percentile = new Percentile().withEstimationType(EstimationType.R_7);
+        for (final double rate : new double[] { 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99 }) {
+            final double expected = percentile.evaluate(values, rate * 100);
+            Assertions.checkTrue(Math.abs(expected - tree.getQuantile(rate)) < 1E-10);
+        }
+        final Percentile nearestRank = new Percentile().withEstimationType(EstimationType.R_1);
+        for (final double rate : new double[] { 0.1, 0.25, 0.75, 0.9 }) {
+            Assertions.checkEquals(nearestRank.evaluate(values, rate * 100), tree.getPercentile(rate));
+        }
+        Assertions.checkEquals(percentile.evaluate(values, 50), tree.getMedian());
+    }
+
+}
@@ -30,6 +30,21 @@ public class RunningMedianTest {
         }
     }
 
+    @Test
+    public void testPrimitiveGetters() {
+        final RunningMedian runningMedian = new RunningMedian(SIZE);
+        Assertions.checkNull(runningMedian.getMedian());
+        Assertions.checkEquals(Double.NaN, runningMedian.getMedianDouble());
+        Assertions.checkEquals(Double.NaN, runningMedian.getPercentileDouble(0.3D));
+        Assertions.checkEquals(Double.NaN, runningMedian.getQuantileDouble(0.3D));
+        for (double i = 0; i < SIZE * 2; i++) {
+            runningMedian.add(i % 7);
+            Assertions.checkEquals(runningMedian.getMedian(), runningMedian.getMedianDouble());
+            Assertions.checkEquals(runningMedian.getPercentile(0.3D), runningMedian.getPercentileDouble(0.3D));
+            Assertions.checkEquals(runningMedian.getQuantile(0.3D), runningMedian.getQuantileDouble(0.3D));
+        }
+    }
+
     private List<Double> run() {
         Duration sumDuration = Duration.ZERO;
         final RunningMedian runningMedian = new RunningMedian(SIZE);
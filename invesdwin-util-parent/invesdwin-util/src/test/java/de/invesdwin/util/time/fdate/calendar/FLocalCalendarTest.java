@@ -0,0 +1,74 @@
+package de.invesdwin.util.time.fdate.calendar;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.joda.time.Chronology;
+import org.joda.time.DateTimeZone;
+import org.joda.time.chrono.ISOChronology;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+import de.invesdwin.util.time.fdate.FDateField;
+
+@NotThreadSafe
+public class FLocalCalendarTest {
+
+    private static final String[] ZONES = { "UTC", "Europe/Berlin", "America/New_York", "Australia/Lord_Howe",
+            "Asia/Kolkata" };
+    private static final int ITERATIONS = 100000;
+
+    @Test
+    public void testFields() {
+        final Chronology chronology = ISOChronology.getInstanceUTC();
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (int i = 0; i < ITERATIONS; i++) {
+            final long localMillis = nextMillis(random, i);
+            for (final FDateField field : FDateField.values()) {
+                final int expected = field.jodaTimeValue().getField(chronology).get(localMillis);
+                Assertions.checkEquals(expected, FLocalCalendar.get(localMillis, field));
+                final long expectedFloor = field.jodaTimeValue().getField(chronology).roundFloor(localMillis);
+                Assertions.checkEquals(expectedFloor, FLocalCalendar.roundFloor(localMillis, field));
+            }
+            Assertions.checkEquals(chronology.dayOfYear().get(localMillis), FLocalCalendar.getDayOfYear(localMillis));
+            final long expectedWeek = chronology.dayOfWeek()
+                    .set(chronology.dayOfMonth().roundFloor(localMillis), 1);
+            Assertions.checkEquals(expectedWeek, FLocalCalendar.roundFloorWeek(localMillis));
+        }
+    }
+
+    @Test
+    public void testZoneOffsets() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (final String zone : ZONES) {
+            final DateTimeZone dateTimeZone = DateTimeZone.forID(zone);
+            final ZoneId zoneId = ZoneId.of(zone);
+            final FZoneOffsets dateTimeZoneOffsets = FZoneOffsets.valueOf(dateTimeZone);
+            final FZoneOffsets zoneIdOffsets = FZoneOffsets.valueOf(zoneId);
+            Assertions.checkEquals(dateTimeZone.isFixed(), dateTimeZoneOffsets.isFixed());
+            for (int i = 0; i < ITERATIONS; i++) {
+                final long millis = nextMillis(random, i);
+                Assertions.checkEquals(dateTimeZone.getOffset(millis), dateTimeZoneOffsets.getOffsetMillis(millis));
+                final int expectedSeconds = zoneId.getRules().getOffset(Instant.ofEpochMilli(millis)).getTotalSeconds();
+                Assertions.checkEquals(expectedSeconds, zoneIdOffsets.getOffsetSeconds(millis));
+            }
+        }
+    }
+
+    /**
+     * Mostly inside of the precomputed range, sometimes far outside.
+     */
+    private long nextMillis(final Random random, final int i) {
+        if (i % 10 == 0) {
+            return (long) ((random.nextDouble() - 0.5) * 2 * 100_000_000_000_000L);
+        } else {
+            return FZoneOffsets.RANGE_FROM_MILLIS
+                    + (long) (random.nextDouble() * (FZoneOffsets.RANGE_TO_MILLIS - FZoneOffsets.RANGE_FROM_MILLIS));
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+package de.invesdwin.util.time.fdate.format;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.joda.time.DateTimeZone;
+import org.joda.time.format.DateTimeFormat;
+import org.joda.time.format.DateTimeFormatter;
+import org.junit.Test;
+
+import de.invesdwin.util.assertions.Assertions;
+import de.invesdwin.util.math.random.RandomGenerators;
+import de.invesdwin.util.time.TimeZones;
+import de.invesdwin.util.time.fdate.FDate;
+
+@NotThreadSafe
+public class FDatePatternTest {
+
+    private static final String[] PATTERNS = { FDate.FORMAT_ISO_DATE, FDate.FORMAT_ISO_TIME_MS,
+            FDate.FORMAT_ISO_DATE_TIME, FDate.FORMAT_ISO_DATE_TIME_SPACE, FDate.FORMAT_ISO_DATE_TIME_MS,
+            FDate.FORMAT_NUMBER_DATE, FDate.FORMAT_NUMBER_DATE_TIME_MS, FDate.FORMAT_UNDERSCORE_DATE_TIME_MS,
+            FDate.FORMAT_GERMAN_DATE_TIME_MS };
+    private static final String[] ZONES = { "UTC", "Europe/Berlin", "America/New_York" };
+    //between the years 1 and 2200
+    private static final long MIN_MILLIS = -62135596800000L;
+    private static final long MAX_MILLIS = 7258118400000L;
+    private static final int ITERATIONS = 10000;
+
+    @Test
+    public void testFastPatterns() {
+        for (final String pattern : PATTERNS) {
+            Assertions.checkTrue(FDatePattern.valueOf(pattern).isFast(), pattern);
+        }
+        Assertions.checkFalse(FDatePattern.valueOf("dd. MMM yyyy").isFast());
+        Assertions.checkFalse(FDatePattern.valueOf("yy-MM-dd").isFast());
+        Assertions.checkFalse(FDatePattern.valueOf("yyyy-MM").isFast());
+    }
+
+    @Test
+    public void testJoda() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (final String pattern : PATTERNS) {
+            final FDatePattern fdatePattern = FDatePattern.valueOf(pattern);
+            for (final String zoneId : ZONES) {
+                final DateTimeZone zone = DateTimeZone.forID(zoneId);
+                final DateTimeFormatter formatter = DateTimeFormat.forPattern(pattern).withZone(zone);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    final long millis = nextMillis(random);
+                    final String expected = formatter.print(millis);
+                    Assertions.checkEquals(expected, fdatePattern.format(millis, zone));
+                    final long expectedMillis = formatter.parseMillis(expected);
+                    Assertions.checkEquals(expectedMillis, fdatePattern.parseMillis(expected, zone, null));
+                    Assertions.checkEquals(new FDate(expectedMillis), fdatePattern.tryParse(expected, zone, null));
+                    final byte[] bytes = expected.getBytes(StandardCharsets.US_ASCII);
+                    Assertions.checkEquals(expectedMillis, fdatePattern.parseMillis(bytes, 0, bytes.length, zone));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testJava() {
+        final Random random = RandomGenerators.newDefaultRandom(1);
+        for (final String pattern : PATTERNS) {
+            final FDatePattern fdatePattern = FDatePattern.valueOf(pattern);
+            for (final String zoneId : ZONES) {
+                final ZoneId zone = ZoneId.of(zoneId);
+                final java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter
+                        .ofPattern(pattern)
+                        .withZone(zone);
+                for (int i = 0; i < ITERATIONS; i++) {
+                    final long millis = nextMillis(random);
+                    final String expected = formatter.format(Instant.ofEpochMilli(millis));
+                    Assertions.checkEquals(expected, fdatePattern.format(millis, zone));
+                    if (isJavaParseable(pattern)) {
+                        final long expectedMillis = java.time.ZonedDateTime.parse(expected, formatter)
+                                .toInstant()
+                                .toEpochMilli();
+                        Assertions.checkEquals(expectedMillis, fdatePattern.parseMillis(expected, zone, null));
+                        Assertions.checkEquals(new FDate(expectedMillis),
+                                fdatePattern.tryParse(expected, zone, null));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testFallback() {
+        final FDatePattern pattern = FDatePattern.valueOf(FDate.FORMAT_ISO_DATE_TIME);
+        final DateTimeZone berlin = DateTimeZone.forID("Europe/Berlin");
+        //the fast path does not handle these, the formatter decides
+        Assertions.checkNull(pattern.tryParse("2020-02-30T10:00:00", berlin, null));
+        Assertions.checkNull(pattern.tryParse("2020-03-29T02:30:00", berlin, null));
+        Assertions.checkNull(pattern.tryParse("2020-01-01", berlin, null));
+        Assertions.checkNull(pattern.tryParse("2020-01-01", ZoneOffset.UTC, null));
+        //java.time moves the gap forward
+        Assertions.checkEquals(
+                java.time.ZonedDateTime.of(2020, 3, 29, 3, 30, 0, 0, ZoneId.of("Europe/Berlin")).toInstant()
+                        .toEpochMilli(),
+                pattern.parseMillis("2020-03-29T02:30:00", ZoneId.of("Europe/Berlin"), null));
+        //years that don't fit into four digits
+        final long farFuture = DateTimeFormat.forPattern(FDate.FORMAT_ISO_DATE_TIME)
+                .withZone(DateTimeZone.UTC)
+                .parseMillis("12345-01-01T00:00:00");
+        Assertions.checkEquals("12345-01-01T00:00:00", pattern.format(farFuture, DateTimeZone.UTC));
+    }
+
+    @Test
+    public void testValueOfMultiplePatterns() {
+        final FDate expected = FDate.valueOf("2020-05-06 07:08:09", TimeZones.UTC,
+                FDate.FORMAT_ISO_DATE_TIME_SPACE);
+        Assertions.checkEquals(expected, FDate.valueOf("06.05.2020 07:08:09", TimeZones.UTC,
+                FDate.FORMAT_ISO_DATE_TIME_SPACE, FDate.FORMAT_GERMAN_DATE_TIME));
+        Assertions.checkEquals(expected, FDate.valueOf("06.05.2020 07:08:09", ZoneOffset.UTC,
+                FDate.FORMAT_ISO_DATE_TIME_SPACE, FDate.FORMAT_GERMAN_DATE_TIME));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testValueOfNoneMatches() {
+        FDate.valueOf("06/05/2020", ZoneOffset.UTC, FDate.FORMAT_ISO_DATE_TIME_SPACE, FDate.FORMAT_GERMAN_DATE_TIME);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParseGap() {
+        FDatePattern.valueOf(FDate.FORMAT_ISO_DATE_TIME)
+                .parse("2020-03-29T02:30:00", DateTimeZone.forID("Europe/Berlin"), null);
+    }
+
+    /**
+     * ZonedDateTime needs a date and a time, adjacent fractions can not be parsed by java 8.
+     */
+    private boolean isJavaParseable(final String pattern) {
+        return pattern.contains("yyyy") && pattern.contains("ss") && !FDate.FORMAT_NUMBER_DATE_TIME_MS.equals(pattern);
+    }
+
+    private long nextMillis(final Random random) {
+        return MIN_MILLIS + (long) (random.nextDouble() * (MAX_MILLIS - MIN_MILLIS));
+    }
+
+}